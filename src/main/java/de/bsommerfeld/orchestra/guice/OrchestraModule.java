@@ -1,7 +1,16 @@
 package de.bsommerfeld.orchestra.guice;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.persistence.codec.DtoSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.config.PersistenceSettings;
+import de.bsommerfeld.orchestra.persistence.config.StorageFormat;
+import de.bsommerfeld.orchestra.persistence.convert.StorageFormatConverter;
+import de.bsommerfeld.orchestra.persistence.journal.JournalRecordMapper;
 import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapper;
 import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapperImpl;
 import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapper;
@@ -9,20 +18,53 @@ import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapperImpl;
 import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapper;
 import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapperImpl;
 import de.bsommerfeld.orchestra.persistence.path.PlatformPathProvider;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+import de.bsommerfeld.orchestra.persistence.repository.BinarySymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.CachingSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.FileSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.JournaledSymphonyRepository;
 import de.bsommerfeld.orchestra.persistence.repository.JsonSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.SplitSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.SqlSymphonyRepository;
 import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.WriteBehindSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.service.AsyncSymphonyService;
+import de.bsommerfeld.orchestra.persistence.service.AsyncSymphonyServiceImpl;
 import de.bsommerfeld.orchestra.persistence.service.SymphonyService;
 import de.bsommerfeld.orchestra.persistence.service.SymphonyServiceImpl;
+import de.bsommerfeld.orchestra.persistence.watch.ExternalChangeDetector;
+import de.bsommerfeld.orchestra.persistence.watch.SymphonyChangeEvents;
 import de.bsommerfeld.orchestra.ui.view.ViewLoader;
 import de.bsommerfeld.orchestra.ui.view.ViewProvider;
 import de.bsommerfeld.orchestra.ui.view.StageProvider;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Guice module for the Orchestra application.
  * Configures dependency injection bindings.
  */
 public class OrchestraModule extends AbstractModule {
 
+    private final PersistenceSettings persistenceSettings;
+
+    /**
+     * Constructs a new OrchestraModule with persistence settings taken from the system properties.
+     */
+    public OrchestraModule() {
+        this(PersistenceSettings.fromSystemProperties());
+    }
+
+    /**
+     * Constructs a new OrchestraModule with the specified persistence settings.
+     *
+     * @param persistenceSettings The settings used to assemble the persistence layer
+     */
+    public OrchestraModule(PersistenceSettings persistenceSettings) {
+        this.persistenceSettings = persistenceSettings;
+    }
+
     @Override
     protected void configure() {
         // UI components
@@ -31,19 +73,128 @@ public class OrchestraModule extends AbstractModule {
         bind(ViewLoader.class).in(Singleton.class);
         
         // Persistence components
-        
+        bind(PersistenceSettings.class).toInstance(persistenceSettings);
+
         // Path provider for platform-specific paths
         bind(PlatformPathProvider.class).in(Singleton.class);
+        bind(StorageLocation.class).in(Singleton.class);
         
         // Mappers
         bind(VoiceMapper.class).to(VoiceMapperImpl.class);
         bind(ChoirMapper.class).to(ChoirMapperImpl.class);
         bind(SymphonyMapper.class).to(SymphonyMapperImpl.class);
         
-        // Repositories
-        bind(SymphonyRepository.class).to(JsonSymphonyRepository.class);
-        
         // Services
         bind(SymphonyService.class).to(SymphonyServiceImpl.class);
+        bind(AsyncSymphonyService.class).to(AsyncSymphonyServiceImpl.class);
+    }
+
+    /**
+     * Provides the SymphonyCodec selected by the settings.
+     *
+     * @param dtoCodec Provider for the codec that goes through the DTO layer
+     * @param streamingCodec Provider for the codec that streams the domain model directly
+     * @return The codec to inject
+     */
+    @Provides
+    @Singleton
+    SymphonyCodec provideSymphonyCodec(Provider<DtoSymphonyCodec> dtoCodec,
+                                       Provider<StreamingSymphonyCodec> streamingCodec) {
+        return switch (persistenceSettings.getCodec()) {
+            case DTO -> dtoCodec.get();
+            case STREAMING -> streamingCodec.get();
+        };
+    }
+
+    /**
+     * Provides the SymphonyRepository used by the rest of the application.
+     * The file repository of the selected format is either journaled or cached and optionally wrapped in a
+     * write-behind queue, depending on the settings. Symphonies still stored in the other format are converted
+     * into the selected one first, files are moved into the configured layout, and the files of the selected
+     * format are rewritten with the configured compression and indexed in the manifest in the background.
+     * The SQL format stores symphonies in a database instead; it is only wrapped in the write-behind queue,
+     * and existing files are imported with {@code JsonImportTool}. The split format is wrapped in the write-behind
+     * queue too, after the Symphony files of both file formats have been converted into it.
+     * Unless disabled, the storage directory of the file formats is watched for changes made by other
+     * processes, which are invalidated in the repository and published as events.
+     *
+     * @param jsonRepository Provider for the repository that reads and writes JSON files
+     * @param binaryRepository Provider for the repository that reads and writes binary files
+     * @param sqlRepository Provider for the repository that stores symphonies in an embedded database
+     * @param splitRepository Provider for the repository that stores a file per Choir
+     * @param journalRecordMapper The mapper for journal records
+     * @param symphonyChangeEvents The registry that changes on disk are published to
+     * @return The repository to inject
+     */
+    @Provides
+    @Singleton
+    SymphonyRepository provideSymphonyRepository(Provider<JsonSymphonyRepository> jsonRepository,
+                                                 Provider<BinarySymphonyRepository> binaryRepository,
+                                                 Provider<SqlSymphonyRepository> sqlRepository,
+                                                 Provider<SplitSymphonyRepository> splitRepository,
+                                                 JournalRecordMapper journalRecordMapper,
+                                                 SymphonyChangeEvents symphonyChangeEvents) {
+        if (persistenceSettings.getFormat() == StorageFormat.SQL) {
+            return writeBehind(sqlRepository.get());
+        }
+        if (persistenceSettings.getFormat() == StorageFormat.SPLIT) {
+            SplitSymphonyRepository repository = splitRepository.get();
+            for (FileSymphonyRepository fileRepository : List.of(jsonRepository.get(), binaryRepository.get())) {
+                fileRepository.migrateLayout();
+                convertInto(repository, journaled(fileRepository, journalRecordMapper));
+            }
+            return writeBehind(repository);
+        }
+
+        boolean binary = persistenceSettings.getFormat() == StorageFormat.BINARY;
+        FileSymphonyRepository fileRepository = binary ? binaryRepository.get() : jsonRepository.get();
+        FileSymphonyRepository otherFormat = binary ? jsonRepository.get() : binaryRepository.get();
+        // Move files saved under the other layout before anything walks the directory
+        fileRepository.migrateLayout();
+        otherFormat.migrateLayout();
+
+        SymphonyRepository repository = journaled(fileRepository, journalRecordMapper);
+        convertInto(repository, journaled(otherFormat, journalRecordMapper));
+
+        if (repository == fileRepository && persistenceSettings.isCache()) {
+            // A journal keeps the current state of every loaded Symphony in memory, so only plain files are cached
+            repository = new CachingSymphonyRepository(fileRepository, fileRepository::resolvePath,
+                    persistenceSettings.getCacheMaxEntries(), persistenceSettings.getCacheEviction());
+        }
+        repository = writeBehind(repository);
+
+        // Index the Symphony files now, so the first project listing does not have to. Files rewritten with a
+        // changed compression would be indexed again, so the index waits for the recompression. The watcher
+        // starts afterwards as well, so the rewritten files are not mistaken for external changes
+        SymphonyRepository watchedRepository = repository;
+        fileRepository.recompressInBackground()
+                .whenComplete((rewritten, error) -> {
+                    fileRepository.refreshManifestInBackground();
+                    if (persistenceSettings.isWatch()) {
+                        new ExternalChangeDetector(fileRepository, watchedRepository, symphonyChangeEvents,
+                                Duration.ofMillis(persistenceSettings.getWatchDebounceMillis())).start();
+                    }
+                });
+        return repository;
+    }
+
+    private void convertInto(SymphonyRepository target, SymphonyRepository source) {
+        StorageFormatConverter.convert(source, target, true);
+        if (source instanceof JournaledSymphonyRepository journal) {
+            journal.close();
+        }
+    }
+
+    private SymphonyRepository writeBehind(SymphonyRepository repository) {
+        return persistenceSettings.isWriteBehind() ? new WriteBehindSymphonyRepository(repository) : repository;
+    }
+
+    private SymphonyRepository journaled(FileSymphonyRepository fileRepository, JournalRecordMapper journalRecordMapper) {
+        if (!persistenceSettings.isJournal()) {
+            return fileRepository;
+        }
+        return new JournaledSymphonyRepository(fileRepository, journalRecordMapper,
+                persistenceSettings.getJournalCompactAfterRecords(),
+                persistenceSettings.getJournalCompactAfterBytes());
     }
 }
@@ -1,24 +1,63 @@
 package de.bsommerfeld.orchestra.model;
 
-import java.util.Collections;
+import de.bsommerfeld.orchestra.model.collection.PersistentList;
+import de.bsommerfeld.orchestra.model.collection.WeakInterner;
+
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Represents a "Choir" in the Orchestra task management system, serving as a list or collection of tasks.
  * A Choir groups related "Voices" (individual tasks/sub-tasks) together within a larger "Symphony" (project).
  * It acts as a cohesive section of work, much like a musical choir contributes a specific part to a symphony.
  * Choirs are immutable once created.
+ *
+ * <p>Every Choir has an id that stays the same when the Choir is renamed or its voices change
+ * (see {@link SymphonyIndex}).
+ *
+ * <p>A Choir created by {@link #lazy(String, String, String, Supplier)} loads its voices on first access, so a stored
+ * Symphony can be opened without reading the voices of every choir.
  */
 public final class Choir { // Class name changed from Chor to Choir
 
+    private final String id;
     private final String name;
     private final String description;
-    private final List<Voice> voices;
+    private final Supplier<List<Voice>> voiceLoader;
+    private volatile List<Voice> voices;
+    private volatile Rollup rollup; // Counters of the voices, computed when they are known
+    private int hash; // Cached structural hash, computed on first use like String's
+    private boolean hashIsZero;
+
+    private static final WeakInterner<Choir> CHOIRS = new WeakInterner<>();
+
+    /**
+     * Constructs a Choir instance with an existing id, e.g. when it is loaded from storage.
+     *
+     * @param id The stable id of this choir/task list. Cannot be null or empty.
+     * @param name The mandatory name of this choir/task list. Cannot be null or empty.
+     * @param description An optional description of this choir/task list. Can be null or empty.
+     * @param voices A list of Voices (tasks) belonging to this choir. Can be null or empty.
+     * The list will be defensively copied to ensure immutability, unless it is a {@link PersistentList},
+     * which is shared.
+     * @throws IllegalArgumentException if the id or the name is null or empty.
+     */
+    public Choir(String id, String name, String description, List<Voice> voices) {
+        checkIdAndName(id, name);
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.voiceLoader = null;
+        PersistentList<Voice> list = (voices != null) ? PersistentList.copyOf(voices) : PersistentList.empty();
+        this.voices = list;
+        this.rollup = list.measure(Rollup.OF_VOICES);
+    }
 
     /**
-     * Constructs a new Choir instance.
+     * Constructs a new Choir instance with a newly generated id.
      *
      * @param name The mandatory name of this choir/task list. Cannot be null or empty.
      * @param description An optional description of this choir/task list. Can be null or empty.
@@ -27,12 +66,52 @@ public final class Choir { // Class name changed from Chor to Choir
      * @throws IllegalArgumentException if the name is null or empty.
      */
     public Choir(String name, String description, List<Voice> voices) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Choir name cannot be null or empty.");
+        this(UUID.randomUUID().toString(), name, description, voices);
+    }
+
+    private Choir(String id, String name, String description, Supplier<List<Voice>> voiceLoader) {
+        checkIdAndName(id, name);
+        if (voiceLoader == null) {
+            throw new IllegalArgumentException("Voice loader cannot be null.");
         }
+        this.id = id;
         this.name = name;
         this.description = description;
-        this.voices = (voices != null) ? List.copyOf(voices) : Collections.emptyList();
+        this.voiceLoader = voiceLoader;
+    }
+
+    /**
+     * Creates a Choir whose Voices are loaded on first access.
+     * The loader is called at most once; the list it returns is defensively copied like the one passed
+     * to the constructor.
+     *
+     * @param id The stable id of this choir/task list. Cannot be null or empty.
+     * @param name The mandatory name of this choir/task list. Cannot be null or empty.
+     * @param description An optional description of this choir/task list. Can be null or empty.
+     * @param voiceLoader Loads the Voices (tasks) of this choir. It may return null for no Voices.
+     * @return The new Choir
+     * @throws IllegalArgumentException if the id or the name is null or empty, or the loader is null.
+     */
+    public static Choir lazy(String id, String name, String description, Supplier<List<Voice>> voiceLoader) {
+        return new Choir(id, name, description, voiceLoader);
+    }
+
+    private static void checkIdAndName(String id, String name) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Choir id cannot be null or empty.");
+        }
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Choir name cannot be null or empty.");
+        }
+    }
+
+    /**
+     * Returns the stable id of this choir/task list.
+     *
+     * @return The id of the choir.
+     */
+    public String getId() {
+        return id;
     }
 
     /**
@@ -57,9 +136,81 @@ public final class Choir { // Class name changed from Chor to Choir
      * Returns an immutable list of Voices (tasks) belonging to this choir.
      *
      * @return An unmodifiable {@link List} of {@link Voice} objects. Returns an empty list if no voices exist.
+     * It is a {@link PersistentList}, so a changed copy can be derived without copying it.
      */
     public List<Voice> getVoices() {
-        return voices;
+        List<Voice> current = voices;
+        if (current == null) {
+            synchronized (this) {
+                current = voices;
+                if (current == null) {
+                    List<Voice> loaded = voiceLoader.get();
+                    current = (loaded != null) ? PersistentList.copyOf(loaded) : PersistentList.empty();
+                    voices = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the aggregate counters of all Voices of this choir on every level.
+     * They are computed from the counters of the Voices when the Choir is created, or when the Voices of a
+     * lazily created choir are loaded, which this method does if they are not loaded yet.
+     *
+     * @return The rollup of the voices of this choir.
+     */
+    public Rollup getRollup() {
+        Rollup current = rollup;
+        if (current == null) {
+            current = PersistentList.copyOf(getVoices()).measure(Rollup.OF_VOICES);
+            rollup = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns whether the Voices of this choir are in memory.
+     * Only a Choir created by {@link #lazy(String, String, String, Supplier)} can be unloaded.
+     *
+     * @return true if {@link #getVoices()} returns without loading
+     */
+    public boolean isLoaded() {
+        return voices != null;
+    }
+
+    /**
+     * Returns the loader the Voices of a lazily created choir are loaded from, whether or not it has been
+     * called yet. Storage uses it to recognize a choir it loaded itself, which is therefore unchanged.
+     *
+     * @return An {@link Optional} containing the loader, or an empty Optional if this Choir was created with its Voices.
+     */
+    public Optional<Supplier<List<Voice>>> getVoiceLoader() {
+        return Optional.ofNullable(voiceLoader);
+    }
+
+    /**
+     * Creates a new Choir with the same id, name and description as this one but with different voices.
+     *
+     * @param voices the new voices (can be null)
+     * @return a new Choir with the updated voices
+     */
+    public Choir withVoices(List<Voice> voices) {
+        return new Choir(this.id, this.name, this.description, voices);
+    }
+
+    /**
+     * Returns the canonical instance of this choir/task list: an equal Choir shared by everyone who interns it.
+     * Storage interns the Choirs it loads after their Voices (see {@link Voice#intern()}), so a reloaded,
+     * unchanged Choir is the same object as before. Equal Choirs have the same id, so Choirs that only look
+     * alike are not shared; they share their name and description with each other and with the Voices
+     * instead. A Choir whose Voices are not loaded yet is not interned, since that would load them.
+     *
+     * @return The canonical Choir equal to this one, or this Choir if its Voices are not loaded
+     */
+    public Choir intern() {
+        return isLoaded() ? CHOIRS.intern(this, choir -> new Choir(choir.id, Voice.internText(choir.name),
+                Voice.internText(choir.description), choir.voices)) : this;
     }
 
     @Override
@@ -67,22 +218,36 @@ public final class Choir { // Class name changed from Chor to Choir
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Choir choir = (Choir) o; // Cast type changed to Choir
-        return Objects.equals(name, choir.name) &&
+        // Both hashes are cached, so most unequal choirs are told apart without looking at their voices
+        return hashCode() == choir.hashCode() &&
+                Objects.equals(id, choir.id) &&
+                Objects.equals(name, choir.name) &&
                 Objects.equals(description, choir.description) &&
-                Objects.equals(voices, choir.voices);
+                Objects.equals(getVoices(), choir.getVoices());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, description, voices);
+        int h = hash;
+        if (h == 0 && !hashIsZero) {
+            // The hash of the voices is cached in their list as well
+            h = Objects.hash(id, name, description, getVoices());
+            if (h == 0) {
+                hashIsZero = true;
+            } else {
+                hash = h;
+            }
+        }
+        return h;
     }
 
     @Override
     public String toString() {
         return "Choir{" +
-                "name='" + name + '\'' +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
                 ", description='" + getDescription().orElse("N/A") + '\'' +
-                ", voices=" + voices.size() + " items" +
+                ", voices=" + (isLoaded() ? voices.size() + " items" : "not loaded") +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package de.bsommerfeld.orchestra.model;
+
+import de.bsommerfeld.orchestra.model.collection.PersistentList;
+
+/**
+ * Aggregate counters of a subtree of a Symphony: how many Voices it contains on all levels, how many of them
+ * are completed, and how deep it is. Every Voice, Choir and Symphony keeps the rollup of its subtree, built
+ * from the rollups of its children, so reading it takes constant time and a change only recomputes the
+ * rollups of the nodes it creates.
+ *
+ * @param total The number of Voices on all levels
+ * @param completed The number of completed Voices on all levels
+ * @param depth The number of Voice levels, 0 if there are no Voices
+ */
+public record Rollup(int total, int completed, int depth) {
+
+    /**
+     * The rollup of a subtree without Voices.
+     */
+    public static final Rollup EMPTY = new Rollup(0, 0, 0);
+
+    // Shared instances, since a list caches the summary of one measure at a time
+    static final PersistentList.Measure<Voice, Rollup> OF_VOICES = new ListMeasure<>() {
+        @Override
+        public Rollup of(Voice voice) {
+            return voice.getRollup();
+        }
+    };
+    static final PersistentList.Measure<Choir, Rollup> OF_CHOIRS = new ListMeasure<>() {
+        @Override
+        public Rollup of(Choir choir) {
+            return choir.getRollup();
+        }
+    };
+
+    /**
+     * Returns the rollup of a Voice with the specified completion status whose sub-voices have the
+     * specified rollup.
+     *
+     * @param completed Whether the Voice is completed
+     * @param subVoices The rollup of the sub-voices
+     * @return The rollup of the Voice and its sub-voices
+     */
+    static Rollup ofVoice(boolean completed, Rollup subVoices) {
+        return new Rollup(subVoices.total + 1, subVoices.completed + (completed ? 1 : 0), subVoices.depth + 1);
+    }
+
+    /**
+     * Returns the rollup of two sibling subtrees together.
+     *
+     * @param other The rollup of the other subtree
+     * @return The combined rollup
+     */
+    public Rollup plus(Rollup other) {
+        return new Rollup(total + other.total, completed + other.completed, Math.max(depth, other.depth));
+    }
+
+    /**
+     * Returns the number of Voices that are not completed yet.
+     *
+     * @return The number of open Voices on all levels
+     */
+    public int pending() {
+        return total - completed;
+    }
+
+    /**
+     * Returns the share of completed Voices.
+     *
+     * @return A value from 0 to 1, or 0 if there are no Voices
+     */
+    public double completion() {
+        return total == 0 ? 0 : (double) completed / total;
+    }
+
+    private abstract static class ListMeasure<E> implements PersistentList.Measure<E, Rollup> {
+
+        @Override
+        public Rollup empty() {
+            return EMPTY;
+        }
+
+        @Override
+        public Rollup combine(Rollup left, Rollup right) {
+            return left == EMPTY ? right : right == EMPTY ? left : left.plus(right);
+        }
+    }
+}
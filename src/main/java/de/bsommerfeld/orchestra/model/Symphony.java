@@ -1,16 +1,22 @@
 package de.bsommerfeld.orchestra.model;
 
+import de.bsommerfeld.orchestra.model.collection.PersistentList;
+
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a "Symphony" in the Orchestra task management system, serving as the top-level project container.
  * A Symphony encompasses one or more "choirs" (task lists), each of which in turn contains "Voices" (individual tasks/sub-tasks).
  * It symbolizes the grand composition, bringing together various musical sections to form a complete and cohesive work.
  * Symphonies are immutable once created.
+ *
+ * <p>The Choirs and Voices of a Symphony can be looked up by their ids through {@link #index()}. A Symphony
+ * derived from another one by a change to its Voices derives its index from the other one's.
  */
 public final class Symphony {
 
@@ -18,24 +24,54 @@ public final class Symphony {
     private final String description;
     private final LocalDateTime createdAt;
     private final List<Choir> choirs; // A Symphony contains multiple choirs
+    private final long version; // Counts the saves of this symphony, not part of its content
+    private volatile SymphonyIndex index;
+    private volatile Rollup rollup;
 
     /**
-     * Constructs a new Symphony instance.
+     * Constructs a new Symphony instance with version 0, i.e. one that has never been stored.
+     * Such a symphony cannot replace a stored symphony with the same title through
+     * {@code SymphonyService.updateSymphony} once that one has been saved, since the service rejects it as a
+     * concurrent modification. Derive the update from the stored symphony instead, or pass its version to
+     * {@link #Symphony(String, String, List, long)}.
      *
      * @param title The mandatory title of the symphony/project. Cannot be null or empty.
      * @param description An optional description of the symphony/project. Can be null or empty.
      * @param choirs A list of choirs (task lists) belonging to this symphony. Can be null or empty.
-     * The list will be defensively copied to ensure immutability.
+     * The list will be defensively copied to ensure immutability, unless it is a {@link PersistentList},
+     * which is shared.
      * @throws IllegalArgumentException if the title is null or empty.
      */
     public Symphony(String title, String description, List<Choir> choirs) {
+        this(title, description, choirs, 0);
+    }
+
+    /**
+     * Constructs a new Symphony instance with the specified version, e.g. when it is loaded from storage or
+     * derived from a stored symphony.
+     *
+     * @param title The mandatory title of the symphony/project. Cannot be null or empty.
+     * @param description An optional description of the symphony/project. Can be null or empty.
+     * @param choirs A list of choirs (task lists) belonging to this symphony. Can be null or empty.
+     * @param version The version of the stored symphony this one is based on, see {@link #getVersion()}.
+     * @throws IllegalArgumentException if the title is null or empty, or the version is negative.
+     */
+    public Symphony(String title, String description, List<Choir> choirs, long version) {
+        this(title, description, LocalDateTime.now(), choirs, version); // Automatically set creation timestamp
+    }
+
+    private Symphony(String title, String description, LocalDateTime createdAt, List<Choir> choirs, long version) {
         if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Symphony title cannot be null or empty.");
         }
+        if (version < 0) {
+            throw new IllegalArgumentException("Symphony version cannot be negative: " + version);
+        }
         this.title = title;
         this.description = description;
-        this.createdAt = LocalDateTime.now(); // Automatically set creation timestamp
-        this.choirs = (choirs != null) ? List.copyOf(choirs) : Collections.emptyList(); // Defensive copy
+        this.createdAt = createdAt;
+        this.choirs = (choirs != null) ? PersistentList.copyOf(choirs) : PersistentList.empty(); // Defensive copy
+        this.version = version;
     }
 
     /**
@@ -65,15 +101,213 @@ public final class Symphony {
         return createdAt;
     }
 
+    /**
+     * Returns the version of the stored symphony this one is based on. The service increments it with every
+     * save and refuses to save a symphony whose version is no longer the stored one, so a change based on
+     * an outdated copy is detected instead of overwriting the changes made since. A symphony that was never
+     * saved has version 0. The version is not part of {@link #equals(Object)}.
+     *
+     * @return The version of this symphony
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Creates a copy of this symphony with the specified version that shares everything else, including the
+     * creation timestamp.
+     *
+     * @param version The new version
+     * @return The symphony with the version, or this symphony if it already has it
+     * @throws IllegalArgumentException if the version is negative
+     */
+    public Symphony withVersion(long version) {
+        return version == this.version ? this : withIndexOf(new Symphony(title, description, createdAt, choirs, version));
+    }
+
+    /**
+     * Creates a copy of this symphony with the specified description that shares everything else, including
+     * the creation timestamp and the version.
+     *
+     * @param description The new description. Can be null or empty.
+     * @return The symphony with the description, or this symphony if it already has it
+     */
+    public Symphony withDescription(String description) {
+        return Objects.equals(description, this.description) ? this
+                : withIndexOf(new Symphony(title, description, createdAt, choirs, version));
+    }
+
+    /**
+     * Hands the index and rollup of this symphony to a copy with the same Choirs.
+     */
+    private Symphony withIndexOf(Symphony copy) {
+        copy.index = index;
+        copy.rollup = rollup;
+        return copy;
+    }
+
     /**
      * Returns an immutable list of choirs (task lists) belonging to this symphony.
      *
      * @return An unmodifiable {@link List} of {@link Choir} objects. Returns an empty list if no choirs exist.
+     * It is a {@link PersistentList}, so a changed copy can be derived without copying it.
      */
     public List<Choir> getChoirs() {
         return choirs; // Already an immutable copy
     }
 
+    /**
+     * Returns the index of the Choirs and Voices of this symphony by their ids.
+     * The index is built on the first call and reused afterwards, since the symphony never changes, unless
+     * the symphony was derived by a change to the Voices of one whose index was already built: then it was
+     * derived from that index along with the symphony.
+     *
+     * @return The index of this symphony
+     * @throws IllegalStateException if two nodes of this symphony have the same id
+     */
+    public SymphonyIndex index() {
+        SymphonyIndex current = index;
+        if (current == null) {
+            current = SymphonyIndex.of(this);
+            index = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the aggregate counters of all Voices of this symphony on every level.
+     * They are combined from the counters of the Choirs on the first call; after a change, only the Choirs
+     * and Voices the change created are counted again. The Voices of lazily loaded Choirs are loaded.
+     *
+     * @return The rollup of this symphony
+     */
+    public Rollup getRollup() {
+        Rollup current = rollup;
+        if (current == null) {
+            current = PersistentList.copyOf(choirs).measure(Rollup.OF_CHOIRS);
+            rollup = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the Voice at the specified path.
+     *
+     * @param path The path of the Voice
+     * @return The Voice
+     * @throws IndexOutOfBoundsException if there is no Voice at the path
+     */
+    public Voice voiceAt(VoicePath path) {
+        return siblingsOf(path).get(path.lastIndex());
+    }
+
+    /**
+     * Creates a new Symphony with the Voice at the specified path replaced by the result of the update.
+     * Only the Choir and the Voices on the way to the path are copied; everything else is shared with this
+     * symphony.
+     *
+     * @param path The path of the Voice
+     * @param update Computes the new Voice from the current one. Cannot return null.
+     * @return The updated symphony, or this symphony if the update returns the Voice unchanged
+     * @throws IndexOutOfBoundsException if there is no Voice at the path
+     */
+    public Symphony updateAt(VoicePath path, UnaryOperator<Voice> update) {
+        return updateVoices(path, (voices, index) -> voices.with(index, update.apply(voices.get(index))));
+    }
+
+    /**
+     * Creates a new Symphony with the specified Voice inserted at the specified path. The Voices from that
+     * position on in the same list move down by one.
+     *
+     * @param path The path the Voice will have; its last index may be the size of the list to append it
+     * @param voice The Voice to insert, with its sub-voices
+     * @return The updated symphony
+     * @throws IndexOutOfBoundsException if the parent of the path does not exist or the index is past the end
+     */
+    public Symphony insertAt(VoicePath path, Voice voice) {
+        return updateVoices(path, (voices, index) -> voices.plus(index, voice));
+    }
+
+    /**
+     * Creates a new Symphony without the Voice at the specified path and its sub-voices.
+     *
+     * @param path The path of the Voice to remove
+     * @return The updated symphony
+     * @throws IndexOutOfBoundsException if there is no Voice at the path
+     */
+    public Symphony removeAt(VoicePath path) {
+        return updateVoices(path, (voices, index) -> voices.minus(index));
+    }
+
+    /**
+     * Creates a new Symphony with the Voice at one path, together with its sub-voices, moved to another.
+     * The target is a position in this symphony: the Voice is inserted before the Voice that is currently at
+     * the target path, or appended if the target is one past the end of its list.
+     *
+     * @param from The path of the Voice to move
+     * @param to The position to move the Voice to
+     * @return The updated symphony, or this symphony if the Voice is already at the position
+     * @throws IllegalArgumentException if the target lies below the Voice itself
+     * @throws IndexOutOfBoundsException if there is no Voice at the source path or the target does not exist
+     */
+    public Symphony move(VoicePath from, VoicePath to) {
+        if (to.depth() > from.depth() && to.startsWith(from)) {
+            throw new IllegalArgumentException("Voice at " + from + " cannot be moved into itself: " + to);
+        }
+
+        VoicePath target = to.afterRemovalOf(from);
+        if (target.equals(from)) {
+            return this;
+        }
+        Voice voice = voiceAt(from);
+        return removeAt(from).insertAt(target, voice);
+    }
+
+    /**
+     * Applies a change to the list that holds the last element of the path and copies the spine above it.
+     */
+    private Symphony updateVoices(VoicePath path, BiFunction<PersistentList<Voice>, Integer, PersistentList<Voice>> change) {
+        PersistentList<Choir> choirList = PersistentList.copyOf(choirs);
+        Choir choir = choirList.get(path.choirIndex());
+        List<Voice> voices = choir.getVoices();
+        PersistentList<Voice> updated = updateVoices(voices, path, 1, change);
+        if (updated == voices) {
+            return this;
+        }
+        Symphony symphony = new Symphony(title, description, choirList.with(path.choirIndex(), choir.withVoices(updated)), version);
+
+        SymphonyIndex current = index;
+        if (current != null) {
+            symphony.index = current.afterVoiceChange(symphony, path, siblingsOf(path), symphony.siblingsOf(path));
+        }
+        return symphony;
+    }
+
+    /**
+     * Returns the list of Voices that holds the last element of the path.
+     */
+    private List<Voice> siblingsOf(VoicePath path) {
+        List<Voice> voices = choirs.get(path.choirIndex()).getVoices();
+        for (int level = 1; level < path.depth(); level++) {
+            voices = voices.get(path.indexAt(level)).getSubVoices();
+        }
+        return voices;
+    }
+
+    private static PersistentList<Voice> updateVoices(List<Voice> voices, VoicePath path, int level,
+                                                      BiFunction<PersistentList<Voice>, Integer, PersistentList<Voice>> change) {
+        PersistentList<Voice> list = PersistentList.copyOf(voices);
+        int index = path.indexAt(level);
+        if (level == path.depth()) {
+            return change.apply(list, index);
+        }
+
+        Voice voice = list.get(index);
+        List<Voice> subVoices = voice.getSubVoices();
+        PersistentList<Voice> updated = updateVoices(subVoices, path, level + 1, change);
+        return updated == subVoices ? list : list.with(index, voice.withSubVoices(updated));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -97,6 +331,7 @@ public final class Symphony {
                 ", description='" + getDescription().orElse("N/A") + '\'' +
                 ", createdAt=" + createdAt +
                 ", choirs=" + choirs.size() + " items" +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
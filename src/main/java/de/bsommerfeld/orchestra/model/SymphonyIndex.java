@@ -0,0 +1,286 @@
+package de.bsommerfeld.orchestra.model;
+
+import de.bsommerfeld.orchestra.model.collection.PersistentMap;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An index of all Choirs and Voices of a Symphony by their ids, with a pointer from every Voice to its
+ * parent. A node, its parent, its Choir and its position are found in O(log32 n) time instead of by scanning
+ * the tree, and independent of duplicate titles.
+ *
+ * <p>The index of a Symphony is built in a single pass over the tree the first time it is needed (see
+ * {@link Symphony#index()}). The entries are kept in {@link PersistentMap}s, so the index of a Symphony
+ * derived with {@link Symphony#updateAt}, {@link Symphony#insertAt}, {@link Symphony#removeAt} or
+ * {@link Symphony#move} is derived from the index of the Symphony it was changed from, if that one was built:
+ * only the entries of the Choir and Voices on the changed path, of the inserted or removed Voices and of the
+ * later siblings, whose positions shift, are replaced, and everything else is shared.
+ *
+ * <p>Positions are {@link VoicePath}s: the index of the Choir followed by the index of the Voice on every
+ * level below it.
+ */
+public final class SymphonyIndex {
+
+    private final PersistentMap<String, ChoirEntry> choirs;
+    private final PersistentMap<String, VoiceEntry> voices;
+
+    /**
+     * Where a Choir is in the Symphony.
+     *
+     * @param choir The Choir
+     * @param index The index of the Choir in the Symphony
+     */
+    public record ChoirEntry(Choir choir, int index) {
+    }
+
+    /**
+     * Where a Voice is in the Symphony.
+     *
+     * @param voice The Voice
+     * @param choirId The id of the Choir the Voice belongs to, directly or through its parents
+     * @param parentId The id of the parent Voice, or null if the Voice is a direct child of the Choir
+     * @param index The index of the Voice in the list of its parent
+     * @param depth The number of parent Voices above the Voice, 0 for a direct child of the Choir
+     */
+    public record VoiceEntry(Voice voice, String choirId, String parentId, int index, int depth) {
+
+        private VoiceEntry withVoice(Voice voice) {
+            return new VoiceEntry(voice, choirId, parentId, index, depth);
+        }
+    }
+
+    private SymphonyIndex(PersistentMap<String, ChoirEntry> choirs, PersistentMap<String, VoiceEntry> voices) {
+        this.choirs = choirs;
+        this.voices = voices;
+    }
+
+    /**
+     * Builds the index of the specified Symphony. The Voices of lazily loaded Choirs are loaded.
+     *
+     * @param symphony The Symphony to index
+     * @return The index
+     * @throws IllegalStateException if two nodes of the Symphony have the same id
+     */
+    static SymphonyIndex of(Symphony symphony) {
+        PersistentMap<String, ChoirEntry> choirs = PersistentMap.empty();
+        PersistentMap<String, VoiceEntry> voices = PersistentMap.empty();
+        int i = 0;
+        for (Choir choir : symphony.getChoirs()) {
+            if (choirs.containsKey(choir.getId())) {
+                throw new IllegalStateException("Duplicate choir id in Symphony '" + symphony.getTitle() + "': " + choir.getId());
+            }
+            choirs = choirs.plus(choir.getId(), new ChoirEntry(choir, i++));
+            voices = addVoices(choir.getId(), null, choir.getVoices(), 0, voices);
+            if (voices == null) {
+                throw new IllegalStateException("Duplicate voice id in Symphony '" + symphony.getTitle() + "'");
+            }
+        }
+        return new SymphonyIndex(choirs, voices);
+    }
+
+    /**
+     * Adds the entries of a list of Voices and their sub-voices.
+     *
+     * @return The changed entries, or null if one of the Voices has the id of a Voice that is already indexed
+     */
+    private static PersistentMap<String, VoiceEntry> addVoices(String choirId, String parentId, List<Voice> list,
+                                                               int depth, PersistentMap<String, VoiceEntry> voices) {
+        int i = 0;
+        for (Voice voice : list) {
+            voices = addVoice(choirId, parentId, voice, i++, depth, voices);
+            if (voices == null) {
+                return null;
+            }
+        }
+        return voices;
+    }
+
+    private static PersistentMap<String, VoiceEntry> addVoice(String choirId, String parentId, Voice voice, int index,
+                                                              int depth, PersistentMap<String, VoiceEntry> voices) {
+        if (voices.containsKey(voice.getId())) {
+            return null;
+        }
+        voices = voices.plus(voice.getId(), new VoiceEntry(voice, choirId, parentId, index, depth));
+        return addVoices(choirId, voice.getId(), voice.getSubVoices(), depth + 1, voices);
+    }
+
+    private static PersistentMap<String, VoiceEntry> removeVoice(Voice voice, PersistentMap<String, VoiceEntry> voices) {
+        voices = voices.minus(voice.getId());
+        for (Voice subVoice : voice.getSubVoices()) {
+            voices = removeVoice(subVoice, voices);
+        }
+        return voices;
+    }
+
+    /**
+     * Derives the index of a Symphony that differs from the indexed one only in the list of Voices that holds
+     * the Voice at the specified path: one Voice of it was replaced, inserted or removed, and the Choir and
+     * the Voices above it were copied.
+     *
+     * @param updated The changed Symphony
+     * @param path The path of the replaced, inserted or removed Voice
+     * @param before The list of Voices that holds the path in the indexed Symphony
+     * @param after The list of Voices that holds the path in the changed Symphony
+     * @return The index of the changed Symphony, or null if the change made two nodes share an id, in which
+     * case the index has to be built from scratch to report it
+     */
+    SymphonyIndex afterVoiceChange(Symphony updated, VoicePath path, List<Voice> before, List<Voice> after) {
+        Choir choir = updated.getChoirs().get(path.choirIndex());
+        PersistentMap<String, ChoirEntry> changedChoirs = choirs.plus(choir.getId(), new ChoirEntry(choir, path.choirIndex()));
+
+        // The Voices on the way to the list were copied, but keep their ids and positions
+        PersistentMap<String, VoiceEntry> changedVoices = voices;
+        String parentId = null;
+        List<Voice> list = choir.getVoices();
+        for (int level = 1; level < path.depth(); level++) {
+            Voice voice = list.get(path.indexAt(level));
+            changedVoices = changedVoices.plus(voice.getId(), voices.get(voice.getId()).withVoice(voice));
+            parentId = voice.getId();
+            list = voice.getSubVoices();
+        }
+
+        int index = path.lastIndex();
+        int depth = path.depth() - 1;
+        int shiftFrom;
+        if (after.size() == before.size()) {
+            Voice old = before.get(index);
+            Voice voice = after.get(index);
+            if (old.getId().equals(voice.getId()) && old.getSubVoices() == voice.getSubVoices()) {
+                changedVoices = changedVoices.plus(voice.getId(), changedVoices.get(voice.getId()).withVoice(voice));
+            } else {
+                changedVoices = addVoice(choir.getId(), parentId, voice, index, depth, removeVoice(old, changedVoices));
+            }
+            shiftFrom = after.size();
+        } else if (after.size() > before.size()) {
+            changedVoices = addVoice(choir.getId(), parentId, after.get(index), index, depth, changedVoices);
+            shiftFrom = index + 1;
+        } else {
+            changedVoices = removeVoice(before.get(index), changedVoices);
+            shiftFrom = index;
+        }
+        if (changedVoices == null) {
+            return null;
+        }
+
+        // The later siblings moved up or down by one
+        for (int i = shiftFrom; i < after.size(); i++) {
+            Voice sibling = after.get(i);
+            VoiceEntry entry = changedVoices.get(sibling.getId());
+            changedVoices = changedVoices.plus(sibling.getId(),
+                    new VoiceEntry(sibling, entry.choirId(), entry.parentId(), i, entry.depth()));
+        }
+        return new SymphonyIndex(changedChoirs, changedVoices);
+    }
+
+    /**
+     * Finds a Choir by its id.
+     *
+     * @param id The id of the Choir
+     * @return An {@link Optional} containing the Choir, or an empty Optional if the Symphony has no such Choir.
+     */
+    public Optional<Choir> findChoir(String id) {
+        return getChoirEntry(id).map(ChoirEntry::choir);
+    }
+
+    /**
+     * Finds a Voice by its id, on any level of the Symphony.
+     *
+     * @param id The id of the Voice
+     * @return An {@link Optional} containing the Voice, or an empty Optional if the Symphony has no such Voice.
+     */
+    public Optional<Voice> findVoice(String id) {
+        return getVoiceEntry(id).map(VoiceEntry::voice);
+    }
+
+    /**
+     * Returns where the Choir with the specified id is.
+     *
+     * @param id The id of the Choir
+     * @return An {@link Optional} containing the entry, or an empty Optional if the Symphony has no such Choir.
+     */
+    public Optional<ChoirEntry> getChoirEntry(String id) {
+        return Optional.ofNullable(id != null ? choirs.get(id) : null);
+    }
+
+    /**
+     * Returns where the Voice with the specified id is.
+     *
+     * @param id The id of the Voice
+     * @return An {@link Optional} containing the entry, or an empty Optional if the Symphony has no such Voice.
+     */
+    public Optional<VoiceEntry> getVoiceEntry(String id) {
+        return Optional.ofNullable(id != null ? voices.get(id) : null);
+    }
+
+    /**
+     * Returns the parent Voice of the Voice with the specified id.
+     *
+     * @param id The id of the Voice
+     * @return An {@link Optional} containing the parent, or an empty Optional if the Voice is a direct child of
+     * its Choir or does not exist.
+     */
+    public Optional<Voice> getParent(String id) {
+        return getVoiceEntry(id).map(VoiceEntry::parentId).flatMap(this::findVoice);
+    }
+
+    /**
+     * Returns the Choir the Voice with the specified id belongs to, directly or through its parents.
+     *
+     * @param id The id of the Voice
+     * @return An {@link Optional} containing the Choir, or an empty Optional if the Voice does not exist.
+     */
+    public Optional<Choir> getChoirOf(String id) {
+        return getVoiceEntry(id).map(VoiceEntry::choirId).flatMap(this::findChoir);
+    }
+
+    /**
+     * Returns the path of the Voice with the specified id, following the parent pointers up to the Choir.
+     * This takes time proportional to the depth of the Voice.
+     *
+     * @param id The id of the Voice
+     * @return An {@link Optional} containing the path, or an empty Optional if the Voice does not exist.
+     */
+    public Optional<VoicePath> pathOf(String id) {
+        VoiceEntry entry = id != null ? voices.get(id) : null;
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        int[] voiceIndices = new int[entry.depth() + 1];
+        String choirId = entry.choirId();
+        for (int level = voiceIndices.length - 1; level >= 0; level--) {
+            voiceIndices[level] = entry.index();
+            entry = entry.parentId() != null ? voices.get(entry.parentId()) : null;
+        }
+        return Optional.of(VoicePath.of(choirs.get(choirId).index(), voiceIndices));
+    }
+
+    /**
+     * Returns whether the Voice with the specified id is the other Voice or one of its descendants.
+     * This takes time proportional to the depth of the Voice.
+     *
+     * @param id The id of the Voice
+     * @param ancestorId The id of the possible ancestor
+     * @return true if the Voice is the ancestor itself or lies below it
+     */
+    public boolean isWithin(String id, String ancestorId) {
+        VoiceEntry entry = voices.get(id);
+        while (entry != null) {
+            if (entry.voice().getId().equals(ancestorId)) {
+                return true;
+            }
+            entry = entry.parentId() != null ? voices.get(entry.parentId()) : null;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of Voices in the Symphony, on all levels.
+     *
+     * @return The number of indexed Voices
+     */
+    public int voiceCount() {
+        return voices.size();
+    }
+}
@@ -0,0 +1,183 @@
+package de.bsommerfeld.orchestra.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A lightweight overview of a {@link Symphony}, used to list projects without loading their choirs and voices.
+ * Besides the title and description it carries the sizes of the Symphony and, when it was read from storage,
+ * the size and modification time of the file it is stored in.
+ * Summaries are immutable once created.
+ */
+public final class SymphonySummary {
+
+    private final String title;
+    private final String description;
+    private final LocalDateTime createdAt;
+    private final int choirCount;
+    private final int voiceCount;
+    private final int completedCount;
+    private final long fileSize;
+    private final Instant lastModified;
+
+    /**
+     * Constructs a new SymphonySummary instance.
+     *
+     * @param title The title of the symphony. Cannot be null or empty.
+     * @param description The optional description of the symphony. Can be null.
+     * @param createdAt The creation timestamp of the symphony. Can be null.
+     * @param choirCount The number of choirs in the symphony.
+     * @param voiceCount The number of voices at all levels in the symphony.
+     * @param completedCount The number of completed voices at all levels in the symphony.
+     * @param fileSize The size of the file storing the symphony in bytes, or -1 if unknown.
+     * @param lastModified The modification time of the file storing the symphony. Can be null if unknown.
+     * @throws IllegalArgumentException if the title is null or empty.
+     */
+    public SymphonySummary(String title, String description, LocalDateTime createdAt, int choirCount,
+                           int voiceCount, int completedCount, long fileSize, Instant lastModified) {
+        if (title == null || title.trim().isEmpty()) {
+            throw new IllegalArgumentException("Symphony title cannot be null or empty.");
+        }
+        this.title = title;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.choirCount = choirCount;
+        this.voiceCount = voiceCount;
+        this.completedCount = completedCount;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Creates a summary of the specified Symphony without file information.
+     *
+     * @param symphony The Symphony to summarize
+     * @return The summary of the Symphony
+     */
+    public static SymphonySummary of(Symphony symphony) {
+        return of(symphony, -1, null);
+    }
+
+    /**
+     * Creates a summary of the specified Symphony and the file it is stored in.
+     *
+     * @param symphony The Symphony to summarize
+     * @param fileSize The size of the file storing the symphony in bytes, or -1 if unknown
+     * @param lastModified The modification time of the file storing the symphony, or null if unknown
+     * @return The summary of the Symphony
+     */
+    public static SymphonySummary of(Symphony symphony, long fileSize, Instant lastModified) {
+        Rollup rollup = symphony.getRollup();
+        return new SymphonySummary(symphony.getTitle(), symphony.getDescription().orElse(null),
+                symphony.getCreatedAt(), symphony.getChoirs().size(), rollup.total(), rollup.completed(),
+                fileSize, lastModified);
+    }
+
+    /**
+     * Returns the title of the symphony.
+     *
+     * @return The title of the symphony.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the optional description of the symphony.
+     *
+     * @return An {@link Optional} containing the description, or an empty Optional if no description is present.
+     */
+    public Optional<String> getDescription() {
+        return Optional.ofNullable(description);
+    }
+
+    /**
+     * Returns the creation timestamp of the symphony.
+     *
+     * @return The creation timestamp, or null if unknown.
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the number of choirs in the symphony.
+     *
+     * @return The number of choirs.
+     */
+    public int getChoirCount() {
+        return choirCount;
+    }
+
+    /**
+     * Returns the number of voices at all levels in the symphony.
+     *
+     * @return The number of voices, including sub-voices.
+     */
+    public int getVoiceCount() {
+        return voiceCount;
+    }
+
+    /**
+     * Returns the number of completed voices at all levels in the symphony.
+     *
+     * @return The number of completed voices, including sub-voices.
+     */
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * Returns the size of the file storing the symphony.
+     *
+     * @return The file size in bytes, or -1 if unknown.
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns the modification time of the file storing the symphony.
+     *
+     * @return An {@link Optional} containing the modification time, or an empty Optional if unknown.
+     */
+    public Optional<Instant> getLastModified() {
+        return Optional.ofNullable(lastModified);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SymphonySummary that = (SymphonySummary) o;
+        return choirCount == that.choirCount &&
+                voiceCount == that.voiceCount &&
+                completedCount == that.completedCount &&
+                fileSize == that.fileSize &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(createdAt, that.createdAt) &&
+                Objects.equals(lastModified, that.lastModified);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(title, description, createdAt, choirCount, voiceCount, completedCount, fileSize, lastModified);
+    }
+
+    @Override
+    public String toString() {
+        return "SymphonySummary{" +
+                "title='" + title + '\'' +
+                ", description='" + getDescription().orElse("N/A") + '\'' +
+                ", createdAt=" + createdAt +
+                ", choirs=" + choirCount +
+                ", voices=" + voiceCount +
+                ", completed=" + completedCount +
+                ", fileSize=" + fileSize +
+                ", lastModified=" + lastModified +
+                '}';
+    }
+}
@@ -1,9 +1,12 @@
 package de.bsommerfeld.orchestra.model;
 
-import java.util.Collections;
+import de.bsommerfeld.orchestra.model.collection.PersistentList;
+import de.bsommerfeld.orchestra.model.collection.WeakInterner;
+
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Represents a single "voice" or "part" within the Orchestra task management system.
@@ -11,36 +14,84 @@ import java.util.Optional;
  * It encapsulates the core information of a work item and can inherently contain nested sub-voices,
  * reflecting the hierarchical structure of a musical composition where individual parts contribute
  * to the grander whole.
+ *
+ * <p>Every Voice has an id that stays the same when the Voice is changed or moved, so it can be found
+ * again independent of its title and position (see {@link SymphonyIndex}). Since the id makes every Voice
+ * unique, its title, description and completion status are kept apart from it, in a part that interned
+ * Voices with equal content share whatever their ids are (see {@link #intern()}).
  */
 public final class Voice { // Made final as it's an immutable value object
 
-    private final String title;
-    private final String description; // Changed to Optional<String> for clarity on absence
+    private final String id;
+    private final Content content; // Title, description and completion status, shared once interned
     private final List<Voice> subVoices; // Changed to List<Voice> to represent nested structure
-    private final boolean completed; // Added to track completion status
+    private final Rollup rollup; // Counters of this voice and its sub-voices, built from theirs
+    private int hash; // Cached structural hash, computed on first use like String's
+    private boolean hashIsZero;
+
+    private static final WeakInterner<Voice> VOICES = new WeakInterner<>();
+    private static final WeakInterner<Content> CONTENTS = new WeakInterner<>();
+    private static final WeakInterner<String> TEXTS = new WeakInterner<>();
+
+    /**
+     * The part of a Voice that does not depend on its id, so equal Voices of different subtrees can share it.
+     */
+    private record Content(String title, String description, boolean completed) {
+
+        private Content interned() {
+            return new Content(internText(title), internText(description), completed);
+        }
+    }
 
     /**
-     * Constructs a new Voice instance.
+     * Constructs a Voice instance with an existing id, e.g. when it is loaded from storage.
      *
+     * @param id The stable id of the voice/task. Cannot be null or empty.
      * @param title The mandatory title of the voice/task. Cannot be null or empty.
      * @param description An optional description of the voice/task. Can be null or empty.
      * @param subVoices A list of sub-voices (sub-tasks) belonging to this voice. Can be null or empty.
-     * The list will be defensively copied to ensure immutability.
+     * The list will be defensively copied to ensure immutability, unless it is a {@link PersistentList},
+     * which is shared.
      * @param completed Whether this voice/task is completed.
-     * @throws IllegalArgumentException if the title is null or empty.
+     * @throws IllegalArgumentException if the id or the title is null or empty.
      */
-    public Voice(String title, String description, List<Voice> subVoices, boolean completed) {
+    public Voice(String id, String title, String description, List<Voice> subVoices, boolean completed) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Voice id cannot be null or empty.");
+        }
         if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Voice title cannot be null or empty.");
         }
-        this.title = title;
-        this.description = description; // Will be handled by Optional in getter
-        this.subVoices = (subVoices != null) ? List.copyOf(subVoices) : Collections.emptyList(); // Defensive copy and immutability
-        this.completed = completed;
+        this.id = id;
+        this.content = new Content(title, description, completed); // Description handled by Optional in getter
+        PersistentList<Voice> list = (subVoices != null) ? PersistentList.copyOf(subVoices) : PersistentList.empty();
+        this.subVoices = list; // Defensive copy and immutability
+        this.rollup = Rollup.ofVoice(completed, list.measure(Rollup.OF_VOICES));
+    }
+
+    private Voice(String id, Content content, List<Voice> subVoices, Rollup rollup) {
+        this.id = id;
+        this.content = content;
+        this.subVoices = subVoices;
+        this.rollup = rollup;
+    }
+
+    /**
+     * Constructs a new Voice instance with a newly generated id.
+     *
+     * @param title The mandatory title of the voice/task. Cannot be null or empty.
+     * @param description An optional description of the voice/task. Can be null or empty.
+     * @param subVoices A list of sub-voices (sub-tasks) belonging to this voice. Can be null or empty.
+     * The list will be defensively copied to ensure immutability.
+     * @param completed Whether this voice/task is completed.
+     * @throws IllegalArgumentException if the title is null or empty.
+     */
+    public Voice(String title, String description, List<Voice> subVoices, boolean completed) {
+        this(UUID.randomUUID().toString(), title, description, subVoices, completed);
     }
     
     /**
-     * Constructs a new Voice instance with completed set to false.
+     * Constructs a new Voice instance with a newly generated id and completed set to false.
      *
      * @param title The mandatory title of the voice/task. Cannot be null or empty.
      * @param description An optional description of the voice/task. Can be null or empty.
@@ -52,13 +103,22 @@ public final class Voice { // Made final as it's an immutable value object
         this(title, description, subVoices, false);
     }
 
+    /**
+     * Returns the stable id of this voice/task.
+     *
+     * @return The id of the voice.
+     */
+    public String getId() {
+        return id;
+    }
+
     /**
      * Returns the title of this voice/task.
      *
      * @return The title of the voice.
      */
     public String getTitle() {
-        return title;
+        return content.title();
     }
 
     /**
@@ -67,13 +127,14 @@ public final class Voice { // Made final as it's an immutable value object
      * @return An {@link Optional} containing the description, or an empty Optional if no description is present.
      */
     public Optional<String> getDescription() {
-        return Optional.ofNullable(description);
+        return Optional.ofNullable(content.description());
     }
 
     /**
      * Returns an immutable list of sub-voices (sub-tasks) belonging to this voice.
      *
      * @return An unmodifiable {@link List} of {@link Voice} objects. Returns an empty list if no sub-voices exist.
+     * It is a {@link PersistentList}, so a changed copy can be derived without copying it.
      */
     public List<Voice> getSubVoices() {
         return subVoices; // Already an immutable copy from constructor
@@ -85,9 +146,28 @@ public final class Voice { // Made final as it's an immutable value object
      * @return true if this voice/task is completed, false otherwise.
      */
     public boolean isCompleted() {
-        return completed;
+        return content.completed();
     }
     
+    /**
+     * Returns the aggregate counters of this voice/task and all of its sub-voices on every level.
+     * They are computed when the Voice is created, from the counters of its sub-voices.
+     *
+     * @return The rollup of this voice, whose total includes the voice itself.
+     */
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    /**
+     * Returns the number of sub-voices of this voice/task on all levels.
+     *
+     * @return The number of descendants, 0 if there are no sub-voices.
+     */
+    public int getDescendantCount() {
+        return rollup.total() - 1;
+    }
+
     /**
      * Creates a new Voice with the same properties as this one but with the completed status changed.
      *
@@ -95,7 +175,50 @@ public final class Voice { // Made final as it's an immutable value object
      * @return a new Voice with the updated completed status
      */
     public Voice withCompleted(boolean completed) {
-        return new Voice(this.title, this.description, this.subVoices, completed);
+        return new Voice(this.id, getTitle(), content.description(), this.subVoices, completed);
+    }
+
+    /**
+     * Creates a new Voice with the same id and properties as this one but with different sub-voices.
+     *
+     * @param subVoices the new sub-voices (can be null)
+     * @return a new Voice with the updated sub-voices
+     */
+    public Voice withSubVoices(List<Voice> subVoices) {
+        return new Voice(this.id, getTitle(), content.description(), subVoices, isCompleted());
+    }
+
+    /**
+     * Returns the canonical instance of this voice/task: an equal Voice shared by everyone who interns it.
+     * Interning a tree bottom-up, as storage does when it loads a Symphony, makes the unchanged subtrees of a
+     * Symphony that is read again the same objects as before, so they are compared by identity and kept in
+     * memory only once.
+     *
+     * <p>Equal Voices always have the same id, so Voices that only look alike, such as the steps of two
+     * projects created from the same template, are never the same object. They share the part without the
+     * id instead: all interned Voices with the same title, description and completion status refer to one
+     * instance of it, and to one instance of each text.
+     *
+     * @return The canonical Voice equal to this one
+     */
+    public Voice intern() {
+        return VOICES.intern(this, voice -> new Voice(voice.id, CONTENTS.intern(voice.content, Content::interned),
+                voice.subVoices, voice.rollup));
+    }
+
+    /**
+     * Returns whether this voice/task shares its title, description and completion status with the other one,
+     * which interned Voices with equal content do whatever their ids are.
+     */
+    boolean sharesContentWith(Voice other) {
+        return content == other.content;
+    }
+
+    /**
+     * Returns the canonical instance of a text of the model, e.g. a title or a description.
+     */
+    static String internText(String text) {
+        return text != null ? TEXTS.intern(text) : null;
     }
 
     @Override
@@ -103,24 +226,36 @@ public final class Voice { // Made final as it's an immutable value object
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Voice voice = (Voice) o;
-        return completed == voice.completed &&
-                Objects.equals(title, voice.title) &&
-                Objects.equals(description, voice.description) && // Compare the raw description field
+        // Both hashes are cached, so most unequal voices are told apart without looking at their subtrees
+        return hashCode() == voice.hashCode() &&
+                Objects.equals(id, voice.id) &&
+                content.equals(voice.content) && // Compares the raw description field
                 Objects.equals(subVoices, voice.subVoices);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(title, description, subVoices, completed);
+        int h = hash;
+        if (h == 0 && !hashIsZero) {
+            // The hash of the sub-voices is cached in their list as well
+            h = Objects.hash(id, content.title(), content.description(), subVoices, content.completed());
+            if (h == 0) {
+                hashIsZero = true;
+            } else {
+                hash = h;
+            }
+        }
+        return h;
     }
 
     @Override
     public String toString() {
         return "Voice{" +
-                "title='" + title + '\'' +
+                "id='" + id + '\'' +
+                ", title='" + getTitle() + '\'' +
                 ", description='" + getDescription().orElse("N/A") + '\'' + // Use Optional for toString
                 ", subVoices=" + subVoices.size() + " items" +
-                ", completed=" + completed +
+                ", completed=" + isCompleted() +
                 '}';
     }
 }
\ No newline at end of file
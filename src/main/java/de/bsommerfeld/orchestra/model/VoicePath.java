@@ -0,0 +1,194 @@
+package de.bsommerfeld.orchestra.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The position of a Voice in a Symphony: the index of its Choir followed by the index of the Voice on every
+ * level below it, e.g. {@code [1, 0, 2]} for the third sub-voice of the first Voice of the second Choir.
+ * Paths are used with {@link Symphony#updateAt(VoicePath, java.util.function.UnaryOperator)} and the other
+ * update methods of a Symphony, and are found by id through {@link SymphonyIndex#pathOf(String)}.
+ *
+ * <p>A path is only a position; it stays valid as long as the Symphony it was taken from is not changed above
+ * or before the Voice.
+ */
+public final class VoicePath {
+
+    private final int[] indices;
+
+    private VoicePath(int[] indices) {
+        if (indices.length < 2) {
+            throw new IllegalArgumentException("Voice path must contain a choir index and a voice index: "
+                    + Arrays.toString(indices));
+        }
+        for (int index : indices) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Voice path cannot contain negative indices: " + Arrays.toString(indices));
+            }
+        }
+        this.indices = indices;
+    }
+
+    /**
+     * Creates the path of a Voice.
+     *
+     * @param choirIndex The index of the Choir
+     * @param voiceIndices The index of the Voice on every level below the Choir, at least one
+     * @return The path
+     * @throws IllegalArgumentException if no voice index is given or an index is negative
+     */
+    public static VoicePath of(int choirIndex, int... voiceIndices) {
+        int[] indices = new int[voiceIndices.length + 1];
+        indices[0] = choirIndex;
+        System.arraycopy(voiceIndices, 0, indices, 1, voiceIndices.length);
+        return new VoicePath(indices);
+    }
+
+    /**
+     * Creates a path from its list form, as used by {@link de.bsommerfeld.orchestra.model.diff.SymphonyEdit}.
+     *
+     * @param indices The index of the Choir followed by the index of the Voice on every level
+     * @return The path
+     * @throws IllegalArgumentException if the list has fewer than two elements or an index is negative
+     */
+    public static VoicePath of(List<Integer> indices) {
+        return new VoicePath(indices.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns the index of the Choir the Voice belongs to.
+     *
+     * @return The choir index
+     */
+    public int choirIndex() {
+        return indices[0];
+    }
+
+    /**
+     * Returns the number of voice levels of this path, 1 for a direct child of a Choir.
+     *
+     * @return The depth
+     */
+    public int depth() {
+        return indices.length - 1;
+    }
+
+    /**
+     * Returns the index on the specified level, where level 0 is the Choir.
+     *
+     * @param level The level, from 0 to {@link #depth()}
+     * @return The index on that level
+     * @throws IndexOutOfBoundsException if the level is out of range
+     */
+    public int indexAt(int level) {
+        return indices[level];
+    }
+
+    /**
+     * Returns the index of the Voice in the list of its parent.
+     *
+     * @return The last index of this path
+     */
+    public int lastIndex() {
+        return indices[indices.length - 1];
+    }
+
+    /**
+     * Returns the path of the sub-voice at the specified index of the Voice at this path.
+     *
+     * @param index The index of the sub-voice
+     * @return The path of the sub-voice
+     * @throws IllegalArgumentException if the index is negative
+     */
+    public VoicePath child(int index) {
+        int[] child = Arrays.copyOf(indices, indices.length + 1);
+        child[indices.length] = index;
+        return new VoicePath(child);
+    }
+
+    /**
+     * Returns the path of the parent Voice.
+     *
+     * @return An {@link Optional} containing the parent path, or an empty Optional if the Voice is a direct
+     * child of its Choir.
+     */
+    public Optional<VoicePath> parent() {
+        return indices.length > 2
+                ? Optional.of(new VoicePath(Arrays.copyOf(indices, indices.length - 1)))
+                : Optional.empty();
+    }
+
+    /**
+     * Returns the path of the sibling at the specified index, in the same list as the Voice at this path.
+     *
+     * @param index The index of the sibling
+     * @return The path of the sibling
+     * @throws IllegalArgumentException if the index is negative
+     */
+    public VoicePath sibling(int index) {
+        int[] sibling = indices.clone();
+        sibling[sibling.length - 1] = index;
+        return new VoicePath(sibling);
+    }
+
+    /**
+     * Returns whether this path is the other path or lies below it.
+     *
+     * @param other The possible ancestor
+     * @return true if the other path is a prefix of this one
+     */
+    public boolean startsWith(VoicePath other) {
+        return other.indices.length <= indices.length
+                && Arrays.equals(indices, 0, other.indices.length, other.indices, 0, other.indices.length);
+    }
+
+    /**
+     * Returns this path as it is after the Voice at the removed path has been removed: if this path runs
+     * through a later sibling of the removed Voice, that sibling has moved up by one.
+     *
+     * @param removed The path of the removed Voice
+     * @return The shifted path, or this path if the removal does not affect it
+     * @throws IllegalArgumentException if this path lies below the removed path, since it no longer exists
+     */
+    public VoicePath afterRemovalOf(VoicePath removed) {
+        if (indices.length > removed.indices.length && startsWith(removed)) {
+            throw new IllegalArgumentException("Voice path " + this + " lies below the removed voice " + removed);
+        }
+
+        int level = removed.indices.length - 1;
+        if (indices.length > level && Arrays.equals(indices, 0, level, removed.indices, 0, level)
+                && indices[level] > removed.indices[level]) {
+            int[] shifted = indices.clone();
+            shifted[level]--;
+            return new VoicePath(shifted);
+        }
+        return this;
+    }
+
+    /**
+     * Returns this path in its list form, as used by {@link de.bsommerfeld.orchestra.model.diff.SymphonyEdit}.
+     *
+     * @return The index of the Choir followed by the index of the Voice on every level
+     */
+    public List<Integer> toList() {
+        return Arrays.stream(indices).boxed().toList();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(indices, ((VoicePath) o).indices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(indices);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(indices);
+    }
+}
@@ -0,0 +1,429 @@
+package de.bsommerfeld.orchestra.model.collection;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * An immutable list whose changes return a new list that shares all untouched structure with the old one.
+ * The elements are kept in a weight-balanced binary tree ordered by position, so reading, replacing,
+ * inserting and removing an element at any index take O(log n) time and copy only the O(log n) nodes on
+ * the way to it, while iteration takes O(n).
+ *
+ * <p>It is a read-only {@link List}: the mutators inherited from {@link List} throw
+ * {@link UnsupportedOperationException}; use {@link #with(int, Object)}, {@link #plus(Object)},
+ * {@link #plus(int, Object)} and {@link #minus(int)} instead. Like {@link List#copyOf(Collection)}, it does
+ * not allow null elements.
+ *
+ * @param <E> The type of the elements
+ */
+public final class PersistentList<E> extends AbstractList<E> {
+
+    // Balance parameters of the weight-balanced tree, see Adams (1992) and Hirai and Yamamoto (2011)
+    private static final int DELTA = 3;
+    private static final int RATIO = 2;
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    private final Node<E> root;
+
+    private static final class Node<E> {
+        final E value;
+        final Node<E> left;
+        final Node<E> right;
+        final int size;
+        // 31^size in the high and the hash of the elements without the initial 1 in the low half, 0 until computed
+        volatile long hashState;
+        // The summary of the subtree for the measure last used, null until computed
+        volatile Measured measured;
+
+        Node(E value, Node<E> left, Node<E> right, int size) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size;
+        }
+
+        Node(E value, Node<E> left, Node<E> right) {
+            this(value, left, right, PersistentList.size(left) + PersistentList.size(right) + 1);
+        }
+    }
+
+    /**
+     * An associative summary of the elements of a list, e.g. their sum, that {@link #measure(Measure)}
+     * computes and caches for every subtree.
+     *
+     * @param <E> The type of the elements
+     * @param <S> The type of the summary
+     */
+    public interface Measure<E, S> {
+
+        /**
+         * Returns the summary of no elements. Combining it with another summary returns the other summary.
+         *
+         * @return The summary of the empty list
+         */
+        S empty();
+
+        /**
+         * Returns the summary of a single element.
+         *
+         * @param element The element
+         * @return The summary of the element
+         */
+        S of(E element);
+
+        /**
+         * Returns the summary of the elements of the left summary followed by those of the right.
+         * The combination must be associative.
+         *
+         * @param left The summary of the first elements
+         * @param right The summary of the elements after them
+         * @return The combined summary
+         */
+        S combine(S left, S right);
+    }
+
+    private record Measured(Measure<?, ?> measure, Object summary) {
+    }
+
+    private PersistentList(Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty list.
+     *
+     * @param <E> The type of the elements
+     * @return The empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Returns a list with the elements of the specified collection, in its iteration order.
+     * A PersistentList is returned as it is, without copying it.
+     *
+     * @param elements The elements of the list
+     * @param <E> The type of the elements
+     * @return The list
+     * @throws NullPointerException if the collection or one of its elements is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> copyOf(Collection<? extends E> elements) {
+        if (elements instanceof PersistentList<? extends E> list) {
+            return (PersistentList<E>) list;
+        }
+
+        Object[] array = elements.toArray();
+        for (Object element : array) {
+            Objects.requireNonNull(element);
+        }
+        return array.length == 0 ? empty() : new PersistentList<>(build((E[]) array, 0, array.length));
+    }
+
+    private static <E> Node<E> build(E[] elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(elements[middle], build(elements, from, middle), build(elements, middle + 1, to));
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        return get(root, index);
+    }
+
+    private static <E> E get(Node<E> node, int index) {
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Returns a list with the element at the specified index replaced.
+     *
+     * @param index The index of the element to replace
+     * @param element The new element
+     * @return The changed list, or this list if the element is already there
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentList<E> with(int index, E element) {
+        Objects.checkIndex(index, size());
+        Objects.requireNonNull(element);
+        if (get(index) == element) {
+            return this;
+        }
+        return new PersistentList<>(set(root, index, element));
+    }
+
+    /**
+     * Returns a list with the specified element appended.
+     *
+     * @param element The element to append
+     * @return The changed list
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentList<E> plus(E element) {
+        return plus(size(), element);
+    }
+
+    /**
+     * Returns a list with the specified element inserted at the specified index. The elements from that
+     * index on move up by one.
+     *
+     * @param index The index the element will have
+     * @param element The element to insert
+     * @return The changed list
+     * @throws IndexOutOfBoundsException if the index is negative or greater than the size
+     * @throws NullPointerException if the element is null
+     */
+    public PersistentList<E> plus(int index, E element) {
+        Objects.checkIndex(index, size() + 1);
+        Objects.requireNonNull(element);
+        return new PersistentList<>(insert(root, index, element));
+    }
+
+    /**
+     * Returns a list without the element at the specified index. The elements after it move down by one.
+     *
+     * @param index The index of the element to remove
+     * @return The changed list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public PersistentList<E> minus(int index) {
+        Objects.checkIndex(index, size());
+        Node<E> changed = remove(root, index);
+        return changed == null ? empty() : new PersistentList<>(changed);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final Deque<Node<E>> path = new ArrayDeque<>();
+            private Node<E> next = root;
+
+            @Override
+            public boolean hasNext() {
+                return next != null || !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                while (next != null) {
+                    path.push(next);
+                    next = next.left;
+                }
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = path.pop();
+                next = node.right;
+                return node.value;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        forEach(root, action);
+    }
+
+    private static <E> void forEach(Node<E> node, Consumer<? super E> action) {
+        while (node != null) {
+            forEach(node.left, action);
+            action.accept(node.value);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Returns the summary of all elements of this list under the specified measure. The summary of every
+     * subtree is cached, so it is computed for all elements once and afterwards only for the O(log n) nodes
+     * a change creates. Each subtree caches the summary of one measure at a time, so a list should be
+     * measured with a single, shared measure instance.
+     *
+     * @param measure The measure
+     * @param <S> The type of the summary
+     * @return The summary of the elements
+     */
+    public <S> S measure(Measure<? super E, S> measure) {
+        return measure(root, measure);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E, S> S measure(Node<E> node, Measure<? super E, S> measure) {
+        if (node == null) {
+            return measure.empty();
+        }
+        Measured cached = node.measured;
+        if (cached != null && cached.measure() == measure) {
+            return (S) cached.summary();
+        }
+
+        S summary = measure.combine(measure.combine(measure(node.left, measure), measure.of(node.value)),
+                measure(node.right, measure));
+        node.measured = new Measured(measure, summary);
+        return summary;
+    }
+
+    /**
+     * Returns the hash code defined by {@link List#hashCode()}. It is computed from hashes cached in the tree,
+     * so after a change only the O(log n) new nodes have to be hashed, provided the elements cache their
+     * own hashes.
+     */
+    @Override
+    public int hashCode() {
+        if (root == null) {
+            return 1;
+        }
+        long state = hashState(root);
+        return (int) (state >>> 32) + (int) state;
+    }
+
+    /**
+     * Compares the specified object with this list as defined by {@link List#equals(Object)}. Lists sharing
+     * their tree are equal without comparing their elements, and two PersistentLists with different hash
+     * codes are unequal without comparing them either.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PersistentList<?> other) {
+            if (other.root == root) {
+                return true;
+            }
+            if (other.size() != size() || other.hashCode() != hashCode()) {
+                return false;
+            }
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * Returns 31 to the power of the size of the subtree in the high and the sum of its element hashes,
+     * each multiplied by 31 to the power of the number of elements after it, in the low half.
+     * The hash code of a list is the sum of both, and the state of a node combines those of its children.
+     */
+    private static long hashState(Node<?> node) {
+        if (node == null) {
+            return 1L << 32;
+        }
+        long state = node.hashState;
+        if (state == 0) {
+            long left = hashState(node.left);
+            long right = hashState(node.right);
+            int rightPower = (int) (right >>> 32);
+            int power = (int) (left >>> 32) * 31 * rightPower;
+            int hash = ((int) left * 31 + node.value.hashCode()) * rightPower + (int) right;
+            // The power is odd, so the state is never 0 once it is computed
+            state = ((long) power << 32) | (hash & 0xFFFFFFFFL);
+            node.hashState = state;
+        }
+        return state;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <E> Node<E> set(Node<E> node, int index, E element) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node<>(node.value, set(node.left, index, element), node.right, node.size);
+        }
+        if (index > leftSize) {
+            return new Node<>(node.value, node.left, set(node.right, index - leftSize - 1, element), node.size);
+        }
+        return new Node<>(element, node.left, node.right, node.size);
+    }
+
+    private static <E> Node<E> insert(Node<E> node, int index, E element) {
+        if (node == null) {
+            return new Node<>(element, null, null, 1);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node.value, insert(node.left, index, element), node.right);
+        }
+        return balance(node.value, node.left, insert(node.right, index - leftSize - 1, element));
+    }
+
+    private static <E> Node<E> remove(Node<E> node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node.value, remove(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.value, node.left, remove(node.right, index - leftSize - 1));
+        }
+        return glue(node.left, node.right);
+    }
+
+    /**
+     * Joins the two subtrees of a removed node, which were balanced with each other, by moving the
+     * last element of the larger left or the first element of the larger right subtree up.
+     */
+    private static <E> Node<E> glue(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (size(left) > size(right)) {
+            int last = size(left) - 1;
+            return balance(get(left, last), remove(left, last), right);
+        }
+        return balance(get(right, 0), left, remove(right, 0));
+    }
+
+    /**
+     * Creates a node from two subtrees of which one may have become one element too heavy,
+     * rotating it back into balance.
+     */
+    private static <E> Node<E> balance(E value, Node<E> left, Node<E> right) {
+        int leftWeight = size(left) + 1;
+        int rightWeight = size(right) + 1;
+        if (rightWeight > DELTA * leftWeight) {
+            if (size(right.left) + 1 < RATIO * (size(right.right) + 1)) {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            Node<E> middle = right.left;
+            return new Node<>(middle.value, new Node<>(value, left, middle.left),
+                    new Node<>(right.value, middle.right, right.right));
+        }
+        if (leftWeight > DELTA * rightWeight) {
+            if (size(left.right) + 1 < RATIO * (size(left.left) + 1)) {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            Node<E> middle = left.right;
+            return new Node<>(middle.value, new Node<>(left.value, left.left, middle.left),
+                    new Node<>(value, middle.right, right));
+        }
+        return new Node<>(value, left, right);
+    }
+}
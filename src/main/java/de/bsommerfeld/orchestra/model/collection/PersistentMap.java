@@ -0,0 +1,302 @@
+package de.bsommerfeld.orchestra.model.collection;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable hash map whose changes return a new map that shares all untouched structure with the old one.
+ * The entries are kept in a hash array mapped trie, a tree that branches on five bits of the hash per level,
+ * so looking up, adding and removing a key take O(log32 n) time and copy only the nodes on the way to it.
+ *
+ * <p>Unlike {@link PersistentList}, it is not a {@link java.util.Map}; it only offers what is needed to keep
+ * an index up to date as the indexed tree changes. Neither keys nor values may be null.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> The type of the keys
+     * @param <V> The type of the values
+     * @return The empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the specified key.
+     *
+     * @param key The key
+     * @return The value, or null if the map does not contain the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return root == null || key == null ? null : (V) root.get(0, key.hashCode(), key);
+    }
+
+    /**
+     * Returns whether this map contains the specified key.
+     *
+     * @param key The key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map in which the specified key has the specified value.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The changed map, or this map if the key already has that value
+     * @throws NullPointerException if the key or the value is null
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        boolean[] added = new boolean[1];
+        Node changed = (root != null ? root : BitmapNode.EMPTY).plus(0, key.hashCode(), key, value, added);
+        return changed == root ? this : new PersistentMap<>(changed, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the specified key.
+     *
+     * @param key The key to remove
+     * @return The changed map, or this map if it does not contain the key
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Node changed = root.minus(0, key.hashCode(), key);
+        if (changed == root) {
+            return this;
+        }
+        return changed == null ? empty() : new PersistentMap<>(changed, size - 1);
+    }
+
+    private interface Node {
+
+        Object get(int shift, int hash, Object key);
+
+        Node plus(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * Returns the node without the key, this node if it does not contain it, or null if it becomes empty.
+         */
+        Node minus(int shift, int hash, Object key);
+    }
+
+    /**
+     * A node with up to 32 slots, of which only the used ones are stored, in pairs: a key and its value, or
+     * null and the node of the keys that share the hash bits up to the next level.
+     */
+    private static final class BitmapNode implements Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).get(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        public Node plus(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] changed = new Object[array.length + 2];
+                System.arraycopy(array, 0, changed, 0, i);
+                changed[i] = key;
+                changed[i + 1] = value;
+                System.arraycopy(array, i, changed, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, changed);
+            }
+
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).plus(shift + BITS, hash, key, value, added);
+                return child == v ? this : with(i + 1, child);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(i + 1, value);
+            }
+            added[0] = true;
+            Object[] changed = array.clone();
+            changed[i] = null;
+            changed[i + 1] = pair(shift + BITS, k, v, hash, key, value);
+            return new BitmapNode(bitmap, changed);
+        }
+
+        @Override
+        public Node minus(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node changed = child.minus(shift + BITS, hash, key);
+                if (changed == child) {
+                    return this;
+                }
+                if (changed != null) {
+                    return with(i + 1, changed);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] changed = new Object[array.length - 2];
+            System.arraycopy(array, 0, changed, 0, i);
+            System.arraycopy(array, i + 2, changed, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, changed);
+        }
+
+        private BitmapNode with(int i, Object value) {
+            Object[] changed = array.clone();
+            changed[i] = value;
+            return new BitmapNode(bitmap, changed);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * A node of keys whose hashes are all equal.
+     */
+    private static final class CollisionNode implements Node {
+
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key) {
+            int i = find(key);
+            return hash == this.hash && i >= 0 ? array[i + 1] : null;
+        }
+
+        @Override
+        public Node plus(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // Branch off where the hashes differ
+                return new BitmapNode(bit(this.hash, shift), new Object[]{null, this})
+                        .plus(shift, hash, key, value, added);
+            }
+            int i = find(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] changed = array.clone();
+                changed[i + 1] = value;
+                return new CollisionNode(hash, changed);
+            }
+            added[0] = true;
+            Object[] changed = Arrays.copyOf(array, array.length + 2);
+            changed[array.length] = key;
+            changed[array.length + 1] = value;
+            return new CollisionNode(hash, changed);
+        }
+
+        @Override
+        public Node minus(int shift, int hash, Object key) {
+            int i = hash == this.hash ? find(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] changed = new Object[array.length - 2];
+            System.arraycopy(array, 0, changed, 0, i);
+            System.arraycopy(array, i + 2, changed, i, array.length - i - 2);
+            return new CollisionNode(hash, changed);
+        }
+
+        private int find(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Creates the node of two keys that share the hash bits up to the specified level.
+     */
+    private static Node pair(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = key1.hashCode();
+        if (hash1 == hash2) {
+            return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+        }
+        boolean[] added = new boolean[1];
+        return BitmapNode.EMPTY.plus(shift, hash1, key1, value1, added).plus(shift, hash2, key2, value2, added);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+}
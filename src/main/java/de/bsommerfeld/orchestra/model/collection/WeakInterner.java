@@ -0,0 +1,124 @@
+package de.bsommerfeld.orchestra.model.collection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Maps equal values to a single canonical instance, like {@link String#intern()} for any immutable type.
+ * The interner only holds its values weakly, so a canonical instance is dropped once nothing else uses it.
+ * Lookups rely on {@code equals} and {@code hashCode}, so values should cache their hash codes.
+ *
+ * <p>The interner is thread-safe without a global lock: the canonical instances are kept in a
+ * {@link ConcurrentHashMap} keyed by weak references, so threads loading different Symphonies in parallel
+ * do not wait for each other, and the factory runs without holding any lock. If two threads intern equal
+ * values at the same time, both may call the factory, but only one result becomes canonical and both
+ * threads return it.
+ *
+ * @param <T> The type of the values
+ */
+public final class WeakInterner<T> {
+
+    private final ConcurrentMap<Key<T>, Key<T>> canonical = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> cleared = new ReferenceQueue<>();
+
+    /**
+     * A weak reference to a value that compares by the value while it is reachable and by identity once it
+     * has been cleared, so a cleared key can still be removed.
+     */
+    private static final class Key<T> extends WeakReference<T> {
+
+        private final int hash;
+
+        Key(T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key<?> other) || hash != other.hash) return false;
+            Object value = get();
+            return value != null && value.equals(other.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Returns the canonical instance equal to the specified value. If there is none yet, the value becomes
+     * the canonical instance.
+     *
+     * @param value The value
+     * @return The canonical instance
+     */
+    public T intern(T value) {
+        return intern(value, UnaryOperator.identity());
+    }
+
+    /**
+     * Returns the canonical instance equal to the specified value. If there is none yet, the result of the
+     * factory becomes the canonical instance.
+     *
+     * @param value The value
+     * @param factory Creates the canonical instance from the value, e.g. with its own parts interned.
+     *                The result must be equal to the value. It may be called by several threads for equal
+     *                values, of which all but one result are discarded.
+     * @return The canonical instance
+     */
+    public T intern(T value, UnaryOperator<T> factory) {
+        expungeCleared();
+
+        Key<T> lookup = new Key<>(value, null);
+        T existing = canonicalOf(canonical.get(lookup));
+        if (existing != null) {
+            return existing;
+        }
+
+        T created = factory.apply(value);
+        Key<T> key = new Key<>(created, cleared);
+        while (true) {
+            Key<T> raced = canonical.putIfAbsent(key, key);
+            if (raced == null) {
+                return created;
+            }
+            existing = canonicalOf(raced);
+            if (existing != null) {
+                return existing;
+            }
+            // The other key was cleared after it was found, drop it and try again
+            canonical.remove(raced, raced);
+        }
+    }
+
+    /**
+     * Returns the number of canonical instances that are still in use.
+     *
+     * @return The number of interned values
+     */
+    public int size() {
+        expungeCleared();
+        return canonical.size();
+    }
+
+    private static <T> T canonicalOf(Key<T> key) {
+        return key != null ? key.get() : null;
+    }
+
+    /**
+     * Removes the keys whose values have been garbage collected.
+     */
+    private void expungeCleared() {
+        Reference<? extends T> reference;
+        while ((reference = cleared.poll()) != null) {
+            canonical.remove(reference, reference);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.bsommerfeld.orchestra.model.diff;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes the edits that turn one Symphony into another.
+ * The diff trims the unchanged start and end of every list and only descends into the part in between,
+ * so the usual single-node change produces one or two small edits instead of a copy of the whole tree.
+ * Nodes are matched by their ids, so a renamed node is changed in place while a node replaced by another
+ * one is removed and inserted.
+ * The result is not guaranteed to be minimal (a moved node shows up as a removal and an insertion),
+ * but applying it in order to the old Symphony always yields a tree equal to the new one.
+ */
+public final class SymphonyDiff {
+
+    private SymphonyDiff() {
+    }
+
+    /**
+     * Computes the edits that turn {@code before} into {@code after}.
+     * The title and creation timestamp are not compared, since they identify the Symphony. A changed version
+     * is the last edit, so a store that applies the edits one by one records it together with the changes.
+     *
+     * @param before The old state
+     * @param after The new state
+     * @return The edits in application order; empty if the trees are equal
+     */
+    public static List<SymphonyEdit> between(Symphony before, Symphony after) {
+        if (before == after) {
+            return Collections.emptyList();
+        }
+
+        List<SymphonyEdit> edits = new ArrayList<>();
+        if (!Objects.equals(before.getDescription(), after.getDescription())) {
+            edits.add(new SymphonyEdit.SetDescription(after.getDescription().orElse(null)));
+        }
+        diffChoirs(before.getChoirs(), after.getChoirs(), edits);
+        if (before.getVersion() != after.getVersion()) {
+            edits.add(new SymphonyEdit.SetVersion(after.getVersion()));
+        }
+        return edits;
+    }
+
+    /**
+     * Applies a list of edits in order.
+     *
+     * @param symphony The Symphony to start from
+     * @param edits The edits to apply
+     * @return The resulting Symphony
+     */
+    public static Symphony apply(Symphony symphony, List<SymphonyEdit> edits) {
+        Symphony result = symphony;
+        for (SymphonyEdit edit : edits) {
+            result = edit.applyTo(result);
+        }
+        return result;
+    }
+
+    private static void diffChoirs(List<Choir> before, List<Choir> after, List<SymphonyEdit> edits) {
+        int start = commonPrefix(before, after);
+        int beforeEnd = before.size();
+        int afterEnd = after.size();
+        while (beforeEnd > start && afterEnd > start && same(before.get(beforeEnd - 1), after.get(afterEnd - 1))) {
+            beforeEnd--;
+            afterEnd--;
+        }
+
+        if (beforeEnd - start == afterEnd - start) {
+            // Same number of changed choirs: compare them pairwise
+            for (int i = start; i < beforeEnd; i++) {
+                Choir oldChoir = before.get(i);
+                Choir newChoir = after.get(i);
+                if (oldChoir.getId().equals(newChoir.getId())) {
+                    diffChoir(i, oldChoir, newChoir, edits);
+                } else {
+                    edits.add(new SymphonyEdit.RemoveChoir(i));
+                    edits.add(new SymphonyEdit.InsertChoir(i, newChoir));
+                }
+            }
+            return;
+        }
+
+        // Remove from the back so the remaining indices stay valid, then insert front to back
+        for (int i = beforeEnd - 1; i >= start; i--) {
+            edits.add(new SymphonyEdit.RemoveChoir(i));
+        }
+        for (int i = start; i < afterEnd; i++) {
+            edits.add(new SymphonyEdit.InsertChoir(i, after.get(i)));
+        }
+    }
+
+    private static void diffChoir(int index, Choir before, Choir after, List<SymphonyEdit> edits) {
+        if (!before.getName().equals(after.getName())
+                || !Objects.equals(before.getDescription(), after.getDescription())) {
+            edits.add(new SymphonyEdit.SetChoirFields(index, after.getName(), after.getDescription().orElse(null)));
+        }
+        diffVoices(List.of(index), before.getVoices(), after.getVoices(), edits);
+    }
+
+    private static void diffVoices(List<Integer> parentPath, List<Voice> before, List<Voice> after, List<SymphonyEdit> edits) {
+        int start = commonPrefix(before, after);
+        int beforeEnd = before.size();
+        int afterEnd = after.size();
+        while (beforeEnd > start && afterEnd > start && same(before.get(beforeEnd - 1), after.get(afterEnd - 1))) {
+            beforeEnd--;
+            afterEnd--;
+        }
+
+        if (beforeEnd - start == afterEnd - start) {
+            for (int i = start; i < beforeEnd; i++) {
+                Voice oldVoice = before.get(i);
+                Voice newVoice = after.get(i);
+                List<Integer> path = append(parentPath, i);
+                if (oldVoice.getId().equals(newVoice.getId())) {
+                    diffVoice(path, oldVoice, newVoice, edits);
+                } else {
+                    edits.add(new SymphonyEdit.RemoveVoice(path));
+                    edits.add(new SymphonyEdit.InsertVoice(path, newVoice));
+                }
+            }
+            return;
+        }
+
+        for (int i = beforeEnd - 1; i >= start; i--) {
+            edits.add(new SymphonyEdit.RemoveVoice(append(parentPath, i)));
+        }
+        for (int i = start; i < afterEnd; i++) {
+            edits.add(new SymphonyEdit.InsertVoice(append(parentPath, i), after.get(i)));
+        }
+    }
+
+    private static void diffVoice(List<Integer> path, Voice before, Voice after, List<SymphonyEdit> edits) {
+        if (before.isCompleted() != after.isCompleted()
+                || !before.getTitle().equals(after.getTitle())
+                || !Objects.equals(before.getDescription(), after.getDescription())) {
+            edits.add(new SymphonyEdit.SetVoiceFields(path, after.getTitle(),
+                    after.getDescription().orElse(null), after.isCompleted()));
+        }
+        diffVoices(path, before.getSubVoices(), after.getSubVoices(), edits);
+    }
+
+    private static <T> int commonPrefix(List<T> before, List<T> after) {
+        int limit = Math.min(before.size(), after.size());
+        int i = 0;
+        while (i < limit && same(before.get(i), after.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == b || a.equals(b);
+    }
+
+    private static List<Integer> append(List<Integer> path, int index) {
+        List<Integer> result = new ArrayList<>(path.size() + 1);
+        result.addAll(path);
+        result.add(index);
+        return result;
+    }
+}
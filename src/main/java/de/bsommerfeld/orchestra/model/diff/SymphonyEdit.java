@@ -0,0 +1,148 @@
+package de.bsommerfeld.orchestra.model.diff;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.VoicePath;
+
+import java.util.List;
+
+/**
+ * A single, small change to a Symphony tree.
+ * Edits address nodes by position: choir edits carry the index of the choir, voice edits carry a path
+ * whose first element is the choir index followed by the index of the voice on every level below it.
+ * A list of edits produced by {@link SymphonyDiff} must be applied in order, because every edit sees
+ * the indices left behind by the edits before it.
+ */
+public sealed interface SymphonyEdit {
+
+    /**
+     * Applies this edit to the specified Symphony.
+     *
+     * @param symphony The Symphony to change
+     * @return A new Symphony with the edit applied
+     * @throws IndexOutOfBoundsException if the edit addresses a node that does not exist
+     * @throws IllegalArgumentException if a voice path has no voice index or a negative index
+     */
+    Symphony applyTo(Symphony symphony);
+
+    /**
+     * Replaces the description of the Symphony.
+     *
+     * @param description The new description (can be null)
+     */
+    record SetDescription(String description) implements SymphonyEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.withDescription(description);
+        }
+    }
+
+    /**
+     * Replaces the version of the Symphony, see {@link Symphony#getVersion()}.
+     *
+     * @param version The new version
+     */
+    record SetVersion(long version) implements SymphonyEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.withVersion(version);
+        }
+    }
+
+    /**
+     * Inserts a Choir at the specified index.
+     *
+     * @param index The index the Choir will have after the insertion
+     * @param choir The Choir to insert
+     */
+    record InsertChoir(int index, Choir choir) implements SymphonyEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return TreeRewriter.updateChoirs(symphony, choirs -> choirs.plus(index, choir));
+        }
+    }
+
+    /**
+     * Removes the Choir at the specified index.
+     *
+     * @param index The index of the Choir to remove
+     */
+    record RemoveChoir(int index) implements SymphonyEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return TreeRewriter.updateChoirs(symphony, choirs -> choirs.minus(index));
+        }
+    }
+
+    /**
+     * Replaces the name and description of the Choir at the specified index, keeping its id and voices.
+     *
+     * @param index The index of the Choir
+     * @param name The new name
+     * @param description The new description (can be null)
+     */
+    record SetChoirFields(int index, String name, String description) implements SymphonyEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return TreeRewriter.updateChoirs(symphony, choirs -> {
+                Choir choir = choirs.get(index);
+                return choirs.with(index, new Choir(choir.getId(), name, description, choir.getVoices()));
+            });
+        }
+    }
+
+    /**
+     * Inserts a Voice (with its sub-voices) at the specified path.
+     *
+     * @param path The path the Voice will have after the insertion
+     * @param voice The Voice to insert
+     */
+    record InsertVoice(List<Integer> path, Voice voice) implements SymphonyEdit {
+        public InsertVoice {
+            path = List.copyOf(path);
+        }
+
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.insertAt(VoicePath.of(path), voice);
+        }
+    }
+
+    /**
+     * Removes the Voice (with its sub-voices) at the specified path.
+     *
+     * @param path The path of the Voice to remove
+     */
+    record RemoveVoice(List<Integer> path) implements SymphonyEdit {
+        public RemoveVoice {
+            path = List.copyOf(path);
+        }
+
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.removeAt(VoicePath.of(path));
+        }
+    }
+
+    /**
+     * Replaces the title, description and completion status of the Voice at the specified path,
+     * keeping its id and sub-voices.
+     *
+     * @param path The path of the Voice
+     * @param title The new title
+     * @param description The new description (can be null)
+     * @param completed The new completion status
+     */
+    record SetVoiceFields(List<Integer> path, String title, String description, boolean completed) implements SymphonyEdit {
+        public SetVoiceFields {
+            path = List.copyOf(path);
+        }
+
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.updateAt(VoicePath.of(path),
+                    voice -> new Voice(voice.getId(), title, description, voice.getSubVoices(), completed));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package de.bsommerfeld.orchestra.model.diff;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Computes the {@link TreeEdit}s that turn the Choirs and Voices of one Symphony into those of another, for
+ * views that keep one item per node and should only touch the items of changed nodes.
+ *
+ * <p>Nodes are matched by id across the whole tree, so a node that moved to another parent or position is
+ * moved rather than removed and inserted, and a node whose fields changed is updated in place. Like
+ * {@link SymphonyDiff}, the diff only descends into the changed part of every list: unchanged subtrees are
+ * shared between the snapshots, so they are skipped after a reference comparison and the work grows with the
+ * size of the change, not with the size of the tree. A node is only moved if it stays below a matched parent;
+ * one that leaves a removed node or enters an inserted one is removed and inserted with it.
+ */
+public final class TreeDiff {
+
+    // Nodes of the changed parts of the lists in the old tree that have no match yet, by id
+    private final Map<String, Object> unmatchedBefore = new HashMap<>();
+    // Nodes of the changed parts of the lists in the new tree that have no match yet, by id
+    private final Map<String, Object> unmatchedAfter = new HashMap<>();
+    // The id of the current parent of every node in a changed part of a list, null for Choirs
+    private final Map<String, String> parents = new HashMap<>();
+    // The changed part of every list, by the id of its parent, in the order they were found
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+    private final Deque<Object[]> matches = new ArrayDeque<>();
+    private final List<TreeEdit> updates = new ArrayList<>();
+
+    /**
+     * The changed part of a list of child nodes.
+     *
+     * @param parentId The id of the Choir or Voice the list belongs to, null for the list of Choirs
+     * @param start The index of the first changed node
+     * @param current The ids of the nodes in the changed part while the edits are made, starting with the old ones
+     * @param after The nodes in the changed part of the new list
+     */
+    private record Window(String parentId, int start, List<String> current, List<?> after) {
+    }
+
+    private TreeDiff() {
+    }
+
+    /**
+     * Computes the edits that turn the tree of {@code before} into the tree of {@code after}.
+     * The title, description and version of the Symphony are not compared.
+     *
+     * @param before The old state
+     * @param after The new state
+     * @return The removals, then the updates, then the insertions and moves in application order; empty if
+     * the trees are equal
+     */
+    public static List<TreeEdit> between(Symphony before, Symphony after) {
+        if (before == after || before.getChoirs() == after.getChoirs()) {
+            return Collections.emptyList();
+        }
+        return new TreeDiff().diff(before, after);
+    }
+
+    /**
+     * Applies a list of edits in order.
+     *
+     * @param symphony The Symphony to start from
+     * @param edits The edits to apply
+     * @return The resulting Symphony
+     */
+    public static Symphony apply(Symphony symphony, List<TreeEdit> edits) {
+        Symphony result = symphony;
+        for (TreeEdit edit : edits) {
+            result = edit.applyTo(result);
+        }
+        return result;
+    }
+
+    private List<TreeEdit> diff(Symphony before, Symphony after) {
+        diffList(null, before.getChoirs(), after.getChoirs());
+        while (!matches.isEmpty()) {
+            Object[] match = matches.poll();
+            diffNode(match[0], match[1]);
+        }
+
+        List<TreeEdit> edits = new ArrayList<>();
+        // Nodes without a match were removed; drop them first so the indices below are those of the new lists
+        for (Window window : windows.values()) {
+            for (Iterator<String> it = window.current().iterator(); it.hasNext(); ) {
+                String id = it.next();
+                if (unmatchedBefore.containsKey(id)) {
+                    edits.add(new TreeEdit.Remove(id));
+                    it.remove();
+                }
+            }
+        }
+        edits.addAll(updates);
+        for (Window window : windows.values()) {
+            place(window, edits);
+        }
+        return edits;
+    }
+
+    private void diffNode(Object before, Object after) {
+        if (before instanceof Choir oldChoir && after instanceof Choir newChoir) {
+            if (!oldChoir.getName().equals(newChoir.getName())
+                    || !Objects.equals(oldChoir.getDescription(), newChoir.getDescription())) {
+                updates.add(new TreeEdit.UpdateChoir(newChoir));
+            }
+            diffList(newChoir.getId(), oldChoir.getVoices(), newChoir.getVoices());
+        } else if (before instanceof Voice oldVoice && after instanceof Voice newVoice) {
+            if (oldVoice.isCompleted() != newVoice.isCompleted()
+                    || !oldVoice.getTitle().equals(newVoice.getTitle())
+                    || !Objects.equals(oldVoice.getDescription(), newVoice.getDescription())) {
+                updates.add(new TreeEdit.UpdateVoice(newVoice));
+            }
+            diffList(newVoice.getId(), oldVoice.getSubVoices(), newVoice.getSubVoices());
+        }
+    }
+
+    /**
+     * Finds the changed part of a list and matches its nodes with the changed parts found so far.
+     */
+    private void diffList(String parentId, List<?> before, List<?> after) {
+        if (before == after) {
+            return;
+        }
+        int start = 0;
+        int limit = Math.min(before.size(), after.size());
+        while (start < limit && same(before.get(start), after.get(start))) {
+            start++;
+        }
+        int beforeEnd = before.size();
+        int afterEnd = after.size();
+        while (beforeEnd > start && afterEnd > start && same(before.get(beforeEnd - 1), after.get(afterEnd - 1))) {
+            beforeEnd--;
+            afterEnd--;
+        }
+        if (beforeEnd == start && afterEnd == start) {
+            return;
+        }
+
+        List<String> current = new ArrayList<>(beforeEnd - start);
+        for (Object node : before.subList(start, beforeEnd)) {
+            String id = idOf(node);
+            current.add(id);
+            parents.put(id, parentId);
+            Object match = unmatchedAfter.remove(id);
+            if (match != null) {
+                matches.add(new Object[]{node, match});
+            } else {
+                unmatchedBefore.put(id, node);
+            }
+        }
+        List<?> changed = after.subList(start, afterEnd);
+        for (Object node : changed) {
+            String id = idOf(node);
+            Object match = unmatchedBefore.remove(id);
+            if (match != null) {
+                matches.add(new Object[]{match, node});
+            } else {
+                unmatchedAfter.put(id, node);
+            }
+        }
+        windows.put(parentId, new Window(parentId, start, current, changed));
+    }
+
+    /**
+     * Inserts and moves nodes until the changed part of a list holds the nodes of the new list.
+     * The longest run of nodes that are already in the list in the right order stays where it is; every other
+     * node is put right behind its predecessor in the new list, front to back. Nodes that still have to move
+     * to another list may sit in between until their list is placed.
+     */
+    private void place(Window window, List<TreeEdit> edits) {
+        List<String> current = window.current();
+        Set<String> staying = longestOrderedRun(current, window.after());
+        // The position of the last node placed so far
+        int position = -1;
+        for (Object node : window.after()) {
+            String id = idOf(node);
+            if (staying.contains(id)) {
+                do {
+                    position++;
+                } while (!current.get(position).equals(id));
+                continue;
+            }
+
+            if (!unmatchedAfter.containsKey(id)) {
+                List<String> from = windows.get(parents.get(id)).current();
+                int fromIndex = from.indexOf(id);
+                from.remove(fromIndex);
+                if (from == current && fromIndex < position) {
+                    position--;
+                }
+            }
+            position++;
+            current.add(position, id);
+
+            int index = window.start() + position;
+            if (unmatchedAfter.containsKey(id)) {
+                edits.add(node instanceof Choir choir
+                        ? new TreeEdit.InsertChoir(index, choir)
+                        : new TreeEdit.InsertVoice(window.parentId(), index, (Voice) node));
+            } else {
+                parents.put(id, window.parentId());
+                edits.add(new TreeEdit.Move(id, window.parentId(), index));
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the longest sequence of nodes that are in the current list and in the new list in the
+     * same order, found as the longest increasing subsequence of their indices in the new list.
+     */
+    private static Set<String> longestOrderedRun(List<String> current, List<?> after) {
+        Map<String, Integer> newIndices = new HashMap<>();
+        for (int i = 0; i < after.size(); i++) {
+            newIndices.put(idOf(after.get(i)), i);
+        }
+        List<String> ids = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (String id : current) {
+            Integer index = newIndices.get(id);
+            if (index != null) {
+                ids.add(id);
+                indices.add(index);
+            }
+        }
+
+        // tails[k]: the position in ids of the smallest last index of an increasing run of length k + 1
+        int[] tails = new int[ids.size()];
+        int[] previous = new int[ids.size()];
+        int length = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (indices.get(tails[middle]) < indices.get(i)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        Set<String> run = new HashSet<>();
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            run.add(ids.get(i));
+        }
+        return run;
+    }
+
+    private static String idOf(Object node) {
+        return node instanceof Choir choir ? choir.getId() : ((Voice) node).getId();
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == b || a.equals(b);
+    }
+}
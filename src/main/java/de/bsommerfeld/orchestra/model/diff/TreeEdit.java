@@ -0,0 +1,139 @@
+package de.bsommerfeld.orchestra.model.diff;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonyIndex;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.VoicePath;
+
+import java.util.Optional;
+
+/**
+ * A change of a single node of a Symphony tree, addressed by id.
+ * Unlike a {@link SymphonyEdit}, which addresses nodes by position, a tree edit can be applied to any
+ * structure that finds its nodes by id, like the items of a tree view. A list of edits produced by
+ * {@link TreeDiff} must be applied in order; indices are those the node has right after the edit.
+ */
+public sealed interface TreeEdit {
+
+    /**
+     * Applies this edit to the specified Symphony.
+     *
+     * @param symphony The Symphony to change
+     * @return A new Symphony with the edit applied
+     * @throws IllegalArgumentException if the edit addresses a node that does not exist
+     * @throws IndexOutOfBoundsException if the index of an insertion or move is out of range
+     */
+    Symphony applyTo(Symphony symphony);
+
+    /**
+     * Removes the Choir or Voice with the specified id, together with everything below it.
+     *
+     * @param id The id of the node to remove
+     */
+    record Remove(String id) implements TreeEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            SymphonyIndex index = symphony.index();
+            Optional<SymphonyIndex.ChoirEntry> choir = index.getChoirEntry(id);
+            if (choir.isPresent()) {
+                return TreeRewriter.updateChoirs(symphony, choirs -> choirs.minus(choir.get().index()));
+            }
+            return symphony.removeAt(requirePath(index, id));
+        }
+    }
+
+    /**
+     * Inserts a Choir, with its Voices, at the specified index.
+     *
+     * @param index The index the Choir will have after the insertion
+     * @param choir The Choir to insert
+     */
+    record InsertChoir(int index, Choir choir) implements TreeEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return TreeRewriter.updateChoirs(symphony, choirs -> choirs.plus(index, choir));
+        }
+    }
+
+    /**
+     * Inserts a Voice, with its sub-voices, into the Choir or Voice with the specified id.
+     *
+     * @param parentId The id of the Choir or Voice to insert the Voice into
+     * @param index The index the Voice will have among the Voices of its parent
+     * @param voice The Voice to insert
+     */
+    record InsertVoice(String parentId, int index, Voice voice) implements TreeEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.insertAt(childPath(symphony.index(), parentId, index), voice);
+        }
+    }
+
+    /**
+     * Moves a node, together with everything below it, to another position. Choirs are moved within the
+     * list of Choirs, Voices to any Choir or Voice.
+     *
+     * @param id The id of the node to move
+     * @param parentId The id of the Choir or Voice to move a Voice to, null for a Choir
+     * @param index The index the node will have among the nodes of its new parent
+     */
+    record Move(String id, String parentId, int index) implements TreeEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            SymphonyIndex symphonyIndex = symphony.index();
+            Optional<SymphonyIndex.ChoirEntry> choir = symphonyIndex.getChoirEntry(id);
+            if (choir.isPresent()) {
+                return TreeRewriter.updateChoirs(symphony,
+                        choirs -> choirs.minus(choir.get().index()).plus(index, choir.get().choir()));
+            }
+            Voice voice = symphonyIndex.findVoice(id).orElseThrow(() -> missing(id));
+            Symphony removed = symphony.removeAt(requirePath(symphonyIndex, id));
+            return removed.insertAt(childPath(removed.index(), parentId, index), voice);
+        }
+    }
+
+    /**
+     * Replaces the name and description of a Choir, keeping its Voices.
+     *
+     * @param choir The Choir with the new name and description
+     */
+    record UpdateChoir(Choir choir) implements TreeEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            int index = symphony.index().getChoirEntry(choir.getId()).orElseThrow(() -> missing(choir.getId())).index();
+            return TreeRewriter.updateChoirs(symphony, choirs -> choirs.with(index, new Choir(choir.getId(),
+                    choir.getName(), choir.getDescription().orElse(null), choirs.get(index).getVoices())));
+        }
+    }
+
+    /**
+     * Replaces the title, description and completion status of a Voice, keeping its sub-voices.
+     *
+     * @param voice The Voice with the new title, description and completion status
+     */
+    record UpdateVoice(Voice voice) implements TreeEdit {
+        @Override
+        public Symphony applyTo(Symphony symphony) {
+            return symphony.updateAt(requirePath(symphony.index(), voice.getId()),
+                    current -> new Voice(current.getId(), voice.getTitle(), voice.getDescription().orElse(null),
+                            current.getSubVoices(), voice.isCompleted()));
+        }
+    }
+
+    private static VoicePath requirePath(SymphonyIndex index, String id) {
+        return index.pathOf(id).orElseThrow(() -> missing(id));
+    }
+
+    private static VoicePath childPath(SymphonyIndex index, String parentId, int childIndex) {
+        Optional<SymphonyIndex.ChoirEntry> choir = index.getChoirEntry(parentId);
+        if (choir.isPresent()) {
+            return VoicePath.of(choir.get().index(), childIndex);
+        }
+        return requirePath(index, parentId).child(childIndex);
+    }
+
+    private static IllegalArgumentException missing(String id) {
+        return new IllegalArgumentException("Choir or Voice with id '" + id + "' does not exist");
+    }
+}
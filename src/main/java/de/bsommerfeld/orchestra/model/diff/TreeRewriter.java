@@ -0,0 +1,22 @@
+package de.bsommerfeld.orchestra.model.diff;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.collection.PersistentList;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Rebuilds a Symphony around a change to its list of choirs, sharing the untouched choirs.
+ * Changes to voice lists go through {@link Symphony#updateAt} and the other path-based methods of Symphony.
+ */
+final class TreeRewriter {
+
+    private TreeRewriter() {
+    }
+
+    static Symphony updateChoirs(Symphony symphony, UnaryOperator<PersistentList<Choir>> change) {
+        PersistentList<Choir> choirs = change.apply(PersistentList.copyOf(symphony.getChoirs()));
+        return new Symphony(symphony.getTitle(), symphony.getDescription().orElse(null), choirs, symphony.getVersion());
+    }
+}
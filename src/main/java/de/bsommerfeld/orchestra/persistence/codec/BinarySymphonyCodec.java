@@ -0,0 +1,371 @@
+package de.bsommerfeld.orchestra.persistence.codec;
+
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.mapper.LegacyIds;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SymphonyCodec for a compact, versioned binary format.
+ *
+ * <p>Layout of version 3 (all integers are unsigned LEB128 varints unless noted):
+ * <pre>
+ * magic            4 bytes "ORCB"
+ * version          varint
+ * stringCount      varint
+ * choirCount       varint, total number of choirs
+ * voiceCount       varint, total number of voices at all levels
+ * strings          stringCount x (length varint, UTF-8 bytes)
+ * symphony         title ref, description ref, createdAt (zig-zag epoch second, nano), symphony version varint,
+ *                  choir count, choirs
+ * choir            id, name ref, description ref, voice count, voices
+ * voice            id, title ref, description ref, flags byte (bit 0 = completed), sub-voice count, sub-voices
+ * id               kind byte, then 16 bytes (kind 0, a UUID in its canonical form) or a string ref (kind 1)
+ * </pre>
+ * A string ref is 0 for null or the index in the string table plus one, so every distinct title and
+ * description is stored once. The counts in the header let readers presize their tables and detect truncated files.
+ * Version 1 files, written before choirs and voices had ids, are still read; their nodes get new ids.
+ * Version 1 and 2 files have no symphony version and are read with version 0.
+ */
+@Singleton
+public class BinarySymphonyCodec implements SymphonyCodec {
+
+    /**
+     * The version of the format written by this codec.
+     */
+    public static final int FORMAT_VERSION = 3;
+
+    private static final int FIRST_VERSION_WITH_IDS = 2;
+    private static final int FIRST_VERSION_WITH_SYMPHONY_VERSION = 3;
+    private static final byte[] MAGIC = {'O', 'R', 'C', 'B'};
+    private static final int FLAG_COMPLETED = 1;
+    private static final int ID_UUID = 0;
+    private static final int ID_STRING = 1;
+    // Upper bound for presizing lists from counts that have not been validated yet
+    private static final int MAX_PRESIZE = 4096;
+
+    @Override
+    public void write(Symphony symphony, OutputStream out) throws IOException {
+        StringTable strings = new StringTable();
+        int[] counts = new int[2];
+        strings.add(symphony.getTitle());
+        strings.add(symphony.getDescription().orElse(null));
+        for (Choir choir : symphony.getChoirs()) {
+            counts[0]++;
+            addId(strings, choir.getId());
+            strings.add(choir.getName());
+            strings.add(choir.getDescription().orElse(null));
+            collect(choir.getVoices(), strings, counts);
+        }
+
+        BufferedOutputStream buffer = new BufferedOutputStream(out);
+        Output output = new Output(buffer);
+        buffer.write(MAGIC);
+        output.writeVarInt(FORMAT_VERSION);
+        output.writeVarInt(strings.size());
+        output.writeVarInt(counts[0]);
+        output.writeVarInt(counts[1]);
+        for (String string : strings.values()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeVarInt(bytes.length);
+            buffer.write(bytes);
+        }
+
+        output.writeVarInt(strings.ref(symphony.getTitle()));
+        output.writeVarInt(strings.ref(symphony.getDescription().orElse(null)));
+        LocalDateTime createdAt = symphony.getCreatedAt();
+        output.writeVarLong(zigZag(createdAt.toEpochSecond(ZoneOffset.UTC)));
+        output.writeVarInt(createdAt.getNano());
+        output.writeVarLong(symphony.getVersion());
+        output.writeVarInt(symphony.getChoirs().size());
+        for (Choir choir : symphony.getChoirs()) {
+            writeId(output, strings, choir.getId());
+            output.writeVarInt(strings.ref(choir.getName()));
+            output.writeVarInt(strings.ref(choir.getDescription().orElse(null)));
+            writeVoices(output, strings, choir.getVoices());
+        }
+        buffer.flush();
+    }
+
+    @Override
+    public Symphony read(InputStream in) throws IOException {
+        Input input = new Input(new BufferedInputStream(in));
+        byte[] magic = input.readBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary Symphony file");
+        }
+        int version = input.readVarInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported binary Symphony format version: " + version);
+        }
+
+        int stringCount = input.readVarInt();
+        int choirCount = input.readVarInt();
+        int voiceCount = input.readVarInt();
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = new String(input.readBytes(input.readVarInt()), StandardCharsets.UTF_8);
+        }
+
+        Reader reader = new Reader(input, strings, version >= FIRST_VERSION_WITH_IDS);
+        String title = reader.readString();
+        String description = reader.readString();
+        // Symphony sets its own creation timestamp, just like SymphonyMapperImpl
+        input.readVarLong();
+        input.readVarInt();
+        long symphonyVersion = version >= FIRST_VERSION_WITH_SYMPHONY_VERSION ? input.readVarLong() : 0;
+        int choirs = input.readVarInt();
+        List<Choir> choirList = new ArrayList<>(Math.min(choirs, choirCount));
+        for (int i = 0; i < choirs; i++) {
+            String storedId = reader.readId();
+            // Choirs and voices written before ids existed get a derived one, like in SymphonyMapperImpl
+            String id = storedId != null ? storedId : LegacyIds.choirId(title, i);
+            String name = reader.readString();
+            String choirDescription = reader.readString();
+            List<Voice> voices = reader.readVoices(id);
+            choirList.add(new Choir(id, name, choirDescription, voices).intern());
+        }
+
+        if (choirList.size() != choirCount || reader.voices != voiceCount) {
+            throw new IOException("Corrupt binary Symphony file: counts do not match the header");
+        }
+        return new Symphony(title, description, choirList, symphonyVersion);
+    }
+
+    private static void collect(List<Voice> voices, StringTable strings, int[] counts) {
+        for (Voice voice : voices) {
+            counts[1]++;
+            addId(strings, voice.getId());
+            strings.add(voice.getTitle());
+            strings.add(voice.getDescription().orElse(null));
+            collect(voice.getSubVoices(), strings, counts);
+        }
+    }
+
+    private static void writeVoices(Output output, StringTable strings, List<Voice> voices) throws IOException {
+        output.writeVarInt(voices.size());
+        for (Voice voice : voices) {
+            writeId(output, strings, voice.getId());
+            output.writeVarInt(strings.ref(voice.getTitle()));
+            output.writeVarInt(strings.ref(voice.getDescription().orElse(null)));
+            output.out.write(voice.isCompleted() ? FLAG_COMPLETED : 0);
+            writeVoices(output, strings, voice.getSubVoices());
+        }
+    }
+
+    /**
+     * Ids that are UUIDs are stored in 16 bytes; only other ids go into the string table.
+     */
+    private static void addId(StringTable strings, String id) {
+        if (asUuid(id) == null) {
+            strings.add(id);
+        }
+    }
+
+    private static void writeId(Output output, StringTable strings, String id) throws IOException {
+        UUID uuid = asUuid(id);
+        if (uuid != null) {
+            output.out.write(ID_UUID);
+            output.writeLong(uuid.getMostSignificantBits());
+            output.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            output.out.write(ID_STRING);
+            output.writeVarInt(strings.ref(id));
+        }
+    }
+
+    /**
+     * Returns the UUID the id is the canonical form of, or null if it is any other string.
+     */
+    private static UUID asUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Assigns each distinct string an index in the order it is first seen.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indices = new LinkedHashMap<>();
+
+        void add(String value) {
+            if (value != null) {
+                indices.putIfAbsent(value, indices.size());
+            }
+        }
+
+        int ref(String value) {
+            return value == null ? 0 : indices.get(value) + 1;
+        }
+
+        int size() {
+            return indices.size();
+        }
+
+        Iterable<String> values() {
+            return indices.keySet();
+        }
+    }
+
+    /**
+     * Reads choirs and voices, resolving string refs and counting the voices read.
+     */
+    private static final class Reader {
+
+        private final Input input;
+        private final String[] strings;
+        private final boolean hasIds;
+        private int voices;
+
+        Reader(Input input, String[] strings, boolean hasIds) {
+            this.input = input;
+            this.strings = strings;
+            this.hasIds = hasIds;
+        }
+
+        /**
+         * Reads an id, or returns null if the file was written before nodes had ids.
+         */
+        String readId() throws IOException {
+            if (!hasIds) {
+                return null;
+            }
+            int kind = input.readByte();
+            if (kind == ID_UUID) {
+                return new UUID(input.readLong(), input.readLong()).toString();
+            }
+            if (kind != ID_STRING) {
+                throw new IOException("Corrupt binary Symphony file: invalid id kind " + kind);
+            }
+            String id = readString();
+            if (id == null) {
+                throw new IOException("Corrupt binary Symphony file: missing id");
+            }
+            return id;
+        }
+
+        String readString() throws IOException {
+            int ref = input.readVarInt();
+            if (ref == 0) {
+                return null;
+            }
+            if (ref > strings.length) {
+                throw new IOException("Corrupt binary Symphony file: invalid string reference " + ref);
+            }
+            return strings[ref - 1];
+        }
+
+        List<Voice> readVoices(String parentId) throws IOException {
+            int count = input.readVarInt();
+            List<Voice> list = new ArrayList<>(Math.min(count, MAX_PRESIZE));
+            for (int i = 0; i < count; i++) {
+                String storedId = readId();
+                String id = storedId != null ? storedId : LegacyIds.voiceId(parentId, i);
+                String title = readString();
+                String description = readString();
+                boolean completed = (input.readByte() & FLAG_COMPLETED) != 0;
+                List<Voice> subVoices = readVoices(id);
+                list.add(new Voice(id, title, description, subVoices, completed).intern());
+                voices++;
+            }
+            return list;
+        }
+    }
+
+    private record Output(OutputStream out) {
+
+        void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeLong(long value) throws IOException {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    private record Input(InputStream in) {
+
+        int readByte() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of binary Symphony file");
+            }
+            return b;
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException("Unexpected end of binary Symphony file");
+            }
+            return bytes;
+        }
+
+        long readLong() throws IOException {
+            long value = 0;
+            for (byte b : readBytes(Long.BYTES)) {
+                value = (value << 8) | (b & 0xFF);
+            }
+            return value;
+        }
+
+        int readVarInt() throws IOException {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt binary Symphony file: value out of range");
+            }
+            return (int) value;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt binary Symphony file: varint too long");
+        }
+    }
+}
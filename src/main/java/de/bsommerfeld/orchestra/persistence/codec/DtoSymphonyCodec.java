@@ -0,0 +1,57 @@
+package de.bsommerfeld.orchestra.persistence.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.persistence.dto.SymphonyDTO;
+import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * SymphonyCodec that goes through the DTO layer.
+ * Symphony objects are mapped to a SymphonyDTO graph by the SymphonyMapper and serialized with Jackson data binding.
+ */
+@Singleton
+public class DtoSymphonyCodec implements SymphonyCodec {
+
+    private final SymphonyMapper symphonyMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new DtoSymphonyCodec with the specified SymphonyMapper.
+     *
+     * @param symphonyMapper The SymphonyMapper to use for converting Symphony objects
+     */
+    @Inject
+    public DtoSymphonyCodec(SymphonyMapper symphonyMapper) {
+        this.symphonyMapper = symphonyMapper;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule()); // For handling LocalDateTime
+        this.objectMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        this.objectMapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+    }
+
+    @Override
+    public void write(Symphony symphony, OutputStream out) throws IOException {
+        // Convert the Symphony to a SymphonyDTO
+        SymphonyDTO dto = symphonyMapper.toDto(symphony);
+
+        objectMapper.writeValue(out, dto);
+    }
+
+    @Override
+    public Symphony read(InputStream in) throws IOException {
+        // Read the JSON document and convert it to a SymphonyDTO
+        SymphonyDTO dto = objectMapper.readValue(in, SymphonyDTO.class);
+
+        // Convert the DTO to a Symphony
+        return symphonyMapper.toDomain(dto);
+    }
+}
@@ -0,0 +1,237 @@
+package de.bsommerfeld.orchestra.persistence.codec;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.mapper.LegacyIds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SymphonyCodec that reads and writes the domain model directly with Jackson's streaming API.
+ * No intermediate DTO graph is built, so loading a Symphony allocates little more than the domain objects
+ * themselves. The document layout matches the one written by {@link DtoSymphonyCodec}.
+ */
+@Singleton
+public class StreamingSymphonyCodec implements SymphonyCodec {
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Constructs a new StreamingSymphonyCodec.
+     */
+    public StreamingSymphonyCodec() {
+        this.jsonFactory = JsonFactory.builder()
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+                .build();
+    }
+
+    @Override
+    public void write(Symphony symphony, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("title", symphony.getTitle());
+            generator.writeStringField("description", symphony.getDescription().orElse(null));
+            generator.writeFieldName("createdAt");
+            writeDateTime(generator, symphony.getCreatedAt());
+            generator.writeArrayFieldStart("choirs");
+            for (Choir choir : symphony.getChoirs()) {
+                writeChoir(generator, choir);
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("version", symphony.getVersion());
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public Symphony read(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            String title = null;
+            String description = null;
+            List<Choir> choirs = null;
+            TokenBuffer bufferedChoirs = null;
+            long version = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "title" -> title = parser.getValueAsString();
+                    case "description" -> description = parser.getValueAsString();
+                    case "choirs" -> {
+                        if (title != null) {
+                            String symphonyTitle = title;
+                            choirs = readList(parser, value, (p, index) -> readChoir(p, symphonyTitle, index));
+                        } else {
+                            // The ids of legacy Choirs are derived from the title, which this file stores later
+                            bufferedChoirs = new TokenBuffer(parser);
+                            bufferedChoirs.copyCurrentStructure(parser);
+                        }
+                    }
+                    case "version" -> version = parser.getValueAsLong();
+                    // Symphony sets its own creation timestamp, just like SymphonyMapperImpl
+                    default -> parser.skipChildren();
+                }
+            }
+            if (bufferedChoirs != null) {
+                String symphonyTitle = title;
+                try (JsonParser choirParser = bufferedChoirs.asParser()) {
+                    choirs = readList(choirParser, choirParser.nextToken(),
+                            (p, index) -> readChoir(p, symphonyTitle, index));
+                }
+            }
+            return new Symphony(title, description, choirs, version);
+        }
+    }
+
+    private void writeChoir(JsonGenerator generator, Choir choir) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", choir.getId());
+        generator.writeStringField("name", choir.getName());
+        generator.writeStringField("description", choir.getDescription().orElse(null));
+        generator.writeArrayFieldStart("voices");
+        for (Voice voice : choir.getVoices()) {
+            writeVoice(generator, voice);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeVoice(JsonGenerator generator, Voice voice) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", voice.getId());
+        generator.writeStringField("title", voice.getTitle());
+        generator.writeStringField("description", voice.getDescription().orElse(null));
+        // Like VoiceMapperImpl, leaf voices store null instead of an empty list
+        if (voice.getSubVoices().isEmpty()) {
+            generator.writeNullField("subVoices");
+        } else {
+            generator.writeArrayFieldStart("subVoices");
+            for (Voice subVoice : voice.getSubVoices()) {
+                writeVoice(generator, subVoice);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeBooleanField("completed", voice.isCompleted());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the timestamp as an array of its fields, the way Jackson's JavaTimeModule does by default.
+     */
+    private static void writeDateTime(JsonGenerator generator, LocalDateTime dateTime) throws IOException {
+        generator.writeStartArray();
+        generator.writeNumber(dateTime.getYear());
+        generator.writeNumber(dateTime.getMonthValue());
+        generator.writeNumber(dateTime.getDayOfMonth());
+        generator.writeNumber(dateTime.getHour());
+        generator.writeNumber(dateTime.getMinute());
+        if (dateTime.getSecond() > 0 || dateTime.getNano() > 0) {
+            generator.writeNumber(dateTime.getSecond());
+            if (dateTime.getNano() > 0) {
+                generator.writeNumber(dateTime.getNano());
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private Choir readChoir(JsonParser parser, String symphonyTitle, int index) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        String id = null;
+        String name = null;
+        String description = null;
+        List<Voice> voices = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "name" -> name = parser.getValueAsString();
+                case "description" -> description = parser.getValueAsString();
+                case "voices" -> {
+                    // Like SymphonyMapperImpl, choirs and voices written before ids existed get a derived one
+                    String choirId = id != null ? id : LegacyIds.choirId(symphonyTitle, index);
+                    id = choirId;
+                    voices = readList(parser, value, (p, voiceIndex) -> readVoice(p, choirId, voiceIndex));
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null) {
+            id = LegacyIds.choirId(symphonyTitle, index);
+        }
+        return new Choir(id, name, description, voices).intern();
+    }
+
+    private Voice readVoice(JsonParser parser, String parentId, int index) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        String id = null;
+        String title = null;
+        String description = null;
+        List<Voice> subVoices = null;
+        boolean completed = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "title" -> title = parser.getValueAsString();
+                case "description" -> description = parser.getValueAsString();
+                case "subVoices" -> {
+                    String voiceId = id != null ? id : LegacyIds.voiceId(parentId, index);
+                    id = voiceId;
+                    subVoices = readList(parser, value, (p, subIndex) -> readVoice(p, voiceId, subIndex));
+                }
+                case "completed" -> completed = parser.getValueAsBoolean();
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null) {
+            id = LegacyIds.voiceId(parentId, index);
+        }
+        return new Voice(id, title, description, subVoices, completed).intern();
+    }
+
+    private static <T> List<T> readList(JsonParser parser, JsonToken token, ElementReader<T> reader) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, token, JsonToken.START_ARRAY);
+        List<T> elements = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            elements.add(reader.read(parser, elements.size()));
+        }
+        return elements;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    /**
+     * Reads one element of a JSON array, starting at its first token.
+     */
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser, int index) throws IOException;
+    }
+}
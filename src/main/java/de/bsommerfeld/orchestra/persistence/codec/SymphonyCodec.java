@@ -0,0 +1,32 @@
+package de.bsommerfeld.orchestra.persistence.codec;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes Symphony objects to and decodes them from their stored JSON representation.
+ * All implementations read and write the same document layout, so files written by one can be read by another.
+ */
+public interface SymphonyCodec {
+
+    /**
+     * Writes the specified Symphony to the stream. The stream is not closed.
+     *
+     * @param symphony The Symphony to write
+     * @param out The stream to write to
+     * @throws IOException if the Symphony cannot be written
+     */
+    void write(Symphony symphony, OutputStream out) throws IOException;
+
+    /**
+     * Reads a Symphony from the stream. The stream is not closed.
+     *
+     * @param in The stream to read from
+     * @return The Symphony read from the stream
+     * @throws IOException if the stream does not contain a valid Symphony
+     */
+    Symphony read(InputStream in) throws IOException;
+}
@@ -0,0 +1,89 @@
+package de.bsommerfeld.orchestra.persistence.compress;
+
+import de.bsommerfeld.orchestra.persistence.config.Compression;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wraps the streams of Symphony files so that they are compressed on write and recognized on read.
+ * A gzip stream starts with the bytes {@code 1f 8b}, which neither a JSON document nor a binary Symphony file
+ * can start with, so compressed and uncompressed files can be stored side by side.
+ */
+public final class CompressedStreams {
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int BUFFER_SIZE = 8192;
+
+    private CompressedStreams() {
+    }
+
+    /**
+     * Opens a stream that reads the content of a Symphony file, decompressing it if it is a gzip stream.
+     *
+     * @param in The raw stream of the file
+     * @return A stream of the uncompressed content
+     * @throws IOException if the header cannot be read
+     */
+    public static InputStream decompressing(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        boolean compressed = buffered.read() == GZIP_MAGIC_1 && buffered.read() == GZIP_MAGIC_2;
+        buffered.reset();
+        return compressed ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    /**
+     * Opens a stream that writes the content of a Symphony file with the specified compression.
+     * Closing the returned stream finishes the compressed stream and closes the raw one.
+     *
+     * @param out The raw stream of the file
+     * @param compression The compression to apply
+     * @param level The compression level, from 1 (fastest) to 9 (smallest)
+     * @return A stream that accepts the uncompressed content
+     * @throws IOException if the header cannot be written
+     */
+    public static OutputStream compressing(OutputStream out, Compression compression, int level) throws IOException {
+        if (compression == Compression.NONE) {
+            return out;
+        }
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    /**
+     * Checks whether the specified file is a gzip stream, by reading its first two bytes.
+     *
+     * @param file The file to check
+     * @return true if the file is compressed
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isCompressed(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * Checks that the specified compression level is supported.
+     *
+     * @param level The compression level
+     * @throws IllegalArgumentException if the level is not between 1 and 9
+     */
+    public static void checkLevel(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9: " + level);
+        }
+    }
+}
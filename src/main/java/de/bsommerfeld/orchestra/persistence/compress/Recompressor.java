@@ -0,0 +1,121 @@
+package de.bsommerfeld.orchestra.persistence.compress;
+
+import de.bsommerfeld.orchestra.persistence.config.Compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Rewrites existing Symphony files with the configured compression and level, e.g. after compression was
+ * switched on, switched off or changed to another level. The content is copied as it is; files are neither
+ * parsed nor re-encoded.
+ *
+ * <p>A marker file next to the Symphony files (e.g. {@code .json.compression}) remembers the compression the
+ * files were last rewritten with, so the background run does nothing while the setting stays the same.
+ */
+public final class Recompressor {
+
+    private static final String MARKER_EXTENSION = ".compression";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String THREAD_NAME = "orchestra-recompressor";
+
+    private final Compression compression;
+    private final int level;
+
+    /**
+     * Constructs a new Recompressor.
+     *
+     * @param compression The compression the files should be stored with
+     * @param level The compression level, from 1 (fastest) to 9 (smallest)
+     * @throws IllegalArgumentException if the level is not between 1 and 9
+     */
+    public Recompressor(Compression compression, int level) {
+        CompressedStreams.checkLevel(level);
+        this.compression = compression;
+        this.level = level;
+    }
+
+    /**
+     * Rewrites the specified files so that each is stored with the configured compression and level.
+     * Uncompressed files are left alone when compression is off. Each file is replaced atomically; a file
+     * that changes while it is being rewritten is skipped, so a concurrent save always wins.
+     *
+     * @param files The Symphony files to rewrite
+     * @return The number of rewritten files
+     * @throws RuntimeException if a file cannot be rewritten
+     */
+    public int recompress(List<Path> files) {
+        int rewritten = 0;
+        for (Path file : files) {
+            try {
+                if ((compression != Compression.NONE || CompressedStreams.isCompressed(file)) && rewrite(file)) {
+                    rewritten++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to recompress Symphony file: " + file, e);
+            }
+        }
+        return rewritten;
+    }
+
+    /**
+     * Rewrites the Symphony files on a background thread if they were last written with a different
+     * compression or level than the configured one. The files are only listed once that is the case.
+     *
+     * @param directory The storage directory, which holds the marker file
+     * @param fileExtension The extension of the Symphony files, including the leading dot
+     * @param files Lists the Symphony files to rewrite
+     * @return A future that completes with the number of rewritten files
+     */
+    public CompletableFuture<Integer> recompressInBackground(Path directory, String fileExtension,
+                                                            Supplier<List<Path>> files) {
+        Path marker = directory.resolve(fileExtension + MARKER_EXTENSION);
+        String current = compression + ":" + level;
+        Executor executor = runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        };
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (Files.exists(marker) && Files.readString(marker, StandardCharsets.UTF_8).equals(current)) {
+                    return 0;
+                }
+                int rewritten = recompress(files.get());
+                Files.writeString(marker, current, StandardCharsets.UTF_8);
+                return rewritten;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to update compression marker: " + marker, e);
+            }
+        }, executor);
+    }
+
+    private boolean rewrite(Path file) throws IOException {
+        BasicFileAttributes before = Files.readAttributes(file, BasicFileAttributes.class);
+        Path temporary = file.resolveSibling(file.getFileName() + TEMP_EXTENSION);
+        try (InputStream in = CompressedStreams.decompressing(Files.newInputStream(file));
+             OutputStream out = CompressedStreams.compressing(Files.newOutputStream(temporary), compression, level)) {
+            in.transferTo(out);
+        }
+
+        BasicFileAttributes after = Files.readAttributes(file, BasicFileAttributes.class);
+        if (before.size() != after.size() || !before.lastModifiedTime().equals(after.lastModifiedTime())) {
+            // Saved while we were copying; the new content is already written with the current settings
+            Files.deleteIfExists(temporary);
+            return false;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+}
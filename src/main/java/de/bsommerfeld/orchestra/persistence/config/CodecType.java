@@ -0,0 +1,17 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+/**
+ * Selects how Symphony files are converted to and from the domain model.
+ */
+public enum CodecType {
+
+    /**
+     * Maps the domain model to DTOs and serializes them with Jackson data binding.
+     */
+    DTO,
+
+    /**
+     * Reads and writes the domain model directly with Jackson's streaming API.
+     */
+    STREAMING
+}
@@ -0,0 +1,18 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+/**
+ * Selects whether Symphony files are compressed when they are written.
+ * Files are always read regardless of this setting, since compressed files are recognized by their header.
+ */
+public enum Compression {
+
+    /**
+     * Writes Symphony files uncompressed.
+     */
+    NONE,
+
+    /**
+     * Writes Symphony files as gzip streams.
+     */
+    GZIP
+}
@@ -0,0 +1,17 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+/**
+ * Decides which entry a bounded cache drops when it is full.
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Drops the entry that was accessed least recently.
+     */
+    LRU,
+
+    /**
+     * Drops the entry that was added first, regardless of how often it is read.
+     */
+    FIFO
+}
@@ -0,0 +1,516 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+import java.util.Locale;
+
+/**
+ * Immutable set of switches that decide how the persistence layer is assembled.
+ * The settings are read once at startup (see {@link #fromSystemProperties()}) and
+ * handed to the Guice module, which uses them to pick and wrap repository implementations.
+ */
+public final class PersistenceSettings {
+
+    /**
+     * Prefix shared by all system properties understood by {@link #fromSystemProperties()}.
+     */
+    public static final String PROPERTY_PREFIX = "orchestra.persistence.";
+
+    private final boolean writeBehind;
+    private final boolean journal;
+    private final int journalCompactAfterRecords;
+    private final long journalCompactAfterBytes;
+    private final boolean cache;
+    private final int cacheMaxEntries;
+    private final EvictionPolicy cacheEviction;
+    private final CodecType codec;
+    private final StorageFormat format;
+    private final int loadParallelism;
+    private final StorageLayout layout;
+    private final Compression compression;
+    private final int compressionLevel;
+    private final boolean watch;
+    private final long watchDebounceMillis;
+
+    private PersistenceSettings(Builder builder) {
+        this.writeBehind = builder.writeBehind;
+        this.journal = builder.journal;
+        this.journalCompactAfterRecords = builder.journalCompactAfterRecords;
+        this.journalCompactAfterBytes = builder.journalCompactAfterBytes;
+        this.cache = builder.cache;
+        this.cacheMaxEntries = builder.cacheMaxEntries;
+        this.cacheEviction = builder.cacheEviction;
+        this.codec = builder.codec;
+        this.format = builder.format;
+        this.loadParallelism = builder.loadParallelism;
+        this.layout = builder.layout;
+        this.compression = builder.compression;
+        this.compressionLevel = builder.compressionLevel;
+        this.watch = builder.watch;
+        this.watchDebounceMillis = builder.watchDebounceMillis;
+    }
+
+    /**
+     * Returns the default settings.
+     *
+     * @return The default settings
+     */
+    public static PersistenceSettings defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Reads the settings from {@code orchestra.persistence.*} system properties.
+     * Properties that are not set fall back to the defaults.
+     *
+     * @return The settings described by the current system properties
+     * @throws IllegalArgumentException if a property cannot be parsed or its value is out of range
+     */
+    public static PersistenceSettings fromSystemProperties() {
+        PersistenceSettings defaults = defaults();
+        return builder()
+                .writeBehind(booleanProperty("writeBehind", defaults.isWriteBehind()))
+                .journal(booleanProperty("journal", defaults.isJournal()))
+                .journalCompactAfterRecords(intProperty("journal.compactAfterRecords", defaults.getJournalCompactAfterRecords()))
+                .journalCompactAfterBytes(longProperty("journal.compactAfterBytes", defaults.getJournalCompactAfterBytes()))
+                .cache(booleanProperty("cache", defaults.isCache()))
+                .cacheMaxEntries(intProperty("cache.maxEntries", defaults.getCacheMaxEntries()))
+                .cacheEviction(enumProperty("cache.eviction", EvictionPolicy.class, defaults.getCacheEviction()))
+                .codec(enumProperty("codec", CodecType.class, defaults.getCodec()))
+                .format(enumProperty("format", StorageFormat.class, defaults.getFormat()))
+                .loadParallelism(intProperty("loadParallelism", defaults.getLoadParallelism()))
+                .layout(enumProperty("layout", StorageLayout.class, defaults.getLayout()))
+                .compression(enumProperty("compression", Compression.class, defaults.getCompression()))
+                .compressionLevel(intProperty("compression.level", defaults.getCompressionLevel()))
+                .watch(booleanProperty("watch", defaults.isWatch()))
+                .watchDebounceMillis(longProperty("watch.debounceMillis", defaults.getWatchDebounceMillis()))
+                .build();
+    }
+
+    /**
+     * Creates a new builder initialized with the default settings.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns whether symphonies are written asynchronously on a dedicated I/O thread.
+     *
+     * @return true if saves are queued and written in the background, false if they are written synchronously
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Returns whether saves are appended to a per-symphony journal instead of rewriting the whole file.
+     *
+     * @return true if the journaled storage mode is enabled
+     */
+    public boolean isJournal() {
+        return journal;
+    }
+
+    /**
+     * Returns the number of journal records after which a journal is folded into a new snapshot.
+     *
+     * @return The record threshold for compaction
+     */
+    public int getJournalCompactAfterRecords() {
+        return journalCompactAfterRecords;
+    }
+
+    /**
+     * Returns the journal size in bytes after which a journal is folded into a new snapshot.
+     *
+     * @return The size threshold for compaction
+     */
+    public long getJournalCompactAfterBytes() {
+        return journalCompactAfterBytes;
+    }
+
+    /**
+     * Returns whether parsed symphonies are kept in a read-through cache.
+     *
+     * @return true if the read-through cache is enabled
+     */
+    public boolean isCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the maximum number of symphonies held by the read-through cache.
+     *
+     * @return The cache bound
+     */
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    /**
+     * Returns the policy used to pick the entry to drop when the cache is full.
+     *
+     * @return The eviction policy of the cache
+     */
+    public EvictionPolicy getCacheEviction() {
+        return cacheEviction;
+    }
+
+    /**
+     * Returns how Symphony files are converted to and from the domain model.
+     *
+     * @return The codec used for Symphony files
+     */
+    public CodecType getCodec() {
+        return codec;
+    }
+
+    /**
+     * Returns the format Symphony objects are stored in.
+     *
+     * @return The storage format
+     */
+    public StorageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the maximum number of Symphony files read at the same time when loading all symphonies.
+     *
+     * @return The load concurrency limit; 1 reads the files one after another
+     */
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    /**
+     * Returns how Symphony files are arranged in the storage directory.
+     *
+     * @return The storage layout
+     */
+    public StorageLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns whether Symphony files are compressed when they are written.
+     *
+     * @return The compression of written files
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Returns the compression level, from 1 (fastest) to 9 (smallest).
+     *
+     * @return The compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Returns whether the storage directory is watched for Symphony files changed by other processes.
+     *
+     * @return true if external changes are detected
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * Returns how long the storage directory has to be quiet before detected changes are reported.
+     *
+     * @return The debounce delay in milliseconds
+     */
+    public long getWatchDebounceMillis() {
+        return watchDebounceMillis;
+    }
+
+    private static boolean booleanProperty(String name, boolean defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + PROPERTY_PREFIX + name + ": " + value, e);
+        }
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        long value = longProperty(name, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid value for " + PROPERTY_PREFIX + name + ": " + value);
+        }
+        return (int) value;
+    }
+
+    private static <E extends Enum<E>> E enumProperty(String name, Class<E> type, E defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + PROPERTY_PREFIX + name + ": " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceSettings{" +
+                "writeBehind=" + writeBehind +
+                ", journal=" + journal +
+                ", journalCompactAfterRecords=" + journalCompactAfterRecords +
+                ", journalCompactAfterBytes=" + journalCompactAfterBytes +
+                ", cache=" + cache +
+                ", cacheMaxEntries=" + cacheMaxEntries +
+                ", cacheEviction=" + cacheEviction +
+                ", codec=" + codec +
+                ", format=" + format +
+                ", loadParallelism=" + loadParallelism +
+                ", layout=" + layout +
+                ", compression=" + compression +
+                ", compressionLevel=" + compressionLevel +
+                ", watch=" + watch +
+                ", watchDebounceMillis=" + watchDebounceMillis +
+                '}';
+    }
+
+    /**
+     * Builder for {@link PersistenceSettings}.
+     */
+    public static final class Builder {
+
+        private boolean writeBehind = true;
+        private boolean journal = false;
+        private int journalCompactAfterRecords = 1000;
+        private long journalCompactAfterBytes = 1024 * 1024;
+        private boolean cache = true;
+        private int cacheMaxEntries = 64;
+        private EvictionPolicy cacheEviction = EvictionPolicy.LRU;
+        private CodecType codec = CodecType.STREAMING;
+        private StorageFormat format = StorageFormat.JSON;
+        private int loadParallelism = 16;
+        private StorageLayout layout = StorageLayout.FLAT;
+        private Compression compression = Compression.NONE;
+        private int compressionLevel = 6;
+        private boolean watch = true;
+        private long watchDebounceMillis = 250;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets whether symphonies are written asynchronously.
+         *
+         * @param writeBehind true to queue saves and write them in the background
+         * @return This builder
+         */
+        public Builder writeBehind(boolean writeBehind) {
+            this.writeBehind = writeBehind;
+            return this;
+        }
+
+        /**
+         * Sets whether saves are appended to a per-symphony journal.
+         *
+         * @param journal true to enable the journaled storage mode
+         * @return This builder
+         */
+        public Builder journal(boolean journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Sets the number of journal records after which a journal is compacted.
+         *
+         * @param records The record threshold, must be positive
+         * @return This builder
+         */
+        public Builder journalCompactAfterRecords(int records) {
+            this.journalCompactAfterRecords = records;
+            return this;
+        }
+
+        /**
+         * Sets the journal size in bytes after which a journal is compacted.
+         *
+         * @param bytes The size threshold, must be positive
+         * @return This builder
+         */
+        public Builder journalCompactAfterBytes(long bytes) {
+            this.journalCompactAfterBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Sets whether parsed symphonies are kept in a read-through cache.
+         *
+         * @param cache true to enable the read-through cache
+         * @return This builder
+         */
+        public Builder cache(boolean cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of symphonies held by the read-through cache.
+         *
+         * @param maxEntries The cache bound, must be positive
+         * @return This builder
+         */
+        public Builder cacheMaxEntries(int maxEntries) {
+            this.cacheMaxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the policy used to pick the entry to drop when the cache is full.
+         *
+         * @param eviction The eviction policy, not null
+         * @return This builder
+         */
+        public Builder cacheEviction(EvictionPolicy eviction) {
+            this.cacheEviction = eviction;
+            return this;
+        }
+
+        /**
+         * Sets how Symphony files are converted to and from the domain model.
+         *
+         * @param codec The codec used for Symphony files, not null
+         * @return This builder
+         */
+        public Builder codec(CodecType codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * Sets the format Symphony objects are stored in.
+         *
+         * @param format The storage format, not null
+         * @return This builder
+         */
+        public Builder format(StorageFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of Symphony files read at the same time when loading all symphonies.
+         *
+         * @param loadParallelism The load concurrency limit, must be positive; 1 reads the files one after another
+         * @return This builder
+         */
+        public Builder loadParallelism(int loadParallelism) {
+            this.loadParallelism = loadParallelism;
+            return this;
+        }
+
+        /**
+         * Sets how Symphony files are arranged in the storage directory.
+         *
+         * @param layout The storage layout, not null
+         * @return This builder
+         */
+        public Builder layout(StorageLayout layout) {
+            this.layout = layout;
+            return this;
+        }
+
+        /**
+         * Sets whether Symphony files are compressed when they are written.
+         *
+         * @param compression The compression of written files, not null
+         * @return This builder
+         */
+        public Builder compression(Compression compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * Sets the compression level, from 1 (fastest) to 9 (smallest).
+         *
+         * @param compressionLevel The compression level, from 1 to 9
+         * @return This builder
+         */
+        public Builder compressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        /**
+         * Sets whether the storage directory is watched for Symphony files changed by other processes.
+         *
+         * @param watch true to detect external changes
+         * @return This builder
+         */
+        public Builder watch(boolean watch) {
+            this.watch = watch;
+            return this;
+        }
+
+        /**
+         * Sets how long the storage directory has to be quiet before detected changes are reported.
+         *
+         * @param watchDebounceMillis The debounce delay in milliseconds, must not be negative
+         * @return This builder
+         */
+        public Builder watchDebounceMillis(long watchDebounceMillis) {
+            this.watchDebounceMillis = watchDebounceMillis;
+            return this;
+        }
+
+        /**
+         * Builds the settings.
+         *
+         * @return The immutable settings
+         * @throws IllegalArgumentException if a value is out of range or null, naming the setting
+         */
+        public PersistenceSettings build() {
+            checkPositive("journalCompactAfterRecords", journalCompactAfterRecords);
+            checkPositive("journalCompactAfterBytes", journalCompactAfterBytes);
+            checkPositive("cacheMaxEntries", cacheMaxEntries);
+            checkPositive("loadParallelism", loadParallelism);
+            if (compressionLevel < 1 || compressionLevel > 9) {
+                throw new IllegalArgumentException("compressionLevel must be between 1 and 9: " + compressionLevel);
+            }
+            if (watchDebounceMillis < 0) {
+                throw new IllegalArgumentException("watchDebounceMillis must not be negative: " + watchDebounceMillis);
+            }
+            checkNotNull("cacheEviction", cacheEviction);
+            checkNotNull("codec", codec);
+            checkNotNull("format", format);
+            checkNotNull("layout", layout);
+            checkNotNull("compression", compression);
+            return new PersistenceSettings(this);
+        }
+
+        private static void checkPositive(String name, long value) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+        }
+
+        private static void checkNotNull(String name, Object value) {
+            if (value == null) {
+                throw new IllegalArgumentException(name + " cannot be null");
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+/**
+ * Selects the format Symphony objects are stored in.
+ */
+public enum StorageFormat {
+
+    /**
+     * One JSON file per Symphony.
+     */
+    JSON,
+
+    /**
+     * One file per Symphony in the compact binary format.
+     */
+    BINARY,
+
+    /**
+     * An embedded H2 database with one row per Symphony, Choir and Voice.
+     */
+    SQL,
+
+    /**
+     * A directory per Symphony with a header file and one JSON file per Choir, read lazily.
+     */
+    SPLIT
+}
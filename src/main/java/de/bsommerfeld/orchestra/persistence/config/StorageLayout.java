@@ -0,0 +1,18 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+/**
+ * Selects how Symphony files are arranged in the storage directory.
+ */
+public enum StorageLayout {
+
+    /**
+     * All Symphony files directly in the storage directory.
+     */
+    FLAT,
+
+    /**
+     * Symphony files spread over 256 subdirectories named after a hash of the file name,
+     * so no directory holds more than a small share of the files.
+     */
+    SHARDED
+}
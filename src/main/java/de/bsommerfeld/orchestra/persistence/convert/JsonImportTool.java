@@ -0,0 +1,106 @@
+package de.bsommerfeld.orchestra.persistence.convert;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.compress.CompressedStreams;
+import de.bsommerfeld.orchestra.persistence.load.ParallelFileLoader;
+import de.bsommerfeld.orchestra.persistence.load.ParallelFileLoader.LoadResult;
+import de.bsommerfeld.orchestra.persistence.path.PlatformPathProvider;
+import de.bsommerfeld.orchestra.persistence.repository.JsonSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.SqlSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports a directory of JSON Symphony files into another repository, typically the SQL database.
+ * Symphonies whose title already exists in the target are skipped, so the import can be repeated.
+ * The JSON files are left untouched.
+ *
+ * <p>Usage: {@code JsonImportTool [jsonDirectory [databaseFile]]}; both default to the platform's
+ * Symphony directory.
+ */
+public final class JsonImportTool {
+
+    private static final int LOAD_PARALLELISM = 16;
+
+    private JsonImportTool() {
+    }
+
+    /**
+     * The outcome of an import.
+     *
+     * @param imported The number of symphonies written to the target
+     * @param skipped The number of symphonies that already existed in the target
+     * @param errors The exception of every file that could not be read
+     */
+    public record ImportResult(int imported, int skipped, Map<Path, Exception> errors) {
+    }
+
+    public static void main(String[] args) {
+        Path symphonyDirectory = new PlatformPathProvider().getSymphonyDirectory();
+        Path jsonDirectory = args.length > 0 ? Path.of(args[0]) : symphonyDirectory;
+        Path databaseFile = args.length > 1 ? Path.of(args[1])
+                : symphonyDirectory.resolve(SqlSymphonyRepository.DATABASE_NAME);
+
+        try (SqlSymphonyRepository target = new SqlSymphonyRepository(databaseFile)) {
+            ImportResult result = importDirectory(jsonDirectory, new StreamingSymphonyCodec(), target);
+            System.out.println("Imported " + result.imported() + " Symphonies from " + jsonDirectory
+                    + " into " + databaseFile + ", skipped " + result.skipped() + " existing ones");
+            result.errors().forEach((file, error) ->
+                    System.err.println("Failed to read " + file + ": " + error.getMessage()));
+            if (!result.errors().isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Imports every JSON Symphony file in the specified directory into the target repository.
+     * Unreadable files are reported instead of aborting the import.
+     *
+     * @param directory The directory containing the JSON files
+     * @param codec The codec used to read the JSON files
+     * @param target The repository to import into
+     * @return The number of imported and skipped symphonies and the files that could not be read
+     * @throws RuntimeException if the directory cannot be listed or a Symphony cannot be saved
+     */
+    public static ImportResult importDirectory(Path directory, SymphonyCodec codec, SymphonyRepository target) {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(JsonSymphonyRepository.FILE_EXTENSION))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Symphonies in " + directory, e);
+        }
+
+        LoadResult<Symphony> loaded = new ParallelFileLoader(LOAD_PARALLELISM).loadAvailable(files, file -> {
+            try (InputStream in = CompressedStreams.decompressing(Files.newInputStream(file))) {
+                return codec.read(in);
+            }
+        });
+
+        int imported = 0;
+        int skipped = 0;
+        for (Symphony symphony : loaded.loaded()) {
+            if (target.existsById(symphony.getTitle())) {
+                skipped++;
+            } else {
+                target.save(symphony);
+                imported++;
+            }
+        }
+        target.flush();
+        return new ImportResult(imported, skipped, loaded.errors());
+    }
+}
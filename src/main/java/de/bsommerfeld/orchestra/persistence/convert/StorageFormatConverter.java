@@ -0,0 +1,40 @@
+package de.bsommerfeld.orchestra.persistence.convert;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+
+/**
+ * Converts stored symphonies from one storage format into another, e.g. from the JSON files of a
+ * JsonSymphonyRepository into the binary files of a BinarySymphonyRepository and back.
+ * A Symphony that already exists in the target is never overwritten, so a conversion can be repeated safely.
+ */
+public final class StorageFormatConverter {
+
+    private StorageFormatConverter() {
+    }
+
+    /**
+     * Copies all symphonies of the source repository that do not exist in the target repository yet.
+     * Symphonies that already exist in the target are skipped and kept in the source.
+     *
+     * @param source The repository to read from
+     * @param target The repository to write to
+     * @param deleteSource Whether each converted Symphony is deleted from the source afterwards
+     * @return The number of converted symphonies
+     */
+    public static int convert(SymphonyRepository source, SymphonyRepository target, boolean deleteSource) {
+        int converted = 0;
+        for (Symphony symphony : source.findAll()) {
+            if (target.existsById(symphony.getTitle())) {
+                continue;
+            }
+            target.save(symphony);
+            if (deleteSource) {
+                source.deleteById(symphony.getTitle());
+            }
+            converted++;
+        }
+        target.flush();
+        return converted;
+    }
+}
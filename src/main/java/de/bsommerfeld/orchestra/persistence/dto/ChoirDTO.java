@@ -10,6 +10,7 @@ import java.util.Objects;
  */
 public class ChoirDTO {
 
+    private String id;
     private String name;
     private String description;
     private List<VoiceDTO> voices;
@@ -34,6 +35,37 @@ public class ChoirDTO {
         this.voices = voices != null ? new ArrayList<>(voices) : null;
     }
 
+    /**
+     * Constructs a new ChoirDTO with the specified id and properties.
+     *
+     * @param id The stable id of the choir/task list (can be null in files written before ids existed)
+     * @param name The name of the choir/task list
+     * @param description The description of the choir/task list (can be null)
+     * @param voices The list of voices/tasks (can be null)
+     */
+    public ChoirDTO(String id, String name, String description, List<VoiceDTO> voices) {
+        this(name, description, voices);
+        this.id = id;
+    }
+
+    /**
+     * Gets the stable id of this choir/task list.
+     *
+     * @return The id (can be null in files written before ids existed)
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the stable id of this choir/task list.
+     *
+     * @param id The id to set
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
     /**
      * Gets the name of this choir/task list.
      *
@@ -93,20 +125,22 @@ public class ChoirDTO {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChoirDTO choirDTO = (ChoirDTO) o;
-        return Objects.equals(name, choirDTO.name) &&
+        return Objects.equals(id, choirDTO.id) &&
+                Objects.equals(name, choirDTO.name) &&
                 Objects.equals(description, choirDTO.description) &&
                 Objects.equals(voices, choirDTO.voices);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, description, voices);
+        return Objects.hash(id, name, description, voices);
     }
 
     @Override
     public String toString() {
         return "ChoirDTO{" +
-                "name='" + name + '\'' +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", voices=" + (voices != null ? voices.size() : 0) + " items" +
                 '}';
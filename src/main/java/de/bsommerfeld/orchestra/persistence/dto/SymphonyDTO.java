@@ -15,6 +15,7 @@ public class SymphonyDTO {
     private String description;
     private LocalDateTime createdAt;
     private List<ChoirDTO> choirs;
+    private long version;
 
     /**
      * Default constructor for Jackson deserialization.
@@ -38,6 +39,20 @@ public class SymphonyDTO {
         this.choirs = choirs != null ? new ArrayList<>(choirs) : null;
     }
 
+    /**
+     * Constructs a new SymphonyDTO with the specified properties and version.
+     *
+     * @param title The title of the symphony/project
+     * @param description The description of the symphony/project (can be null)
+     * @param createdAt The creation timestamp
+     * @param choirs The list of choirs/task lists (can be null)
+     * @param version The number of times the symphony/project was saved
+     */
+    public SymphonyDTO(String title, String description, LocalDateTime createdAt, List<ChoirDTO> choirs, long version) {
+        this(title, description, createdAt, choirs);
+        this.version = version;
+    }
+
     /**
      * Gets the title of this symphony/project.
      *
@@ -110,6 +125,25 @@ public class SymphonyDTO {
         this.choirs = choirs;
     }
 
+    /**
+     * Gets the version of this symphony/project, the number of times it was saved.
+     * Files written before versions existed have none and read as 0.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of this symphony/project.
+     *
+     * @param version The version to set
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -118,12 +152,13 @@ public class SymphonyDTO {
         return Objects.equals(title, that.title) &&
                 Objects.equals(description, that.description) &&
                 Objects.equals(createdAt, that.createdAt) &&
-                Objects.equals(choirs, that.choirs);
+                Objects.equals(choirs, that.choirs) &&
+                version == that.version;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(title, description, createdAt, choirs);
+        return Objects.hash(title, description, createdAt, choirs, version);
     }
 
     @Override
@@ -133,6 +168,7 @@ public class SymphonyDTO {
                 ", description='" + description + '\'' +
                 ", createdAt=" + createdAt +
                 ", choirs=" + (choirs != null ? choirs.size() : 0) + " items" +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -10,9 +10,11 @@ import java.util.Objects;
  */
 public class VoiceDTO {
 
+    private String id;
     private String title;
     private String description;
     private List<VoiceDTO> subVoices;
+    private boolean completed;
 
     /**
      * Default constructor for Jackson deserialization.
@@ -34,6 +36,51 @@ public class VoiceDTO {
         this.subVoices = subVoices != null ? new ArrayList<>(subVoices) : null;
     }
 
+    /**
+     * Constructs a new VoiceDTO with the specified properties and completion status.
+     *
+     * @param title The title of the voice/task
+     * @param description The description of the voice/task (can be null)
+     * @param subVoices The list of sub-voices (can be null)
+     * @param completed Whether the voice/task is completed
+     */
+    public VoiceDTO(String title, String description, List<VoiceDTO> subVoices, boolean completed) {
+        this(title, description, subVoices);
+        this.completed = completed;
+    }
+
+    /**
+     * Constructs a new VoiceDTO with the specified id, properties and completion status.
+     *
+     * @param id The stable id of the voice/task (can be null in files written before ids existed)
+     * @param title The title of the voice/task
+     * @param description The description of the voice/task (can be null)
+     * @param subVoices The list of sub-voices (can be null)
+     * @param completed Whether the voice/task is completed
+     */
+    public VoiceDTO(String id, String title, String description, List<VoiceDTO> subVoices, boolean completed) {
+        this(title, description, subVoices, completed);
+        this.id = id;
+    }
+
+    /**
+     * Gets the stable id of this voice/task.
+     *
+     * @return The id (can be null in files written before ids existed)
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the stable id of this voice/task.
+     *
+     * @param id The id to set
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
     /**
      * Gets the title of this voice/task.
      *
@@ -88,27 +135,49 @@ public class VoiceDTO {
         this.subVoices = subVoices;
     }
 
+    /**
+     * Gets whether this voice/task is completed.
+     *
+     * @return true if completed, false otherwise
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Sets whether this voice/task is completed.
+     *
+     * @param completed The completion status to set
+     */
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         VoiceDTO voiceDTO = (VoiceDTO) o;
-        return Objects.equals(title, voiceDTO.title) &&
+        return completed == voiceDTO.completed &&
+                Objects.equals(id, voiceDTO.id) &&
+                Objects.equals(title, voiceDTO.title) &&
                 Objects.equals(description, voiceDTO.description) &&
                 Objects.equals(subVoices, voiceDTO.subVoices);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(title, description, subVoices);
+        return Objects.hash(id, title, description, subVoices, completed);
     }
 
     @Override
     public String toString() {
         return "VoiceDTO{" +
-                "title='" + title + '\'' +
+                "id='" + id + '\'' +
+                ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
                 ", subVoices=" + (subVoices != null ? subVoices.size() : 0) + " items" +
+                ", completed=" + completed +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package de.bsommerfeld.orchestra.persistence.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A list of listeners that events are delivered to, shared by the event sources of the persistence layer.
+ * Listeners can be added and removed from any thread, also while an event is delivered.
+ *
+ * @param <E> The type of the events
+ */
+public final class Listeners<E> {
+
+    private final List<Consumer<? super E>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener The listener to register
+     */
+    public void add(Consumer<? super E> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void remove(Consumer<? super E> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to all registered listeners on the current thread.
+     * An exception thrown by a listener is reported to the uncaught exception handler of the current thread and
+     * does not keep the event from the other listeners.
+     *
+     * @param event The event to deliver
+     */
+    public void publish(E event) {
+        for (Consumer<? super E> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                // Report it, but a failing listener must not keep the event from the others
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.bsommerfeld.orchestra.persistence.event;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+
+/**
+ * A change of a Symphony made through the {@link de.bsommerfeld.orchestra.persistence.service.SymphonyService},
+ * published on the {@link SymphonyEventBus} after the change was saved.
+ * Node events address Choirs and Voices by id, so a listener showing the Symphony can find the affected node
+ * in constant time and update just that node instead of rebuilding everything.
+ *
+ * <p>A save that combines several changes, like a transaction, publishes one event per change in the order the
+ * changes were made; indices are those right after the change. All events of one save carry the same saved
+ * Symphony, so {@code symphony().getVersion()} tells the saves apart.
+ */
+public sealed interface SymphonyEvent {
+
+    /**
+     * Returns the title of the Symphony this event is about.
+     *
+     * @return The title of the Symphony
+     */
+    String symphonyTitle();
+
+    /**
+     * An event about a Symphony that still exists after the change.
+     */
+    sealed interface Change extends SymphonyEvent {
+
+        /**
+         * Returns the Symphony as it was saved, including this change and any other change of the same save.
+         *
+         * @return The saved Symphony
+         */
+        Symphony symphony();
+
+        @Override
+        default String symphonyTitle() {
+            return symphony().getTitle();
+        }
+    }
+
+    /**
+     * A Symphony was created.
+     *
+     * @param symphony The created Symphony
+     */
+    record SymphonyCreated(Symphony symphony) implements Change {
+    }
+
+    /**
+     * A Symphony was deleted.
+     *
+     * @param symphonyTitle The title of the deleted Symphony
+     */
+    record SymphonyDeleted(String symphonyTitle) implements SymphonyEvent {
+    }
+
+    /**
+     * A Symphony was replaced as a whole, e.g. with {@code updateSymphony}, so which of its nodes changed is not
+     * known. Listeners have to show the Symphony anew.
+     *
+     * @param symphony The saved Symphony
+     */
+    record SymphonyReplaced(Symphony symphony) implements Change {
+    }
+
+    /**
+     * The description of a Symphony was changed.
+     *
+     * @param symphony The saved Symphony, which has the new description
+     */
+    record DescriptionChanged(Symphony symphony) implements Change {
+    }
+
+    /**
+     * A Choir was added.
+     *
+     * @param symphony The saved Symphony
+     * @param index The index of the Choir among the Choirs of the Symphony
+     * @param choir The added Choir, with its Voices
+     */
+    record ChoirAdded(Symphony symphony, int index, Choir choir) implements Change {
+    }
+
+    /**
+     * A Choir was removed, together with its Voices.
+     *
+     * @param symphony The saved Symphony
+     * @param choirId The id of the removed Choir
+     */
+    record ChoirRemoved(Symphony symphony, String choirId) implements Change {
+    }
+
+    /**
+     * A Voice was added to a Choir or Voice.
+     *
+     * @param symphony The saved Symphony
+     * @param parentId The id of the Choir or Voice the Voice was added to
+     * @param index The index of the Voice among the Voices of its parent
+     * @param voice The added Voice, with its sub-voices
+     */
+    record VoiceAdded(Symphony symphony, String parentId, int index, Voice voice) implements Change {
+    }
+
+    /**
+     * A Voice was removed, together with its sub-voices.
+     *
+     * @param symphony The saved Symphony
+     * @param voiceId The id of the removed Voice
+     */
+    record VoiceRemoved(Symphony symphony, String voiceId) implements Change {
+    }
+
+    /**
+     * A Voice was moved, together with its sub-voices, to another parent or another position.
+     *
+     * @param symphony The saved Symphony
+     * @param voiceId The id of the moved Voice, which it keeps
+     * @param targetParentId The id of the Choir or Voice the Voice was moved to
+     * @param index The index of the Voice among the Voices of its new parent
+     */
+    record VoiceMoved(Symphony symphony, String voiceId, String targetParentId, int index) implements Change {
+    }
+
+    /**
+     * The completion status of a Voice was changed.
+     *
+     * @param symphony The saved Symphony
+     * @param voiceId The id of the Voice
+     * @param completed The new completion status
+     */
+    record VoiceCompletionChanged(Symphony symphony, String voiceId, boolean completed) implements Change {
+    }
+}
@@ -0,0 +1,78 @@
+package de.bsommerfeld.orchestra.persistence.event;
+
+import com.google.inject.Singleton;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the {@link SymphonyEvent}s published by the SymphonyService to the parts of the application that
+ * show a Symphony, so they can update the changed nodes only.
+ *
+ * <p>Events of one Symphony are published while the Symphony is locked, so listeners receive them in the order
+ * the changes were saved. Listeners are called on the thread that made the change and have to hand the event
+ * over to their own thread quickly, e.g. to the JavaFX application thread, because further changes of the
+ * Symphony wait until they return.
+ *
+ * <p>Listeners registered with {@link #addSaveListener(Consumer)} receive all events of a save at once, which
+ * is what a view needs to apply them as one update of the tree.
+ */
+@Singleton
+public class SymphonyEventBus {
+
+    private final Listeners<SymphonyEvent> listeners = new Listeners<>();
+    private final Listeners<List<SymphonyEvent>> saveListeners = new Listeners<>();
+
+    /**
+     * Registers a listener for changes made through the SymphonyService.
+     *
+     * @param listener The listener to register
+     */
+    public void addListener(Consumer<SymphonyEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(Consumer<SymphonyEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener for the saves made through the SymphonyService. It receives the events of each
+     * save together, in the order of the changes; they all carry the same saved Symphony, or the list is a
+     * single {@link SymphonyEvent.SymphonyDeleted}.
+     *
+     * @param listener The listener to register
+     */
+    public void addSaveListener(Consumer<List<SymphonyEvent>> listener) {
+        saveListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered save listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeSaveListener(Consumer<List<SymphonyEvent>> listener) {
+        saveListeners.remove(listener);
+    }
+
+    /**
+     * Delivers the events of a save to all registered save listeners at once, then to all other listeners,
+     * one event after another. A listener that throws is
+     * reported to the uncaught exception handler of the current thread; the other listeners and the
+     * remaining events are still delivered, and the change that was saved is not affected.
+     *
+     * @param events The events to deliver, in order
+     */
+    public void publish(List<? extends SymphonyEvent> events) {
+        saveListeners.publish(List.copyOf(events));
+        for (SymphonyEvent event : events) {
+            listeners.publish(event);
+        }
+    }
+}
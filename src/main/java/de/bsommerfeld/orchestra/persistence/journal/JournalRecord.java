@@ -0,0 +1,299 @@
+package de.bsommerfeld.orchestra.persistence.journal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.bsommerfeld.orchestra.persistence.dto.ChoirDTO;
+import de.bsommerfeld.orchestra.persistence.dto.VoiceDTO;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Data Transfer Object (DTO) for one line of a symphony journal.
+ * Every record describes a single edit; only the fields used by its operation are set.
+ * The first record of a journal is a {@link #OP_BASE} record that identifies the snapshot file the journal applies to.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JournalRecord {
+
+    public static final String OP_BASE = "base";
+    public static final String OP_DESCRIPTION = "description";
+    public static final String OP_INSERT_CHOIR = "insertChoir";
+    public static final String OP_REMOVE_CHOIR = "removeChoir";
+    public static final String OP_CHOIR_FIELDS = "choirFields";
+    public static final String OP_INSERT_VOICE = "insertVoice";
+    public static final String OP_REMOVE_VOICE = "removeVoice";
+    public static final String OP_VOICE_FIELDS = "voiceFields";
+    public static final String OP_VERSION = "version";
+
+    private String op;
+    private List<Integer> path;
+    private String name;
+    private String description;
+    private Boolean completed;
+    private Long version;
+    private ChoirDTO choir;
+    private VoiceDTO voice;
+    private String snapshotHash;
+    private Long snapshotSize; // Written by journals before the snapshot hash, read to replay them once
+    private Long snapshotModified;
+
+    /**
+     * Default constructor for Jackson deserialization.
+     */
+    public JournalRecord() {
+        // Required for Jackson
+    }
+
+    /**
+     * Constructs a new JournalRecord for the specified operation.
+     *
+     * @param op The operation of the record
+     */
+    public JournalRecord(String op) {
+        this.op = op;
+    }
+
+    /**
+     * Creates the header record that ties a journal to a snapshot file.
+     *
+     * @param snapshotHash The SHA-256 hash of the content of the snapshot file, in hex
+     * @return The header record
+     */
+    public static JournalRecord base(String snapshotHash) {
+        JournalRecord record = new JournalRecord(OP_BASE);
+        record.setSnapshotHash(snapshotHash);
+        return record;
+    }
+
+    /**
+     * Gets the operation of this record.
+     *
+     * @return The operation
+     */
+    public String getOp() {
+        return op;
+    }
+
+    /**
+     * Sets the operation of this record.
+     *
+     * @param op The operation to set
+     */
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    /**
+     * Gets the position of the edited node: the choir index, followed by the voice indices for voice operations.
+     *
+     * @return The path (can be null)
+     */
+    public List<Integer> getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the position of the edited node.
+     *
+     * @param path The path to set
+     */
+    public void setPath(List<Integer> path) {
+        this.path = path;
+    }
+
+    /**
+     * Gets the new name of a Choir or the new title of a Voice.
+     *
+     * @return The name or title (can be null)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the new name of a Choir or the new title of a Voice.
+     *
+     * @param name The name or title to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the new description.
+     *
+     * @return The description (can be null)
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the new description.
+     *
+     * @param description The description to set
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the new completion status of a Voice.
+     *
+     * @return The completion status (can be null)
+     */
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Sets the new completion status of a Voice.
+     *
+     * @param completed The completion status to set
+     */
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    /**
+     * Gets the new version of the Symphony.
+     *
+     * @return The version (can be null)
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the new version of the Symphony.
+     *
+     * @param version The version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets the inserted Choir.
+     *
+     * @return The Choir (can be null)
+     */
+    public ChoirDTO getChoir() {
+        return choir;
+    }
+
+    /**
+     * Sets the inserted Choir.
+     *
+     * @param choir The Choir to set
+     */
+    public void setChoir(ChoirDTO choir) {
+        this.choir = choir;
+    }
+
+    /**
+     * Gets the inserted Voice.
+     *
+     * @return The Voice (can be null)
+     */
+    public VoiceDTO getVoice() {
+        return voice;
+    }
+
+    /**
+     * Sets the inserted Voice.
+     *
+     * @param voice The Voice to set
+     */
+    public void setVoice(VoiceDTO voice) {
+        this.voice = voice;
+    }
+
+    /**
+     * Gets the hash of the content of the snapshot file this journal applies to.
+     *
+     * @return The SHA-256 hash in hex (can be null)
+     */
+    public String getSnapshotHash() {
+        return snapshotHash;
+    }
+
+    /**
+     * Sets the hash of the content of the snapshot file this journal applies to.
+     *
+     * @param snapshotHash The snapshot hash to set
+     */
+    public void setSnapshotHash(String snapshotHash) {
+        this.snapshotHash = snapshotHash;
+    }
+
+    /**
+     * Gets the size of the snapshot file this journal applies to, as written by journals that do not
+     * identify their snapshot by its hash yet.
+     *
+     * @return The snapshot size in bytes (can be null)
+     */
+    public Long getSnapshotSize() {
+        return snapshotSize;
+    }
+
+    /**
+     * Sets the size of the snapshot file this journal applies to.
+     *
+     * @param snapshotSize The snapshot size to set
+     */
+    public void setSnapshotSize(Long snapshotSize) {
+        this.snapshotSize = snapshotSize;
+    }
+
+    /**
+     * Gets the last modification time of the snapshot file this journal applies to, as written by journals
+     * that do not identify their snapshot by its hash yet.
+     *
+     * @return The modification time in milliseconds (can be null)
+     */
+    public Long getSnapshotModified() {
+        return snapshotModified;
+    }
+
+    /**
+     * Sets the last modification time of the snapshot file this journal applies to.
+     *
+     * @param snapshotModified The modification time to set
+     */
+    public void setSnapshotModified(Long snapshotModified) {
+        this.snapshotModified = snapshotModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JournalRecord that = (JournalRecord) o;
+        return Objects.equals(op, that.op) &&
+                Objects.equals(path, that.path) &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(completed, that.completed) &&
+                Objects.equals(version, that.version) &&
+                Objects.equals(choir, that.choir) &&
+                Objects.equals(voice, that.voice) &&
+                Objects.equals(snapshotHash, that.snapshotHash) &&
+                Objects.equals(snapshotSize, that.snapshotSize) &&
+                Objects.equals(snapshotModified, that.snapshotModified);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(op, path, name, description, completed, version, choir, voice, snapshotHash, snapshotSize,
+                snapshotModified);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "op='" + op + '\'' +
+                ", path=" + path +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+package de.bsommerfeld.orchestra.persistence.journal;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.diff.SymphonyEdit;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapper;
+import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapper;
+
+import java.util.List;
+
+/**
+ * Converts between {@link SymphonyEdit}s and the {@link JournalRecord}s stored in a journal.
+ */
+@Singleton
+public class JournalRecordMapper {
+
+    private final ChoirMapper choirMapper;
+    private final VoiceMapper voiceMapper;
+
+    /**
+     * Constructs a new JournalRecordMapper with the specified ChoirMapper and VoiceMapper.
+     *
+     * @param choirMapper The ChoirMapper to use for inserted Choirs
+     * @param voiceMapper The VoiceMapper to use for inserted Voices
+     */
+    @Inject
+    public JournalRecordMapper(ChoirMapper choirMapper, VoiceMapper voiceMapper) {
+        this.choirMapper = choirMapper;
+        this.voiceMapper = voiceMapper;
+    }
+
+    /**
+     * Converts an edit to a journal record.
+     *
+     * @param edit The edit to convert
+     * @return The journal record
+     */
+    public JournalRecord toRecord(SymphonyEdit edit) {
+        if (edit instanceof SymphonyEdit.SetDescription e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_DESCRIPTION);
+            record.setDescription(e.description());
+            return record;
+        } else if (edit instanceof SymphonyEdit.InsertChoir e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_INSERT_CHOIR);
+            record.setPath(List.of(e.index()));
+            record.setChoir(choirMapper.toDto(e.choir()));
+            return record;
+        } else if (edit instanceof SymphonyEdit.RemoveChoir e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_REMOVE_CHOIR);
+            record.setPath(List.of(e.index()));
+            return record;
+        } else if (edit instanceof SymphonyEdit.SetChoirFields e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_CHOIR_FIELDS);
+            record.setPath(List.of(e.index()));
+            record.setName(e.name());
+            record.setDescription(e.description());
+            return record;
+        } else if (edit instanceof SymphonyEdit.InsertVoice e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_INSERT_VOICE);
+            record.setPath(e.path());
+            record.setVoice(voiceMapper.toDto(e.voice()));
+            return record;
+        } else if (edit instanceof SymphonyEdit.RemoveVoice e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_REMOVE_VOICE);
+            record.setPath(e.path());
+            return record;
+        } else if (edit instanceof SymphonyEdit.SetVoiceFields e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_VOICE_FIELDS);
+            record.setPath(e.path());
+            record.setName(e.title());
+            record.setDescription(e.description());
+            record.setCompleted(e.completed());
+            return record;
+        } else if (edit instanceof SymphonyEdit.SetVersion e) {
+            JournalRecord record = new JournalRecord(JournalRecord.OP_VERSION);
+            record.setVersion(e.version());
+            return record;
+        }
+        throw new IllegalArgumentException("Unsupported edit: " + edit);
+    }
+
+    /**
+     * Converts a journal record back to an edit.
+     *
+     * @param record The record to convert; must not be a {@link JournalRecord#OP_BASE} record
+     * @return The edit
+     * @throws IllegalArgumentException if the record is malformed or has an unknown operation
+     */
+    public SymphonyEdit toEdit(JournalRecord record) {
+        if (record.getOp() == null) {
+            throw new IllegalArgumentException("Journal record without operation");
+        }
+
+        switch (record.getOp()) {
+            case JournalRecord.OP_DESCRIPTION:
+                return new SymphonyEdit.SetDescription(record.getDescription());
+            case JournalRecord.OP_INSERT_CHOIR:
+                return new SymphonyEdit.InsertChoir(index(record), choirMapper.toDomain(record.getChoir()));
+            case JournalRecord.OP_REMOVE_CHOIR:
+                return new SymphonyEdit.RemoveChoir(index(record));
+            case JournalRecord.OP_CHOIR_FIELDS:
+                return new SymphonyEdit.SetChoirFields(index(record), record.getName(), record.getDescription());
+            case JournalRecord.OP_INSERT_VOICE:
+                return new SymphonyEdit.InsertVoice(path(record), voiceMapper.toDomain(record.getVoice()));
+            case JournalRecord.OP_REMOVE_VOICE:
+                return new SymphonyEdit.RemoveVoice(path(record));
+            case JournalRecord.OP_VOICE_FIELDS:
+                return new SymphonyEdit.SetVoiceFields(path(record), record.getName(), record.getDescription(),
+                        Boolean.TRUE.equals(record.getCompleted()));
+            case JournalRecord.OP_VERSION:
+                if (record.getVersion() == null) {
+                    throw new IllegalArgumentException("Journal record without version: " + record.getOp());
+                }
+                return new SymphonyEdit.SetVersion(record.getVersion());
+            default:
+                throw new IllegalArgumentException("Unknown journal operation: " + record.getOp());
+        }
+    }
+
+    private static int index(JournalRecord record) {
+        return path(record).get(0);
+    }
+
+    private static List<Integer> path(JournalRecord record) {
+        if (record.getPath() == null || record.getPath().isEmpty()) {
+            throw new IllegalArgumentException("Journal record without path: " + record);
+        }
+        return record.getPath();
+    }
+}
@@ -0,0 +1,213 @@
+package de.bsommerfeld.orchestra.persistence.load;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads many files concurrently, each on its own virtual thread.
+ * At most {@code maxConcurrency} files are read at the same time; a limit of 1 reads them one after another
+ * on the calling thread. All reads are finished or cancelled before a method returns, and results are
+ * always returned in the order of the files passed in.
+ */
+public final class ParallelFileLoader {
+
+    private final int maxConcurrency;
+
+    /**
+     * Reads the content of a single file.
+     *
+     * @param <T> The type of the content
+     */
+    @FunctionalInterface
+    public interface FileReader<T> {
+
+        /**
+         * Reads the specified file.
+         *
+         * @param file The file to read
+         * @return The content of the file
+         * @throws IOException if the file cannot be read or parsed
+         */
+        T read(Path file) throws IOException;
+    }
+
+    /**
+     * The outcome of reading a set of files without failing fast.
+     *
+     * @param loaded The contents of the files that could be read, in file order
+     * @param errors The exception of every file that could not be read, in file order
+     * @param <T> The type of the contents
+     */
+    public record LoadResult<T>(List<T> loaded, Map<Path, Exception> errors) {
+
+        /**
+         * Returns whether every file could be read.
+         *
+         * @return true if there are no errors
+         */
+        public boolean isComplete() {
+            return errors.isEmpty();
+        }
+    }
+
+    /**
+     * Constructs a new ParallelFileLoader.
+     *
+     * @param maxConcurrency The maximum number of files read at the same time, at least 1
+     * @throws IllegalArgumentException if maxConcurrency is less than 1
+     */
+    public ParallelFileLoader(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Load concurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Reads all specified files and fails fast.
+     * As soon as one file cannot be read, no further reads are started, the running ones are interrupted,
+     * and the failure is thrown once they have stopped.
+     *
+     * @param files The files to read
+     * @param reader Reads a single file
+     * @param <T> The type of the contents
+     * @return The contents of the files, in file order
+     * @throws RuntimeException if a file cannot be read, with the file's exception as the cause
+     */
+    public <T> List<T> loadAll(List<Path> files, FileReader<T> reader) {
+        List<T> loaded = new ArrayList<>(files.size());
+        if (maxConcurrency == 1 || files.size() < 2) {
+            for (Path file : files) {
+                loaded.add(readOrThrow(file, reader));
+            }
+            return loaded;
+        }
+
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Future<T>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(maxConcurrency);
+            for (Path file : files) {
+                acquire(permits, executor);
+                if (failure.get() != null) {
+                    break;
+                }
+                try {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return readOrThrow(file, reader);
+                        } catch (RuntimeException e) {
+                            // Only the first failure counts; the interrupted reads fail as a consequence of it
+                            if (failure.compareAndSet(null, e)) {
+                                executor.shutdownNow();
+                            }
+                            throw e;
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    // A read failed and shut the executor down in the meantime
+                    break;
+                }
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        for (Future<T> future : futures) {
+            loaded.add(future.resultNow());
+        }
+        return loaded;
+    }
+
+    /**
+     * Reads all specified files and collects the failures instead of stopping at the first one.
+     *
+     * @param files The files to read
+     * @param reader Reads a single file
+     * @param <T> The type of the contents
+     * @return The contents of the readable files and the exceptions of the others
+     */
+    public <T> LoadResult<T> loadAvailable(List<Path> files, FileReader<T> reader) {
+        List<T> loaded = new ArrayList<>(files.size());
+        Map<Path, Exception> errors = new LinkedHashMap<>();
+        if (maxConcurrency == 1 || files.size() < 2) {
+            for (Path file : files) {
+                try {
+                    loaded.add(reader.read(file));
+                } catch (IOException | RuntimeException e) {
+                    errors.put(file, e);
+                }
+            }
+            return new LoadResult<>(loaded, errors);
+        }
+
+        List<Future<T>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(maxConcurrency);
+            for (Path file : files) {
+                acquire(permits, executor);
+                futures.add(executor.submit(() -> {
+                    try {
+                        return reader.read(file);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            Future<T> future = futures.get(i);
+            if (future.state() == Future.State.SUCCESS) {
+                loaded.add(future.resultNow());
+            } else {
+                Throwable cause = future.exceptionNow();
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                errors.put(files.get(i), (Exception) cause);
+            }
+        }
+        return new LoadResult<>(loaded, errors);
+    }
+
+    /**
+     * Returns the maximum number of files read at the same time.
+     *
+     * @return The concurrency limit
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    private static <T> T readOrThrow(Path file, FileReader<T> reader) {
+        try {
+            return reader.read(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Symphony file: " + file, e);
+        }
+    }
+
+    private static void acquire(Semaphore permits, ExecutorService executor) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading Symphony files", e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package de.bsommerfeld.orchestra.persistence.manifest;
+
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Data Transfer Object (DTO) for one entry of the Symphony manifest.
+ * Holds the summary of a Symphony together with the name, size and modification time of its file,
+ * which are used to tell whether the entry is still up to date.
+ */
+public class ManifestEntry {
+
+    private String fileName;
+    private String title;
+    private String description;
+    private LocalDateTime createdAt;
+    private int choirCount;
+    private int voiceCount;
+    private int completedCount;
+    private long fileSize;
+    private Instant lastModified;
+
+    /**
+     * Default constructor for Jackson deserialization.
+     */
+    public ManifestEntry() {
+        // Required for Jackson
+    }
+
+    /**
+     * Creates an entry for the specified file from a summary that carries the file's size and modification time.
+     *
+     * @param fileName The name of the Symphony file, relative to the storage directory
+     * @param summary The summary of the Symphony stored in the file
+     * @return The manifest entry
+     */
+    public static ManifestEntry of(String fileName, SymphonySummary summary) {
+        ManifestEntry entry = new ManifestEntry();
+        entry.fileName = fileName;
+        entry.title = summary.getTitle();
+        entry.description = summary.getDescription().orElse(null);
+        entry.createdAt = summary.getCreatedAt();
+        entry.choirCount = summary.getChoirCount();
+        entry.voiceCount = summary.getVoiceCount();
+        entry.completedCount = summary.getCompletedCount();
+        entry.fileSize = summary.getFileSize();
+        entry.lastModified = summary.getLastModified().orElse(null);
+        return entry;
+    }
+
+    /**
+     * Converts this entry to a summary.
+     *
+     * @return The summary described by this entry
+     */
+    public SymphonySummary toSummary() {
+        return new SymphonySummary(title, description, createdAt, choirCount, voiceCount, completedCount,
+                fileSize, lastModified);
+    }
+
+    /**
+     * Returns whether this entry describes the file with the specified size and modification time.
+     *
+     * @param size The current size of the file
+     * @param modified The current modification time of the file
+     * @return true if the entry is up to date
+     */
+    public boolean matches(long size, Instant modified) {
+        return fileSize == size && Objects.equals(lastModified, modified);
+    }
+
+    /**
+     * Gets the name of the Symphony file, relative to the storage directory.
+     *
+     * @return The file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Sets the name of the Symphony file.
+     *
+     * @param fileName The file name to set
+     */
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Gets the title of the Symphony.
+     *
+     * @return The title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title of the Symphony.
+     *
+     * @param title The title to set
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the description of the Symphony.
+     *
+     * @return The description (can be null)
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the description of the Symphony.
+     *
+     * @param description The description to set (can be null)
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the creation timestamp of the Symphony.
+     *
+     * @return The creation timestamp
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the creation timestamp of the Symphony.
+     *
+     * @param createdAt The creation timestamp to set
+     */
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Gets the number of choirs.
+     *
+     * @return The number of choirs
+     */
+    public int getChoirCount() {
+        return choirCount;
+    }
+
+    /**
+     * Sets the number of choirs.
+     *
+     * @param choirCount The number of choirs to set
+     */
+    public void setChoirCount(int choirCount) {
+        this.choirCount = choirCount;
+    }
+
+    /**
+     * Gets the number of voices at all levels.
+     *
+     * @return The number of voices
+     */
+    public int getVoiceCount() {
+        return voiceCount;
+    }
+
+    /**
+     * Sets the number of voices at all levels.
+     *
+     * @param voiceCount The number of voices to set
+     */
+    public void setVoiceCount(int voiceCount) {
+        this.voiceCount = voiceCount;
+    }
+
+    /**
+     * Gets the number of completed voices at all levels.
+     *
+     * @return The number of completed voices
+     */
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * Sets the number of completed voices at all levels.
+     *
+     * @param completedCount The number of completed voices to set
+     */
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    /**
+     * Gets the size of the Symphony file in bytes.
+     *
+     * @return The file size
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Sets the size of the Symphony file in bytes.
+     *
+     * @param fileSize The file size to set
+     */
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Gets the modification time of the Symphony file.
+     *
+     * @return The modification time
+     */
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Sets the modification time of the Symphony file.
+     *
+     * @param lastModified The modification time to set
+     */
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ManifestEntry that = (ManifestEntry) o;
+        return choirCount == that.choirCount &&
+                voiceCount == that.voiceCount &&
+                completedCount == that.completedCount &&
+                fileSize == that.fileSize &&
+                Objects.equals(fileName, that.fileName) &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(createdAt, that.createdAt) &&
+                Objects.equals(lastModified, that.lastModified);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileName, title, description, createdAt, choirCount, voiceCount, completedCount,
+                fileSize, lastModified);
+    }
+
+    @Override
+    public String toString() {
+        return "ManifestEntry{" +
+                "fileName='" + fileName + '\'' +
+                ", title='" + title + '\'' +
+                ", voiceCount=" + voiceCount +
+                ", fileSize=" + fileSize +
+                ", lastModified=" + lastModified +
+                '}';
+    }
+}
@@ -0,0 +1,329 @@
+package de.bsommerfeld.orchestra.persistence.manifest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the Symphony files in a storage directory.
+ * For every file the manifest keeps a {@link SymphonySummary} together with the file's size and modification
+ * time, and persists them in a single file next to the Symphony files. Listing summaries then only needs a
+ * directory listing: a Symphony file is parsed again only if it is new or its size or modification time changed.
+ *
+ * <p>Repositories report their own saves and deletes, so the manifest stays current without re-parsing.
+ * Writing the manifest file and background refreshes run on a dedicated thread.
+ */
+public class SymphonyManifest implements AutoCloseable {
+
+    private static final String MANIFEST_EXTENSION = ".manifest";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String WRITER_THREAD_NAME = "orchestra-manifest-writer";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final String fileExtension;
+    private final Path manifestFile;
+    private final SymphonyLoader loader;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService writer;
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+    // Guarded by this; null until the manifest file was read
+    private Map<String, ManifestEntry> entries;
+
+    /**
+     * Reads the Symphony stored in a file.
+     */
+    @FunctionalInterface
+    public interface SymphonyLoader {
+
+        /**
+         * Reads the Symphony stored in the specified file.
+         *
+         * @param file The path of the Symphony file
+         * @return The Symphony read from the file
+         * @throws IOException if the file cannot be read or parsed
+         */
+        Symphony load(Path file) throws IOException;
+    }
+
+    /**
+     * Constructs a new SymphonyManifest for the Symphony files in the specified directory.
+     *
+     * @param directory The storage directory
+     * @param fileExtension The extension of the Symphony files, including the leading dot
+     * @param loader Reads a Symphony file that is not indexed yet or has changed
+     */
+    public SymphonyManifest(Path directory, String fileExtension, SymphonyLoader loader) {
+        this.directory = directory;
+        this.fileExtension = fileExtension;
+        // e.g. ".json.manifest", which never matches the extension of a Symphony file
+        this.manifestFile = directory.resolve(fileExtension + MANIFEST_EXTENSION);
+        this.loader = loader;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, WRITER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the summaries of all Symphony files, sorted by title.
+     * Files that are not indexed yet or have changed since they were indexed are parsed, and entries of
+     * deleted files are dropped. If anything changed, the manifest file is rewritten in the background.
+     *
+     * @return The summaries of all stored symphonies
+     * @throws RuntimeException if the directory or a changed Symphony file cannot be read
+     */
+    public synchronized List<SymphonySummary> summaries() {
+        refresh();
+        return entries.values().stream()
+                .map(ManifestEntry::toSummary)
+                .sorted(Comparator.comparing(SymphonySummary::getTitle, String.CASE_INSENSITIVE_ORDER))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Brings the manifest up to date on the background thread, e.g. right after startup.
+     *
+     * @return A future that completes when the manifest is up to date
+     */
+    public CompletableFuture<Void> refreshInBackground() {
+        return CompletableFuture.runAsync(() -> {
+            synchronized (this) {
+                refresh();
+            }
+        }, writer);
+    }
+
+    /**
+     * Records that the specified Symphony was written to the specified file.
+     * Does nothing until the manifest has been read, since a later refresh will index the file anyway.
+     *
+     * @param file The path of the Symphony file
+     * @param symphony The Symphony that was written
+     */
+    public synchronized void updated(Path file, Symphony symphony) {
+        if (entries == null) {
+            return;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            entries.put(key(file), entry(file, symphony, attributes));
+        } catch (IOException e) {
+            // The next refresh notices that the entry is missing and indexes the file again
+            entries.remove(key(file));
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * Records that the specified Symphony file was deleted.
+     *
+     * @param file The path of the deleted Symphony file
+     */
+    public synchronized void removed(Path file) {
+        if (entries != null && entries.remove(key(file)) != null) {
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Waits until pending writes of the manifest file and background refreshes are done.
+     *
+     * A manifest file that could not be written is rewritten with the next change; until then the Symphony
+     * files themselves are the source of truth.
+     *
+     * @throws RuntimeException if waiting is interrupted
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while flushing the Symphony manifest", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to flush the Symphony manifest", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the path of the manifest file.
+     *
+     * @return The manifest file
+     */
+    public Path getManifestFile() {
+        return manifestFile;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        writer.shutdown();
+    }
+
+    private void refresh() {
+        if (entries == null) {
+            entries = read();
+        }
+
+        Map<String, ManifestEntry> current = new LinkedHashMap<>();
+        boolean changed = false;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> files = paths
+                    .filter(path -> path.toString().endsWith(fileExtension))
+                    .collect(Collectors.toList());
+            for (Path file : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // Deleted while the directory was listed
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                String key = key(file);
+                ManifestEntry entry = entries.get(key);
+                if (entry == null || !entry.matches(attributes.size(), attributes.lastModifiedTime().toInstant())) {
+                    entry = entry(file, loader.load(file), attributes);
+                    changed = true;
+                }
+                current.put(key, entry);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to index Symphonies in " + directory, e);
+        }
+
+        if (changed || current.size() != entries.size()) {
+            entries = current;
+            scheduleWrite();
+        }
+    }
+
+    private Map<String, ManifestEntry> read() {
+        Map<String, ManifestEntry> read = new LinkedHashMap<>();
+        if (!Files.exists(manifestFile)) {
+            return read;
+        }
+        try {
+            ManifestDocument document = objectMapper.readValue(manifestFile.toFile(), ManifestDocument.class);
+            if (document.getVersion() == FORMAT_VERSION && document.getEntries() != null) {
+                for (ManifestEntry entry : document.getEntries()) {
+                    read.put(entry.getFileName(), entry);
+                }
+            }
+        } catch (IOException e) {
+            // A damaged manifest is rebuilt from the Symphony files
+            read.clear();
+        }
+        return read;
+    }
+
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            writer.execute(this::write);
+        }
+    }
+
+    private void write() {
+        writeScheduled.set(false);
+        ManifestDocument document = new ManifestDocument();
+        synchronized (this) {
+            document.setVersion(FORMAT_VERSION);
+            document.setEntries(new ArrayList<>(entries.values()));
+        }
+        Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + TEMP_EXTENSION);
+        try {
+            objectMapper.writeValue(tempFile.toFile(), document);
+            try {
+                Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write Symphony manifest: " + manifestFile, e);
+        }
+    }
+
+    private String key(Path file) {
+        return directory.relativize(file).toString();
+    }
+
+    private ManifestEntry entry(Path file, Symphony symphony, BasicFileAttributes attributes) {
+        Instant modified = attributes.lastModifiedTime().toInstant();
+        return ManifestEntry.of(key(file), SymphonySummary.of(symphony, attributes.size(), modified));
+    }
+
+    /**
+     * Data Transfer Object (DTO) for the manifest file.
+     */
+    public static class ManifestDocument {
+
+        private int version;
+        private List<ManifestEntry> entries;
+
+        /**
+         * Gets the format version of the manifest file.
+         *
+         * @return The format version
+         */
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * Sets the format version of the manifest file.
+         *
+         * @param version The format version to set
+         */
+        public void setVersion(int version) {
+            this.version = version;
+        }
+
+        /**
+         * Gets the entries of the manifest.
+         *
+         * @return The entries
+         */
+        public List<ManifestEntry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Sets the entries of the manifest.
+         *
+         * @param entries The entries to set
+         */
+        public void setEntries(List<ManifestEntry> entries) {
+            this.entries = entries;
+        }
+    }
+}
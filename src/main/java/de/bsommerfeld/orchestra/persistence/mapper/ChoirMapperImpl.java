@@ -32,6 +32,7 @@ public class ChoirMapperImpl implements ChoirMapper {
 
         // Create and return the DTO
         return new ChoirDTO(
+                domain.getId(),
                 domain.getName(),
                 domain.getDescription().orElse(null),
                 voiceMapper.toDtoList(domain.getVoices())
@@ -44,11 +45,18 @@ public class ChoirMapperImpl implements ChoirMapper {
             return null;
         }
 
-        // Create and return the domain model
+        // A Choir without an id that is not read as part of a Symphony, whose mapper derives the ids of legacy
+        // nodes (see LegacyIds), gets a new id
+        if (dto.getId() == null) {
+            return new Choir(dto.getName(), dto.getDescription(), voiceMapper.toDomainList(dto.getVoices())).intern();
+        }
+
+        // Create and return the domain model, shared with any equal Choir that is already loaded
         return new Choir(
+                dto.getId(),
                 dto.getName(),
                 dto.getDescription(),
                 voiceMapper.toDomainList(dto.getVoices())
-        );
+        ).intern();
     }
 }
\ No newline at end of file
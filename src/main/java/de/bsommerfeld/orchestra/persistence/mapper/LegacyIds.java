@@ -0,0 +1,93 @@
+package de.bsommerfeld.orchestra.persistence.mapper;
+
+import de.bsommerfeld.orchestra.persistence.dto.ChoirDTO;
+import de.bsommerfeld.orchestra.persistence.dto.SymphonyDTO;
+import de.bsommerfeld.orchestra.persistence.dto.VoiceDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Derives the ids of Choirs and Voices read from files that were written before nodes had ids.
+ * The id of such a node is a name-based UUID of its position: a Choir's of the Symphony title and its index, a
+ * Voice's of the id of its parent and its index. Reading the same file again therefore yields the same ids until
+ * the next save stores them, even if the Symphony is not cached, so a view that shows the Symphony can keep
+ * addressing its nodes by id.
+ */
+public final class LegacyIds {
+
+    private LegacyIds() {
+        // Utility class
+    }
+
+    /**
+     * Returns the id of a Choir that was stored without one.
+     *
+     * @param symphonyTitle The title of the Symphony the Choir belongs to
+     * @param index The index of the Choir among the Choirs of the Symphony
+     * @return The derived id
+     */
+    public static String choirId(String symphonyTitle, int index) {
+        return nameUuid("choir:" + symphonyTitle + "/" + index);
+    }
+
+    /**
+     * Returns the id of a Voice that was stored without one.
+     *
+     * @param parentId The id of the Choir or Voice the Voice belongs to
+     * @param index The index of the Voice among the Voices of its parent
+     * @return The derived id
+     */
+    public static String voiceId(String parentId, int index) {
+        return nameUuid("voice:" + parentId + "/" + index);
+    }
+
+    /**
+     * Sets the derived ids on all Choirs and Voices of a Symphony DTO that have none.
+     *
+     * @param dto The Symphony DTO, which is changed in place
+     */
+    public static void assign(SymphonyDTO dto) {
+        List<ChoirDTO> choirs = dto.getChoirs();
+        if (choirs == null) {
+            return;
+        }
+        for (int i = 0; i < choirs.size(); i++) {
+            ChoirDTO choir = choirs.get(i);
+            if (choir == null) {
+                continue;
+            }
+            if (choir.getId() == null) {
+                choir.setId(choirId(dto.getTitle(), i));
+            }
+            assign(choir.getId(), choir.getVoices());
+        }
+    }
+
+    /**
+     * Sets the derived ids on Voice DTOs and their sub-voices that have none.
+     *
+     * @param parentId The id of the Choir or Voice the Voices belong to
+     * @param voices The Voice DTOs, which are changed in place; may be null
+     */
+    public static void assign(String parentId, List<VoiceDTO> voices) {
+        if (voices == null) {
+            return;
+        }
+        for (int i = 0; i < voices.size(); i++) {
+            VoiceDTO voice = voices.get(i);
+            if (voice == null) {
+                continue;
+            }
+            if (voice.getId() == null) {
+                voice.setId(voiceId(parentId, i));
+            }
+            assign(voice.getId(), voice.getSubVoices());
+        }
+    }
+
+    private static String nameUuid(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
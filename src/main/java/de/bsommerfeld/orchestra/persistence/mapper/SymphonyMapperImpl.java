@@ -35,7 +35,8 @@ public class SymphonyMapperImpl implements SymphonyMapper {
                 domain.getTitle(),
                 domain.getDescription().orElse(null),
                 domain.getCreatedAt(),
-                choirMapper.toDtoList(domain.getChoirs())
+                choirMapper.toDtoList(domain.getChoirs()),
+                domain.getVersion()
         );
     }
 
@@ -45,11 +46,16 @@ public class SymphonyMapperImpl implements SymphonyMapper {
             return null;
         }
 
+        // Choirs and Voices written before ids existed get ids derived from their position, which are the same
+        // on every read until the next save stores them
+        LegacyIds.assign(dto);
+
         // Create and return the domain model
         return new Symphony(
                 dto.getTitle(),
                 dto.getDescription(),
-                choirMapper.toDomainList(dto.getChoirs())
+                choirMapper.toDomainList(dto.getChoirs()),
+                dto.getVersion()
         );
     }
 }
\ No newline at end of file
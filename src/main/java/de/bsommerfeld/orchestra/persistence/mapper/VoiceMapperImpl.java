@@ -31,9 +31,11 @@ public class VoiceMapperImpl implements VoiceMapper {
 
         // Create and return the DTO
         return new VoiceDTO(
+                domain.getId(),
                 domain.getTitle(),
                 domain.getDescription().orElse(null),
-                subVoiceDTOs
+                subVoiceDTOs,
+                domain.isCompleted()
         );
     }
 
@@ -51,11 +53,19 @@ public class VoiceMapperImpl implements VoiceMapper {
                     .collect(Collectors.toList());
         }
 
-        // Create and return the domain model
+        // A Voice without an id that is not read as part of a Symphony or Choir, whose mapper derives the ids of
+        // legacy nodes (see LegacyIds), gets a new id
+        if (dto.getId() == null) {
+            return new Voice(dto.getTitle(), dto.getDescription(), subVoices, dto.isCompleted()).intern();
+        }
+
+        // Create and return the domain model, shared with any equal Voice that is already loaded
         return new Voice(
+                dto.getId(),
                 dto.getTitle(),
                 dto.getDescription(),
-                subVoices
-        );
+                subVoices,
+                dto.isCompleted()
+        ).intern();
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package de.bsommerfeld.orchestra.persistence.path;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Decides once where Symphony files are stored.
+ * The storage directory is always the platform-specific directory of the {@link PlatformPathProvider}.
+ * When the directory is resolved for the first time, JSON files found in the legacy directory are moved
+ * there by a background thread. Until the migration is finished, {@link #migrateIfPending(String)} moves a
+ * pending file on demand, so callers never see a file in the wrong place.
+ */
+@Singleton
+public class StorageLocation {
+
+    private static final String FILE_EXTENSION = ".json";
+    private static final String MIGRATION_THREAD_NAME = "orchestra-storage-migration";
+
+    private final PlatformPathProvider pathProvider;
+    private final List<Consumer<MigrationProgress>> migrationListeners = new CopyOnWriteArrayList<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger migrated = new AtomicInteger();
+    private final Object migrationLock = new Object();
+    private final CountDownLatch migrationDone = new CountDownLatch(1);
+
+    private volatile Path directory;
+    private volatile Path legacyDirectory;
+    private volatile int total;
+
+    /**
+     * Constructs a new StorageLocation based on the specified PlatformPathProvider.
+     *
+     * @param pathProvider The PlatformPathProvider used to determine the storage and legacy directories
+     */
+    @Inject
+    public StorageLocation(PlatformPathProvider pathProvider) {
+        this.pathProvider = pathProvider;
+    }
+
+    /**
+     * Gets the storage directory, resolving it and starting the legacy migration on the first call.
+     *
+     * @return The path to the storage directory
+     */
+    public Path getDirectory() {
+        Path resolved = directory;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = directory;
+                if (resolved == null) {
+                    resolved = resolveDirectory();
+                    directory = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Moves the specified file from the legacy directory now if it is still waiting to be migrated.
+     * Does nothing if the file is not pending or the directory has not been resolved yet.
+     *
+     * @param fileName The name of the file in the storage directory
+     */
+    public void migrateIfPending(String fileName) {
+        if (pending.contains(fileName)) {
+            migrate(fileName);
+        }
+    }
+
+    /**
+     * Moves all files that are still waiting to be migrated on the calling thread.
+     * Operations that need every file, like listing all symphonies, call this first.
+     */
+    public void migrateAll() {
+        for (String fileName : List.copyOf(pending)) {
+            migrate(fileName);
+        }
+    }
+
+    /**
+     * Waits until the background migration is finished.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void awaitMigration() throws InterruptedException {
+        getDirectory();
+        migrationDone.await();
+    }
+
+    /**
+     * Returns whether all legacy files have been migrated.
+     *
+     * @return true if no file is waiting to be migrated
+     */
+    public boolean isMigrationComplete() {
+        return directory != null && pending.isEmpty();
+    }
+
+    /**
+     * Registers a listener that is notified after each migrated file.
+     * Listeners are called on the thread that moved the file.
+     *
+     * @param listener The listener to register
+     */
+    public void addMigrationListener(Consumer<MigrationProgress> listener) {
+        migrationListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered migration listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeMigrationListener(Consumer<MigrationProgress> listener) {
+        migrationListeners.remove(listener);
+    }
+
+    private Path resolveDirectory() {
+        Path target = pathProvider.getSymphonyDirectory();
+        try {
+            Files.createDirectories(target);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create storage directory: " + target, e);
+        }
+
+        Path legacy = pathProvider.getLegacyStorageDirectory();
+        List<String> legacyFiles = listLegacyFiles(legacy, target);
+        if (legacyFiles.isEmpty()) {
+            migrationDone.countDown();
+            return target;
+        }
+
+        legacyDirectory = legacy;
+        total = legacyFiles.size();
+        pending.addAll(legacyFiles);
+        // Publish the directory only once the files are pending, so no caller can read a file that was not moved yet
+        directory = target;
+        Thread migration = new Thread(() -> {
+            try {
+                for (String fileName : legacyFiles) {
+                    try {
+                        migrate(fileName);
+                    } catch (RuntimeException e) {
+                        // The file stays pending, so the next access to it retries and reports the failure
+                    }
+                }
+            } finally {
+                migrationDone.countDown();
+            }
+        }, MIGRATION_THREAD_NAME);
+        migration.setDaemon(true);
+        migration.start();
+        return target;
+    }
+
+    private static List<String> listLegacyFiles(Path legacy, Path target) {
+        if (!Files.isDirectory(legacy)
+                || legacy.toAbsolutePath().normalize().equals(target.toAbsolutePath().normalize())) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(legacy)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(FILE_EXTENSION))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            // If we can't read the legacy directory, there is nothing we can migrate
+            return List.of();
+        }
+    }
+
+    private void migrate(String fileName) {
+        synchronized (migrationLock) {
+            if (!pending.contains(fileName)) {
+                return;
+            }
+            try {
+                // The legacy directory was authoritative until now, so its files win over existing ones
+                Files.move(legacyDirectory.resolve(fileName), directory.resolve(fileName),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to migrate Symphony file: " + fileName, e);
+            }
+            pending.remove(fileName);
+        }
+        MigrationProgress progress = new MigrationProgress(migrated.incrementAndGet(), total, fileName);
+        for (Consumer<MigrationProgress> listener : migrationListeners) {
+            listener.accept(progress);
+        }
+    }
+
+    /**
+     * Progress of the legacy migration, reported after each migrated file.
+     *
+     * @param migrated The number of files migrated so far
+     * @param total The number of files found in the legacy directory
+     * @param fileName The name of the file that was just migrated
+     */
+    public record MigrationProgress(int migrated, int total, String fileName) {
+
+        /**
+         * Returns whether this was the last file to migrate.
+         *
+         * @return true if all files have been migrated
+         */
+        public boolean isComplete() {
+            return migrated >= total;
+        }
+    }
+}
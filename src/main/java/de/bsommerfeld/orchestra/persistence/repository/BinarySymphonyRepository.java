@@ -0,0 +1,35 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.persistence.codec.BinarySymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.config.PersistenceSettings;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+
+/**
+ * Binary implementation of the SymphonyRepository interface.
+ * Stores Symphony objects in the compact format of the {@link BinarySymphonyCodec}, one file per Symphony,
+ * next to where the JSON files would be stored.
+ */
+@Singleton
+public class BinarySymphonyRepository extends FileSymphonyRepository {
+
+    /**
+     * The extension of binary Symphony files.
+     */
+    public static final String FILE_EXTENSION = ".symphony";
+
+    /**
+     * Constructs a new BinarySymphonyRepository with the specified BinarySymphonyCodec, StorageLocation and settings.
+     *
+     * @param codec The BinarySymphonyCodec to use for reading and writing Symphony files
+     * @param storageLocation The StorageLocation that decides where Symphony files are stored
+     * @param settings The persistence settings, which provide the load parallelism, the storage layout and
+     *                 the compression
+     */
+    @Inject
+    public BinarySymphonyRepository(BinarySymphonyCodec codec, StorageLocation storageLocation,
+                                    PersistenceSettings settings) {
+        super(codec, storageLocation, FILE_EXTENSION, settings);
+    }
+}
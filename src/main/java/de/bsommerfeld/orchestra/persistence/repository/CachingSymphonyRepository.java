@@ -0,0 +1,205 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.persistence.config.EvictionPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through caching decorator for a file-based SymphonyRepository.
+ * Parsed Symphony objects are kept in memory, keyed by title, together with the modification time and size
+ * of the file they were read from. A cached Symphony is only returned while its file still has the same
+ * stamp, so changes made by other processes are picked up on the next read.
+ *
+ * <p>Since Symphony objects are immutable, cached instances can be shared between callers.
+ * The cache holds at most a configured number of entries and drops entries according to its
+ * {@link EvictionPolicy} when it is full.
+ */
+public class CachingSymphonyRepository implements SymphonyRepository {
+
+    private final SymphonyRepository delegate;
+    private final Function<String, Path> fileResolver;
+    // Guarded by itself; a LinkedHashMap in access order mutates on get
+    private final Map<String, CacheEntry> entries;
+
+    /**
+     * Constructs a new CachingSymphonyRepository around the specified repository.
+     *
+     * @param delegate The repository that reads and writes the files
+     * @param fileResolver Resolves the file a Symphony with the given title is stored in
+     * @param maxEntries The maximum number of cached symphonies
+     * @param evictionPolicy The policy used to pick the entry to drop when the cache is full
+     */
+    public CachingSymphonyRepository(SymphonyRepository delegate, Function<String, Path> fileResolver,
+                                     int maxEntries, EvictionPolicy evictionPolicy) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.fileResolver = Objects.requireNonNull(fileResolver, "fileResolver");
+        this.entries = new LinkedHashMap<>(16, 0.75f, evictionPolicy == EvictionPolicy.LRU) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Symphony save(Symphony entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+
+        String title = entity.getTitle();
+        evict(title);
+        Symphony saved = delegate.save(entity);
+        FileStamp stamp = stamp(title);
+        if (stamp.exists()) {
+            put(title, new CacheEntry(saved, stamp));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Symphony> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        FileStamp before = stamp(id);
+        CacheEntry cached = get(id);
+        if (cached != null && cached.stamp.equals(before)) {
+            return Optional.of(cached.symphony);
+        }
+
+        Optional<Symphony> symphony = delegate.findById(id);
+        // Only cache what was read if the file did not change while it was read
+        if (symphony.isPresent() && before.exists() && before.equals(stamp(id))) {
+            put(id, new CacheEntry(symphony.get(), before));
+        } else {
+            evict(id);
+        }
+        return symphony;
+    }
+
+    @Override
+    public List<Symphony> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<SymphonySummary> listSummaries() {
+        return delegate.listSummaries();
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        evict(id);
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        CacheEntry cached = get(id);
+        if (cached != null && cached.stamp.equals(stamp(id))) {
+            return true;
+        }
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * Drops the cached Symphony with the specified title, if any, and invalidates it in the delegate.
+     *
+     * @param title The title of the Symphony
+     */
+    @Override
+    public void invalidate(String title) {
+        evict(title);
+        delegate.invalidate(title);
+    }
+
+    /**
+     * Drops all cached symphonies.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached symphonies.
+     *
+     * @return The current cache size
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(String title) {
+        synchronized (entries) {
+            entries.remove(title);
+        }
+    }
+
+    private CacheEntry get(String title) {
+        synchronized (entries) {
+            return entries.get(title);
+        }
+    }
+
+    private void put(String title, CacheEntry entry) {
+        synchronized (entries) {
+            entries.put(title, entry);
+        }
+    }
+
+    private FileStamp stamp(String title) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(fileResolver.apply(title), BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+        } catch (IOException e) {
+            // A missing or unreadable file never matches a cached stamp, so the delegate decides what happens
+            return FileStamp.MISSING;
+        }
+    }
+
+    private record CacheEntry(Symphony symphony, FileStamp stamp) {
+    }
+
+    private record FileStamp(FileTime modified, long size) {
+
+        static final FileStamp MISSING = new FileStamp(null, -1);
+
+        boolean exists() {
+            return modified != null;
+        }
+    }
+}
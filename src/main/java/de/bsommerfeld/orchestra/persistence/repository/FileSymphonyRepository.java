@@ -0,0 +1,599 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.compress.CompressedStreams;
+import de.bsommerfeld.orchestra.persistence.compress.Recompressor;
+import de.bsommerfeld.orchestra.persistence.config.Compression;
+import de.bsommerfeld.orchestra.persistence.config.PersistenceSettings;
+import de.bsommerfeld.orchestra.persistence.config.StorageLayout;
+import de.bsommerfeld.orchestra.persistence.load.ParallelFileLoader;
+import de.bsommerfeld.orchestra.persistence.load.ParallelFileLoader.LoadResult;
+import de.bsommerfeld.orchestra.persistence.manifest.SymphonyManifest;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * File-based implementation of the SymphonyRepository interface.
+ * Stores each Symphony in its own file in a designated directory, encoded by a SymphonyCodec.
+ * Subclasses decide on the codec and the file extension.
+ *
+ * <p>Loading all symphonies reads the files concurrently on virtual threads, bounded by the load parallelism.
+ * Summaries are served from a {@link SymphonyManifest} next to the Symphony files. The manifest is created
+ * on first use and kept current by save and delete.
+ *
+ * <p>With the {@link StorageLayout#SHARDED sharded} layout, each file lives in one of 256 subdirectories of
+ * the storage directory, named after the first byte of a CRC32 of its file name. The path is still computed
+ * from the title alone. Files in the other layout, or in the two-level shards of earlier versions, are moved
+ * by {@link #migrateLayout()}, and on demand by {@link #resolvePath(String)} until that has run.
+ *
+ * <p>Files are written with the configured {@link Compression}. Compressed files are recognized by their
+ * header when they are read, so compressed and uncompressed files can be mixed.
+ *
+ * <p>A save writes a temporary file next to the Symphony file and moves it over the old one atomically, so
+ * a crash or a full disk during the write leaves the previous version intact instead of a truncated file.
+ */
+public abstract class FileSymphonyRepository implements SymphonyRepository {
+
+    private static final Pattern SHARD_NAME = Pattern.compile("[0-9a-f]{2}");
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final SymphonyCodec codec;
+    private final StorageLocation storageLocation;
+    private final String fileExtension;
+    private final ParallelFileLoader loader;
+    private final StorageLayout layout;
+    private final Compression compression;
+    private final int compressionLevel;
+    private volatile SymphonyManifest manifest;
+    private final Map<Path, String> knownTitles = new ConcurrentHashMap<>();
+    private final Map<Path, FileStamp> knownStamps = new ConcurrentHashMap<>();
+    private volatile boolean layoutMigrated;
+    
+    /**
+     * Gets the storage directory for Symphony files.
+     * The directory is resolved once by the StorageLocation, so this call does not touch the file system.
+     * This method can be overridden in tests to use a different directory.
+     *
+     * @return The path to the storage directory
+     */
+    protected String getStorageDir() {
+        return storageLocation.getDirectory().toString();
+    }
+
+    /**
+     * Constructs a new FileSymphonyRepository.
+     *
+     * @param codec The SymphonyCodec to use for reading and writing Symphony files
+     * @param storageLocation The StorageLocation that decides where Symphony files are stored
+     * @param fileExtension The extension of the Symphony files, including the leading dot
+     * @param settings The persistence settings, which provide the load parallelism, the storage layout and
+     *                 the compression
+     * @throws IllegalArgumentException if the load parallelism is less than 1 or the compression level is not
+     *                                  between 1 and 9
+     */
+    protected FileSymphonyRepository(SymphonyCodec codec, StorageLocation storageLocation, String fileExtension,
+                                     PersistenceSettings settings) {
+        this.codec = codec;
+        this.storageLocation = storageLocation;
+        this.fileExtension = fileExtension;
+        this.loader = new ParallelFileLoader(settings.getLoadParallelism());
+        this.layout = settings.getLayout();
+        this.compression = settings.getCompression();
+        this.compressionLevel = settings.getCompressionLevel();
+        CompressedStreams.checkLevel(compressionLevel);
+
+        // Create the storage directory if it doesn't exist
+        Path storageDir = storageLocation.getDirectory();
+        try {
+            Files.createDirectories(storageDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create storage directory: " + storageDir, e);
+        }
+    }
+
+    @Override
+    public Symphony save(Symphony entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+
+        try {
+            // Write the Symphony to its file
+            Path file = resolvePath(entity.getTitle());
+            if (layout == StorageLayout.SHARDED) {
+                Files.createDirectories(file.getParent());
+            }
+            writeAtomically(file, entity);
+            knownStamps.put(file, FileStamp.of(file));
+
+            SymphonyManifest current = manifest;
+            if (current != null) {
+                current.updated(file, entity);
+            }
+
+            return entity;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save Symphony: " + entity.getTitle(), e);
+        }
+    }
+
+    /**
+     * Writes the Symphony to a temporary file in the same directory and moves it over the file, so readers
+     * and a crash see either the old or the new content. The temporary name is unique, since the
+     * Recompressor or another save may write next to the same file at the same time.
+     */
+    private void writeAtomically(Path file, Symphony entity) throws IOException {
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_EXTENSION);
+        try {
+            try (OutputStream out = CompressedStreams.compressing(Files.newOutputStream(temporary), compression,
+                    compressionLevel)) {
+                codec.write(entity, out);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public Optional<Symphony> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        File file = getFile(id);
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(read(file.toPath()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Symphony: " + id, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The files are read concurrently. If one of them cannot be read, the remaining reads are cancelled.
+     *
+     * @throws RuntimeException if a Symphony file cannot be read
+     */
+    @Override
+    public List<Symphony> findAll() {
+        return loader.loadAll(listFiles(), this::read);
+    }
+
+    /**
+     * Loads every Symphony that can be read and reports the files that cannot, instead of failing on the
+     * first corrupt file like {@link #findAll()}.
+     *
+     * @return The readable symphonies and the exception of every unreadable file
+     */
+    public LoadResult<Symphony> findAllAvailable() {
+        return loader.loadAvailable(listFiles(), this::read);
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        File file = getFile(id);
+        boolean deleted = file.exists() && file.delete();
+        if (deleted) {
+            knownStamps.put(file.toPath(), FileStamp.MISSING);
+        }
+        SymphonyManifest current = manifest;
+        if (deleted && current != null) {
+            current.removed(file.toPath());
+        }
+        return deleted;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only Symphony files that are not indexed yet or have changed since they were indexed are parsed.
+     */
+    @Override
+    public List<SymphonySummary> listSummaries() {
+        storageLocation.migrateAll();
+        return getManifest().summaries();
+    }
+
+    /**
+     * Brings the manifest up to date in the background, so that the first call to {@link #listSummaries()}
+     * does not have to index a missing or stale manifest.
+     *
+     * @return A future that completes when the manifest is up to date
+     */
+    public CompletableFuture<Void> refreshManifestInBackground() {
+        return getManifest().refreshInBackground();
+    }
+
+    @Override
+    public void flush() {
+        SymphonyManifest current = manifest;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        File file = getFile(id);
+        return file.exists();
+    }
+
+    /**
+     * Resolves the path of the file that stores the Symphony with the specified title.
+     * The file does not need to exist. Until {@link #migrateLayout()} has run, a file still stored in the
+     * other layout is moved to the returned path first.
+     *
+     * @param title The title of the Symphony
+     * @return The path of the Symphony file
+     */
+    public Path resolvePath(String title) {
+        // Sanitize the title to create a valid filename
+        String fileName = title.replaceAll("[^a-zA-Z0-9.-]", "_") + fileExtension;
+        storageLocation.migrateIfPending(fileName);
+        Path root = Paths.get(getStorageDir());
+        Path flat = root.resolve(fileName);
+        Path sharded = shardDirectory(root, fileName).resolve(fileName);
+        Path path = layout == StorageLayout.SHARDED ? sharded : flat;
+        if (!layoutMigrated) {
+            Path other = layout == StorageLayout.SHARDED ? flat : sharded;
+            for (Path previous : List.of(other, legacyShardDirectory(root, fileName).resolve(fileName))) {
+                try {
+                    move(previous, path);
+                    move(journalOf(previous), journalOf(path));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to move Symphony file: " + previous, e);
+                }
+            }
+        }
+        knownTitles.putIfAbsent(path, title);
+        return path;
+    }
+
+    /**
+     * Checks whether the specified Symphony file has changed since this repository last wrote it or last
+     * acknowledged a change to it, and acknowledges the current state. Changes this repository made itself
+     * are therefore never reported, and a change made by another process is reported once.
+     *
+     * @param file The Symphony file
+     * @return true if the file was changed, created or deleted by someone else
+     */
+    public boolean acknowledgeChange(Path file) {
+        FileStamp current = FileStamp.of(file);
+        FileStamp previous = knownStamps.put(file, current);
+        return !current.equals(previous);
+    }
+
+    /**
+     * Checks every Symphony file in the storage directory, and every file this repository knows of, for
+     * changes by someone else and acknowledges them. Used when the individual changes are not known, e.g.
+     * because the file watcher lost events.
+     *
+     * @return The files that were changed, created or deleted by someone else
+     */
+    public List<Path> acknowledgeAllChanges() {
+        Set<Path> files = new LinkedHashSet<>(listFiles());
+        files.addAll(knownStamps.keySet());
+        return files.stream()
+                .filter(this::acknowledgeChange)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the title of the Symphony stored in the specified file. Titles of files this repository has
+     * resolved are known; any other file is read.
+     *
+     * @param file The Symphony file
+     * @return The title, or an empty Optional if the file is unknown and does not exist or cannot be read
+     */
+    public Optional<String> titleOf(Path file) {
+        String title = knownTitles.get(file);
+        if (title != null) {
+            return Optional.of(title);
+        }
+        try {
+            title = read(file).getTitle();
+        } catch (IOException | RuntimeException e) {
+            // Deleted, still being written, or not a Symphony file
+            return Optional.empty();
+        }
+        knownTitles.put(file, title);
+        return Optional.of(title);
+    }
+
+    /**
+     * Moves every Symphony file that is stored in the other layout, together with its journal, to where the
+     * configured layout expects it, including the files in the two-level shards of earlier versions. Shard
+     * directories emptied by the moves are removed.
+     * Afterwards, {@link #resolvePath(String)} no longer looks for files in the other layout.
+     *
+     * @return The number of moved Symphony files
+     * @throws RuntimeException if a file cannot be moved
+     */
+    public int migrateLayout() {
+        storageLocation.migrateAll();
+        Path root = Paths.get(getStorageDir());
+        int moved = 0;
+        try {
+            if (layout == StorageLayout.SHARDED) {
+                List<Path> shards = listShards(root);
+                List<Path> files = new ArrayList<>(listOwnFiles(root, 1));
+                for (Path shard : shards) {
+                    files.addAll(listOwnFiles(shard, 2));
+                }
+                for (Path file : files) {
+                    // Files already in their shard are kept, as the target exists
+                    String fileName = file.getFileName().toString();
+                    if (move(file, shardDirectory(root, snapshotName(fileName)).resolve(fileName))
+                            && fileName.endsWith(fileExtension)) {
+                        moved++;
+                    }
+                }
+                for (Path shard : shards) {
+                    deleteEmptyDirectories(shard);
+                }
+            } else {
+                for (Path shard : listShards(root)) {
+                    for (Path file : listOwnFiles(shard, 2)) {
+                        if (move(file, root.resolve(file.getFileName())) && file.toString().endsWith(fileExtension)) {
+                            moved++;
+                        }
+                    }
+                    deleteEmptyDirectories(shard);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to migrate Symphonies to the " + layout + " layout", e);
+        }
+        layoutMigrated = true;
+        return moved;
+    }
+
+    /**
+     * Rewrites the Symphony files with the configured compression on a background thread, if they were last
+     * written with a different compression or level. Files with a journal are skipped, since the journal
+     * refers to the exact size and modification time of its snapshot.
+     *
+     * @return A future that completes with the number of rewritten files
+     */
+    public CompletableFuture<Integer> recompressInBackground() {
+        return new Recompressor(compression, compressionLevel).recompressInBackground(Paths.get(getStorageDir()),
+                fileExtension, () -> listFiles().stream()
+                        .filter(file -> !Files.exists(journalOf(file)))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns how the Symphony files are arranged in the storage directory.
+     *
+     * @return The storage layout
+     */
+    public StorageLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns the directory the Symphony files are stored in.
+     *
+     * @return The storage directory
+     */
+    public Path getDirectory() {
+        return Paths.get(getStorageDir());
+    }
+
+    /**
+     * Returns the extension of the Symphony files, including the leading dot.
+     *
+     * @return The file extension
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Lists all Symphony files in the storage directory, after migrating pending legacy files.
+     *
+     * @return The Symphony files
+     */
+    private List<Path> listFiles() {
+        storageLocation.migrateAll();
+        Path dirPath = Paths.get(getStorageDir());
+        if (!Files.exists(dirPath)) {
+            return new ArrayList<>();
+        }
+
+        try (Stream<Path> paths = Files.walk(dirPath)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(fileExtension))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Symphonies", e);
+        }
+    }
+
+    /**
+     * Computes the shard directory of a file name. The shards are named after the first byte of a CRC32 of the
+     * file name, which spreads the files evenly over 256 directories: few enough that each holds a few hundred
+     * files even with tens of thousands of Symphonies, rather than a handful of files each.
+     */
+    private static Path shardDirectory(Path root, String fileName) {
+        return root.resolve(HexFormat.of().toHexDigits((byte) (crc32(fileName) >>> 24)));
+    }
+
+    /**
+     * Computes the shard directory of a file name in earlier versions, which was named after the second byte of
+     * the CRC32 as well, one level below {@link #shardDirectory(Path, String)}.
+     */
+    private static Path legacyShardDirectory(Path root, String fileName) {
+        return shardDirectory(root, fileName).resolve(HexFormat.of().toHexDigits((byte) (crc32(fileName) >>> 16)));
+    }
+
+    private static int crc32(String fileName) {
+        CRC32 crc = new CRC32();
+        crc.update(fileName.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + JournaledSymphonyRepository.JOURNAL_EXTENSION);
+    }
+
+    private static String snapshotName(String fileName) {
+        return fileName.endsWith(JournaledSymphonyRepository.JOURNAL_EXTENSION)
+                ? fileName.substring(0, fileName.length() - JournaledSymphonyRepository.JOURNAL_EXTENSION.length())
+                : fileName;
+    }
+
+    /**
+     * Moves a file unless it does not exist. A file that already exists at the target is newer and kept.
+     *
+     * @return Whether the file was moved
+     */
+    private static boolean move(Path source, Path target) throws IOException {
+        if (!Files.exists(source) || Files.exists(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(source, target);
+        return true;
+    }
+
+    /**
+     * Lists the Symphony files of this repository's format and their journals up to the specified depth.
+     */
+    private List<Path> listOwnFiles(Path directory, int maxDepth) throws IOException {
+        String journalExtension = fileExtension + JournaledSymphonyRepository.JOURNAL_EXTENSION;
+        try (Stream<Path> paths = Files.walk(directory, maxDepth)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(fileExtension) || path.toString().endsWith(journalExtension))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<Path> listShards(Path root) throws IOException {
+        try (Stream<Path> paths = Files.list(root)) {
+            return paths
+                    .filter(Files::isDirectory)
+                    .filter(path -> SHARD_NAME.matcher(path.getFileName().toString()).matches())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Deletes the specified shard and its subdirectories if they are empty. Shards that still hold files of
+     * another format are kept.
+     */
+    private static void deleteEmptyDirectories(Path shard) throws IOException {
+        List<Path> directories;
+        try (Stream<Path> paths = Files.walk(shard)) {
+            directories = paths.filter(Files::isDirectory).sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path directory : directories) {
+            try {
+                Files.delete(directory);
+            } catch (DirectoryNotEmptyException e) {
+                // Still holds files of another format
+            }
+        }
+    }
+
+    /**
+     * The size and modification time of a file, used to tell own writes from changes by other processes.
+     */
+    private record FileStamp(FileTime modified, long size) {
+
+        static final FileStamp MISSING = new FileStamp(null, -1);
+
+        static FileStamp of(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+    }
+
+    private SymphonyManifest getManifest() {
+        SymphonyManifest current = manifest;
+        if (current == null) {
+            synchronized (this) {
+                current = manifest;
+                if (current == null) {
+                    current = new SymphonyManifest(Paths.get(getStorageDir()), fileExtension, this::read);
+                    manifest = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reads the Symphony stored in the specified file.
+     *
+     * @param file The path of the Symphony file
+     * @return The Symphony read from the file
+     * @throws IOException if the file cannot be read or parsed
+     */
+    private Symphony read(Path file) throws IOException {
+        try (InputStream in = CompressedStreams.decompressing(Files.newInputStream(file))) {
+            return codec.read(in);
+        }
+    }
+
+    /**
+     * Gets the File object for the specified Symphony title.
+     *
+     * @param title The title of the Symphony
+     * @return The File object
+     */
+    private File getFile(String title) {
+        return resolvePath(title).toFile();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,434 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.diff.SymphonyDiff;
+import de.bsommerfeld.orchestra.model.diff.SymphonyEdit;
+import de.bsommerfeld.orchestra.persistence.journal.JournalRecord;
+import de.bsommerfeld.orchestra.persistence.journal.JournalRecordMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Journaling decorator for a FileSymphonyRepository.
+ * Instead of rewriting the whole Symphony file on every save, the difference to the previously stored state is
+ * appended as a few small records to a per-symphony journal ({@code <snapshot file>.journal} next to the snapshot).
+ * A background compactor folds the journal into a fresh snapshot once it holds a configured number of
+ * records or bytes. Loading reads the snapshot and replays the journal tail on top of it.
+ *
+ * <p>The first record of a journal holds the SHA-256 hash of the snapshot it was written on top of. A journal
+ * whose hash does not match the snapshot's content is left over from a compaction that replaced the snapshot
+ * and is discarded; copying, restoring or touching the snapshot file does not change its hash.
+ *
+ * <p>The current state of every Symphony that was loaded or saved is kept in memory, since each save
+ * is diffed against it.
+ */
+public class JournaledSymphonyRepository implements SymphonyRepository, AutoCloseable {
+
+    /**
+     * The extension appended to the snapshot file name to name its journal.
+     */
+    public static final String JOURNAL_EXTENSION = ".journal";
+    private static final String COMPACTOR_THREAD_NAME = "orchestra-journal-compactor";
+
+    private final FileSymphonyRepository snapshots;
+    private final JournalRecordMapper recordMapper;
+    private final ObjectMapper objectMapper;
+    private final int compactAfterRecords;
+    private final long compactAfterBytes;
+    private final ExecutorService compactor;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    // Snapshot plus journal, per title; guarded by the title's lock
+    private final Map<String, Symphony> states = new ConcurrentHashMap<>();
+    private final Map<String, JournalSize> journalSizes = new ConcurrentHashMap<>();
+    // Hash of the snapshot file, per title, computed when it is first needed; guarded by the title's lock
+    private final Map<String, String> snapshotHashes = new ConcurrentHashMap<>();
+    private final Set<String> compactionsScheduled = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a new JournaledSymphonyRepository on top of the specified snapshot repository.
+     *
+     * @param snapshots The repository that stores the snapshot files
+     * @param recordMapper The mapper used to convert edits to journal records and back
+     * @param compactAfterRecords The number of journal records after which the journal is compacted
+     * @param compactAfterBytes The journal size in bytes after which the journal is compacted
+     */
+    public JournaledSymphonyRepository(FileSymphonyRepository snapshots, JournalRecordMapper recordMapper,
+                                       int compactAfterRecords, long compactAfterBytes) {
+        if (compactAfterRecords < 1 || compactAfterBytes < 1) {
+            throw new IllegalArgumentException("Compaction thresholds must be positive");
+        }
+        this.snapshots = snapshots;
+        this.recordMapper = recordMapper;
+        this.objectMapper = new ObjectMapper();
+        this.compactAfterRecords = compactAfterRecords;
+        this.compactAfterBytes = compactAfterBytes;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, COMPACTOR_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Symphony save(Symphony entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+
+        String title = entity.getTitle();
+        synchronized (lock(title)) {
+            Optional<Symphony> current = load(title);
+            if (current.isEmpty()) {
+                writeSnapshot(title, entity);
+            } else {
+                List<SymphonyEdit> edits = SymphonyDiff.between(current.get(), entity);
+                if (!edits.isEmpty()) {
+                    append(title, edits);
+                }
+            }
+            states.put(title, entity);
+        }
+        return entity;
+    }
+
+    @Override
+    public Optional<Symphony> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        synchronized (lock(id)) {
+            return load(id);
+        }
+    }
+
+    @Override
+    public List<Symphony> findAll() {
+        List<Symphony> symphonies = new ArrayList<>();
+        for (Symphony snapshot : snapshots.findAll()) {
+            String title = snapshot.getTitle();
+            synchronized (lock(title)) {
+                Symphony state = states.get(title);
+                if (state == null) {
+                    state = replay(title, snapshot);
+                    states.put(title, state);
+                }
+                symphonies.add(state);
+            }
+        }
+        return symphonies;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Summaries come from the snapshot manifest. Symphonies whose snapshot is behind their journal are
+     * summarized from their current state instead, which is loaded if it is not in memory yet.
+     */
+    @Override
+    public List<SymphonySummary> listSummaries() {
+        List<SymphonySummary> summaries = new ArrayList<>();
+        for (SymphonySummary snapshot : snapshots.listSummaries()) {
+            String title = snapshot.getTitle();
+            Symphony state = states.get(title);
+            if (state == null && Files.exists(resolveJournalPath(title))) {
+                state = findById(title).orElse(null);
+            }
+            summaries.add(state == null ? snapshot
+                    : SymphonySummary.of(state, snapshot.getFileSize(), snapshot.getLastModified().orElse(null)));
+        }
+        return summaries;
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        synchronized (lock(id)) {
+            states.remove(id);
+            journalSizes.remove(id);
+            snapshotHashes.remove(id);
+            deleteJournal(id);
+            return snapshots.deleteById(id);
+        }
+    }
+
+    /**
+     * Drops the in-memory state of the specified Symphony, so it is replayed from its snapshot and journal
+     * on the next read.
+     *
+     * @param title The title of the Symphony
+     */
+    @Override
+    public void invalidate(String title) {
+        synchronized (lock(title)) {
+            states.remove(title);
+            journalSizes.remove(title);
+            snapshotHashes.remove(title);
+        }
+        snapshots.invalidate(title);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        return states.containsKey(id) || snapshots.existsById(id);
+    }
+
+    /**
+     * Waits for running and scheduled compactions to finish.
+     */
+    @Override
+    public void flush() {
+        try {
+            compactor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for journal compaction", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Journal compaction failed", e.getCause());
+        }
+        snapshots.flush();
+    }
+
+    /**
+     * Waits for pending compactions and stops the compactor thread.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            compactor.shutdown();
+        }
+    }
+
+    /**
+     * Gets the path of the journal file of the Symphony with the specified title.
+     *
+     * @param title The title of the Symphony
+     * @return The path of the journal file
+     */
+    public Path resolveJournalPath(String title) {
+        Path snapshot = snapshots.resolvePath(title);
+        // Keep the snapshot extension, so journals of different storage formats never collide
+        return snapshot.resolveSibling(snapshot.getFileName() + JOURNAL_EXTENSION);
+    }
+
+    private Object lock(String title) {
+        return locks.computeIfAbsent(title, key -> new Object());
+    }
+
+    /**
+     * Returns the current state, reading the snapshot and replaying the journal if it is not in memory yet.
+     * Must be called while holding the title's lock.
+     */
+    private Optional<Symphony> load(String title) {
+        Symphony state = states.get(title);
+        if (state != null) {
+            return Optional.of(state);
+        }
+
+        Optional<Symphony> snapshot = snapshots.findById(title);
+        if (snapshot.isEmpty()) {
+            // A journal without snapshot cannot be replayed
+            deleteJournal(title);
+            return Optional.empty();
+        }
+
+        state = replay(title, snapshot.get());
+        states.put(title, state);
+        return Optional.of(state);
+    }
+
+    private Symphony replay(String title, Symphony snapshot) {
+        Path journal = resolveJournalPath(title);
+        JournalSize size = new JournalSize();
+        journalSizes.put(title, size);
+        if (!Files.exists(journal)) {
+            return snapshot;
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !belongsToCurrentSnapshot(title, lines.get(0))) {
+                // Left over from a compaction that wrote the snapshot but did not get to delete the journal
+                Files.delete(journal);
+                return snapshot;
+            }
+
+            Symphony state = snapshot;
+            boolean torn = false;
+            for (String line : lines.subList(1, lines.size())) {
+                try {
+                    JournalRecord record = objectMapper.readValue(line, JournalRecord.class);
+                    state = recordMapper.toEdit(record).applyTo(state);
+                    size.records++;
+                } catch (IOException | RuntimeException e) {
+                    // The process died in the middle of an append; everything before is intact
+                    torn = true;
+                    break;
+                }
+            }
+            size.bytes = Files.size(journal);
+
+            if (torn) {
+                // Never append behind an unreadable record
+                writeSnapshot(title, state);
+            } else if (needsCompaction(size)) {
+                scheduleCompaction(title);
+            }
+            return state;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read journal of Symphony: " + title, e);
+        }
+    }
+
+    private boolean belongsToCurrentSnapshot(String title, String headerLine) throws IOException {
+        JournalRecord header;
+        try {
+            header = objectMapper.readValue(headerLine, JournalRecord.class);
+        } catch (IOException e) {
+            return false;
+        }
+
+        if (!JournalRecord.OP_BASE.equals(header.getOp())) {
+            return false;
+        }
+        if (header.getSnapshotHash() != null) {
+            return header.getSnapshotHash().equals(snapshotHash(title));
+        }
+
+        // Written before journals were tied to the hash of their snapshot
+        Path snapshot = snapshots.resolvePath(title);
+        return Long.valueOf(Files.size(snapshot)).equals(header.getSnapshotSize())
+                && Long.valueOf(Files.getLastModifiedTime(snapshot).toMillis()).equals(header.getSnapshotModified());
+    }
+
+    /**
+     * Returns the SHA-256 hash of the snapshot file, reading it if it was not hashed since it was written.
+     * Must be called while holding the title's lock.
+     */
+    private String snapshotHash(String title) throws IOException {
+        String hash = snapshotHashes.get(title);
+        if (hash == null) {
+            MessageDigest digest = sha256();
+            try (InputStream in = Files.newInputStream(snapshots.resolvePath(title))) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+            snapshotHashes.put(title, hash);
+        }
+        return hash;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void append(String title, List<SymphonyEdit> edits) {
+        Path journal = resolveJournalPath(title);
+        try {
+            StringBuilder lines = new StringBuilder();
+            if (!Files.exists(journal)) {
+                lines.append(objectMapper.writeValueAsString(JournalRecord.base(snapshotHash(title)))).append('\n');
+            }
+            for (SymphonyEdit edit : edits) {
+                lines.append(objectMapper.writeValueAsString(recordMapper.toRecord(edit))).append('\n');
+            }
+
+            // One write per save keeps a crash from leaving more than one torn record behind
+            byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+            Files.write(journal, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+            JournalSize size = journalSizes.computeIfAbsent(title, key -> new JournalSize());
+            size.records += edits.size();
+            size.bytes += bytes.length;
+            if (needsCompaction(size)) {
+                scheduleCompaction(title);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to journal of Symphony: " + title, e);
+        }
+    }
+
+    private void writeSnapshot(String title, Symphony symphony) {
+        snapshotHashes.remove(title);
+        snapshots.save(symphony);
+        // The journal is obsolete once the snapshot contains everything; if deleting fails, its header no longer matches
+        deleteJournal(title);
+        journalSizes.put(title, new JournalSize());
+    }
+
+    private boolean needsCompaction(JournalSize size) {
+        return size.records >= compactAfterRecords || size.bytes >= compactAfterBytes;
+    }
+
+    private void scheduleCompaction(String title) {
+        if (compactionsScheduled.add(title)) {
+            compactor.execute(() -> {
+                compactionsScheduled.remove(title);
+                compact(title);
+            });
+        }
+    }
+
+    private void compact(String title) {
+        synchronized (lock(title)) {
+            Symphony state = states.get(title);
+            JournalSize size = journalSizes.get(title);
+            if (state == null || size == null || size.records == 0) {
+                return;
+            }
+            writeSnapshot(title, state);
+        }
+    }
+
+    private void deleteJournal(String title) {
+        try {
+            Files.deleteIfExists(resolveJournalPath(title));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete journal of Symphony: " + title, e);
+        }
+    }
+
+    /**
+     * Number of records and bytes in a journal file; guarded by the title's lock.
+     */
+    private static final class JournalSize {
+        private int records;
+        private long bytes;
+    }
+}
@@ -0,0 +1,398 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Rollup;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.dto.ChoirDTO;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapper;
+import de.bsommerfeld.orchestra.persistence.mapper.LegacyIds;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+import de.bsommerfeld.orchestra.persistence.split.ChoirEntry;
+import de.bsommerfeld.orchestra.persistence.split.SymphonyHeader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the SymphonyRepository interface that splits each Symphony into a small header file and
+ * one file per Choir. Symphonies are read with {@link Choir#lazy(String, String, String, Supplier) lazy choirs}, so
+ * opening a Symphony only reads its header, and the voices of a choir are read when they are first accessed.
+ *
+ * <p>Each Symphony is stored in its own directory, e.g. {@code My_Symphony.split/}, holding a
+ * {@code symphony.header} file and a {@code <hash>.choir} file per Choir. Choir files are named after a hash
+ * of their content, so saving a Symphony only writes the choirs that changed; a choir that was read from
+ * this repository and is still the same instance is not even serialized. The header is replaced atomically
+ * after the choir files are written, and choir files it no longer refers to are deleted afterwards.
+ * Choirs that were handed out but not loaded yet are loaded before their file is deleted.
+ */
+@Singleton
+public class SplitSymphonyRepository implements SymphonyRepository {
+
+    /**
+     * The extension of the directory holding a split Symphony.
+     */
+    public static final String DIRECTORY_EXTENSION = ".split";
+
+    private static final String HEADER_FILE = "symphony.header";
+    private static final String CHOIR_EXTENSION = ".choir";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 16;
+
+    private final ChoirMapper choirMapper;
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Set<ChoirFile> liveChoirFiles = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Constructs a new SplitSymphonyRepository in the directory of the specified StorageLocation.
+     *
+     * @param choirMapper The ChoirMapper to use for converting the content of choir files
+     * @param storageLocation The StorageLocation that decides where symphonies are stored
+     */
+    @Inject
+    public SplitSymphonyRepository(ChoirMapper choirMapper, StorageLocation storageLocation) {
+        this(choirMapper, storageLocation.getDirectory());
+    }
+
+    /**
+     * Constructs a new SplitSymphonyRepository in the specified directory.
+     *
+     * @param choirMapper The ChoirMapper to use for converting the content of choir files
+     * @param directory The directory holding a subdirectory per Symphony
+     * @throws RuntimeException if the directory cannot be created
+     */
+    public SplitSymphonyRepository(ChoirMapper choirMapper, Path directory) {
+        this.choirMapper = choirMapper;
+        this.directory = directory;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create storage directory: " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized Symphony save(Symphony entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+
+        Path symphonyDirectory = resolveDirectory(entity.getTitle());
+        try {
+            Files.createDirectories(symphonyDirectory);
+            Map<String, ChoirEntry> previous = new HashMap<>();
+            readHeader(symphonyDirectory).ifPresent(header ->
+                    header.getChoirs().forEach(entry -> previous.put(entry.getFileName(), entry)));
+
+            List<ChoirEntry> entries = new ArrayList<>();
+            for (Choir choir : entity.getChoirs()) {
+                entries.add(writeChoir(symphonyDirectory, choir, previous));
+            }
+
+            SymphonyHeader header = new SymphonyHeader(VERSION, entity.getTitle(),
+                    entity.getDescription().orElse(null), entity.getVersion(), entries);
+            writeAtomically(symphonyDirectory.resolve(HEADER_FILE), objectMapper.writeValueAsBytes(header));
+
+            Set<String> referenced = entries.stream().map(ChoirEntry::getFileName).collect(Collectors.toSet());
+            deleteChoirFiles(symphonyDirectory, referenced);
+            return entity;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save Symphony: " + entity.getTitle(), e);
+        }
+    }
+
+    @Override
+    public synchronized Optional<Symphony> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        Path symphonyDirectory = resolveDirectory(id);
+        try {
+            return readHeader(symphonyDirectory).map(header -> toSymphony(symphonyDirectory, header));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Symphony: " + id, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only the header files are read; the voices of each choir are read on first access.
+     */
+    @Override
+    public synchronized List<Symphony> findAll() {
+        List<Symphony> symphonies = new ArrayList<>();
+        for (Path symphonyDirectory : listSymphonyDirectories()) {
+            try {
+                readHeader(symphonyDirectory).ifPresent(header ->
+                        symphonies.add(toSymphony(symphonyDirectory, header)));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read Symphony: " + symphonyDirectory, e);
+            }
+        }
+        return symphonies;
+    }
+
+    @Override
+    public synchronized boolean deleteById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        Path symphonyDirectory = resolveDirectory(id);
+        if (!Files.exists(symphonyDirectory.resolve(HEADER_FILE))) {
+            return false;
+        }
+
+        try {
+            // The header goes first, so a Symphony is never found with its choir files half deleted
+            Files.delete(symphonyDirectory.resolve(HEADER_FILE));
+            deleteChoirFiles(symphonyDirectory, Set.of());
+            Files.deleteIfExists(symphonyDirectory);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete Symphony: " + id, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return Files.exists(resolveDirectory(id).resolve(HEADER_FILE));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The counts are stored in the header files, so no choir file is read.
+     */
+    @Override
+    public synchronized List<SymphonySummary> listSummaries() {
+        List<SymphonySummary> summaries = new ArrayList<>();
+        for (Path symphonyDirectory : listSymphonyDirectories()) {
+            try {
+                Optional<SymphonyHeader> header = readHeader(symphonyDirectory);
+                if (header.isEmpty()) {
+                    continue;
+                }
+                int voiceCount = 0;
+                int completedCount = 0;
+                long size = 0;
+                for (ChoirEntry entry : header.get().getChoirs()) {
+                    voiceCount += entry.getVoiceCount();
+                    completedCount += entry.getCompletedCount();
+                    size += sizeOf(symphonyDirectory.resolve(entry.getFileName()));
+                }
+                BasicFileAttributes attributes = Files.readAttributes(symphonyDirectory.resolve(HEADER_FILE),
+                        BasicFileAttributes.class);
+                Instant lastModified = attributes.lastModifiedTime().toInstant();
+                summaries.add(new SymphonySummary(header.get().getTitle(), header.get().getDescription(), null,
+                        header.get().getChoirs().size(), voiceCount, completedCount, size + attributes.size(),
+                        lastModified));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read Symphony: " + symphonyDirectory, e);
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Resolves the directory that stores the Symphony with the specified title.
+     * The directory does not need to exist.
+     *
+     * @param title The title of the Symphony
+     * @return The path of the Symphony directory
+     */
+    public Path resolveDirectory(String title) {
+        // Sanitize the title like the file repositories do
+        return directory.resolve(title.replaceAll("[^a-zA-Z0-9.-]", "_") + DIRECTORY_EXTENSION);
+    }
+
+    private Symphony toSymphony(Path symphonyDirectory, SymphonyHeader header) {
+        List<Choir> choirs = new ArrayList<>();
+        for (ChoirEntry entry : header.getChoirs()) {
+            // Headers written before choirs had ids get one derived from its position, which is stored on the next save
+            String id = entry.getId() != null ? entry.getId() : LegacyIds.choirId(header.getTitle(), choirs.size());
+            ChoirFile choirFile = new ChoirFile(symphonyDirectory.resolve(entry.getFileName()), id);
+            liveChoirFiles.add(choirFile);
+            choirs.add(Choir.lazy(id, entry.getName(), entry.getDescription(), choirFile));
+        }
+        return new Symphony(header.getTitle(), header.getDescription(), choirs, header.getSymphonyVersion());
+    }
+
+    /**
+     * Makes sure the specified choir is stored in the Symphony directory and returns its header entry.
+     * A choir that was read from this directory is unchanged and keeps its file; any other choir is
+     * serialized and only written if no file with the same content exists.
+     */
+    private ChoirEntry writeChoir(Path symphonyDirectory, Choir choir, Map<String, ChoirEntry> previous)
+            throws IOException {
+        String description = choir.getDescription().orElse(null);
+        Optional<Supplier<List<Voice>>> loader = choir.getVoiceLoader();
+        if (loader.isPresent() && loader.get() instanceof ChoirFile choirFile
+                && choirFile.file.getParent().equals(symphonyDirectory)) {
+            String fileName = choirFile.file.getFileName().toString();
+            ChoirEntry stored = previous.get(fileName);
+            if (stored != null) {
+                return new ChoirEntry(choir.getId(), choir.getName(), description, fileName, stored.getVoiceCount(),
+                        stored.getCompletedCount());
+            }
+        }
+
+        byte[] content = objectMapper.writeValueAsBytes(choirMapper.toDto(choir));
+        String fileName = hash(content) + CHOIR_EXTENSION;
+        Path file = symphonyDirectory.resolve(fileName);
+        if (!Files.exists(file)) {
+            writeAtomically(file, content);
+        }
+        Rollup rollup = choir.getRollup();
+        return new ChoirEntry(choir.getId(), choir.getName(), description, fileName, rollup.total(), rollup.completed());
+    }
+
+    /**
+     * Deletes the choir files of a Symphony directory that are not referenced anymore. Choirs handed out
+     * earlier that would still read one of these files load their voices first.
+     */
+    private void deleteChoirFiles(Path symphonyDirectory, Set<String> referenced) throws IOException {
+        List<Path> unreferenced;
+        try (Stream<Path> paths = Files.list(symphonyDirectory)) {
+            unreferenced = paths
+                    .filter(path -> path.getFileName().toString().endsWith(CHOIR_EXTENSION))
+                    .filter(path -> !referenced.contains(path.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        if (unreferenced.isEmpty()) {
+            return;
+        }
+
+        Set<Path> deleted = new HashSet<>(unreferenced);
+        for (ChoirFile choirFile : List.copyOf(liveChoirFiles)) {
+            if (deleted.contains(choirFile.file)) {
+                choirFile.preload();
+            }
+        }
+        for (Path file : unreferenced) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Optional<SymphonyHeader> readHeader(Path symphonyDirectory) throws IOException {
+        try {
+            byte[] content = Files.readAllBytes(symphonyDirectory.resolve(HEADER_FILE));
+            return Optional.of(objectMapper.readValue(content, SymphonyHeader.class));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    private List<Path> listSymphonyDirectories() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths
+                    .filter(path -> path.getFileName().toString().endsWith(DIRECTORY_EXTENSION))
+                    .filter(Files::isDirectory)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Symphonies", e);
+        }
+    }
+
+    private List<Voice> readVoices(Path file, String choirId) {
+        try {
+            ChoirDTO dto = objectMapper.readValue(Files.readAllBytes(file), ChoirDTO.class);
+            // Voices written before ids existed get ids derived from the id of their Choir
+            LegacyIds.assign(choirId, dto.getVoices());
+            return choirMapper.toDomain(dto).getVoices();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Choir file: " + file, e);
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + TEMP_EXTENSION);
+        Files.write(temporary, content);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long sizeOf(Path file) throws IOException {
+        try {
+            return Files.size(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Loads the voices of a lazy Choir from its file. Compared by identity, so the repository can tell
+     * which Choir instances it handed out.
+     */
+    private final class ChoirFile implements Supplier<List<Voice>> {
+
+        private final Path file;
+        private final String choirId;
+        private List<Voice> preloaded;
+        private boolean consumed;
+
+        private ChoirFile(Path file, String choirId) {
+            this.file = file;
+            this.choirId = choirId;
+        }
+
+        @Override
+        public synchronized List<Voice> get() {
+            List<Voice> voices = preloaded != null ? preloaded : readVoices(file, choirId);
+            consumed = true;
+            preloaded = null;
+            return voices;
+        }
+
+        /**
+         * Reads the voices now, unless the Choir has already loaded them, because the file is about to be deleted.
+         */
+        private synchronized void preload() {
+            if (!consumed && preloaded == null) {
+                preloaded = readVoices(file, choirId);
+            }
+        }
+    }
+}
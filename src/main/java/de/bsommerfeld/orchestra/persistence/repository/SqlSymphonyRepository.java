@@ -0,0 +1,590 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.diff.SymphonyDiff;
+import de.bsommerfeld.orchestra.model.diff.SymphonyEdit;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SymphonyRepository backed by an embedded H2 database file.
+ * Symphonies, choirs and voices are stored as rows of their own tables; choirs and voices point to their
+ * parent and carry their position among their siblings as an ordinal. Saving a Symphony that is already
+ * stored diffs it against the stored state (see {@link SymphonyDiff}) and only issues the INSERT, UPDATE
+ * and DELETE statements for the nodes that changed, batching consecutive statements of the same kind.
+ * The row ids are internal to the database; the stable ids of choirs and voices are stored in their
+ * {@code uid} column.
+ *
+ * <p>All access goes through a single connection and is serialized on the repository.
+ */
+@Singleton
+public class SqlSymphonyRepository implements SymphonyRepository, AutoCloseable {
+
+    /**
+     * The name of the database in the storage directory; H2 adds the {@code .mv.db} extension.
+     */
+    public static final String DATABASE_NAME = "symphonies";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS symphony ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "title VARCHAR NOT NULL UNIQUE, "
+                    + "description VARCHAR, "
+                    + "created_at TIMESTAMP NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS choir ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "symphony_id BIGINT NOT NULL REFERENCES symphony(id) ON DELETE CASCADE, "
+                    + "ordinal INT NOT NULL, "
+                    + "name VARCHAR NOT NULL, "
+                    + "description VARCHAR)",
+            "CREATE INDEX IF NOT EXISTS choir_parent ON choir(symphony_id, ordinal)",
+            "CREATE TABLE IF NOT EXISTS voice ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "choir_id BIGINT NOT NULL REFERENCES choir(id) ON DELETE CASCADE, "
+                    + "parent_id BIGINT REFERENCES voice(id) ON DELETE CASCADE, "
+                    + "ordinal INT NOT NULL, "
+                    + "title VARCHAR NOT NULL, "
+                    + "description VARCHAR, "
+                    + "completed BOOLEAN NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS voice_parent ON voice(choir_id, parent_id, ordinal)",
+            // Databases created before choirs and voices had ids get the column and an id for every node
+            "ALTER TABLE choir ADD COLUMN IF NOT EXISTS uid VARCHAR",
+            "ALTER TABLE voice ADD COLUMN IF NOT EXISTS uid VARCHAR",
+            "UPDATE choir SET uid = CAST(RANDOM_UUID() AS VARCHAR) WHERE uid IS NULL",
+            "UPDATE voice SET uid = CAST(RANDOM_UUID() AS VARCHAR) WHERE uid IS NULL",
+            // Databases created before symphonies had versions start at version 0
+            "ALTER TABLE symphony ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL"
+    };
+
+    private static final String INSERT_SYMPHONY =
+            "INSERT INTO symphony (id, title, description, created_at, version) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SYMPHONY = "UPDATE symphony SET description = ? WHERE id = ?";
+    private static final String UPDATE_SYMPHONY_VERSION = "UPDATE symphony SET version = ? WHERE id = ?";
+    private static final String INSERT_CHOIR =
+            "INSERT INTO choir (id, symphony_id, ordinal, uid, name, description) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_CHOIR = "UPDATE choir SET name = ?, description = ? WHERE id = ?";
+    private static final String DELETE_CHOIR = "DELETE FROM choir WHERE id = ?";
+    private static final String SHIFT_CHOIRS =
+            "UPDATE choir SET ordinal = ordinal + ? WHERE symphony_id = ? AND ordinal >= ?";
+    private static final String INSERT_VOICE = "INSERT INTO voice "
+            + "(id, choir_id, parent_id, ordinal, uid, title, description, completed) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_VOICE =
+            "UPDATE voice SET title = ?, description = ?, completed = ? WHERE id = ?";
+    private static final String DELETE_VOICE = "DELETE FROM voice WHERE id = ?";
+    private static final String SHIFT_TOP_LEVEL_VOICES =
+            "UPDATE voice SET ordinal = ordinal + ? WHERE choir_id = ? AND parent_id IS NULL AND ordinal >= ?";
+    private static final String SHIFT_SUB_VOICES =
+            "UPDATE voice SET ordinal = ordinal + ? WHERE parent_id = ? AND ordinal >= ?";
+
+    private static final String SELECT_SYMPHONY = "SELECT id, title, description, version FROM symphony";
+    private static final String SELECT_CHOIRS =
+            "SELECT c.id, c.symphony_id, c.name, c.description, c.uid FROM choir c";
+    private static final String SELECT_VOICES = "SELECT v.id, v.choir_id, v.parent_id, v.title, v.description, "
+            + "v.completed, v.uid FROM voice v JOIN choir c ON c.id = v.choir_id";
+    private static final String SELECT_SUMMARIES = "SELECT s.title, s.description, s.created_at, "
+            + "(SELECT COUNT(*) FROM choir c WHERE c.symphony_id = s.id), "
+            + "(SELECT COUNT(*) FROM voice v JOIN choir c ON c.id = v.choir_id WHERE c.symphony_id = s.id), "
+            + "(SELECT COUNT(*) FROM voice v JOIN choir c ON c.id = v.choir_id "
+            + "WHERE c.symphony_id = s.id AND v.completed) "
+            + "FROM symphony s ORDER BY s.title";
+
+    private final String jdbcUrl;
+    private final Connection connection;
+    // Next free node id, shared by all tables; guarded by this
+    private long nextId;
+
+    /**
+     * Constructs a new SqlSymphonyRepository with its database in the storage directory.
+     *
+     * @param storageLocation The StorageLocation that decides where the database is stored
+     */
+    @Inject
+    public SqlSymphonyRepository(StorageLocation storageLocation) {
+        this(storageLocation.getDirectory().resolve(DATABASE_NAME));
+    }
+
+    /**
+     * Constructs a new SqlSymphonyRepository with the specified database file.
+     *
+     * @param databaseFile The path of the database, without H2's {@code .mv.db} extension
+     */
+    public SqlSymphonyRepository(Path databaseFile) {
+        this("jdbc:h2:file:" + databaseFile.toAbsolutePath());
+    }
+
+    /**
+     * Constructs a new SqlSymphonyRepository with the specified JDBC URL and creates the tables if needed.
+     *
+     * @param jdbcUrl The JDBC URL of the database
+     * @throws RuntimeException if the database cannot be opened
+     */
+    public SqlSymphonyRepository(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+        try {
+            this.connection = DriverManager.getConnection(jdbcUrl);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+                try (ResultSet result = statement.executeQuery("SELECT GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM symphony), "
+                        + "(SELECT COALESCE(MAX(id), 0) FROM choir), "
+                        + "(SELECT COALESCE(MAX(id), 0) FROM voice))")) {
+                    result.next();
+                    this.nextId = result.getLong(1) + 1;
+                }
+            }
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open Symphony database: " + jdbcUrl, e);
+        }
+    }
+
+    @Override
+    public synchronized Symphony save(Symphony entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+
+        try (StatementBatch batch = new StatementBatch(connection)) {
+            StoredSymphony stored = load(entity.getTitle());
+            if (stored == null) {
+                insertSymphony(batch, entity);
+            } else {
+                for (SymphonyEdit edit : SymphonyDiff.between(stored.symphony, entity)) {
+                    apply(batch, stored, edit);
+                }
+            }
+            batch.flush();
+            connection.commit();
+            return entity;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new RuntimeException("Failed to save Symphony: " + entity.getTitle(), e);
+        }
+    }
+
+    @Override
+    public synchronized Optional<Symphony> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            StoredSymphony stored = load(id);
+            connection.commit();
+            return stored == null ? Optional.empty() : Optional.of(stored.symphony);
+        } catch (SQLException e) {
+            rollback(e);
+            throw new RuntimeException("Failed to read Symphony: " + id, e);
+        }
+    }
+
+    @Override
+    public synchronized List<Symphony> findAll() {
+        try {
+            List<Symphony> symphonies = new ArrayList<>();
+            for (StoredSymphony stored : query("", "", null).values()) {
+                symphonies.add(stored.symphony);
+            }
+            connection.commit();
+            return symphonies;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new RuntimeException("Failed to read Symphonies", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean deleteById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM symphony WHERE title = ?")) {
+            statement.setString(1, id);
+            boolean deleted = statement.executeUpdate() > 0;
+            connection.commit();
+            return deleted;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new RuntimeException("Failed to delete Symphony: " + id, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM symphony WHERE title = ?")) {
+            statement.setString(1, id);
+            try (ResultSet result = statement.executeQuery()) {
+                boolean exists = result.next();
+                connection.commit();
+                return exists;
+            }
+        } catch (SQLException e) {
+            rollback(e);
+            throw new RuntimeException("Failed to read Symphony: " + id, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The counts are computed by the database, so no Symphony is loaded.
+     */
+    @Override
+    public synchronized List<SymphonySummary> listSummaries() {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(SELECT_SUMMARIES)) {
+            List<SymphonySummary> summaries = new ArrayList<>();
+            while (result.next()) {
+                summaries.add(new SymphonySummary(result.getString(1), result.getString(2),
+                        result.getTimestamp(3).toLocalDateTime(), result.getInt(4), result.getInt(5),
+                        result.getInt(6), -1, null));
+            }
+            connection.commit();
+            return summaries;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new RuntimeException("Failed to read Symphonies", e);
+        }
+    }
+
+    /**
+     * Closes the database connection.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to close Symphony database: " + jdbcUrl, e);
+        }
+    }
+
+    private void insertSymphony(StatementBatch batch, Symphony symphony) throws SQLException {
+        long id = nextId++;
+        batch.add(INSERT_SYMPHONY, id, symphony.getTitle(), symphony.getDescription().orElse(null),
+                Timestamp.valueOf(symphony.getCreatedAt()), symphony.getVersion());
+        List<Choir> choirs = symphony.getChoirs();
+        for (int i = 0; i < choirs.size(); i++) {
+            insertChoir(batch, id, i, choirs.get(i));
+        }
+    }
+
+    private ChoirNode insertChoir(StatementBatch batch, long symphonyId, int ordinal, Choir choir) throws SQLException {
+        ChoirNode node = new ChoirNode(nextId++);
+        batch.add(INSERT_CHOIR, node.id, symphonyId, ordinal, choir.getId(), choir.getName(),
+                choir.getDescription().orElse(null));
+        insertVoices(batch, node.id, null, choir.getVoices(), node.voices);
+        return node;
+    }
+
+    private void insertVoices(StatementBatch batch, long choirId, Long parentId, List<Voice> voices,
+                              List<VoiceNode> nodes) throws SQLException {
+        for (int i = 0; i < voices.size(); i++) {
+            nodes.add(insertVoice(batch, choirId, parentId, i, voices.get(i)));
+        }
+    }
+
+    private VoiceNode insertVoice(StatementBatch batch, long choirId, Long parentId, int ordinal, Voice voice)
+            throws SQLException {
+        VoiceNode node = new VoiceNode(nextId++);
+        batch.add(INSERT_VOICE, node.id, choirId, parentId, ordinal, voice.getId(), voice.getTitle(),
+                voice.getDescription().orElse(null), voice.isCompleted());
+        insertVoices(batch, choirId, node.id, voice.getSubVoices(), node.children);
+        return node;
+    }
+
+    /**
+     * Translates a single edit into statements and applies it to the stored node tree,
+     * so that the positions of later edits resolve to the right rows.
+     */
+    private void apply(StatementBatch batch, StoredSymphony stored, SymphonyEdit edit) throws SQLException {
+        switch (edit) {
+            case SymphonyEdit.SetDescription setDescription ->
+                    batch.add(UPDATE_SYMPHONY, setDescription.description(), stored.id);
+            case SymphonyEdit.SetVersion setVersion -> batch.add(UPDATE_SYMPHONY_VERSION, setVersion.version(), stored.id);
+            case SymphonyEdit.SetChoirFields setChoir -> batch.add(UPDATE_CHOIR, setChoir.name(),
+                    setChoir.description(), stored.choirs.get(setChoir.index()).id);
+            case SymphonyEdit.RemoveChoir removeChoir -> {
+                ChoirNode removed = stored.choirs.remove(removeChoir.index());
+                batch.add(DELETE_CHOIR, removed.id);
+                batch.add(SHIFT_CHOIRS, -1, stored.id, removeChoir.index());
+            }
+            case SymphonyEdit.InsertChoir insertChoir -> {
+                batch.add(SHIFT_CHOIRS, 1, stored.id, insertChoir.index());
+                stored.choirs.add(insertChoir.index(),
+                        insertChoir(batch, stored.id, insertChoir.index(), insertChoir.choir()));
+            }
+            case SymphonyEdit.SetVoiceFields setVoice -> {
+                VoiceParent parent = resolveParent(stored, setVoice.path());
+                VoiceNode node = parent.siblings().get(last(setVoice.path()));
+                batch.add(UPDATE_VOICE, setVoice.title(), setVoice.description(), setVoice.completed(), node.id);
+            }
+            case SymphonyEdit.RemoveVoice removeVoice -> {
+                int index = last(removeVoice.path());
+                VoiceParent parent = resolveParent(stored, removeVoice.path());
+                VoiceNode removed = parent.siblings().remove(index);
+                batch.add(DELETE_VOICE, removed.id);
+                shiftVoices(batch, parent, -1, index);
+            }
+            case SymphonyEdit.InsertVoice insertVoice -> {
+                int index = last(insertVoice.path());
+                VoiceParent parent = resolveParent(stored, insertVoice.path());
+                shiftVoices(batch, parent, 1, index);
+                Long parentId = parent.voice() == null ? null : parent.voice().id;
+                parent.siblings().add(index,
+                        insertVoice(batch, parent.choir().id, parentId, index, insertVoice.voice()));
+            }
+        }
+    }
+
+    private static void shiftVoices(StatementBatch batch, VoiceParent parent, int delta, int fromOrdinal)
+            throws SQLException {
+        if (parent.voice() == null) {
+            batch.add(SHIFT_TOP_LEVEL_VOICES, delta, parent.choir().id, fromOrdinal);
+        } else {
+            batch.add(SHIFT_SUB_VOICES, delta, parent.voice().id, fromOrdinal);
+        }
+    }
+
+    /**
+     * Resolves the choir and the parent voice of the voice at the specified path.
+     */
+    private static VoiceParent resolveParent(StoredSymphony stored, List<Integer> path) {
+        ChoirNode choir = stored.choirs.get(path.get(0));
+        List<VoiceNode> siblings = choir.voices;
+        VoiceNode parent = null;
+        for (int i = 1; i < path.size() - 1; i++) {
+            parent = siblings.get(path.get(i));
+            siblings = parent.children;
+        }
+        return new VoiceParent(choir, parent, siblings);
+    }
+
+    private static int last(List<Integer> path) {
+        return path.get(path.size() - 1);
+    }
+
+    private StoredSymphony load(String title) throws SQLException {
+        return query(" WHERE title = ?", " WHERE c.symphony_id = ?", title).values().stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Loads symphonies with three queries, one per table, and assembles their trees in memory.
+     *
+     * @param symphonyFilter The WHERE clause for the symphony table, or an empty string for all symphonies
+     * @param nodeFilter The WHERE clause for the choir and voice tables, on the symphony id of the choir
+     * @param title The title bound to the symphony filter, or null if there is no filter
+     */
+    private Map<Long, StoredSymphony> query(String symphonyFilter, String nodeFilter, String title)
+            throws SQLException {
+        Map<Long, SymphonyRow> symphonies = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SYMPHONY + symphonyFilter
+                + " ORDER BY title")) {
+            if (title != null) {
+                statement.setString(1, title);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    long id = result.getLong(1);
+                    symphonies.put(id, new SymphonyRow(id, result.getString(2), result.getString(3), result.getLong(4)));
+                }
+            }
+        }
+        if (symphonies.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Long symphonyId = title != null ? symphonies.keySet().iterator().next() : null;
+
+        Map<Long, List<ChoirRow>> choirsBySymphony = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_CHOIRS + nodeFilter
+                + " ORDER BY c.symphony_id, c.ordinal")) {
+            if (symphonyId != null) {
+                statement.setLong(1, symphonyId);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    ChoirRow row = new ChoirRow(result.getLong(1), result.getString(5), result.getString(3),
+                            result.getString(4));
+                    choirsBySymphony.computeIfAbsent(result.getLong(2), key -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+
+        // Top-level voices are grouped by choir, sub-voices by parent voice
+        Map<Long, List<VoiceRow>> voicesByChoir = new HashMap<>();
+        Map<Long, List<VoiceRow>> voicesByParent = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_VOICES + nodeFilter
+                + " ORDER BY v.ordinal")) {
+            if (symphonyId != null) {
+                statement.setLong(1, symphonyId);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    VoiceRow row = new VoiceRow(result.getLong(1), result.getString(7), result.getString(4),
+                            result.getString(5), result.getBoolean(6));
+                    long parentId = result.getLong(3);
+                    if (result.wasNull()) {
+                        voicesByChoir.computeIfAbsent(result.getLong(2), key -> new ArrayList<>()).add(row);
+                    } else {
+                        voicesByParent.computeIfAbsent(parentId, key -> new ArrayList<>()).add(row);
+                    }
+                }
+            }
+        }
+
+        Map<Long, StoredSymphony> stored = new LinkedHashMap<>();
+        for (SymphonyRow symphonyRow : symphonies.values()) {
+            List<ChoirNode> choirNodes = new ArrayList<>();
+            List<Choir> choirs = new ArrayList<>();
+            for (ChoirRow choirRow : choirsBySymphony.getOrDefault(symphonyRow.id, List.of())) {
+                ChoirNode choirNode = new ChoirNode(choirRow.id);
+                List<Voice> voices = buildVoices(voicesByChoir.get(choirRow.id), voicesByParent, choirNode.voices);
+                choirs.add(new Choir(choirRow.uid, choirRow.name, choirRow.description, voices).intern());
+                choirNodes.add(choirNode);
+            }
+            Symphony symphony = new Symphony(symphonyRow.title, symphonyRow.description, choirs, symphonyRow.version);
+            stored.put(symphonyRow.id, new StoredSymphony(symphonyRow.id, symphony, choirNodes));
+        }
+        return stored;
+    }
+
+    private static List<Voice> buildVoices(List<VoiceRow> rows, Map<Long, List<VoiceRow>> voicesByParent,
+                                           List<VoiceNode> nodes) {
+        List<Voice> voices = new ArrayList<>();
+        if (rows == null) {
+            return voices;
+        }
+        for (VoiceRow row : rows) {
+            VoiceNode node = new VoiceNode(row.id);
+            List<Voice> subVoices = buildVoices(voicesByParent.get(row.id), voicesByParent, node.children);
+            voices.add(new Voice(row.uid, row.title, row.description, subVoices, row.completed).intern());
+            nodes.add(node);
+        }
+        return voices;
+    }
+
+    private void rollback(SQLException cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private record SymphonyRow(long id, String title, String description, long version) {
+    }
+
+    private record ChoirRow(long id, String uid, String name, String description) {
+    }
+
+    private record VoiceRow(long id, String uid, String title, String description, boolean completed) {
+    }
+
+    /**
+     * A stored Symphony together with the row ids of its nodes, in tree order.
+     */
+    private record StoredSymphony(long id, Symphony symphony, List<ChoirNode> choirs) {
+    }
+
+    private record VoiceParent(ChoirNode choir, VoiceNode voice, List<VoiceNode> siblings) {
+    }
+
+    private static final class ChoirNode {
+        private final long id;
+        private final List<VoiceNode> voices = new ArrayList<>();
+
+        private ChoirNode(long id) {
+            this.id = id;
+        }
+    }
+
+    private static final class VoiceNode {
+        private final long id;
+        private final List<VoiceNode> children = new ArrayList<>();
+
+        private VoiceNode(long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Collects statements into JDBC batches. Consecutive statements with the same SQL share one batch;
+     * switching to a different statement executes the pending batch first, so statements run in the order
+     * they were added.
+     */
+    private static final class StatementBatch implements AutoCloseable {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        private PreparedStatement pending;
+
+        private StatementBatch(Connection connection) {
+            this.connection = connection;
+        }
+
+        void add(String sql, Object... parameters) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            if (statement != pending) {
+                flush();
+                pending = statement;
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.addBatch();
+        }
+
+        void flush() throws SQLException {
+            if (pending != null) {
+                pending.executeBatch();
+                pending = null;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            SQLException failure = null;
+            for (PreparedStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
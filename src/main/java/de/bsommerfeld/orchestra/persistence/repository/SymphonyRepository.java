@@ -1,6 +1,10 @@
 package de.bsommerfeld.orchestra.persistence.repository;
 
 import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Repository interface for CRUD operations on Symphony domain models.
@@ -18,4 +22,38 @@ public interface SymphonyRepository extends Repository<Symphony, String> {
     default Symphony findByTitle(String title) {
         return findById(title).orElse(null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Lists a summary of every stored Symphony.
+     * The default implementation loads all symphonies; implementations that keep an index override it
+     * to answer without parsing every Symphony.
+     *
+     * @return A list of summaries, one per stored Symphony
+     */
+    default List<SymphonySummary> listSummaries() {
+        return findAll().stream()
+                .map(SymphonySummary::of)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forces any buffered writes to the underlying storage and waits until they are done.
+     * Implementations that write synchronously have nothing to flush.
+     *
+     * @throws RuntimeException if a buffered write could not be completed
+     */
+    default void flush() {
+        // Nothing is buffered by default
+    }
+
+    /**
+     * Drops anything this repository or the repositories below it hold in memory for the specified
+     * Symphony, so the next read goes to the underlying storage. Called when the stored Symphony was changed
+     * by another process. Repositories that keep nothing in memory have nothing to drop.
+     *
+     * @param title The title of the Symphony
+     */
+    default void invalidate(String title) {
+        // Nothing is held in memory by default
+    }
+}
@@ -0,0 +1,239 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Write-behind decorator for a SymphonyRepository.
+ * Saves only record the latest Symphony per title and return immediately; the actual write is
+ * performed by a dedicated I/O thread. Saves of the same title that arrive before the writer
+ * gets to them are coalesced into a single write of the most recent state.
+ * Reads consult the pending writes first, so callers always see their own saves.
+ *
+ * <p>A write that fails in the background keeps its Symphony pending. The next save of the same title is
+ * then written through instead of queued, so its caller learns whether the Symphony is stored: if the write
+ * fails again, that save throws.
+ */
+public class WriteBehindSymphonyRepository implements SymphonyRepository, AutoCloseable {
+
+    private static final String WRITER_THREAD_NAME = "orchestra-symphony-writer";
+
+    private final SymphonyRepository delegate;
+    private final ExecutorService writer;
+
+    // Latest unwritten state per title. Entries are removed once exactly that state is on disk.
+    private final Map<String, Symphony> pending = new ConcurrentHashMap<>();
+    // Titles with a write task waiting in the writer queue
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+    // Titles whose last write attempt failed; they stay pending until a write succeeds
+    private final Map<String, RuntimeException> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WriteBehindSymphonyRepository that writes through to the specified repository.
+     *
+     * @param delegate The repository that performs the actual storage operations
+     */
+    public WriteBehindSymphonyRepository(SymphonyRepository delegate) {
+        this.delegate = delegate;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, WRITER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Symphony save(Symphony entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+
+        String title = entity.getTitle();
+        pending.put(title, entity);
+        if (failures.containsKey(title)) {
+            writeThrough(title);
+        } else {
+            schedule(title);
+        }
+        return entity;
+    }
+
+    @Override
+    public Optional<Symphony> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        Symphony pendingSymphony = pending.get(id);
+        if (pendingSymphony != null) {
+            return Optional.of(pendingSymphony);
+        }
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Symphony> findAll() {
+        Map<String, Symphony> symphonies = new LinkedHashMap<>();
+        for (Symphony symphony : delegate.findAll()) {
+            symphonies.put(symphony.getTitle(), symphony);
+        }
+
+        // Pending states are newer than anything on disk
+        symphonies.putAll(pending);
+        return new ArrayList<>(symphonies.values());
+    }
+
+    @Override
+    public List<SymphonySummary> listSummaries() {
+        Map<String, SymphonySummary> summaries = new LinkedHashMap<>();
+        for (SymphonySummary summary : delegate.listSummaries()) {
+            summaries.put(summary.getTitle(), summary);
+        }
+
+        // Pending states are newer than anything on disk
+        for (Symphony symphony : pending.values()) {
+            summaries.put(symphony.getTitle(), SymphonySummary.of(symphony));
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        // Dropping the pending state makes a queued write for this title a no-op
+        boolean wasPending = pending.remove(id) != null;
+        failures.remove(id);
+
+        // Run on the writer so the delete is ordered after a write that may be in progress
+        boolean deleted = runOnWriter(() -> delegate.deleteById(id));
+        return wasPending || deleted;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+
+        return pending.containsKey(id) || delegate.existsById(id);
+    }
+
+    /**
+     * Invalidates the specified Symphony in the delegate. A pending write is kept, since it is newer than
+     * what is on disk and will replace it.
+     *
+     * @param title The title of the Symphony
+     */
+    @Override
+    public void invalidate(String title) {
+        delegate.invalidate(title);
+    }
+
+    /**
+     * Writes all pending Symphonies and waits until they are stored.
+     * Writes that failed earlier are retried once.
+     *
+     * @throws RuntimeException if one or more Symphonies could not be written
+     */
+    @Override
+    public void flush() {
+        for (String title : failures.keySet()) {
+            schedule(title);
+        }
+
+        // The writer is single-threaded, so this runs after every write queued before it
+        runOnWriter(() -> null);
+
+        if (!failures.isEmpty()) {
+            RuntimeException exception = new RuntimeException("Failed to write Symphonies: " + failures.keySet());
+            failures.values().forEach(exception::addSuppressed);
+            throw exception;
+        }
+
+        delegate.flush();
+    }
+
+    /**
+     * Flushes all pending writes and stops the writer thread.
+     * The repository must not be used for saving afterwards.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private void schedule(String title) {
+        if (scheduled.add(title)) {
+            writer.execute(() -> write(title));
+        }
+    }
+
+    /**
+     * Saves the pending state of a title whose last write failed and waits for it, so that the save that
+     * triggered it fails as well if the write does.
+     */
+    private void writeThrough(String title) {
+        runOnWriter(() -> {
+            write(title);
+            return null;
+        });
+        RuntimeException failure = failures.get(title);
+        if (failure != null) {
+            throw new RuntimeException("Failed to write Symphony: " + title, failure);
+        }
+    }
+
+    private void write(String title) {
+        // Unmark first so that a save arriving during the write schedules a follow-up write
+        scheduled.remove(title);
+
+        Symphony symphony = pending.get(title);
+        if (symphony == null) {
+            return;
+        }
+
+        try {
+            delegate.save(symphony);
+            failures.remove(title);
+            // Only forget the state we actually wrote; a newer one stays pending
+            pending.remove(title, symphony);
+        } catch (RuntimeException e) {
+            failures.put(title, e);
+        }
+    }
+
+    private <T> T runOnWriter(Callable<T> task) {
+        Future<T> future = writer.submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the Symphony writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Symphony writer failed", e.getCause());
+        }
+    }
+}
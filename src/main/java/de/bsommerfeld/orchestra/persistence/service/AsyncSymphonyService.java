@@ -0,0 +1,180 @@
+package de.bsommerfeld.orchestra.persistence.service;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous variant of {@link SymphonyService} for callers that must not block, like the JavaFX Application
+ * Thread. Every operation runs the corresponding SymphonyService operation in the background and returns a
+ * future of its result. An operation that throws, e.g. with an {@link IllegalArgumentException} for invalid
+ * input, completes its future exceptionally with that exception.
+ *
+ * <p>The futures complete on a background thread; callers that update the UI hand the result over to the UI
+ * thread themselves.
+ */
+public interface AsyncSymphonyService extends AutoCloseable {
+
+    /**
+     * Creates a new Symphony.
+     *
+     * @param title The title of the Symphony
+     * @param description The description of the Symphony (can be null)
+     * @return A future of the created Symphony
+     * @see SymphonyService#createSymphony(String, String)
+     */
+    CompletableFuture<Symphony> createSymphony(String title, String description);
+
+    /**
+     * Retrieves a Symphony by its title.
+     *
+     * @param title The title of the Symphony to retrieve
+     * @return A future of the Symphony, or of an empty Optional if not found
+     * @see SymphonyService#getSymphony(String)
+     */
+    CompletableFuture<Optional<Symphony>> getSymphony(String title);
+
+    /**
+     * Retrieves all Symphonies.
+     *
+     * @return A future of all Symphonies
+     * @see SymphonyService#getAllSymphonies()
+     */
+    CompletableFuture<List<Symphony>> getAllSymphonies();
+
+    /**
+     * Lists a summary of every Symphony without loading their choirs and voices.
+     *
+     * @return A future of the summaries, one per Symphony
+     * @see SymphonyService#listSummaries()
+     */
+    CompletableFuture<List<SymphonySummary>> listSummaries();
+
+    /**
+     * Updates an existing Symphony.
+     *
+     * @param symphony The Symphony to update
+     * @return A future of the updated Symphony
+     * @see SymphonyService#updateSymphony(Symphony)
+     */
+    CompletableFuture<Symphony> updateSymphony(Symphony symphony);
+
+    /**
+     * Deletes a Symphony by its title.
+     *
+     * @param title The title of the Symphony to delete
+     * @return A future of true if the Symphony was deleted, false otherwise
+     * @see SymphonyService#deleteSymphony(String)
+     */
+    CompletableFuture<Boolean> deleteSymphony(String title);
+
+    /**
+     * Adds a Choir to a Symphony.
+     *
+     * @param symphonyTitle The title of the Symphony to add the Choir to
+     * @param choir The Choir to add
+     * @return A future of the updated Symphony
+     * @see SymphonyService#addChoir(String, Choir)
+     */
+    CompletableFuture<Symphony> addChoir(String symphonyTitle, Choir choir);
+
+    /**
+     * Removes a Choir from a Symphony.
+     *
+     * @param symphonyTitle The title of the Symphony to remove the Choir from
+     * @param choirName The name of the Choir to remove
+     * @return A future of the updated Symphony
+     * @see SymphonyService#removeChoir(String, String)
+     */
+    CompletableFuture<Symphony> removeChoir(String symphonyTitle, String choirName);
+
+    /**
+     * Adds a Voice to a Choir in a Symphony.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param choirName The name of the Choir to add the Voice to
+     * @param voice The Voice to add
+     * @return A future of the updated Symphony
+     * @see SymphonyService#addVoice(String, String, Voice)
+     */
+    CompletableFuture<Symphony> addVoice(String symphonyTitle, String choirName, Voice voice);
+
+    /**
+     * Removes a Voice from a Choir in a Symphony.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param choirName The name of the Choir to remove the Voice from
+     * @param voiceTitle The title of the Voice to remove
+     * @return A future of the updated Symphony
+     * @see SymphonyService#removeVoice(String, String, String)
+     */
+    CompletableFuture<Symphony> removeVoice(String symphonyTitle, String choirName, String voiceTitle);
+
+    /**
+     * Appends a Voice to the Choir or Voice with the specified id.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param parentId The id of the Choir or Voice to add the Voice to
+     * @param voice The Voice to add
+     * @return A future of the updated Symphony
+     * @see SymphonyService#addVoiceTo(String, String, Voice)
+     */
+    CompletableFuture<Symphony> addVoiceTo(String symphonyTitle, String parentId, Voice voice);
+
+    /**
+     * Removes the Voice with the specified id, together with its sub-voices.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param voiceId The id of the Voice to remove
+     * @return A future of the updated Symphony
+     * @see SymphonyService#removeVoiceById(String, String)
+     */
+    CompletableFuture<Symphony> removeVoiceById(String symphonyTitle, String voiceId);
+
+    /**
+     * Sets the completion status of the Voice with the specified id.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param voiceId The id of the Voice
+     * @param completed The new completion status
+     * @return A future of the updated Symphony
+     * @see SymphonyService#setVoiceCompleted(String, String, boolean)
+     */
+    CompletableFuture<Symphony> setVoiceCompleted(String symphonyTitle, String voiceId, boolean completed);
+
+    /**
+     * Moves the Voice with the specified id, together with its sub-voices, to the end of the Choir or Voice
+     * with the target id.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param voiceId The id of the Voice to move
+     * @param targetParentId The id of the Choir or Voice to move the Voice to
+     * @return A future of the updated Symphony
+     * @see SymphonyService#moveVoice(String, String, String)
+     */
+    CompletableFuture<Symphony> moveVoice(String symphonyTitle, String voiceId, String targetParentId);
+
+    /**
+     * Applies several changes to a Symphony and saves them together. The changes are made on the background
+     * thread, so they must not touch the UI.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param changes Makes the changes on the transaction it is passed
+     * @return A future of the updated Symphony
+     * @see SymphonyService#transaction(String, Consumer)
+     */
+    CompletableFuture<Symphony> transaction(String symphonyTitle, Consumer<SymphonyTransaction> changes);
+
+    /**
+     * Stops accepting operations and waits until the running ones are done, e.g. before the repository is
+     * flushed on shutdown.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,125 @@
+package de.bsommerfeld.orchestra.persistence.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the AsyncSymphonyService interface.
+ * Runs every operation on a virtual thread of its own, so any number of operations can wait for disk I/O or
+ * for the lock of their Symphony in {@link SymphonyServiceImpl} without tying up platform threads.
+ */
+@Singleton
+public class AsyncSymphonyServiceImpl implements AsyncSymphonyService {
+
+    private static final String THREAD_NAME_PREFIX = "orchestra-symphony-service-";
+
+    private final SymphonyService symphonyService;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new AsyncSymphonyServiceImpl that runs the operations of the specified SymphonyService.
+     *
+     * @param symphonyService The SymphonyService to run the operations of
+     */
+    @Inject
+    public AsyncSymphonyServiceImpl(SymphonyService symphonyService) {
+        this.symphonyService = symphonyService;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory());
+    }
+
+    @Override
+    public CompletableFuture<Symphony> createSymphony(String title, String description) {
+        return run(() -> symphonyService.createSymphony(title, description));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Symphony>> getSymphony(String title) {
+        return run(() -> symphonyService.getSymphony(title));
+    }
+
+    @Override
+    public CompletableFuture<List<Symphony>> getAllSymphonies() {
+        return run(symphonyService::getAllSymphonies);
+    }
+
+    @Override
+    public CompletableFuture<List<SymphonySummary>> listSummaries() {
+        return run(symphonyService::listSummaries);
+    }
+
+    @Override
+    public CompletableFuture<Symphony> updateSymphony(Symphony symphony) {
+        return run(() -> symphonyService.updateSymphony(symphony));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteSymphony(String title) {
+        return run(() -> symphonyService.deleteSymphony(title));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> addChoir(String symphonyTitle, Choir choir) {
+        return run(() -> symphonyService.addChoir(symphonyTitle, choir));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> removeChoir(String symphonyTitle, String choirName) {
+        return run(() -> symphonyService.removeChoir(symphonyTitle, choirName));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> addVoice(String symphonyTitle, String choirName, Voice voice) {
+        return run(() -> symphonyService.addVoice(symphonyTitle, choirName, voice));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> removeVoice(String symphonyTitle, String choirName, String voiceTitle) {
+        return run(() -> symphonyService.removeVoice(symphonyTitle, choirName, voiceTitle));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> addVoiceTo(String symphonyTitle, String parentId, Voice voice) {
+        return run(() -> symphonyService.addVoiceTo(symphonyTitle, parentId, voice));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> removeVoiceById(String symphonyTitle, String voiceId) {
+        return run(() -> symphonyService.removeVoiceById(symphonyTitle, voiceId));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> setVoiceCompleted(String symphonyTitle, String voiceId, boolean completed) {
+        return run(() -> symphonyService.setVoiceCompleted(symphonyTitle, voiceId, completed));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> moveVoice(String symphonyTitle, String voiceId, String targetParentId) {
+        return run(() -> symphonyService.moveVoice(symphonyTitle, voiceId, targetParentId));
+    }
+
+    @Override
+    public CompletableFuture<Symphony> transaction(String symphonyTitle, Consumer<SymphonyTransaction> changes) {
+        return run(() -> symphonyService.transaction(symphonyTitle, changes));
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> run(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+}
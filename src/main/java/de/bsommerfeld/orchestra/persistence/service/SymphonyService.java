@@ -2,14 +2,18 @@ package de.bsommerfeld.orchestra.persistence.service;
 
 import de.bsommerfeld.orchestra.model.Choir;
 import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
 import de.bsommerfeld.orchestra.model.Voice;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service interface for operations on Symphony objects.
  * Provides a higher-level API than the repository, focusing on business operations.
+ * Every saved change is published as {@link de.bsommerfeld.orchestra.persistence.event.SymphonyEvent}s on the
+ * {@link de.bsommerfeld.orchestra.persistence.event.SymphonyEventBus}.
  */
 public interface SymphonyService {
 
@@ -18,7 +22,7 @@ public interface SymphonyService {
      *
      * @param title The title of the Symphony
      * @param description The description of the Symphony (can be null)
-     * @return The created Symphony
+     * @return The created Symphony, with version 1
      * @throws IllegalArgumentException if a Symphony with the same title already exists
      */
     Symphony createSymphony(String title, String description);
@@ -39,11 +43,21 @@ public interface SymphonyService {
     List<Symphony> getAllSymphonies();
 
     /**
-     * Updates an existing Symphony.
+     * Lists a summary of every Symphony without loading their choirs and voices, e.g. for a project list.
+     *
+     * @return A list of summaries, one per Symphony
+     */
+    List<SymphonySummary> listSummaries();
+
+    /**
+     * Updates an existing Symphony. The Symphony must be based on the stored one: its version must be the
+     * stored version, so an update made on an outdated copy does not overwrite the changes saved since.
      *
      * @param symphony The Symphony to update
-     * @return The updated Symphony
+     * @return The updated Symphony, with the next version
      * @throws IllegalArgumentException if the Symphony does not exist
+     * @throws java.util.ConcurrentModificationException if the stored Symphony has another version, i.e. it
+     *                                                   was changed after the updated copy was read
      */
     Symphony updateSymphony(Symphony symphony);
 
@@ -96,4 +110,75 @@ public interface SymphonyService {
      * @throws IllegalArgumentException if the Symphony, Choir, or Voice does not exist
      */
     Symphony removeVoice(String symphonyTitle, String choirName, String voiceTitle);
-}
\ No newline at end of file
+
+    /**
+     * Appends a Voice to the Choir or Voice with the specified id.
+     * The parent is found through the Symphony's id index, so its position in the tree does not matter.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param parentId The id of the Choir or Voice to add the Voice to
+     * @param voice The Voice to add
+     * @return The updated Symphony
+     * @throws IllegalArgumentException if the Symphony or the parent does not exist, or the Symphony already
+     *                                  contains a node with the id of the Voice or one of its sub-voices
+     */
+    Symphony addVoiceTo(String symphonyTitle, String parentId, Voice voice);
+
+    /**
+     * Removes the Voice with the specified id, together with its sub-voices.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param voiceId The id of the Voice to remove
+     * @return The updated Symphony
+     * @throws IllegalArgumentException if the Symphony or the Voice does not exist
+     */
+    Symphony removeVoiceById(String symphonyTitle, String voiceId);
+
+    /**
+     * Sets the completion status of the Voice with the specified id.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param voiceId The id of the Voice
+     * @param completed The new completion status
+     * @return The updated Symphony
+     * @throws IllegalArgumentException if the Symphony or the Voice does not exist
+     */
+    Symphony setVoiceCompleted(String symphonyTitle, String voiceId, boolean completed);
+
+    /**
+     * Moves the Voice with the specified id, together with its sub-voices, to the end of the Choir or Voice
+     * with the target id. The Voice keeps its id.
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param voiceId The id of the Voice to move
+     * @param targetParentId The id of the Choir or Voice to move the Voice to
+     * @return The updated Symphony
+     * @throws IllegalArgumentException if the Symphony, the Voice or the target does not exist, or the target
+     *                                  is the Voice itself or one of its sub-voices
+     */
+    Symphony moveVoice(String symphonyTitle, String voiceId, String targetParentId);
+
+    /**
+     * Applies several changes to a Symphony and saves them together. The Symphony is loaded once, the changes
+     * are applied to it in memory in the order they are made, and the result is saved once, so a compound
+     * action like moving and completing a Voice costs a single load and save and never leaves the Symphony
+     * half changed: if a change fails, the exception is rethrown and nothing is saved. Other changes of the same
+     * Symphony wait until the transaction is done, so the changes should not block.
+     *
+     * <pre>{@code
+     * symphonyService.transaction(title, tx -> tx
+     *         .moveVoice(voiceId, targetId)
+     *         .setVoiceCompleted(voiceId, true));
+     * }</pre>
+     *
+     * @param symphonyTitle The title of the Symphony
+     * @param changes Makes the changes on the transaction it is passed
+     * @return The updated Symphony with the next version, or the loaded one if the changes left it unchanged,
+     * which is not saved again
+     * @throws IllegalArgumentException if the Symphony does not exist, a change is invalid, or the changed
+     *                                  Symphony contains an id twice
+     * @throws java.util.ConcurrentModificationException if a change replaced the Symphony with one of another
+     *                                                   version
+     */
+    Symphony transaction(String symphonyTitle, Consumer<SymphonyTransaction> changes);
+}
@@ -4,32 +4,58 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import de.bsommerfeld.orchestra.model.Choir;
 import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
 import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEvent;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEventBus;
 import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the SymphonyService interface.
  * Provides business operations for working with Symphony objects.
+ *
+ * <p>Every change of a Symphony is a read-modify-write sequence that holds a lock for the Symphony's title,
+ * so concurrent changes of the same Symphony are applied one after another and none of them is lost. The
+ * locks are striped: titles share a fixed number of locks, so changes of different Symphonies rarely wait
+ * for each other and no lock has to be created or cleaned up per Symphony. Saves are compare-and-set on the
+ * Symphony's version, see {@link #updateSymphony(Symphony)}.
+ *
+ * <p>After a change is saved, its {@link SymphonyEvent}s are published on the {@link SymphonyEventBus} while the
+ * lock is still held, so listeners receive the changes of a Symphony in the order they were saved.
  */
 @Singleton
 public class SymphonyServiceImpl implements SymphonyService {
 
+    // Number of locks the titles are spread over; a power of two well above the number of busy projects
+    private static final int LOCK_STRIPES = 64;
+
     private final SymphonyRepository symphonyRepository;
+    private final SymphonyEventBus eventBus;
+    // ReentrantLocks rather than monitors, so virtual threads waiting for a lock do not pin their carrier
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
 
     /**
-     * Constructs a new SymphonyServiceImpl with the specified SymphonyRepository.
+     * Constructs a new SymphonyServiceImpl with the specified SymphonyRepository and SymphonyEventBus.
      *
      * @param symphonyRepository The SymphonyRepository to use for data access
+     * @param eventBus The bus the changes are published on
      */
     @Inject
-    public SymphonyServiceImpl(SymphonyRepository symphonyRepository) {
+    public SymphonyServiceImpl(SymphonyRepository symphonyRepository, SymphonyEventBus eventBus) {
         this.symphonyRepository = symphonyRepository;
+        this.eventBus = eventBus;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
     }
 
     @Override
@@ -38,12 +64,15 @@ public class SymphonyServiceImpl implements SymphonyService {
             throw new IllegalArgumentException("Symphony title cannot be null or empty");
         }
 
-        if (symphonyRepository.existsById(title)) {
-            throw new IllegalArgumentException("Symphony with title '" + title + "' already exists");
-        }
+        return locked(title, () -> {
+            if (symphonyRepository.existsById(title)) {
+                throw new IllegalArgumentException("Symphony with title '" + title + "' already exists");
+            }
 
-        Symphony symphony = new Symphony(title, description, Collections.emptyList());
-        return symphonyRepository.save(symphony);
+            Symphony symphony = symphonyRepository.save(new Symphony(title, description, Collections.emptyList(), 1));
+            eventBus.publish(List.of(new SymphonyEvent.SymphonyCreated(symphony)));
+            return symphony;
+        });
     }
 
     @Override
@@ -60,17 +89,22 @@ public class SymphonyServiceImpl implements SymphonyService {
         return symphonyRepository.findAll();
     }
 
+    @Override
+    public List<SymphonySummary> listSummaries() {
+        return symphonyRepository.listSummaries();
+    }
+
     @Override
     public Symphony updateSymphony(Symphony symphony) {
         if (symphony == null) {
             throw new IllegalArgumentException("Symphony cannot be null");
         }
 
-        if (!symphonyRepository.existsById(symphony.getTitle())) {
-            throw new IllegalArgumentException("Symphony with title '" + symphony.getTitle() + "' does not exist");
-        }
-
-        return symphonyRepository.save(symphony);
+        return locked(symphony.getTitle(), () -> {
+            Symphony saved = compareAndSave(symphony, requireSymphony(symphony.getTitle()));
+            eventBus.publish(List.of(new SymphonyEvent.SymphonyReplaced(saved)));
+            return saved;
+        });
     }
 
     @Override
@@ -79,7 +113,13 @@ public class SymphonyServiceImpl implements SymphonyService {
             return false;
         }
 
-        return symphonyRepository.deleteById(title);
+        return locked(title, () -> {
+            boolean deleted = symphonyRepository.deleteById(title);
+            if (deleted) {
+                eventBus.publish(List.of(new SymphonyEvent.SymphonyDeleted(title)));
+            }
+            return deleted;
+        });
     }
 
     @Override
@@ -92,32 +132,7 @@ public class SymphonyServiceImpl implements SymphonyService {
             throw new IllegalArgumentException("Choir cannot be null");
         }
 
-        Optional<Symphony> optionalSymphony = symphonyRepository.findById(symphonyTitle);
-        if (!optionalSymphony.isPresent()) {
-            throw new IllegalArgumentException("Symphony with title '" + symphonyTitle + "' does not exist");
-        }
-
-        Symphony symphony = optionalSymphony.get();
-        
-        // Check if a choir with the same name already exists
-        boolean choirExists = symphony.getChoirs().stream()
-                .anyMatch(c -> c.getName().equals(choir.getName()));
-        if (choirExists) {
-            throw new IllegalArgumentException("Choir with name '" + choir.getName() + "' already exists in this Symphony");
-        }
-
-        // Create a new list with the existing choirs plus the new one
-        List<Choir> updatedChoirs = new ArrayList<>(symphony.getChoirs());
-        updatedChoirs.add(choir);
-
-        // Create a new Symphony with the updated choirs
-        Symphony updatedSymphony = new Symphony(
-                symphony.getTitle(),
-                symphony.getDescription().orElse(null),
-                updatedChoirs
-        );
-
-        return symphonyRepository.save(updatedSymphony);
+        return transaction(symphonyTitle, tx -> tx.addChoir(choir));
     }
 
     @Override
@@ -130,33 +145,7 @@ public class SymphonyServiceImpl implements SymphonyService {
             throw new IllegalArgumentException("Choir name cannot be null or empty");
         }
 
-        Optional<Symphony> optionalSymphony = symphonyRepository.findById(symphonyTitle);
-        if (!optionalSymphony.isPresent()) {
-            throw new IllegalArgumentException("Symphony with title '" + symphonyTitle + "' does not exist");
-        }
-
-        Symphony symphony = optionalSymphony.get();
-        
-        // Check if the choir exists
-        boolean choirExists = symphony.getChoirs().stream()
-                .anyMatch(c -> c.getName().equals(choirName));
-        if (!choirExists) {
-            throw new IllegalArgumentException("Choir with name '" + choirName + "' does not exist in this Symphony");
-        }
-
-        // Create a new list without the choir to remove
-        List<Choir> updatedChoirs = symphony.getChoirs().stream()
-                .filter(c -> !c.getName().equals(choirName))
-                .collect(Collectors.toList());
-
-        // Create a new Symphony with the updated choirs
-        Symphony updatedSymphony = new Symphony(
-                symphony.getTitle(),
-                symphony.getDescription().orElse(null),
-                updatedChoirs
-        );
-
-        return symphonyRepository.save(updatedSymphony);
+        return transaction(symphonyTitle, tx -> tx.removeChoir(choirName));
     }
 
     @Override
@@ -173,54 +162,7 @@ public class SymphonyServiceImpl implements SymphonyService {
             throw new IllegalArgumentException("Voice cannot be null");
         }
 
-        Optional<Symphony> optionalSymphony = symphonyRepository.findById(symphonyTitle);
-        if (!optionalSymphony.isPresent()) {
-            throw new IllegalArgumentException("Symphony with title '" + symphonyTitle + "' does not exist");
-        }
-
-        Symphony symphony = optionalSymphony.get();
-        
-        // Find the choir
-        Optional<Choir> optionalChoir = symphony.getChoirs().stream()
-                .filter(c -> c.getName().equals(choirName))
-                .findFirst();
-        if (!optionalChoir.isPresent()) {
-            throw new IllegalArgumentException("Choir with name '" + choirName + "' does not exist in this Symphony");
-        }
-
-        Choir choir = optionalChoir.get();
-        
-        // Check if a voice with the same title already exists
-        boolean voiceExists = choir.getVoices().stream()
-                .anyMatch(v -> v.getTitle().equals(voice.getTitle()));
-        if (voiceExists) {
-            throw new IllegalArgumentException("Voice with title '" + voice.getTitle() + "' already exists in this Choir");
-        }
-
-        // Create a new list with the existing voices plus the new one
-        List<Voice> updatedVoices = new ArrayList<>(choir.getVoices());
-        updatedVoices.add(voice);
-
-        // Create a new Choir with the updated voices
-        Choir updatedChoir = new Choir(
-                choir.getName(),
-                choir.getDescription().orElse(null),
-                updatedVoices
-        );
-
-        // Create a new list of choirs with the updated choir
-        List<Choir> updatedChoirs = symphony.getChoirs().stream()
-                .map(c -> c.getName().equals(choirName) ? updatedChoir : c)
-                .collect(Collectors.toList());
-
-        // Create a new Symphony with the updated choirs
-        Symphony updatedSymphony = new Symphony(
-                symphony.getTitle(),
-                symphony.getDescription().orElse(null),
-                updatedChoirs
-        );
-
-        return symphonyRepository.save(updatedSymphony);
+        return transaction(symphonyTitle, tx -> tx.addVoice(choirName, voice));
     }
 
     @Override
@@ -237,54 +179,89 @@ public class SymphonyServiceImpl implements SymphonyService {
             throw new IllegalArgumentException("Voice title cannot be null or empty");
         }
 
-        Optional<Symphony> optionalSymphony = symphonyRepository.findById(symphonyTitle);
-        if (!optionalSymphony.isPresent()) {
-            throw new IllegalArgumentException("Symphony with title '" + symphonyTitle + "' does not exist");
+        return transaction(symphonyTitle, tx -> tx.removeVoice(choirName, voiceTitle));
+    }
+
+    @Override
+    public Symphony addVoiceTo(String symphonyTitle, String parentId, Voice voice) {
+        if (voice == null) {
+            throw new IllegalArgumentException("Voice cannot be null");
         }
 
-        Symphony symphony = optionalSymphony.get();
-        
-        // Find the choir
-        Optional<Choir> optionalChoir = symphony.getChoirs().stream()
-                .filter(c -> c.getName().equals(choirName))
-                .findFirst();
-        if (!optionalChoir.isPresent()) {
-            throw new IllegalArgumentException("Choir with name '" + choirName + "' does not exist in this Symphony");
+        return transaction(symphonyTitle, tx -> tx.addVoiceTo(parentId, voice));
+    }
+
+    @Override
+    public Symphony removeVoiceById(String symphonyTitle, String voiceId) {
+        return transaction(symphonyTitle, tx -> tx.removeVoiceById(voiceId));
+    }
+
+    @Override
+    public Symphony setVoiceCompleted(String symphonyTitle, String voiceId, boolean completed) {
+        return transaction(symphonyTitle, tx -> tx.setVoiceCompleted(voiceId, completed));
+    }
+
+    @Override
+    public Symphony moveVoice(String symphonyTitle, String voiceId, String targetParentId) {
+        return transaction(symphonyTitle, tx -> tx.moveVoice(voiceId, targetParentId));
+    }
+
+    @Override
+    public Symphony transaction(String symphonyTitle, Consumer<SymphonyTransaction> changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("Transaction changes cannot be null");
+        }
+
+        if (symphonyTitle == null || symphonyTitle.trim().isEmpty()) {
+            throw new IllegalArgumentException("Symphony title cannot be null or empty");
+        }
+
+        return locked(symphonyTitle, () -> {
+            Symphony symphony = requireSymphony(symphonyTitle);
+            SymphonyTransaction transaction = new SymphonyTransaction(symphony);
+            changes.accept(transaction);
+            Symphony updated = transaction.complete();
+            if (updated == symphony) {
+                return symphony;
+            }
+            Symphony saved = compareAndSave(updated, symphony);
+            eventBus.publish(transaction.events(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Runs the action while holding the lock of the specified title.
+     */
+    private <T> T locked(String title, Supplier<T> action) {
+        Lock lock = locks[Math.floorMod(title.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
         }
+    }
 
-        Choir choir = optionalChoir.get();
-        
-        // Check if the voice exists
-        boolean voiceExists = choir.getVoices().stream()
-                .anyMatch(v -> v.getTitle().equals(voiceTitle));
-        if (!voiceExists) {
-            throw new IllegalArgumentException("Voice with title '" + voiceTitle + "' does not exist in this Choir");
+    /**
+     * Saves the symphony as the version after the stored one, provided it is based on the stored version.
+     * Must be called while holding the lock of the title.
+     */
+    private Symphony compareAndSave(Symphony symphony, Symphony stored) {
+        if (symphony.getVersion() != stored.getVersion()) {
+            throw new ConcurrentModificationException("Symphony '" + symphony.getTitle() + "' was changed concurrently: "
+                    + "the update is based on version " + symphony.getVersion() + " but version "
+                    + stored.getVersion() + " is stored");
+        }
+        return symphonyRepository.save(symphony.withVersion(stored.getVersion() + 1));
+    }
+
+    private Symphony requireSymphony(String symphonyTitle) {
+        if (symphonyTitle == null || symphonyTitle.trim().isEmpty()) {
+            throw new IllegalArgumentException("Symphony title cannot be null or empty");
         }
 
-        // Create a new list without the voice to remove
-        List<Voice> updatedVoices = choir.getVoices().stream()
-                .filter(v -> !v.getTitle().equals(voiceTitle))
-                .collect(Collectors.toList());
-
-        // Create a new Choir with the updated voices
-        Choir updatedChoir = new Choir(
-                choir.getName(),
-                choir.getDescription().orElse(null),
-                updatedVoices
-        );
-
-        // Create a new list of choirs with the updated choir
-        List<Choir> updatedChoirs = symphony.getChoirs().stream()
-                .map(c -> c.getName().equals(choirName) ? updatedChoir : c)
-                .collect(Collectors.toList());
-
-        // Create a new Symphony with the updated choirs
-        Symphony updatedSymphony = new Symphony(
-                symphony.getTitle(),
-                symphony.getDescription().orElse(null),
-                updatedChoirs
-        );
-
-        return symphonyRepository.save(updatedSymphony);
+        return symphonyRepository.findById(symphonyTitle)
+                .orElseThrow(() -> new IllegalArgumentException("Symphony with title '" + symphonyTitle + "' does not exist"));
     }
-}
\ No newline at end of file
+}
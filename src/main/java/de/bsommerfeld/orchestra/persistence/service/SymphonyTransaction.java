@@ -0,0 +1,389 @@
+package de.bsommerfeld.orchestra.persistence.service;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonyIndex;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.VoicePath;
+import de.bsommerfeld.orchestra.model.collection.PersistentList;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A batch of changes to one Symphony, see {@link SymphonyService#transaction(String, java.util.function.Consumer)}.
+ * The changes are applied in memory, one after another, so every change sees the result of the changes before
+ * it. Nothing is saved until the transaction completes, and if a change fails, none of them are saved.
+ *
+ * <p>Every change records the {@link SymphonyEvent} that is published once the transaction is saved. A change
+ * made with {@link #update(UnaryOperator)} cannot be described by a node event, so a transaction that contains
+ * one publishes a single {@link SymphonyEvent.SymphonyReplaced} instead.
+ *
+ * <p>A transaction can only be used inside the function it was passed to.
+ */
+public final class SymphonyTransaction {
+
+    private final Symphony original;
+    private Symphony symphony;
+    private boolean completed;
+    // Create the event of every change once the saved Symphony is known
+    private final List<Function<Symphony, SymphonyEvent>> events = new ArrayList<>();
+    private boolean replaced;
+
+    SymphonyTransaction(Symphony symphony) {
+        this.original = symphony;
+        this.symphony = symphony;
+    }
+
+    /**
+     * Returns the Symphony with the changes of this transaction so far.
+     *
+     * @return The current state of the Symphony
+     */
+    public Symphony current() {
+        checkOpen();
+        return symphony;
+    }
+
+    /**
+     * Applies an arbitrary change to the Symphony, e.g. with its path-based update methods.
+     * Since it is not known which nodes the change inserted, the ids of the whole result are checked.
+     *
+     * @param update Creates the changed Symphony from the current one. It must keep the title.
+     * @return This transaction
+     * @throws IllegalArgumentException if the update returns null, changes the title or leaves two nodes with
+     *                                  the same id
+     */
+    public SymphonyTransaction update(UnaryOperator<Symphony> update) {
+        int recorded = events.size();
+        change(current -> {
+            Symphony updated = update.apply(current);
+            if (updated != null && updated != current) {
+                try {
+                    updated.index();
+                } catch (IllegalStateException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+            }
+            return new Step(updated, SymphonyEvent.SymphonyReplaced::new);
+        });
+        replaced |= events.size() > recorded;
+        return this;
+    }
+
+    /**
+     * Replaces the description of the Symphony.
+     *
+     * @param description The new description (can be null)
+     * @return This transaction
+     */
+    public SymphonyTransaction setDescription(String description) {
+        return change(current -> new Step(
+                current.withDescription(description),
+                SymphonyEvent.DescriptionChanged::new));
+    }
+
+    /**
+     * Appends a Choir to the Symphony.
+     *
+     * @param choir The Choir to add
+     * @return This transaction
+     * @throws IllegalArgumentException if the Choir is null, a Choir with the same name already exists, or the
+     *                                  Symphony already contains a node with the id of the Choir or one of its
+     *                                  Voices
+     */
+    public SymphonyTransaction addChoir(Choir choir) {
+        if (choir == null) {
+            throw new IllegalArgumentException("Choir cannot be null");
+        }
+
+        return change(current -> {
+            if (indexOfChoir(current, choir.getName()) >= 0) {
+                throw new IllegalArgumentException("Choir with name '" + choir.getName() + "' already exists in this Symphony");
+            }
+            SymphonyIndex symphonyIndex = current.index();
+            if (symphonyIndex.findChoir(choir.getId()).isPresent() || symphonyIndex.findVoice(choir.getId()).isPresent()) {
+                throw new IllegalArgumentException("Choir with id '" + choir.getId() + "' already exists in this Symphony");
+            }
+            for (Voice voice : choir.getVoices()) {
+                checkIdsUnused(symphonyIndex, voice);
+            }
+            int index = current.getChoirs().size();
+            return new Step(withChoirs(current, PersistentList.copyOf(current.getChoirs()).plus(choir)),
+                    saved -> new SymphonyEvent.ChoirAdded(saved, index, choir));
+        });
+    }
+
+    /**
+     * Removes the first Choir with the specified name.
+     *
+     * @param choirName The name of the Choir to remove
+     * @return This transaction
+     * @throws IllegalArgumentException if the Choir does not exist
+     */
+    public SymphonyTransaction removeChoir(String choirName) {
+        return change(current -> {
+            int choirIndex = requireChoir(current, choirName);
+            String choirId = current.getChoirs().get(choirIndex).getId();
+            return new Step(withChoirs(current, PersistentList.copyOf(current.getChoirs()).minus(choirIndex)),
+                    saved -> new SymphonyEvent.ChoirRemoved(saved, choirId));
+        });
+    }
+
+    /**
+     * Appends a Voice to the first Choir with the specified name.
+     *
+     * @param choirName The name of the Choir to add the Voice to
+     * @param voice The Voice to add
+     * @return This transaction
+     * @throws IllegalArgumentException if the Voice is null, the Choir does not exist, the Choir already has
+     *                                  a Voice with the same title, or the Symphony already contains a node with
+     *                                  the id of the Voice or one of its sub-voices
+     */
+    public SymphonyTransaction addVoice(String choirName, Voice voice) {
+        if (voice == null) {
+            throw new IllegalArgumentException("Voice cannot be null");
+        }
+
+        return change(current -> {
+            int choirIndex = requireChoir(current, choirName);
+            Choir choir = current.getChoirs().get(choirIndex);
+            boolean voiceExists = choir.getVoices().stream()
+                    .anyMatch(v -> v.getTitle().equals(voice.getTitle()));
+            if (voiceExists) {
+                throw new IllegalArgumentException("Voice with title '" + voice.getTitle() + "' already exists in this Choir");
+            }
+            checkIdsUnused(current.index(), voice);
+
+            int index = choir.getVoices().size();
+            Choir updatedChoir = choir.withVoices(PersistentList.copyOf(choir.getVoices()).plus(voice));
+            return new Step(withChoirs(current, PersistentList.copyOf(current.getChoirs()).with(choirIndex, updatedChoir)),
+                    saved -> new SymphonyEvent.VoiceAdded(saved, choir.getId(), index, voice));
+        });
+    }
+
+    /**
+     * Removes the first Voice with the specified title from the first Choir with the specified name.
+     *
+     * @param choirName The name of the Choir to remove the Voice from
+     * @param voiceTitle The title of the Voice to remove
+     * @return This transaction
+     * @throws IllegalArgumentException if the Choir or the Voice does not exist
+     */
+    public SymphonyTransaction removeVoice(String choirName, String voiceTitle) {
+        return change(current -> {
+            int choirIndex = requireChoir(current, choirName);
+            Choir choir = current.getChoirs().get(choirIndex);
+            int voiceIndex = 0;
+            for (Voice v : choir.getVoices()) {
+                if (v.getTitle().equals(voiceTitle)) {
+                    break;
+                }
+                voiceIndex++;
+            }
+            if (voiceIndex == choir.getVoices().size()) {
+                throw new IllegalArgumentException("Voice with title '" + voiceTitle + "' does not exist in this Choir");
+            }
+
+            String voiceId = choir.getVoices().get(voiceIndex).getId();
+            Choir updatedChoir = choir.withVoices(PersistentList.copyOf(choir.getVoices()).minus(voiceIndex));
+            return new Step(withChoirs(current, PersistentList.copyOf(current.getChoirs()).with(choirIndex, updatedChoir)),
+                    saved -> new SymphonyEvent.VoiceRemoved(saved, voiceId));
+        });
+    }
+
+    /**
+     * Appends a Voice to the Choir or Voice with the specified id.
+     *
+     * @param parentId The id of the Choir or Voice to add the Voice to
+     * @param voice The Voice to add
+     * @return This transaction
+     * @throws IllegalArgumentException if the Voice is null, the parent does not exist, or the Symphony already
+     *                                  contains a node with the id of the Voice or one of its sub-voices
+     */
+    public SymphonyTransaction addVoiceTo(String parentId, Voice voice) {
+        if (voice == null) {
+            throw new IllegalArgumentException("Voice cannot be null");
+        }
+
+        return change(current -> {
+            checkIdsUnused(current.index(), voice);
+            VoicePath path = childPath(current, parentId);
+            return new Step(current.insertAt(path, voice),
+                    saved -> new SymphonyEvent.VoiceAdded(saved, parentId, path.lastIndex(), voice));
+        });
+    }
+
+    /**
+     * Removes the Voice with the specified id, together with its sub-voices.
+     *
+     * @param voiceId The id of the Voice to remove
+     * @return This transaction
+     * @throws IllegalArgumentException if the Voice does not exist
+     */
+    public SymphonyTransaction removeVoiceById(String voiceId) {
+        return change(current -> new Step(current.removeAt(requireVoicePath(current, voiceId)),
+                saved -> new SymphonyEvent.VoiceRemoved(saved, voiceId)));
+    }
+
+    /**
+     * Sets the completion status of the Voice with the specified id.
+     *
+     * @param voiceId The id of the Voice
+     * @param completed The new completion status
+     * @return This transaction
+     * @throws IllegalArgumentException if the Voice does not exist
+     */
+    public SymphonyTransaction setVoiceCompleted(String voiceId, boolean completed) {
+        return change(current -> new Step(
+                current.updateAt(requireVoicePath(current, voiceId),
+                        voice -> voice.isCompleted() == completed ? voice : voice.withCompleted(completed)),
+                saved -> new SymphonyEvent.VoiceCompletionChanged(saved, voiceId, completed)));
+    }
+
+    /**
+     * Moves the Voice with the specified id, together with its sub-voices, to the end of the Choir or Voice
+     * with the target id. The Voice keeps its id.
+     *
+     * @param voiceId The id of the Voice to move
+     * @param targetParentId The id of the Choir or Voice to move the Voice to
+     * @return This transaction
+     * @throws IllegalArgumentException if the Voice or the target does not exist, or the target is the Voice
+     *                                  itself or one of its sub-voices
+     */
+    public SymphonyTransaction moveVoice(String voiceId, String targetParentId) {
+        return change(current -> {
+            VoicePath source = requireVoicePath(current, voiceId);
+            if (current.index().isWithin(targetParentId, voiceId)) {
+                throw new IllegalArgumentException("Voice with id '" + voiceId + "' cannot be moved into itself");
+            }
+            VoicePath target = childPath(current, targetParentId);
+            int index = target.afterRemovalOf(source).lastIndex();
+            return new Step(current.move(source, target),
+                    saved -> new SymphonyEvent.VoiceMoved(saved, voiceId, targetParentId, index));
+        });
+    }
+
+    /**
+     * Ends this transaction and returns the Symphony to save. Its ids are unique, since every change checks
+     * the ids of the nodes it inserts.
+     *
+     * @return The changed Symphony, or the original instance if nothing changed
+     */
+    Symphony complete() {
+        checkOpen();
+        completed = true;
+        return symphony;
+    }
+
+    /**
+     * Creates the events of the changes of this transaction for the saved Symphony.
+     *
+     * @param saved The Symphony as it was saved
+     * @return The events in the order the changes were made, or a single replacement event if the Symphony
+     * was changed with {@link #update(UnaryOperator)}
+     */
+    List<SymphonyEvent> events(Symphony saved) {
+        if (replaced) {
+            return List.of(new SymphonyEvent.SymphonyReplaced(saved));
+        }
+        List<SymphonyEvent> result = new ArrayList<>(events.size());
+        for (Function<Symphony, SymphonyEvent> event : events) {
+            result.add(event.apply(saved));
+        }
+        return result;
+    }
+
+    /**
+     * A changed Symphony and how to describe the change once it is saved.
+     */
+    private record Step(Symphony symphony, Function<Symphony, SymphonyEvent> event) {
+    }
+
+    /**
+     * Applies a change to the current Symphony and records its event, unless the change had no effect.
+     */
+    private SymphonyTransaction change(Function<Symphony, Step> change) {
+        checkOpen();
+        Step step = change.apply(symphony);
+        Symphony updated = step.symphony();
+        if (updated == null) {
+            throw new IllegalArgumentException("Symphony cannot be null");
+        }
+        if (!updated.getTitle().equals(original.getTitle())) {
+            throw new IllegalArgumentException("Symphony title cannot be changed in a transaction: " + updated.getTitle());
+        }
+        if (updated != symphony) {
+            symphony = updated;
+            events.add(step.event());
+        }
+        return this;
+    }
+
+    private void checkOpen() {
+        if (completed) {
+            throw new IllegalStateException("Transaction on Symphony '" + original.getTitle() + "' is already completed");
+        }
+    }
+
+    private static Symphony withChoirs(Symphony symphony, List<Choir> choirs) {
+        return new Symphony(symphony.getTitle(), symphony.getDescription().orElse(null), choirs, symphony.getVersion());
+    }
+
+    /**
+     * Returns the index of the first Choir with the specified name, or -1 if there is none.
+     */
+    private static int indexOfChoir(Symphony symphony, String choirName) {
+        int index = 0;
+        for (Choir choir : symphony.getChoirs()) {
+            if (choir.getName().equals(choirName)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    private static int requireChoir(Symphony symphony, String choirName) {
+        int choirIndex = indexOfChoir(symphony, choirName);
+        if (choirIndex < 0) {
+            throw new IllegalArgumentException("Choir with name '" + choirName + "' does not exist in this Symphony");
+        }
+        return choirIndex;
+    }
+
+    private static VoicePath requireVoicePath(Symphony symphony, String voiceId) {
+        return symphony.index().pathOf(voiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Voice with id '" + voiceId + "' does not exist in this Symphony"));
+    }
+
+    /**
+     * Returns the path a Voice appended to the Choir or Voice with the specified id would have.
+     */
+    private static VoicePath childPath(Symphony symphony, String parentId) {
+        SymphonyIndex index = symphony.index();
+        Optional<SymphonyIndex.ChoirEntry> choir = index.getChoirEntry(parentId);
+        if (choir.isPresent()) {
+            return VoicePath.of(choir.get().index(), choir.get().choir().getVoices().size());
+        }
+
+        Optional<VoicePath> parentPath = index.pathOf(parentId);
+        if (parentPath.isEmpty()) {
+            throw new IllegalArgumentException("Choir or Voice with id '" + parentId + "' does not exist in this Symphony");
+        }
+        return parentPath.get().child(index.findVoice(parentId).orElseThrow().getSubVoices().size());
+    }
+
+    private static void checkIdsUnused(SymphonyIndex index, Voice voice) {
+        if (index.findVoice(voice.getId()).isPresent() || index.findChoir(voice.getId()).isPresent()) {
+            throw new IllegalArgumentException("Voice with id '" + voice.getId() + "' already exists in this Symphony");
+        }
+        for (Voice subVoice : voice.getSubVoices()) {
+            checkIdsUnused(index, subVoice);
+        }
+    }
+}
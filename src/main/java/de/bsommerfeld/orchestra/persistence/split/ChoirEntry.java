@@ -0,0 +1,150 @@
+package de.bsommerfeld.orchestra.persistence.split;
+
+/**
+ * Data Transfer Object (DTO) for one Choir in the header of a split Symphony.
+ * Holds what is needed to show the choir and count its voices without reading its file.
+ */
+public class ChoirEntry {
+
+    private String id;
+    private String name;
+    private String description;
+    private String fileName;
+    private int voiceCount;
+    private int completedCount;
+
+    /**
+     * Default constructor for Jackson deserialization.
+     */
+    public ChoirEntry() {
+        // Required for Jackson
+    }
+
+    /**
+     * Constructs a new ChoirEntry with the specified properties.
+     *
+     * @param id The stable id of the choir
+     * @param name The name of the choir
+     * @param description The description of the choir (can be null)
+     * @param fileName The name of the file storing the choir's voices, relative to the Symphony directory
+     * @param voiceCount The number of voices at all levels in the choir
+     * @param completedCount The number of completed voices at all levels in the choir
+     */
+    public ChoirEntry(String id, String name, String description, String fileName, int voiceCount,
+                      int completedCount) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.fileName = fileName;
+        this.voiceCount = voiceCount;
+        this.completedCount = completedCount;
+    }
+
+    /**
+     * Gets the stable id of the choir.
+     *
+     * @return The id (can be null in headers written before ids existed)
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the stable id of the choir.
+     *
+     * @param id The id to set
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the name of the choir.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name of the choir.
+     *
+     * @param name The name to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the description of the choir.
+     *
+     * @return The description (can be null)
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the description of the choir.
+     *
+     * @param description The description to set (can be null)
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the name of the file storing the choir's voices, relative to the Symphony directory.
+     *
+     * @return The file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Sets the name of the file storing the choir's voices.
+     *
+     * @param fileName The file name to set
+     */
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Gets the number of voices at all levels.
+     *
+     * @return The number of voices
+     */
+    public int getVoiceCount() {
+        return voiceCount;
+    }
+
+    /**
+     * Sets the number of voices at all levels.
+     *
+     * @param voiceCount The number of voices to set
+     */
+    public void setVoiceCount(int voiceCount) {
+        this.voiceCount = voiceCount;
+    }
+
+    /**
+     * Gets the number of completed voices at all levels.
+     *
+     * @return The number of completed voices
+     */
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * Sets the number of completed voices at all levels.
+     *
+     * @param completedCount The number of completed voices to set
+     */
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+}
@@ -0,0 +1,131 @@
+package de.bsommerfeld.orchestra.persistence.split;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the header file of a split Symphony.
+ * Holds the Symphony's own properties and an entry per Choir, in order; the voices of each choir
+ * are stored in a file of their own.
+ */
+public class SymphonyHeader {
+
+    private int version;
+    private String title;
+    private String description;
+    private long symphonyVersion;
+    private List<ChoirEntry> choirs;
+
+    /**
+     * Default constructor for Jackson deserialization.
+     */
+    public SymphonyHeader() {
+        // Required for Jackson
+    }
+
+    /**
+     * Constructs a new SymphonyHeader with the specified properties.
+     *
+     * @param version The format version of the header file
+     * @param title The title of the Symphony
+     * @param description The description of the Symphony (can be null)
+     * @param symphonyVersion The version of the Symphony itself, see {@link de.bsommerfeld.orchestra.model.Symphony#getVersion()}
+     * @param choirs The entries of the Symphony's choirs, in order
+     */
+    public SymphonyHeader(int version, String title, String description, long symphonyVersion, List<ChoirEntry> choirs) {
+        this.version = version;
+        this.title = title;
+        this.description = description;
+        this.symphonyVersion = symphonyVersion;
+        this.choirs = choirs;
+    }
+
+    /**
+     * Gets the format version of the header file.
+     *
+     * @return The format version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the format version of the header file.
+     *
+     * @param version The format version to set
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets the title of the Symphony.
+     *
+     * @return The title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title of the Symphony.
+     *
+     * @param title The title to set
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the description of the Symphony.
+     *
+     * @return The description (can be null)
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the description of the Symphony.
+     *
+     * @param description The description to set (can be null)
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the version of the Symphony itself. Headers written before Symphonies had versions read as 0.
+     *
+     * @return The Symphony version
+     */
+    public long getSymphonyVersion() {
+        return symphonyVersion;
+    }
+
+    /**
+     * Sets the version of the Symphony itself.
+     *
+     * @param symphonyVersion The Symphony version to set
+     */
+    public void setSymphonyVersion(long symphonyVersion) {
+        this.symphonyVersion = symphonyVersion;
+    }
+
+    /**
+     * Gets the entries of the Symphony's choirs, in order.
+     *
+     * @return The choir entries
+     */
+    public List<ChoirEntry> getChoirs() {
+        return choirs;
+    }
+
+    /**
+     * Sets the entries of the Symphony's choirs.
+     *
+     * @param choirs The choir entries to set
+     */
+    public void setChoirs(List<ChoirEntry> choirs) {
+        this.choirs = choirs;
+    }
+}
@@ -0,0 +1,83 @@
+package de.bsommerfeld.orchestra.persistence.test;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.BinarySymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.DtoSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapperImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A standalone benchmark comparing the DTO, streaming and binary codecs.
+ * It reads a generated Symphony repeatedly with each codec and prints the encoded size, the time and the
+ * number of bytes allocated per read, as reported by the JVM for the current thread.
+ */
+public class CodecBenchmark {
+
+    private static final String SEPARATOR = "----------------------------------------";
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 500;
+
+    public static void main(String[] args) throws IOException {
+        int choirs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int voicesPerChoir = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+
+        Symphony symphony = createSymphony(choirs, voicesPerChoir);
+        SymphonyCodec dtoCodec = new DtoSymphonyCodec(new SymphonyMapperImpl(new ChoirMapperImpl(new VoiceMapperImpl())));
+        SymphonyCodec streamingCodec = new StreamingSymphonyCodec();
+        SymphonyCodec binaryCodec = new BinarySymphonyCodec();
+
+        System.out.println("Symphony with " + choirs + " choirs x " + voicesPerChoir + " voices");
+        System.out.println(SEPARATOR);
+        measure("DTO", dtoCodec, symphony);
+        measure("Streaming", streamingCodec, symphony);
+        measure("Binary", binaryCodec, symphony);
+    }
+
+    private static void measure(String name, SymphonyCodec codec, Symphony symphony) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(symphony, out);
+        byte[] document = out.toByteArray();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            codec.read(new ByteArrayInputStream(document));
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            codec.read(new ByteArrayInputStream(document));
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-10s %8d KiB %8.3f ms/read %10d KiB allocated/read%n",
+                name, document.length / 1024, elapsed / 1e6 / ITERATIONS, allocated / 1024 / ITERATIONS);
+    }
+
+    private static Symphony createSymphony(int choirs, int voicesPerChoir) {
+        List<Choir> choirList = new ArrayList<>();
+        for (int c = 0; c < choirs; c++) {
+            List<Voice> voices = new ArrayList<>();
+            for (int v = 0; v < voicesPerChoir; v++) {
+                Voice subVoice = new Voice("Sub Voice " + v, "Sub voice description", null, v % 2 == 0);
+                voices.add(new Voice("Voice " + v, "Voice description " + v, List.of(subVoice)));
+            }
+            choirList.add(new Choir("Choir " + c, "Choir description " + c, voices));
+        }
+        return new Symphony("Benchmark Symphony", "Generated for the codec benchmark", choirList);
+    }
+}
@@ -0,0 +1,145 @@
+package de.bsommerfeld.orchestra.persistence.test;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.compress.CompressedStreams;
+import de.bsommerfeld.orchestra.persistence.config.Compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A standalone benchmark comparing uncompressed and gzip-compressed Symphony files.
+ * For each mode it writes the same symphonies to a temporary directory and reads them back, and prints the
+ * best write and read time of several rounds, the throughput in uncompressed megabytes per second and the
+ * total size on disk. The files are in the page cache, so the numbers show the CPU cost of compression;
+ * on a slow or synced drive the smaller files make up for it.
+ */
+public class CompressionBenchmark {
+
+    private static final String SEPARATOR = "----------------------------------------";
+    private static final int FILE_COUNT = 200;
+    private static final int ROUNDS = 5;
+
+    private record Mode(String name, Compression compression, int level) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        SymphonyCodec codec = new StreamingSymphonyCodec();
+        List<Symphony> symphonies = new ArrayList<>(FILE_COUNT);
+        for (int i = 0; i < FILE_COUNT; i++) {
+            symphonies.add(createSymphony("Symphony " + i));
+        }
+        List<Mode> modes = List.of(
+                new Mode("none", Compression.NONE, 6),
+                new Mode("gzip 1", Compression.GZIP, 1),
+                new Mode("gzip 6", Compression.GZIP, 6),
+                new Mode("gzip 9", Compression.GZIP, 9));
+
+        // Warm up the codec and the deflater for every mode, so the first mode is not measured cold
+        Path warmUp = Files.createTempDirectory("orchestra-benchmark");
+        try {
+            for (Mode mode : modes) {
+                write(warmUp, codec, symphonies, mode);
+                read(warmUp, codec);
+            }
+        } finally {
+            deleteRecursively(warmUp);
+        }
+
+        System.out.println("Writing and reading " + FILE_COUNT + " symphonies");
+        System.out.println(SEPARATOR);
+        long uncompressedBytes = 0;
+        for (Mode mode : modes) {
+            Path directory = Files.createTempDirectory("orchestra-benchmark");
+            try {
+                long writeNanos = Long.MAX_VALUE;
+                long readNanos = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    writeNanos = Math.min(writeNanos, write(directory, codec, symphonies, mode));
+                    readNanos = Math.min(readNanos, read(directory, codec));
+                }
+                long size = size(directory);
+                if (mode.compression() == Compression.NONE) {
+                    uncompressedBytes = size;
+                }
+                double megabytes = uncompressedBytes / 1e6;
+                System.out.printf("%-7s write %8.2f ms (%6.1f MB/s)   read %8.2f ms (%6.1f MB/s)"
+                                + "   size %8.1f KB (%5.1f%%)%n",
+                        mode.name(), writeNanos / 1e6, megabytes / (writeNanos / 1e9),
+                        readNanos / 1e6, megabytes / (readNanos / 1e9),
+                        size / 1e3, 100.0 * size / uncompressedBytes);
+            } finally {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static long write(Path directory, SymphonyCodec codec, List<Symphony> symphonies, Mode mode)
+            throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < symphonies.size(); i++) {
+            Path file = directory.resolve("Symphony_" + i + ".json");
+            try (OutputStream out = CompressedStreams.compressing(Files.newOutputStream(file), mode.compression(),
+                    mode.level())) {
+                codec.write(symphonies.get(i), out);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long read(Path directory, SymphonyCodec codec) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.toList();
+        }
+        long start = System.nanoTime();
+        for (Path file : files) {
+            try (InputStream in = CompressedStreams.decompressing(Files.newInputStream(file))) {
+                codec.read(in);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            long size = 0;
+            for (Path file : paths.toList()) {
+                size += Files.size(file);
+            }
+            return size;
+        }
+    }
+
+    private static Symphony createSymphony(String title) {
+        List<Choir> choirs = new ArrayList<>();
+        for (int c = 0; c < 10; c++) {
+            List<Voice> voices = new ArrayList<>();
+            for (int v = 0; v < 50; v++) {
+                Voice subVoice = new Voice("Sub Voice " + v, "Sub voice description", null, v % 2 == 0);
+                voices.add(new Voice("Voice " + v, "Voice description " + v, List.of(subVoice)));
+            }
+            choirs.add(new Choir("Choir " + c, "Choir description " + c, voices));
+        }
+        return new Symphony(title, "Benchmark symphony", choirs);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
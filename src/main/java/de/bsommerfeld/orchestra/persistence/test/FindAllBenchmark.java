@@ -0,0 +1,107 @@
+package de.bsommerfeld.orchestra.persistence.test;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.load.ParallelFileLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A standalone benchmark comparing sequential and parallel loading of all Symphony files.
+ * For each directory size it writes that many Symphony files to a temporary directory and reads them all,
+ * once one after another and once on virtual threads, and prints the best time of several rounds.
+ * The files are in the page cache after the first round, so the numbers show the parse parallelism;
+ * on cold caches and network file systems the gap is larger.
+ */
+public class FindAllBenchmark {
+
+    private static final String SEPARATOR = "----------------------------------------";
+    private static final int[] FILE_COUNTS = {10, 1_000, 10_000};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        SymphonyCodec codec = new StreamingSymphonyCodec();
+        ParallelFileLoader sequential = new ParallelFileLoader(1);
+        ParallelFileLoader parallel = new ParallelFileLoader(parallelism);
+        ParallelFileLoader.FileReader<Symphony> reader = file -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return codec.read(in);
+            }
+        };
+
+        System.out.println("Loading all symphonies, parallelism " + parallelism);
+        System.out.println(SEPARATOR);
+        for (int count : FILE_COUNTS) {
+            Path directory = Files.createTempDirectory("orchestra-benchmark");
+            try {
+                List<Path> files = writeFiles(directory, codec, count);
+                long sequentialNanos = measure(sequential, files, reader);
+                long parallelNanos = measure(parallel, files, reader);
+                System.out.printf("%6d files   sequential %9.2f ms   parallel %9.2f ms   speedup %5.2fx%n",
+                        count, sequentialNanos / 1e6, parallelNanos / 1e6, (double) sequentialNanos / parallelNanos);
+            } finally {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static long measure(ParallelFileLoader loader, List<Path> files,
+                                ParallelFileLoader.FileReader<Symphony> reader) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<Symphony> symphonies = loader.loadAll(files, reader);
+            long elapsed = System.nanoTime() - start;
+            if (symphonies.size() != files.size()) {
+                throw new IllegalStateException("Loaded " + symphonies.size() + " of " + files.size() + " files");
+            }
+            best = Math.min(best, elapsed);
+        }
+        return best;
+    }
+
+    private static List<Path> writeFiles(Path directory, SymphonyCodec codec, int count) throws IOException {
+        List<Path> files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Path file = directory.resolve("Symphony_" + i + ".json");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                codec.write(createSymphony("Symphony " + i), out);
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static Symphony createSymphony(String title) {
+        List<Choir> choirs = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            List<Voice> voices = new ArrayList<>();
+            for (int v = 0; v < 25; v++) {
+                Voice subVoice = new Voice("Sub Voice " + v, "Sub voice description", null, v % 2 == 0);
+                voices.add(new Voice("Voice " + v, "Voice description " + v, List.of(subVoice)));
+            }
+            choirs.add(new Choir("Choir " + c, "Choir description " + c, voices));
+        }
+        return new Symphony(title, "Benchmark symphony", choirs);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -304,11 +304,13 @@ public class PersistenceTest {
     private static void testUpdateSymphony(Symphony symphony) {
         System.out.println("Testing updateSymphony...");
         
-        // Create a new Symphony with the same title but a different description
+        // Create a new Symphony with the same title but a different description, based on the version that
+        // was loaded so the update is not rejected as a concurrent modification
         Symphony updatedSymphony = new Symphony(
                 symphony.getTitle(),
                 "Updated description for the test symphony",
-                symphony.getChoirs()
+                symphony.getChoirs(),
+                symphony.getVersion()
         );
         
         // Update the Symphony
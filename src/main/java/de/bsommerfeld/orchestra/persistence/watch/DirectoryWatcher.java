@@ -0,0 +1,227 @@
+package de.bsommerfeld.orchestra.persistence.watch;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory and all of its subdirectories with a {@link WatchService} and reports the paths that
+ * were created, modified or deleted. Events are debounced: a batch is reported once the directory has been
+ * quiet for the configured delay, so a file that is written in several steps, or many files that are synced
+ * at once, are reported together and only once. A directory that is never quiet, e.g. because a sync tool keeps
+ * writing, cannot hold a batch back for longer than the maximum latency.
+ *
+ * <p>Subdirectories created later are watched as soon as they appear, and the files already in them are
+ * reported. The listeners are called on the watcher thread.
+ */
+public final class DirectoryWatcher implements AutoCloseable {
+
+    private static final String THREAD_NAME = "orchestra-directory-watcher";
+
+    private final Path directory;
+    private final long debounceMillis;
+    private final long maxLatencyMillis;
+    private final List<Consumer<DirectoryChanges>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * A batch of changes in the watched directory.
+     *
+     * @param paths The paths that were created, modified or deleted, in the order they were first reported
+     * @param overflow Whether events were lost, so any file in the directory may have changed
+     */
+    public record DirectoryChanges(Set<Path> paths, boolean overflow) {
+    }
+
+    /**
+     * Constructs a new DirectoryWatcher that reports a batch at the latest ten debounce delays after its first
+     * change. Nothing is watched until {@link #start()} is called.
+     *
+     * @param directory The directory to watch
+     * @param debounce How long the directory has to be quiet before a batch of changes is reported
+     * @throws IllegalArgumentException if the debounce delay is negative
+     */
+    public DirectoryWatcher(Path directory, Duration debounce) {
+        this(directory, debounce, debounce.multipliedBy(10));
+    }
+
+    /**
+     * Constructs a new DirectoryWatcher. Nothing is watched until {@link #start()} is called.
+     *
+     * @param directory The directory to watch
+     * @param debounce How long the directory has to be quiet before a batch of changes is reported
+     * @param maxLatency How long after its first change a batch is reported even if the directory is not quiet
+     * @throws IllegalArgumentException if the debounce delay is negative or the maximum latency is shorter than it
+     */
+    public DirectoryWatcher(Path directory, Duration debounce, Duration maxLatency) {
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("Debounce delay cannot be negative: " + debounce);
+        }
+        if (maxLatency.compareTo(debounce) < 0) {
+            throw new IllegalArgumentException("Maximum latency cannot be shorter than the debounce delay: " + maxLatency);
+        }
+        this.directory = directory;
+        this.debounceMillis = debounce.toMillis();
+        this.maxLatencyMillis = maxLatency.toMillis();
+    }
+
+    /**
+     * Registers a listener that is called with every batch of changes.
+     *
+     * @param listener The listener to register
+     */
+    public void addListener(Consumer<DirectoryChanges> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts watching the directory on a background thread.
+     *
+     * @throws IllegalStateException if the watcher has already been started
+     * @throws RuntimeException if the directory cannot be watched
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("The watcher has already been started");
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(directory, new LinkedHashSet<>());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch directory: " + directory, e);
+        }
+
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the directory. Changes that are still being debounced are dropped.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // The watcher thread ends either way
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<Path> paths = new LinkedHashSet<>();
+                boolean overflow = collect(key, paths);
+
+                // Keep collecting until the directory has been quiet for the debounce delay,
+                // but no longer than the maximum latency
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+                long remainingMillis;
+                while ((remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) > 0
+                        && (key = watchService.poll(Math.min(debounceMillis, remainingMillis), TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, paths);
+                }
+
+                DirectoryChanges changes = new DirectoryChanges(Collections.unmodifiableSet(paths), overflow);
+                for (Consumer<DirectoryChanges> listener : listeners) {
+                    try {
+                        listener.accept(changes);
+                    } catch (RuntimeException e) {
+                        // Report it, but a failing listener must not stop the watcher
+                        Thread current = Thread.currentThread();
+                        current.getUncaughtExceptionHandler().uncaughtException(current, e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<Path> paths) {
+        Path watched = watchedDirectories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (watched == null) {
+                continue;
+            }
+
+            Path path = watched.resolve((Path) event.context());
+            paths.add(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerTree(path, paths);
+                } catch (IOException e) {
+                    // Deleted again before it could be registered
+                    overflow = true;
+                }
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Watches the specified directory and its subdirectories. The files already in them are added to the
+     * reported paths, since they may have been created before the directory was watched. Each directory is
+     * watched before it is listed, so a file created in between is either listed or reported by an event.
+     */
+    private void registerTree(Path root, Set<Path> paths) throws IOException {
+        List<Path> entries;
+        try {
+            WatchKey key = root.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(key, root);
+            try (Stream<Path> list = Files.list(root)) {
+                entries = list.collect(Collectors.toList());
+            }
+        } catch (NoSuchFileException e) {
+            // Deleted again before it could be watched
+            return;
+        }
+
+        for (Path entry : entries) {
+            if (Files.isDirectory(entry)) {
+                registerTree(entry, paths);
+            } else {
+                paths.add(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.bsommerfeld.orchestra.persistence.watch;
+
+import de.bsommerfeld.orchestra.persistence.repository.FileSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Detects Symphony files that were changed on disk by another process, e.g. a second Orchestra instance
+ * sharing the storage directory or a tool that synchronizes it between machines.
+ *
+ * <p>The storage directory is watched by a {@link DirectoryWatcher}. For every Symphony file in a batch of
+ * changes the file repository tells whether the change was its own; for each change it did not make, the
+ * Symphony is invalidated in the repository stack, so the next read goes to disk, and a
+ * {@link SymphonyChangedEvent} is published.
+ */
+public final class ExternalChangeDetector implements AutoCloseable {
+
+    private final DirectoryWatcher watcher;
+    private final FileSymphonyRepository fileRepository;
+    private final SymphonyRepository repository;
+    private final SymphonyChangeEvents events;
+
+    /**
+     * Constructs a new ExternalChangeDetector. Nothing is watched until {@link #start()} is called.
+     *
+     * @param fileRepository The repository that reads and writes the watched Symphony files
+     * @param repository The repository the application uses, which is invalidated on changes
+     * @param events The registry the change events are published to
+     * @param debounce How long the directory has to be quiet before its changes are handled
+     */
+    public ExternalChangeDetector(FileSymphonyRepository fileRepository, SymphonyRepository repository,
+                                  SymphonyChangeEvents events, Duration debounce) {
+        this.watcher = new DirectoryWatcher(fileRepository.getDirectory(), debounce);
+        this.fileRepository = fileRepository;
+        this.repository = repository;
+        this.events = events;
+        watcher.addListener(this::onChanges);
+    }
+
+    /**
+     * Starts watching the storage directory on a background thread.
+     *
+     * @throws RuntimeException if the directory cannot be watched
+     */
+    public void start() {
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the storage directory.
+     */
+    @Override
+    public void close() {
+        watcher.close();
+    }
+
+    private void onChanges(DirectoryWatcher.DirectoryChanges changes) {
+        List<Path> changed;
+        if (changes.overflow()) {
+            // Events were lost, so any file may have changed
+            changed = fileRepository.acknowledgeAllChanges();
+        } else {
+            changed = new ArrayList<>();
+            for (Path path : changes.paths()) {
+                if (path.toString().endsWith(fileRepository.getFileExtension())
+                        && fileRepository.acknowledgeChange(path)) {
+                    changed.add(path);
+                }
+            }
+        }
+
+        for (Path path : changed) {
+            Optional<String> title = fileRepository.titleOf(path);
+            if (title.isPresent()) {
+                repository.invalidate(title.get());
+                SymphonyChangedEvent.Kind kind = Files.exists(path)
+                        ? SymphonyChangedEvent.Kind.MODIFIED
+                        : SymphonyChangedEvent.Kind.DELETED;
+                events.publish(new SymphonyChangedEvent(title.get(), kind));
+            }
+        }
+    }
+}
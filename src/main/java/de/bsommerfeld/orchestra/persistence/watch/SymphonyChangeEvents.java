@@ -0,0 +1,46 @@
+package de.bsommerfeld.orchestra.persistence.watch;
+
+import com.google.inject.Singleton;
+import de.bsommerfeld.orchestra.persistence.event.Listeners;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers {@link SymphonyChangedEvent}s to the parts of the application that show a Symphony, so they can
+ * reload it when it was changed on disk. Listeners are called on the thread that detected the change and
+ * have to hand the event over to their own thread, e.g. the JavaFX application thread.
+ */
+@Singleton
+public class SymphonyChangeEvents {
+
+    private final Listeners<SymphonyChangedEvent> listeners = new Listeners<>();
+
+    /**
+     * Registers a listener for changes on disk.
+     *
+     * @param listener The listener to register
+     */
+    public void addListener(Consumer<SymphonyChangedEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(Consumer<SymphonyChangedEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to all registered listeners.
+     * An exception thrown by a listener is reported to the uncaught exception handler of the current thread and
+     * does not keep the event from the other listeners.
+     *
+     * @param event The event to deliver
+     */
+    public void publish(SymphonyChangedEvent event) {
+        listeners.publish(event);
+    }
+}
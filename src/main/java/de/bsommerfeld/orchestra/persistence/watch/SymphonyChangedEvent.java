@@ -0,0 +1,27 @@
+package de.bsommerfeld.orchestra.persistence.watch;
+
+/**
+ * Reports that a Symphony was changed on disk by another process, e.g. a second Orchestra instance or a
+ * file synchronization tool.
+ *
+ * @param title The title of the changed Symphony
+ * @param kind Whether the Symphony was modified or deleted
+ */
+public record SymphonyChangedEvent(String title, Kind kind) {
+
+    /**
+     * The kind of change.
+     */
+    public enum Kind {
+
+        /**
+         * The Symphony was created or its content changed.
+         */
+        MODIFIED,
+
+        /**
+         * The Symphony was deleted.
+         */
+        DELETED
+    }
+}
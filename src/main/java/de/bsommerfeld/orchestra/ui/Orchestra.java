@@ -4,6 +4,8 @@ import atlantafx.base.theme.PrimerLight;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import de.bsommerfeld.orchestra.guice.OrchestraModule;
+import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.service.AsyncSymphonyService;
 import de.bsommerfeld.orchestra.ui.controller.TaskController;
 import de.bsommerfeld.orchestra.ui.view.StageProvider;
 import de.bsommerfeld.orchestra.ui.view.ViewProvider;
@@ -40,4 +42,11 @@ public class Orchestra extends Application {
         // Alternative approach using StageProvider:
         // stageProvider.showView("primary", ProjectSelectionController.class, "Orchestra - Project Selection");
     }
+
+    @Override
+    public void stop() {
+        // Let running symphony operations finish, then make sure queued writes reach the disk before the JVM exits
+        injector.getInstance(AsyncSymphonyService.class).close();
+        injector.getInstance(SymphonyRepository.class).flush();
+    }
 }
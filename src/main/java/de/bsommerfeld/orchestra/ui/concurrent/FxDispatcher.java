@@ -0,0 +1,66 @@
+package de.bsommerfeld.orchestra.ui.concurrent;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Hands the results of background work over to the JavaFX Application Thread, which is the only thread allowed to
+ * touch the scene graph.
+ *
+ * <pre>{@code
+ * FxDispatcher.deliver(asyncSymphonyService.getSymphony(title),
+ *         symphony -> titleLabel.setText(symphony.orElseThrow().getTitle()),
+ *         error -> showError(error.getMessage()));
+ * }</pre>
+ */
+public final class FxDispatcher {
+
+    /**
+     * Runs a task on the JavaFX Application Thread: directly if it is called from there, otherwise with
+     * {@link Platform#runLater(Runnable)}.
+     */
+    public static final Executor FX_THREAD = task -> {
+        if (Platform.isFxApplicationThread()) {
+            task.run();
+        } else {
+            Platform.runLater(task);
+        }
+    };
+
+    private FxDispatcher() {
+        // Utility class
+    }
+
+    /**
+     * Passes the result of a background operation to one of two callbacks on the JavaFX Application Thread once
+     * the operation is done.
+     *
+     * @param stage The operation
+     * @param onSuccess Is called with the result if the operation succeeded
+     * @param onFailure Is called with the exception the operation failed with, not wrapped in a
+     *                  {@link CompletionException}
+     * @param <T> The type of the result
+     */
+    public static <T> void deliver(CompletionStage<T> stage, Consumer<? super T> onSuccess,
+                                   Consumer<? super Throwable> onFailure) {
+        stage.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(unwrap(error));
+            }
+        }, FX_THREAD);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
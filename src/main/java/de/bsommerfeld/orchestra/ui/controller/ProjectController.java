@@ -4,18 +4,27 @@ import com.google.inject.Inject;
 import de.bsommerfeld.orchestra.model.Choir;
 import de.bsommerfeld.orchestra.model.Symphony;
 import de.bsommerfeld.orchestra.model.Voice;
-import de.bsommerfeld.orchestra.persistence.service.SymphonyService;
+import de.bsommerfeld.orchestra.model.diff.TreeDiff;
+import de.bsommerfeld.orchestra.model.diff.TreeEdit;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEvent;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEventBus;
+import de.bsommerfeld.orchestra.persistence.service.AsyncSymphonyService;
+import de.bsommerfeld.orchestra.persistence.watch.SymphonyChangeEvents;
+import de.bsommerfeld.orchestra.persistence.watch.SymphonyChangedEvent;
+import de.bsommerfeld.orchestra.ui.concurrent.FxDispatcher;
+import de.bsommerfeld.orchestra.ui.tree.LazyTreeItem;
+import de.bsommerfeld.orchestra.ui.tree.VoiceTreeCell;
 import de.bsommerfeld.orchestra.ui.view.StageProvider;
 import de.bsommerfeld.orchestra.ui.view.View;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.fxml.FXML;
-import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.Dragboard;
 import javafx.scene.input.TransferMode;
-import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
 import java.util.ArrayList;
@@ -24,21 +33,33 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 
 /**
  * Controller for the project view.
  * Displays a Symphony (project) with its Choirs and Voices in a tree structure.
  * Allows for drag and drop of Voices and updates the Symphony live.
+ * Loading and saving run in the background through the {@link AsyncSymphonyService}, so the UI stays
+ * responsive. Saved changes arrive as {@link SymphonyEvent}s, which are turned into the edits of the tree; a
+ * Symphony that does not directly follow the shown one is compared with it by a {@link TreeDiff} instead. Only
+ * the tree items of the changed nodes are updated, looked up by id, instead of rebuilding the whole tree. The
+ * items of Voices are only created when their parent is expanded, see {@link LazyTreeItem}, so opening a large
+ * project only creates the items that can be seen.
  */
 @View
 public class ProjectController {
 
     private final StageProvider stageProvider;
-    private final SymphonyService symphonyService;
+    private final AsyncSymphonyService symphonyService;
+    private final SymphonyChangeEvents symphonyChangeEvents;
+    private final SymphonyEventBus symphonyEventBus;
     
-    private Symphony symphony;
+    // The Symphony the tree items currently show
+    private final ShownSymphony shown = new ShownSymphony();
     private String projectName;
+    private Consumer<SymphonyChangedEvent> changeListener;
+    private Consumer<List<SymphonyEvent>> saveListener;
     
     @FXML
     private Label projectTitleLabel;
@@ -58,14 +79,16 @@ public class ProjectController {
     @FXML
     private TreeView<String> voicesTreeView;
     
-    // Map to store the relationship between tree items and model objects
-    private final Map<TreeItem<String>, Object> itemToModelMap = new HashMap<>();
-    private final Map<String, TreeItem<String>> pathToItemMap = new HashMap<>();
+    // The items of the Choirs and Voices that have been created so far, by id
+    private final Map<String, LazyTreeItem> idToItemMap = new HashMap<>();
     
     @Inject
-    public ProjectController(StageProvider stageProvider, SymphonyService symphonyService) {
+    public ProjectController(StageProvider stageProvider, AsyncSymphonyService symphonyService,
+                             SymphonyChangeEvents symphonyChangeEvents, SymphonyEventBus symphonyEventBus) {
         this.stageProvider = stageProvider;
         this.symphonyService = symphonyService;
+        this.symphonyChangeEvents = symphonyChangeEvents;
+        this.symphonyEventBus = symphonyEventBus;
     }
     
     /**
@@ -82,6 +105,9 @@ public class ProjectController {
         
         // Set up drag and drop
         setupDragAndDrop();
+        
+        // Use a custom cell factory to display checkboxes
+        setupCellFactory();
     }
     
     /**
@@ -91,10 +117,10 @@ public class ProjectController {
         // Set up drag detection
         voicesTreeView.setOnDragDetected(event -> {
             TreeItem<String> selectedItem = voicesTreeView.getSelectionModel().getSelectedItem();
-            if (selectedItem != null && itemToModelMap.get(selectedItem) instanceof Voice) {
+            if (selectedItem != null && modelOf(selectedItem) instanceof Voice voice) {
                 Dragboard db = voicesTreeView.startDragAndDrop(TransferMode.MOVE);
                 ClipboardContent content = new ClipboardContent();
-                content.putString(selectedItem.getValue());
+                content.putString(voice.getId());
                 db.setContent(content);
                 event.consume();
             }
@@ -117,8 +143,8 @@ public class ProjectController {
             boolean success = false;
             
             if (db.hasString()) {
-                String sourcePath = db.getString();
-                TreeItem<String> sourceItem = pathToItemMap.get(sourcePath);
+                String sourceId = db.getString();
+                TreeItem<String> sourceItem = idToItemMap.get(sourceId);
                 TreeItem<String> targetItem = voicesTreeView.getSelectionModel().getSelectedItem();
                 
                 if (sourceItem != null && targetItem != null) {
@@ -141,278 +167,113 @@ public class ProjectController {
      */
     private void handleDrop(TreeItem<String> sourceItem, TreeItem<String> targetItem) {
         // Get the model objects
-        Object sourceModel = itemToModelMap.get(sourceItem);
-        Object targetModel = itemToModelMap.get(targetItem);
+        Object sourceModel = modelOf(sourceItem);
+        Object targetModel = modelOf(targetItem);
         
         // Only allow dropping Voice onto Voice or Choir
-        if (sourceModel instanceof Voice) {
-            Voice sourceVoice = (Voice) sourceModel;
-            
-            // Remove from parent
-            TreeItem<String> sourceParent = sourceItem.getParent();
-            sourceParent.getChildren().remove(sourceItem);
-            
-            // Add to target
-            targetItem.getChildren().add(sourceItem);
-            targetItem.setExpanded(true);
-            
-            // Update the model
-            updateModelAfterDrop(sourceVoice, sourceParent, targetItem);
-            
-            // Save changes
-            symphonyService.updateSymphony(symphony);
+        String targetId = null;
+        if (targetModel instanceof Choir targetChoir) {
+            targetId = targetChoir.getId();
+        } else if (targetModel instanceof Voice targetVoice) {
+            targetId = targetVoice.getId();
+        }
+        
+        if (sourceModel instanceof Voice sourceVoice && targetId != null) {
+            // Move the Voice by its id, so Voices with the same title cannot be mixed up
+            // The item is moved in the tree when the VoiceMoved event arrives
+            // Show an error message if the Voice cannot be moved there, e.g. into itself
+            reportFailure(symphonyService.moveVoice(shown.get().getTitle(), sourceVoice.getId(), targetId),
+                    "Failed to move task: ");
         }
     }
     
     /**
-     * Updates the model after a drag and drop operation.
+     * Loads a Symphony (project) by name.
      * 
-     * @param sourceVoice the Voice being moved
-     * @param sourceParent the parent TreeItem of the source
-     * @param targetItem the target TreeItem
+     * @param projectName the name of the project to load
      */
-    private void updateModelAfterDrop(Voice sourceVoice, TreeItem<String> sourceParent, TreeItem<String> targetItem) {
-        // Get the target model object
-        Object targetModel = itemToModelMap.get(targetItem);
-        Object sourceParentModel = itemToModelMap.get(sourceParent);
+    public void loadProject(String projectName) {
+        this.projectName = projectName;
         
-        // Handle different target types
-        if (targetModel instanceof Choir) {
-            // Moving Voice to a Choir
-            Choir targetChoir = (Choir) targetModel;
-            
-            // Remove the Voice from its current parent
-            if (sourceParentModel instanceof Choir) {
-                // Remove from source Choir
-                Choir sourceChoir = (Choir) sourceParentModel;
-                symphony = symphonyService.removeVoice(symphony.getTitle(), sourceChoir.getName(), sourceVoice.getTitle());
-                
-                // Add to target Choir
-                symphony = symphonyService.addVoice(symphony.getTitle(), targetChoir.getName(), sourceVoice);
-            } else if (sourceParentModel instanceof Voice) {
-                // Remove from source Voice (parent Voice)
-                Voice parentVoice = (Voice) sourceParentModel;
-                
-                // Create a new list of subVoices without the source Voice
-                List<Voice> updatedSubVoices = parentVoice.getSubVoices().stream()
-                        .filter(v -> !v.getTitle().equals(sourceVoice.getTitle()))
-                        .collect(Collectors.toList());
-                
-                // Create a new parent Voice without the source Voice
-                Voice updatedParentVoice = new Voice(
-                        parentVoice.getTitle(),
-                        parentVoice.getDescription().orElse(null),
-                        updatedSubVoices,
-                        parentVoice.isCompleted()
-                );
-                
-                // Find the Choir containing the parent Voice and update it
-                for (Choir choir : symphony.getChoirs()) {
-                    updateVoiceInChoir(choir, parentVoice, updatedParentVoice);
-                }
-                
-                // Add the source Voice to the target Choir
-                symphony = symphonyService.addVoice(symphony.getTitle(), targetChoir.getName(), sourceVoice);
+        // Reload the project when it is changed on disk by another instance or a sync tool
+        if (changeListener != null) {
+            symphonyChangeEvents.removeListener(changeListener);
+        }
+        changeListener = event -> Platform.runLater(() -> onSymphonyChanged(event));
+        symphonyChangeEvents.addListener(changeListener);
+        
+        // Apply the changes saved through the SymphonyService, by this view or any other
+        if (saveListener != null) {
+            symphonyEventBus.removeSaveListener(saveListener);
+        }
+        saveListener = events -> {
+            if (events.get(0).symphonyTitle().equals(projectName)) {
+                Platform.runLater(() -> onSymphonySaved(events));
             }
-        } else if (targetModel instanceof Voice) {
-            // Moving Voice to another Voice
-            Voice targetVoice = (Voice) targetModel;
-            
-            // Remove the Voice from its current parent
-            if (sourceParentModel instanceof Choir) {
-                // Remove from source Choir
-                Choir sourceChoir = (Choir) sourceParentModel;
-                symphony = symphonyService.removeVoice(symphony.getTitle(), sourceChoir.getName(), sourceVoice.getTitle());
-                
-                // Add to target Voice's subVoices
-                // Create a new list with the existing subVoices plus the new one
-                List<Voice> updatedSubVoices = new ArrayList<>(targetVoice.getSubVoices());
-                updatedSubVoices.add(sourceVoice);
-                
-                // Create a new Voice with the updated subVoices
-                Voice updatedTargetVoice = new Voice(
-                        targetVoice.getTitle(),
-                        targetVoice.getDescription().orElse(null),
-                        updatedSubVoices,
-                        targetVoice.isCompleted()
-                );
-                
-                // Find the Choir containing the target Voice and update it
-                for (Choir choir : symphony.getChoirs()) {
-                    updateVoiceInChoir(choir, targetVoice, updatedTargetVoice);
-                }
-            } else if (sourceParentModel instanceof Voice) {
-                // Remove from source Voice (parent Voice)
-                Voice parentVoice = (Voice) sourceParentModel;
-                
-                // Create a new list of subVoices without the source Voice
-                List<Voice> updatedSourceSubVoices = parentVoice.getSubVoices().stream()
-                        .filter(v -> !v.getTitle().equals(sourceVoice.getTitle()))
-                        .collect(Collectors.toList());
-                
-                // Create a new parent Voice without the source Voice
-                Voice updatedParentVoice = new Voice(
-                        parentVoice.getTitle(),
-                        parentVoice.getDescription().orElse(null),
-                        updatedSourceSubVoices,
-                        parentVoice.isCompleted()
-                );
-
-                // Create a new list with the target Voice's existing subVoices plus the new one
-                List<Voice> updatedTargetSubVoices = new ArrayList<>(targetVoice.getSubVoices());
-                updatedTargetSubVoices.add(sourceVoice);
-                
-                // Create a new target Voice with the updated subVoices
-                Voice updatedTargetVoice = new Voice(
-                        targetVoice.getTitle(),
-                        targetVoice.getDescription().orElse(null),
-                        updatedTargetSubVoices,
-                        targetVoice.isCompleted()
-                );
+        };
+        symphonyEventBus.addSaveListener(saveListener);
+        
+        // Load the Symphony from the SymphonyService in the background
+        FxDispatcher.deliver(symphonyService.getSymphony(projectName), symphonyOpt -> {
+            if (symphonyOpt.isPresent()) {
+                // Update the UI with the Symphony data
+                show(symphonyOpt.get());
+            } else {
+                // Handle the case where the Symphony doesn't exist
+                showError("Project not found: " + projectName);
                 
-                // Find the Choir containing the parent and target Voices and update them
-                for (Choir choir : symphony.getChoirs()) {
-                    updateVoiceInChoir(choir, parentVoice, updatedParentVoice);
-                    updateVoiceInChoir(choir, targetVoice, updatedTargetVoice);
-                }
+                // Close the stage
+                stageProvider.closeStage("project-" + projectName.replaceAll("\\s+", "-").toLowerCase());
             }
-        }
-        
-        // Save the updated Symphony
-        symphony = symphonyService.updateSymphony(symphony);
+        }, error -> showError("Failed to load project: " + error.getMessage()));
     }
     
     /**
-     * Helper method to update a Voice in a Choir or in another Voice's subVoices.
+     * Handles a change of a Symphony on disk.
+     * Reloads the project if it was modified and closes it if it was deleted.
      * 
-     * @param choir the Choir to search in
-     * @param oldVoice the Voice to replace
-     * @param newVoice the new Voice
-     * @return true if the Voice was found and updated, false otherwise
+     * @param event the change event
      */
-    private boolean updateVoiceInChoir(Choir choir, Voice oldVoice, Voice newVoice) {
-        // Check if the Voice is directly in the Choir
-        for (int i = 0; i < choir.getVoices().size(); i++) {
-            Voice voice = choir.getVoices().get(i);
-            if (voice.getTitle().equals(oldVoice.getTitle())) {
-                // Create a new list with the updated Voice
-                List<Voice> updatedVoices = new ArrayList<>(choir.getVoices());
-                updatedVoices.set(i, newVoice);
-                
-                // Create a new Choir with the updated Voices
-                Choir updatedChoir = new Choir(
-                        choir.getName(),
-                        choir.getDescription().orElse(null),
-                        updatedVoices
-                );
-                
-                // Create a new list of Choirs with the updated Choir
-                List<Choir> updatedChoirs = symphony.getChoirs().stream()
-                        .map(c -> c.getName().equals(choir.getName()) ? updatedChoir : c)
-                        .collect(Collectors.toList());
-                
-                // Create a new Symphony with the updated Choirs
-                symphony = new Symphony(
-                        symphony.getTitle(),
-                        symphony.getDescription().orElse(null),
-                        updatedChoirs
-                );
-                
-                return true;
-            }
-            
-            // Recursively check in the Voice's subVoices
-            if (updateVoiceInSubVoices(choir, voice, oldVoice, newVoice)) {
-                return true;
-            }
+    private void onSymphonyChanged(SymphonyChangedEvent event) {
+        if (removeListenersIfClosed()) {
+            return;
+        }
+        if (shown.get() == null || !event.title().equals(shown.get().getTitle())) {
+            return;
         }
         
-        return false;
+        if (event.kind() == SymphonyChangedEvent.Kind.MODIFIED) {
+            // The file was written by another process, so its version says nothing about the shown one
+            FxDispatcher.deliver(symphonyService.getSymphony(projectName),
+                    reloaded -> reloaded.ifPresent(symphony -> updateUI(shown.replace(symphony))),
+                    error -> showError("Failed to reload project: " + error.getMessage()));
+        } else {
+            closeDeletedProject("Project was deleted on disk: " + projectName);
+        }
     }
     
     /**
-     * Helper method to update a Voice in another Voice's subVoices.
+     * Handles a save made through the SymphonyService.
+     * Applies its events to the tree, which only touches the tree items and buttons of the changed nodes.
      * 
-     * @param choir the Choir containing the parent Voice
-     * @param parentVoice the parent Voice to search in
-     * @param oldVoice the Voice to replace
-     * @param newVoice the new Voice
-     * @return true if the Voice was found and updated, false otherwise
+     * @param events the events of the save
      */
-    private boolean updateVoiceInSubVoices(Choir choir, Voice parentVoice, Voice oldVoice, Voice newVoice) {
-        // Check if the Voice is in the parent Voice's subVoices
-        for (int i = 0; i < parentVoice.getSubVoices().size(); i++) {
-            Voice subVoice = parentVoice.getSubVoices().get(i);
-            if (subVoice.getTitle().equals(oldVoice.getTitle())) {
-                // Create a new list with the updated Voice
-                List<Voice> updatedSubVoices = new ArrayList<>(parentVoice.getSubVoices());
-                updatedSubVoices.set(i, newVoice);
-                
-                // Create a new parent Voice with the updated subVoices
-                Voice updatedParentVoice = new Voice(
-                        parentVoice.getTitle(),
-                        parentVoice.getDescription().orElse(null),
-                        updatedSubVoices,
-                        parentVoice.isCompleted()
-                );
-                
-                // Update the parent Voice in the Choir
-                updateVoiceInChoir(choir, parentVoice, updatedParentVoice);
-                
-                return true;
-            }
-            
-            // Recursively check in the subVoice's subVoices
-            if (updateVoiceInSubVoices(choir, subVoice, oldVoice, newVoice)) {
-                return true;
-            }
+    private void onSymphonySaved(List<SymphonyEvent> events) {
+        if (removeListenersIfClosed() || shown.get() == null) {
+            // Closed, or not loaded yet, in which case the loaded Symphony includes the change
+            return;
         }
         
-        return false;
-    }
-    
-    /**
-     * Updates a Voice in the model.
-     * 
-     * @param oldVoice the Voice to replace
-     * @param newVoice the new Voice
-     */
-    private void updateVoiceInModel(Voice oldVoice, Voice newVoice) {
-        // Check each Choir for the Voice
-        for (Choir choir : symphony.getChoirs()) {
-            if (updateVoiceInChoir(choir, oldVoice, newVoice)) {
+        List<SymphonyEvent.Change> changes = new ArrayList<>();
+        for (SymphonyEvent event : events) {
+            if (event instanceof SymphonyEvent.Change change) {
+                changes.add(change);
+            } else {
+                closeDeletedProject("Project was deleted: " + projectName);
                 return;
             }
         }
-    }
-    
-    /**
-     * Loads a Symphony (project) by name.
-     * 
-     * @param projectName the name of the project to load
-     */
-    public void loadProject(String projectName) {
-        this.projectName = projectName;
-        
-        // Load the Symphony from the SymphonyService
-        Optional<Symphony> symphonyOpt = symphonyService.getSymphony(projectName);
-        
-        if (symphonyOpt.isPresent()) {
-            symphony = symphonyOpt.get();
-            
-            // Update the UI with the Symphony data
-            updateUI();
-        } else {
-            // Handle the case where the Symphony doesn't exist
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText(null);
-            alert.setContentText("Project not found: " + projectName);
-            alert.showAndWait();
-            
-            // Close the stage
-            stageProvider.closeStage("project-" + projectName.replaceAll("\\s+", "-").toLowerCase());
-        }
+        shown.saved(changes).ifPresent(this::updateUI);
     }
     
     /**
@@ -429,41 +290,46 @@ public class ProjectController {
         Optional<String> result = dialog.showAndWait();
         result.ifPresent(choirName -> {
             if (!choirName.trim().isEmpty()) {
-                try {
-                    // Create a new Choir with the given name and no description
-                    Choir newChoir = new Choir(choirName, null, Collections.emptyList());
-                    
-                    // Add the Choir to the Symphony
-                    symphony = symphonyService.addChoir(symphony.getTitle(), newChoir);
-                    
-                    // Update the UI
-                    updateUI();
-                    
-                    // Show a confirmation message
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("List Created");
-                    alert.setHeaderText(null);
-                    alert.setContentText("List '" + choirName + "' has been created successfully.");
-                    alert.showAndWait();
-                } catch (IllegalArgumentException e) {
-                    // Show an error message if the list already exists
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setHeaderText(null);
-                    alert.setContentText("Failed to create list: " + e.getMessage());
-                    alert.showAndWait();
-                }
+                // Create a new Choir with the given name and no description
+                Choir newChoir = new Choir(choirName, null, Collections.emptyList());
+                
+                // Add the Choir to the Symphony
+                // The UI is updated when the ChoirAdded event arrives
+                FxDispatcher.deliver(symphonyService.addChoir(shown.get().getTitle(), newChoir),
+                        updated -> {
+                            // Show a confirmation message
+                            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                            alert.setTitle("List Created");
+                            alert.setHeaderText(null);
+                            alert.setContentText("List '" + choirName + "' has been created successfully.");
+                            alert.showAndWait();
+                        },
+                        // Show an error message if the list already exists
+                        error -> showError("Failed to create list: " + error.getMessage()));
             }
         });
     }
     
     /**
-     * Updates the UI with the Symphony data.
+     * Updates the UI with the data of the shown Symphony.
+     * If the tree already shows a Symphony, only the items of the nodes that changed since are updated, so
+     * expanded items, the selection and the scroll position stay as they are.
+     * 
+     * @param edits the edits from the Symphony the tree showed before to the shown one
      */
-    private void updateUI() {
-        // Clear maps
-        itemToModelMap.clear();
-        pathToItemMap.clear();
+    private void updateUI(List<TreeEdit> edits) {
+        Symphony symphony = shown.get();
+        if (voicesTreeView.getRoot() != null) {
+            // Set the project title and description
+            projectTitleLabel.setText(symphony.getTitle());
+            projectDescriptionLabel.setText(symphony.getDescription().orElse(""));
+            
+            applyEdits(edits);
+            return;
+        }
+        
+        // Clear the map
+        idToItemMap.clear();
         
         // Set the project title and description
         projectTitleLabel.setText(symphony.getTitle());
@@ -474,250 +340,331 @@ public class ProjectController {
         
         // Add each Choir to the choirs list
         for (Choir choir : symphony.getChoirs()) {
-            Button choirButton = new Button(choir.getName());
-            choirButton.getStyleClass().add("choir-button");
-            choirButton.setMaxWidth(Double.MAX_VALUE);
-            choirButton.setOnAction(event -> {
-                // Select the choir in the TreeView
-                for (TreeItem<String> item : voicesTreeView.getRoot().getChildren()) {
-                    if (item.getValue().equals(choir.getName())) {
-                        voicesTreeView.getSelectionModel().select(item);
-                        break;
-                    }
-                }
-            });
-            choirsList.getChildren().add(choirButton);
+            choirsList.getChildren().add(createChoirButton(choir));
         }
         
         // Create the root item for the TreeView
         TreeItem<String> root = new TreeItem<>(symphony.getTitle());
         root.setExpanded(true);
-        itemToModelMap.put(root, symphony);
-        pathToItemMap.put(symphony.getTitle(), root);
         
-        // Add each Choir and its Voices to the TreeView
+        // Add each Choir to the TreeView; the items of the Voices are created when they are shown
         for (Choir choir : symphony.getChoirs()) {
-            // Create a TreeItem for the Choir
-            TreeItem<String> choirItem = new TreeItem<>(choir.getName());
-            choirItem.setExpanded(true);
-            root.getChildren().add(choirItem);
-            
-            // Store the mapping
-            itemToModelMap.put(choirItem, choir);
-            pathToItemMap.put(choir.getName(), choirItem);
-            
-            // Add each Voice in the Choir to the TreeView
-            for (Voice voice : choir.getVoices()) {
-                addVoiceToTreeItem(choirItem, voice, choir.getName());
-            }
+            root.getChildren().add(createItem(choir));
         }
         
         // Set the root item for the TreeView
         voicesTreeView.setRoot(root);
-        
-        // Use a custom cell factory to display checkboxes
-        voicesTreeView.setCellFactory(tv -> {
-            TreeCell<String> cell = new TreeCell<String>() {
-                private final CheckBox checkBox = new CheckBox();
-                
-                @Override
-                protected void updateItem(String item, boolean empty) {
-                    super.updateItem(item, empty);
-                    
-                    if (empty || item == null) {
-                        setText(null);
-                        setGraphic(null);
-                        getStyleClass().remove("root-tree-cell");
-                    } else {
-                        // Set the text
-                        setText(item);
-                        
-                        // Get the tree item and its level
-                        TreeItem<String> treeItem = getTreeItem();
-                        int level = 0;
-                        if (treeItem != null) {
-                            // Calculate the level of this tree item
-                            TreeItem<String> parent = treeItem.getParent();
-                            while (parent != null) {
-                                level++;
-                                parent = parent.getParent();
-                            }
-                            
-                            // Add or remove the root-tree-cell style class based on level
-                            if (level <= 1) {
-                                // This is a root or first-level item, add the style class
-                                if (!getStyleClass().contains("root-tree-cell")) {
-                                    getStyleClass().add("root-tree-cell");
-                                }
-                            } else {
-                                // This is a deeper level item, remove the style class
-                                getStyleClass().remove("root-tree-cell");
-                            }
-                            
-                            // Only show checkboxes for Voice items, not Symphony or Choir
-                            if (itemToModelMap.get(treeItem) instanceof Voice) {
-                                Voice voice = (Voice) itemToModelMap.get(treeItem);
-                                
-                                // Configure the checkbox based on the Voice's completed status
-                                checkBox.setSelected(voice.isCompleted());
-                                
-                                // Add listener to update the model when checkbox state changes
-                                checkBox.setOnAction(event -> {
-                                    if (symphony != null) {
-                                        boolean isChecked = checkBox.isSelected();
-                                        
-                                        // Create a new Voice with the updated completed status
-                                        Voice updatedVoice = voice.withCompleted(isChecked);
-                                        
-                                        // Update the Voice in the model
-                                        updateVoiceInModel(voice, updatedVoice);
-                                        
-                                        // Update the mapping
-                                        itemToModelMap.put(treeItem, updatedVoice);
-                                        
-                                        // Save the updated Symphony
-                                        symphony = symphonyService.updateSymphony(symphony);
-                                    }
-                                });
-                                
-                                // Create a container for the checkbox and add button
-                                HBox container = new HBox(5);
-                                container.setAlignment(Pos.CENTER_LEFT);
-                                
-                                // Add the checkbox to the container
-                                container.getChildren().add(checkBox);
-                                
-                                // Add a '+' button to add a new Voice
-                                Button addButton = new Button("+");
-                                addButton.getStyleClass().add("add-voice-button");
-                                addButton.setOnAction(event -> {
-                                    // Open a dialog to get the new Voice title
-                                    TextInputDialog dialog = new TextInputDialog();
-                                    dialog.setTitle("New Task");
-                                    dialog.setHeaderText("Create a new task");
-                                    dialog.setContentText("Please enter the task title:");
-                                    
-                                    Optional<String> result = dialog.showAndWait();
-                                    result.ifPresent(voiceTitle -> {
-                                        if (!voiceTitle.trim().isEmpty()) {
-                                            try {
-                                                // Create a new Voice with the given title and no description
-                                                Voice newVoice = new Voice(voiceTitle, null, Collections.emptyList());
-                                                
-                                                // Add the Voice to the parent Voice's subVoices
-                                                Voice parentVoice = (Voice) itemToModelMap.get(treeItem);
-                                                
-                                                // Create a new list with the existing subVoices plus the new one
-                                                List<Voice> updatedSubVoices = new ArrayList<>(parentVoice.getSubVoices());
-                                                updatedSubVoices.add(newVoice);
-                                                
-                                                // Create a new parent Voice with the updated subVoices
-                                                Voice updatedParentVoice = new Voice(
-                                                        parentVoice.getTitle(),
-                                                        parentVoice.getDescription().orElse(null),
-                                                        updatedSubVoices,
-                                                        parentVoice.isCompleted()
-                                                );
-                                                
-                                                // Update the parent Voice in the model
-                                                updateVoiceInModel(parentVoice, updatedParentVoice);
-                                                
-                                                // Save the updated Symphony
-                                                symphony = symphonyService.updateSymphony(symphony);
-                                                
-                                                // Update the UI
-                                                updateUI();
-                                            } catch (IllegalArgumentException e) {
-                                                // Show an error message if the Voice already exists
-                                                Alert alert = new Alert(Alert.AlertType.ERROR);
-                                                alert.setTitle("Error");
-                                                alert.setHeaderText(null);
-                                                alert.setContentText("Failed to create task: " + e.getMessage());
-                                                alert.showAndWait();
-                                            }
-                                        }
-                                    });
-                                });
-                                
-                                // Add the button to the container
-                                container.getChildren().add(addButton);
-                                
-                                // Set the graphic to the container
-                                setGraphic(container);
-                            } else if (itemToModelMap.get(treeItem) instanceof Choir) {
-                                // For Choir items, add a '+' button to add a new Voice
-                                Button addButton = new Button("+");
-                                addButton.getStyleClass().add("add-voice-button");
-                                addButton.setOnAction(event -> {
-                                    // Open a dialog to get the new Voice title
-                                    TextInputDialog dialog = new TextInputDialog();
-                                    dialog.setTitle("New Task");
-                                    dialog.setHeaderText("Create a new task");
-                                    dialog.setContentText("Please enter the task title:");
-                                    
-                                    Optional<String> result = dialog.showAndWait();
-                                    result.ifPresent(voiceTitle -> {
-                                        if (!voiceTitle.trim().isEmpty()) {
-                                            try {
-                                                // Create a new Voice with the given title and no description
-                                                Voice newVoice = new Voice(voiceTitle, null, Collections.emptyList());
-                                                
-                                                // Add the Voice to the Choir
-                                                Choir choir = (Choir) itemToModelMap.get(treeItem);
-                                                symphony = symphonyService.addVoice(symphony.getTitle(), choir.getName(), newVoice);
-                                                
-                                                // Update the UI
-                                                updateUI();
-                                            } catch (IllegalArgumentException e) {
-                                                // Show an error message if the Voice already exists
-                                                Alert alert = new Alert(Alert.AlertType.ERROR);
-                                                alert.setTitle("Error");
-                                                alert.setHeaderText(null);
-                                                alert.setContentText("Failed to create task: " + e.getMessage());
-                                                alert.showAndWait();
-                                            }
-                                        }
-                                    });
-                                });
-                                
-                                // Set the graphic to the button
-                                setGraphic(addButton);
-                            } else {
-                                // No graphic for Symphony
-                                setGraphic(null);
-                            }
+    }
+    
+    /**
+     * Applies {@link TreeEdit}s, from the events of a save or a {@link TreeDiff}, to the tree items and the
+     * choir buttons.
+     * Edits below items whose children have not been created are skipped, as those children are created from
+     * the new nodes once they are needed.
+     * 
+     * @param edits the edits, in order
+     */
+    private void applyEdits(List<TreeEdit> edits) {
+        Symphony symphony = shown.get();
+        TreeItem<String> root = voicesTreeView.getRoot();
+        List<LazyTreeItem> parentsToExpand = new ArrayList<>();
+        boolean voicesUpdated = false;
+        for (TreeEdit edit : edits) {
+            switch (edit) {
+                case TreeEdit.Remove remove -> {
+                    choirsList.getChildren().removeIf(button -> remove.id().equals(button.getUserData()));
+                    removeTreeItem(remove.id());
+                }
+                case TreeEdit.InsertChoir insert -> {
+                    choirsList.getChildren().add(insert.index(), createChoirButton(insert.choir()));
+                    root.getChildren().add(insert.index(), createItem(insert.choir()));
+                }
+                case TreeEdit.InsertVoice insert -> {
+                    LazyTreeItem parentItem = idToItemMap.get(insert.parentId());
+                    if (parentItem != null) {
+                        if (parentItem.isLoaded()) {
+                            parentItem.getChildren().add(insert.index(), createItem(insert.voice()));
                         }
+                        parentsToExpand.add(parentItem);
                     }
                 }
-            };
-            
-            // Add CSS class for styling indentation lines
-            cell.getStyleClass().add("voice-tree-cell");
-            
-            return cell;
-        });
+                case TreeEdit.Move move when move.parentId() == null -> {
+                    LazyTreeItem item = idToItemMap.get(move.id());
+                    root.getChildren().remove(item);
+                    root.getChildren().add(move.index(), item);
+                    Node button = choirButton(move.id());
+                    choirsList.getChildren().remove(button);
+                    choirsList.getChildren().add(move.index(), button);
+                }
+                case TreeEdit.Move move -> {
+                    LazyTreeItem item = idToItemMap.get(move.id());
+                    LazyTreeItem parentItem = idToItemMap.get(move.parentId());
+                    boolean shown = parentItem != null && parentItem.isLoaded();
+                    if (item != null) {
+                        item.getParent().getChildren().remove(item);
+                        if (!shown) {
+                            forget(item);
+                        }
+                    }
+                    if (shown) {
+                        // A Voice from a part of the tree whose items were not created yet, e.g. a collapsed one,
+                        // is only found in the new Symphony
+                        parentItem.getChildren().add(move.index(), item != null ? item
+                                : createItem(symphony.index().findVoice(move.id()).orElseThrow()));
+                    }
+                    if (parentItem != null) {
+                        parentsToExpand.add(parentItem);
+                    }
+                }
+                case TreeEdit.UpdateChoir update ->
+                        ((Button) choirButton(update.choir().getId())).setText(update.choir().getName());
+                case TreeEdit.UpdateVoice update -> voicesUpdated = true;
+            }
+        }
+        
+        // Let the items show the new nodes, so their names, titles and children are up to date
+        for (Choir choir : symphony.getChoirs()) {
+            refreshNode(idToItemMap.get(choir.getId()), choir);
+        }
+        for (LazyTreeItem parentItem : parentsToExpand) {
+            if (idToItemMap.get(parentItem.getId()) == parentItem) {
+                parentItem.setExpanded(true);
+            }
+        }
+        if (voicesUpdated) {
+            // Let the visible cells pick up a changed completion status, which is not part of the item value
+            voicesTreeView.refresh();
+        }
+    }
+    
+    /**
+     * Recursively replaces the nodes of an item and its loaded children with newer versions.
+     * Unchanged subtrees are the same objects in both versions and are skipped.
+     * 
+     * @param item the item
+     * @param node the new version of its Choir or Voice
+     */
+    private void refreshNode(LazyTreeItem item, Object node) {
+        if (item.getNode() == node) {
+            return;
+        }
+        item.setNode(node);
+        List<TreeItem<String>> children = item.getLoadedChildren();
+        List<Voice> voices = node instanceof Choir choir ? choir.getVoices() : ((Voice) node).getSubVoices();
+        for (int i = 0; i < children.size(); i++) {
+            refreshNode((LazyTreeItem) children.get(i), voices.get(i));
+        }
     }
     
     /**
-     * Recursively adds a Voice and its subVoices to a TreeItem.
+     * Returns the button of a Choir in the choirs list.
      * 
-     * @param parent the parent TreeItem to add the Voice to
-     * @param voice the Voice to add
-     * @param parentPath the path of the parent item
+     * @param choirId the id of the Choir
+     * @return the button
+     */
+    private Node choirButton(String choirId) {
+        return choirsList.getChildren().stream()
+                .filter(button -> choirId.equals(button.getUserData()))
+                .findFirst()
+                .orElseThrow();
+    }
+    
+    /**
+     * Sets up a custom cell factory to display checkboxes.
+     * The cells create their controls once and are reused while scrolling, see {@link VoiceTreeCell}.
      */
-    private void addVoiceToTreeItem(TreeItem<String> parent, Voice voice, String parentPath) {
-        // Create a TreeItem for the Voice
-        String path = parentPath + "/" + voice.getTitle();
-        TreeItem<String> voiceItem = new TreeItem<>(voice.getTitle());
-        parent.getChildren().add(voiceItem);
+    private void setupCellFactory() {
+        voicesTreeView.setCellFactory(tv -> new VoiceTreeCell(this::modelOf, this::onVoiceCompletedChanged, this::onAddVoice));
+    }
+    
+    /**
+     * Saves the completed status of a Voice after its checkbox was clicked.
+     * The tree is updated when the VoiceCompletionChanged event arrives.
+     * 
+     * @param voice the Voice
+     * @param completed the new status
+     */
+    private void onVoiceCompletedChanged(Voice voice, boolean completed) {
+        if (shown.get() != null) {
+            FxDispatcher.deliver(symphonyService.setVoiceCompleted(shown.get().getTitle(), voice.getId(), completed),
+                    updated -> {
+                        // Nothing to do until the event arrives
+                    },
+                    error -> {
+                        // Let the cells show the unchanged status again if it could not be saved
+                        voicesTreeView.refresh();
+                        showError("Failed to update task: " + error.getMessage());
+                    });
+        }
+    }
+    
+    /**
+     * Opens a dialog to enter a task title and adds a new Voice to a Choir or Voice.
+     * 
+     * @param parent the Choir or Voice whose '+' button was clicked
+     */
+    private void onAddVoice(Object parent) {
+        // Open a dialog to get the new Voice title
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("New Task");
+        dialog.setHeaderText("Create a new task");
+        dialog.setContentText("Please enter the task title:");
         
-        // Store the mapping
-        itemToModelMap.put(voiceItem, voice);
-        pathToItemMap.put(path, voiceItem);
+        Optional<String> result = dialog.showAndWait();
+        result.ifPresent(voiceTitle -> {
+            if (!voiceTitle.trim().isEmpty()) {
+                // Create a new Voice with the given title and no description
+                Voice newVoice = new Voice(voiceTitle, null, Collections.emptyList());
+                
+                if (parent instanceof Voice parentVoice) {
+                    // Add the Voice to the parent Voice's subVoices
+                    reportFailure(symphonyService.addVoiceTo(shown.get().getTitle(), parentVoice.getId(), newVoice),
+                            "Failed to create task: ");
+                } else if (parent instanceof Choir choir) {
+                    // Add the Voice to the Choir
+                    reportFailure(symphonyService.addVoiceTo(shown.get().getTitle(), choir.getId(), newVoice),
+                            "Failed to create task: ");
+                }
+            }
+        });
+    }
+    
+    /**
+     * Shows an error message if an operation fails, e.g. because a Voice with the same title already exists.
+     * Its result is shown when its event arrives.
+     * 
+     * @param operation the operation
+     * @param message the start of the error message, followed by the message of the exception
+     */
+    private void reportFailure(CompletionStage<?> operation, String message) {
+        FxDispatcher.deliver(operation, result -> {
+        }, error -> showError(message + error.getMessage()));
+    }
+    
+    /**
+     * Shows a Symphony loaded or saved by this process, unless it is older than the shown one.
+     * Loads complete in the background, so a load can finish after a later change was already shown;
+     * the versions tell them apart.
+     * 
+     * @param loaded the loaded or saved Symphony
+     */
+    private void show(Symphony loaded) {
+        shown.offer(loaded).ifPresent(this::updateUI);
+    }
+    
+    /**
+     * Removes the listeners if the project view was closed.
+     * 
+     * @return true if the project view was closed
+     */
+    private boolean removeListenersIfClosed() {
+        if (voicesTreeView.getScene() == null || voicesTreeView.getScene().getWindow() == null
+                || !voicesTreeView.getScene().getWindow().isShowing()) {
+            symphonyChangeEvents.removeListener(changeListener);
+            symphonyEventBus.removeSaveListener(saveListener);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Tells the user that the project was deleted and closes the project view.
+     * 
+     * @param message the message to show
+     */
+    private void closeDeletedProject(String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Project Deleted");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
         
-        // Add each subVoice recursively
-        for (Voice subVoice : voice.getSubVoices()) {
-            addVoiceToTreeItem(voiceItem, subVoice, path);
+        symphonyChangeEvents.removeListener(changeListener);
+        symphonyEventBus.removeSaveListener(saveListener);
+        stageProvider.closeStage("project-" + projectName.replaceAll("\\s+", "-").toLowerCase());
+    }
+    
+    /**
+     * Shows an error message.
+     * 
+     * @param message the message to show
+     */
+    private void showError(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+    
+    /**
+     * Creates the button that selects a Choir in the TreeView.
+     * 
+     * @param choir the Choir
+     * @return the button, with the id of the Choir as user data
+     */
+    private Button createChoirButton(Choir choir) {
+        Button choirButton = new Button(choir.getName());
+        choirButton.getStyleClass().add("choir-button");
+        choirButton.setMaxWidth(Double.MAX_VALUE);
+        choirButton.setUserData(choir.getId());
+        choirButton.setOnAction(event -> {
+            // Select the choir in the TreeView
+            TreeItem<String> item = idToItemMap.get(choir.getId());
+            if (item != null) {
+                voicesTreeView.getSelectionModel().select(item);
+            }
+        });
+        return choirButton;
+    }
+    
+    /**
+     * Creates the item of a Choir or Voice, whose children are created when they are shown.
+     * 
+     * @param node the Choir or Voice
+     * @return the item
+     */
+    private LazyTreeItem createItem(Object node) {
+        LazyTreeItem item = new LazyTreeItem(node, this::createItem, this::forget);
+        idToItemMap.put(item.getId(), item);
+        // Choirs are expanded, so their Voices are shown right away
+        item.setExpanded(node instanceof Choir);
+        return item;
+    }
+    
+    /**
+     * Returns the model object of a TreeItem.
+     * 
+     * @param item the TreeItem
+     * @return the Choir or Voice of the item, or the Symphony for the root item
+     */
+    private Object modelOf(TreeItem<String> item) {
+        return item instanceof LazyTreeItem lazyItem ? lazyItem.getNode() : shown.get();
+    }
+    
+    /**
+     * Removes the TreeItem of a Choir or Voice, together with the items below it and their mappings.
+     * Does nothing if there is no such item.
+     * 
+     * @param id the id of the Choir or Voice
+     */
+    private void removeTreeItem(String id) {
+        LazyTreeItem item = idToItemMap.get(id);
+        if (item != null) {
+            item.getParent().getChildren().remove(item);
+            forget(item);
+        }
+    }
+    
+    /**
+     * Recursively removes the mappings of a TreeItem and the items below it that have been created.
+     * 
+     * @param item the TreeItem
+     */
+    private void forget(LazyTreeItem item) {
+        idToItemMap.remove(item.getId());
+        for (TreeItem<String> child : item.getLoadedChildren()) {
+            forget((LazyTreeItem) child);
         }
     }
 }
\ No newline at end of file
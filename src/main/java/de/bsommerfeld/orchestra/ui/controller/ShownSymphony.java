@@ -0,0 +1,108 @@
+package de.bsommerfeld.orchestra.ui.controller;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.diff.TreeDiff;
+import de.bsommerfeld.orchestra.model.diff.TreeEdit;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The Symphony a project view shows, and which of the Symphonies that arrive in the background replace it.
+ *
+ * <p>Loads and saves of this process complete in the background, so a load can finish after a later save was
+ * already shown; their versions tell them apart, and an older one is dropped. A Symphony reloaded because its
+ * file was changed by another process always replaces the shown one, whatever its version: a file that was
+ * edited elsewhere, or deleted and created again, can carry a lower or restarted version and is still the
+ * current state.
+ *
+ * <p>A save that directly follows the shown Symphony is described by its {@link SymphonyEvent}s, which are
+ * turned into the edits of the tree without comparing the two Symphonies. Any other Symphony is compared with
+ * the shown one by a {@link TreeDiff}.
+ */
+final class ShownSymphony {
+
+    private Symphony symphony;
+
+    /**
+     * Returns the shown Symphony.
+     *
+     * @return The Symphony, or null if none is shown yet
+     */
+    Symphony get() {
+        return symphony;
+    }
+
+    /**
+     * Shows a Symphony that was loaded or saved by this process, unless it is older than the shown one.
+     *
+     * @param loaded The loaded or saved Symphony
+     * @return The edits that turn the tree of the shown Symphony into that of the new one, empty if none was
+     * shown yet; or an empty Optional if the Symphony is older and was dropped
+     */
+    Optional<List<TreeEdit>> offer(Symphony loaded) {
+        if (symphony != null && loaded.getVersion() < symphony.getVersion()) {
+            return Optional.empty();
+        }
+        return Optional.of(replace(loaded));
+    }
+
+    /**
+     * Shows the Symphony saved by the events of one save, unless it is older than the shown one.
+     *
+     * @param changes The events of the save, in the order of the changes, which all carry the saved Symphony
+     * @return The edits that turn the tree of the shown Symphony into that of the saved one; or an empty
+     * Optional if the Symphony is older and was dropped
+     */
+    Optional<List<TreeEdit>> saved(List<? extends SymphonyEvent.Change> changes) {
+        Symphony saved = changes.get(0).symphony();
+        if (symphony == null || saved.getVersion() != symphony.getVersion() + 1) {
+            // Not the save of the shown Symphony, e.g. one that was loaded after the save or missed a save
+            return offer(saved);
+        }
+
+        List<TreeEdit> edits = new ArrayList<>();
+        for (SymphonyEvent.Change change : changes) {
+            switch (change) {
+                case SymphonyEvent.SymphonyCreated created -> {
+                    return Optional.of(replace(saved));
+                }
+                case SymphonyEvent.SymphonyReplaced replaced -> {
+                    return Optional.of(replace(saved));
+                }
+                case SymphonyEvent.DescriptionChanged changed -> {
+                    // Not part of the tree
+                }
+                case SymphonyEvent.ChoirAdded added -> edits.add(new TreeEdit.InsertChoir(added.index(), added.choir()));
+                case SymphonyEvent.ChoirRemoved removed -> edits.add(new TreeEdit.Remove(removed.choirId()));
+                case SymphonyEvent.VoiceAdded added ->
+                        edits.add(new TreeEdit.InsertVoice(added.parentId(), added.index(), added.voice()));
+                case SymphonyEvent.VoiceRemoved removed -> edits.add(new TreeEdit.Remove(removed.voiceId()));
+                case SymphonyEvent.VoiceMoved moved ->
+                        edits.add(new TreeEdit.Move(moved.voiceId(), moved.targetParentId(), moved.index()));
+                case SymphonyEvent.VoiceCompletionChanged changed ->
+                        // A Voice removed by a later change of the same save needs no update
+                        saved.index().findVoice(changed.voiceId())
+                                .ifPresent(voice -> edits.add(new TreeEdit.UpdateVoice(voice)));
+            }
+        }
+        symphony = saved;
+        return Optional.of(edits);
+    }
+
+    /**
+     * Shows a Symphony that was reloaded after its file was changed by another process, whatever its version.
+     *
+     * @param reloaded The reloaded Symphony
+     * @return The edits that turn the tree of the shown Symphony into that of the new one, empty if none was
+     * shown yet
+     */
+    List<TreeEdit> replace(Symphony reloaded) {
+        List<TreeEdit> edits = symphony != null ? TreeDiff.between(symphony, reloaded) : Collections.emptyList();
+        symphony = reloaded;
+        return edits;
+    }
+}
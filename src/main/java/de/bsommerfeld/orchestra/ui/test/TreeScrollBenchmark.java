@@ -0,0 +1,198 @@
+package de.bsommerfeld.orchestra.ui.test;
+
+import com.sun.management.ThreadMXBean;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.ui.tree.LazyTreeItem;
+import de.bsommerfeld.orchestra.ui.tree.VoiceTreeCell;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.util.Callback;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A standalone benchmark comparing the allocations of the project TreeView while scrolling, once with cells that
+ * build their graphic in every {@code updateItem} call, as the project view did before, and once with the
+ * {@link VoiceTreeCell}s, which create their graphic once.
+ * It shows a tree of Voices in a window, scrolls through it one row at a time with a layout pass after every
+ * step, and prints the bytes allocated on the JavaFX Application Thread per row and the best time of several
+ * rounds. Needs a display; the allocations are measured with the HotSpot thread allocation counter.
+ */
+public class TreeScrollBenchmark {
+
+    private static final String SEPARATOR = "----------------------------------------";
+    private static final int VOICE_COUNT = 5_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int voiceCount = args.length > 0 ? Integer.parseInt(args[0]) : VOICE_COUNT;
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Platform.startup(() -> started.complete(null));
+        started.get();
+
+        try {
+            System.out.println("Scrolling through " + voiceCount + " voices, one row per step");
+            System.out.println(SEPARATOR);
+            report("rebuilt graphics", onFxThread(() -> measure(voiceCount, tv -> new RebuildingCell())));
+            report("recycled cells", onFxThread(() -> measure(voiceCount,
+                    tv -> new VoiceTreeCell(TreeScrollBenchmark::modelOf, (voice, completed) -> {
+                    }, parent -> {
+                    }))));
+        } finally {
+            Platform.exit();
+        }
+    }
+
+    private record Result(long bytesPerRow, long bestNanos) {
+    }
+
+    private static void report(String name, Result result) {
+        System.out.printf("%-18s %8d bytes/row   %9.2f ms per scroll%n",
+                name, result.bytesPerRow(), result.bestNanos() / 1e6);
+    }
+
+    private static Result measure(int voiceCount, Callback<TreeView<String>, TreeCell<String>> cellFactory) {
+        TreeView<String> treeView = new TreeView<>(createRoot(voiceCount));
+        treeView.setCellFactory(cellFactory);
+        Stage stage = new Stage();
+        stage.setScene(new Scene(treeView, 400, 600));
+        stage.show();
+        try {
+            ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            int rows = treeView.getExpandedItemCount();
+            long bytes = 0;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                treeView.scrollTo(0);
+                layout(treeView);
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                for (int row = 0; row < rows; row++) {
+                    treeView.scrollTo(row);
+                    layout(treeView);
+                }
+                long elapsed = System.nanoTime() - start;
+                bytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                best = Math.min(best, elapsed);
+            }
+            return new Result(bytes / rows, best);
+        } finally {
+            stage.close();
+        }
+    }
+
+    private static void layout(TreeView<String> treeView) {
+        treeView.applyCss();
+        treeView.layout();
+    }
+
+    private static TreeItem<String> createRoot(int voiceCount) {
+        List<Choir> choirs = new ArrayList<>();
+        int perChoir = Math.max(1, voiceCount / 10);
+        for (int c = 0; c * perChoir < voiceCount; c++) {
+            List<Voice> voices = new ArrayList<>();
+            for (int v = 0; v < perChoir; v++) {
+                voices.add(new Voice("Voice " + v, null, null, v % 3 == 0));
+            }
+            choirs.add(new Choir("Choir " + c, null, voices));
+        }
+
+        TreeItem<String> root = new TreeItem<>("Benchmark symphony");
+        root.setExpanded(true);
+        for (Choir choir : choirs) {
+            root.getChildren().add(createItem(choir));
+        }
+        return root;
+    }
+
+    private static LazyTreeItem createItem(Object node) {
+        LazyTreeItem item = new LazyTreeItem(node, TreeScrollBenchmark::createItem, unloaded -> {
+        });
+        item.setExpanded(node instanceof Choir);
+        return item;
+    }
+
+    private static Object modelOf(TreeItem<String> item) {
+        return item instanceof LazyTreeItem lazyItem ? lazyItem.getNode() : null;
+    }
+
+    private static <T> T onFxThread(Callable<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get();
+    }
+
+    /**
+     * A cell like the one the project view used before: it creates a new container, button and handlers for
+     * every item it shows.
+     */
+    private static class RebuildingCell extends TreeCell<String> {
+
+        private final CheckBox checkBox = new CheckBox();
+
+        @Override
+        protected void updateItem(String item, boolean empty) {
+            super.updateItem(item, empty);
+
+            if (empty || item == null) {
+                setText(null);
+                setGraphic(null);
+                getStyleClass().remove("root-tree-cell");
+                return;
+            }
+            setText(item);
+
+            TreeItem<String> treeItem = getTreeItem();
+            int level = 0;
+            for (TreeItem<String> parent = treeItem.getParent(); parent != null; parent = parent.getParent()) {
+                level++;
+            }
+            if (level <= 1) {
+                if (!getStyleClass().contains("root-tree-cell")) {
+                    getStyleClass().add("root-tree-cell");
+                }
+            } else {
+                getStyleClass().remove("root-tree-cell");
+            }
+
+            if (modelOf(treeItem) instanceof Voice voice) {
+                checkBox.setSelected(voice.isCompleted());
+                checkBox.setOnAction(event -> voice.isCompleted());
+                HBox container = new HBox(5);
+                container.setAlignment(Pos.CENTER_LEFT);
+                container.getChildren().add(checkBox);
+                Button addButton = new Button("+");
+                addButton.getStyleClass().add("add-voice-button");
+                addButton.setOnAction(event -> modelOf(treeItem));
+                container.getChildren().add(addButton);
+                setGraphic(container);
+            } else if (modelOf(treeItem) instanceof Choir) {
+                Button addButton = new Button("+");
+                addButton.getStyleClass().add("add-voice-button");
+                addButton.setOnAction(event -> modelOf(treeItem));
+                setGraphic(addButton);
+            } else {
+                setGraphic(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.bsommerfeld.orchestra.ui.tree;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Voice;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A TreeItem of a Choir or Voice that creates the items of its Voices only when they are needed, i.e. when it is
+ * expanded, and drops them again when it is collapsed. The items are backed directly by the immutable model
+ * nodes, so a Symphony with many Voices only needs items for the part of the tree that can be seen.
+ *
+ * <p>Once the children are created, they are no longer derived from the node: whoever changes the node with
+ * {@link #setNode(Object)} also has to add, remove or move the loaded children accordingly.
+ */
+public final class LazyTreeItem extends TreeItem<String> {
+
+    private final Function<Object, LazyTreeItem> itemFactory;
+    private final Consumer<LazyTreeItem> onUnloaded;
+    private Object node;
+    private boolean loaded;
+
+    /**
+     * Creates an item for a Choir or Voice.
+     *
+     * @param node The Choir or Voice
+     * @param itemFactory Creates the items of the Voices when they are needed
+     * @param onUnloaded Called for every child that is dropped when this item is collapsed
+     * @throws IllegalArgumentException if the node is neither a Choir nor a Voice
+     */
+    public LazyTreeItem(Object node, Function<Object, LazyTreeItem> itemFactory, Consumer<LazyTreeItem> onUnloaded) {
+        this.itemFactory = itemFactory;
+        this.onUnloaded = onUnloaded;
+        setNode(node);
+        expandedProperty().addListener((observable, wasExpanded, expanded) -> {
+            if (!expanded) {
+                unload();
+            }
+        });
+    }
+
+    /**
+     * Returns the Choir or Voice shown by this item.
+     *
+     * @return The Choir or Voice
+     */
+    public Object getNode() {
+        return node;
+    }
+
+    /**
+     * Replaces the Choir or Voice shown by this item, e.g. with a newer version of it, and shows its name or title.
+     *
+     * @param node The Choir or Voice
+     * @throws IllegalArgumentException if the node is neither a Choir nor a Voice
+     */
+    public void setNode(Object node) {
+        if (node instanceof Choir choir) {
+            setValue(choir.getName());
+        } else if (node instanceof Voice voice) {
+            setValue(voice.getTitle());
+        } else {
+            throw new IllegalArgumentException("Node must be a Choir or a Voice");
+        }
+        this.node = node;
+    }
+
+    /**
+     * Returns the id of the Choir or Voice shown by this item.
+     *
+     * @return The id
+     */
+    public String getId() {
+        return node instanceof Choir choir ? choir.getId() : ((Voice) node).getId();
+    }
+
+    /**
+     * Returns whether the items of the Voices have been created.
+     *
+     * @return true if the children are loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the children that have been created so far, without creating them.
+     *
+     * @return The loaded children, empty if they are not loaded
+     */
+    public List<TreeItem<String>> getLoadedChildren() {
+        return loaded ? super.getChildren() : Collections.emptyList();
+    }
+
+    /**
+     * Returns the children, creating them from the Voices of the node first if they are not loaded yet.
+     */
+    @Override
+    public ObservableList<TreeItem<String>> getChildren() {
+        if (!loaded) {
+            loaded = true;
+            List<TreeItem<String>> children = new ArrayList<>();
+            for (Voice voice : voicesOf(node)) {
+                children.add(itemFactory.apply(voice));
+            }
+            super.getChildren().setAll(children);
+        }
+        return super.getChildren();
+    }
+
+    /**
+     * Tells from the node whether there are Voices below it, so the children do not have to be created for that.
+     */
+    @Override
+    public boolean isLeaf() {
+        return loaded ? super.getChildren().isEmpty() : voicesOf(node).isEmpty();
+    }
+
+    /**
+     * Drops the loaded children, which are created again from the node when they are needed.
+     */
+    private void unload() {
+        if (!loaded) {
+            return;
+        }
+        List<TreeItem<String>> children = new ArrayList<>(super.getChildren());
+        super.getChildren().clear();
+        loaded = false;
+        for (TreeItem<String> child : children) {
+            onUnloaded.accept((LazyTreeItem) child);
+        }
+    }
+
+    private static List<Voice> voicesOf(Object node) {
+        return node instanceof Choir choir ? choir.getVoices() : ((Voice) node).getSubVoices();
+    }
+}
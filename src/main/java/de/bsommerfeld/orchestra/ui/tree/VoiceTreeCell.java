@@ -0,0 +1,105 @@
+package de.bsommerfeld.orchestra.ui.tree;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Voice;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+import javafx.scene.layout.HBox;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A TreeCell showing a Symphony, Choir or Voice: Voices get a checkbox for their completion status and a '+'
+ * button to add a sub-voice, Choirs a '+' button to add a Voice.
+ *
+ * <p>The TreeView reuses its cells while scrolling and calls {@link #updateItem(String, boolean)} for every item
+ * a cell shows. Each cell therefore creates its controls and their handlers once and only binds them to the
+ * current item in {@code updateItem}. The handlers act on the node the cell currently shows, so nothing has to
+ * be registered or removed per item, and an empty cell does not hold on to the last node it showed.
+ */
+public final class VoiceTreeCell extends TreeCell<String> {
+
+    private static final String ROOT_STYLE_CLASS = "root-tree-cell";
+
+    private final Function<TreeItem<String>, Object> modelOf;
+    private final CheckBox checkBox = new CheckBox();
+    private final HBox voiceGraphic;
+    private final Button addToChoirButton;
+    private Object node;
+
+    /**
+     * Creates a cell.
+     *
+     * @param modelOf Returns the Symphony, Choir or Voice of a TreeItem
+     * @param onCompletedChanged Called with a Voice and its new status when its checkbox is clicked
+     * @param onAddVoice Called with the Choir or Voice a '+' button was clicked for
+     */
+    public VoiceTreeCell(Function<TreeItem<String>, Object> modelOf, BiConsumer<Voice, Boolean> onCompletedChanged,
+                         Consumer<Object> onAddVoice) {
+        this.modelOf = modelOf;
+
+        checkBox.setOnAction(event -> {
+            if (node instanceof Voice voice) {
+                onCompletedChanged.accept(voice, checkBox.isSelected());
+            }
+        });
+        voiceGraphic = new HBox(5, checkBox, createAddButton(onAddVoice));
+        voiceGraphic.setAlignment(Pos.CENTER_LEFT);
+        addToChoirButton = createAddButton(onAddVoice);
+
+        // Add CSS class for styling indentation lines
+        getStyleClass().add("voice-tree-cell");
+    }
+
+    @Override
+    protected void updateItem(String item, boolean empty) {
+        super.updateItem(item, empty);
+
+        TreeItem<String> treeItem = getTreeItem();
+        if (empty || item == null || treeItem == null) {
+            node = null;
+            setText(empty ? null : item);
+            setGraphic(null);
+            getStyleClass().remove(ROOT_STYLE_CLASS);
+            return;
+        }
+
+        setText(item);
+
+        // The root and the Choirs are styled differently from the Voices
+        if (getTreeView().getTreeItemLevel(treeItem) <= 1) {
+            if (!getStyleClass().contains(ROOT_STYLE_CLASS)) {
+                getStyleClass().add(ROOT_STYLE_CLASS);
+            }
+        } else {
+            getStyleClass().remove(ROOT_STYLE_CLASS);
+        }
+
+        node = modelOf.apply(treeItem);
+        if (node instanceof Voice voice) {
+            checkBox.setSelected(voice.isCompleted());
+            setGraphic(voiceGraphic);
+        } else if (node instanceof Choir) {
+            setGraphic(addToChoirButton);
+        } else {
+            // No graphic for the Symphony
+            setGraphic(null);
+        }
+    }
+
+    private Button createAddButton(Consumer<Object> onAddVoice) {
+        Button addButton = new Button("+");
+        addButton.getStyleClass().add("add-voice-button");
+        addButton.setOnAction(event -> {
+            if (node != null) {
+                onAddVoice.accept(node);
+            }
+        });
+        return addButton;
+    }
+}
@@ -0,0 +1,82 @@
+package de.bsommerfeld.orchestra.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupTest {
+
+    @Test
+    void getRollup_shouldCountVoicesOnAllLevels() {
+        // Arrange
+        Voice leaf = new Voice("Leaf", null, List.of(), true);
+        Voice middle = new Voice("Middle", null, List.of(leaf), false);
+        Voice top = new Voice("Top", null, List.of(middle, new Voice("Other", null, List.of(), true)), false);
+        Choir choir = new Choir("Choir", null, List.of(top, new Voice("Single", null, List.of(), false)));
+        Symphony symphony = new Symphony("Test Symphony", null, List.of(choir, new Choir("Empty", null, List.of())));
+
+        // Act & Assert
+        assertEquals(new Rollup(1, 1, 1), leaf.getRollup());
+        assertEquals(new Rollup(4, 2, 3), top.getRollup());
+        assertEquals(new Rollup(5, 2, 3), choir.getRollup());
+        assertEquals(new Rollup(5, 2, 3), symphony.getRollup());
+        assertEquals(Rollup.EMPTY, symphony.getChoirs().get(1).getRollup());
+    }
+
+    @Test
+    void getRollup_shouldMatchRecountAfterRandomUpdates() {
+        // Arrange
+        Random random = new Random(7);
+        List<Voice> voices = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            voices.add(new Voice("Voice " + i, null, List.of(new Voice("Sub " + i, null, List.of(), false)), false));
+        }
+        Symphony symphony = new Symphony("Test Symphony", null, List.of(new Choir("Choir", null, voices)));
+
+        for (int i = 0; i < 200; i++) {
+            // Act
+            int index = random.nextInt(symphony.getChoirs().get(0).getVoices().size());
+            VoicePath path = random.nextBoolean() ? VoicePath.of(0, index) : VoicePath.of(0, index, 0);
+            int operation = random.nextInt(3);
+            if (operation == 0 && path.depth() == 1) {
+                symphony = symphony.insertAt(path, new Voice("New " + i, null, List.of(), random.nextBoolean()));
+            } else if (operation == 1 && symphony.getChoirs().get(0).getVoices().size() > 1 && path.depth() == 1) {
+                symphony = symphony.removeAt(path);
+            } else if (path.depth() == 1 || !symphony.voiceAt(path.parent().orElseThrow()).getSubVoices().isEmpty()) {
+                symphony = symphony.updateAt(path, voice -> voice.withCompleted(!voice.isCompleted()));
+            }
+
+            // Assert
+            assertEquals(recount(symphony.getChoirs().get(0).getVoices()), symphony.getRollup());
+        }
+    }
+
+    @Test
+    void plus_shouldAddCountsAndKeepDeeperDepth() {
+        // Act
+        Rollup result = new Rollup(3, 1, 2).plus(new Rollup(2, 2, 4));
+
+        // Assert
+        assertEquals(new Rollup(5, 3, 4), result);
+        assertEquals(2, result.pending());
+        assertEquals(0.6, result.completion(), 1e-9);
+        assertEquals(0, Rollup.EMPTY.completion());
+    }
+
+    /**
+     * Counts the Voices without using the cached rollups.
+     */
+    private static Rollup recount(List<Voice> voices) {
+        Rollup rollup = Rollup.EMPTY;
+        for (Voice voice : voices) {
+            Rollup sub = recount(voice.getSubVoices());
+            rollup = rollup.plus(new Rollup(sub.total() + 1, sub.completed() + (voice.isCompleted() ? 1 : 0),
+                    sub.depth() + 1));
+        }
+        return rollup;
+    }
+}
@@ -0,0 +1,218 @@
+package de.bsommerfeld.orchestra.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymphonyTest {
+
+    private Symphony symphony;
+
+    @BeforeEach
+    void setUp() {
+        // Choir a: a1 (a1.1, a1.2), a2; Choir b: b1
+        Voice a11 = new Voice("a1.1", "A1.1", null, List.of(), false);
+        Voice a12 = new Voice("a1.2", "A1.2", null, List.of(), false);
+        Voice a1 = new Voice("a1", "A1", null, List.of(a11, a12), false);
+        Voice a2 = new Voice("a2", "A2", null, List.of(), false);
+        Voice b1 = new Voice("b1", "B1", null, List.of(), false);
+        symphony = new Symphony("Test Symphony", null, List.of(
+                new Choir("a", "A", null, List.of(a1, a2)),
+                new Choir("b", "B", null, List.of(b1))), 3);
+    }
+
+    @Test
+    void voiceAt_shouldReturnVoiceOnAnyLevel() {
+        // Act & Assert
+        assertEquals("a1.2", symphony.voiceAt(VoicePath.of(0, 0, 1)).getId());
+        assertEquals("b1", symphony.voiceAt(VoicePath.of(1, 0)).getId());
+        assertThrows(IndexOutOfBoundsException.class, () -> symphony.voiceAt(VoicePath.of(1, 1)));
+    }
+
+    @Test
+    void updateAt_shouldReplaceVoiceAndShareUntouchedNodes() {
+        // Arrange
+        VoicePath path = VoicePath.of(0, 0, 1);
+
+        // Act
+        Symphony result = symphony.updateAt(path, voice -> voice.withCompleted(true));
+
+        // Assert
+        assertTrue(result.voiceAt(path).isCompleted());
+        assertFalse(symphony.voiceAt(path).isCompleted());
+        assertEquals(List.of("a1", "a1.1", "a1.2", "a2", "b1"), ids(result));
+        assertSame(symphony.getChoirs().get(1), result.getChoirs().get(1));
+        assertSame(symphony.voiceAt(VoicePath.of(0, 1)), result.voiceAt(VoicePath.of(0, 1)));
+        assertEquals(symphony.getVersion(), result.getVersion());
+    }
+
+    @Test
+    void updateAt_shouldReturnSameSymphonyWhenVoiceIsUnchanged() {
+        // Act
+        Symphony result = symphony.updateAt(VoicePath.of(0, 1), voice -> voice);
+
+        // Assert
+        assertSame(symphony, result);
+    }
+
+    @Test
+    void insertAt_shouldInsertVoiceBeforeVoiceAtPathOrAppend() {
+        // Arrange
+        Voice voice = new Voice("new", "New", null, List.of(), false);
+
+        // Act
+        Symphony inserted = symphony.insertAt(VoicePath.of(0, 0, 0), voice);
+        Symphony appended = symphony.insertAt(VoicePath.of(1, 1), voice);
+
+        // Assert
+        assertEquals(List.of("a1", "new", "a1.1", "a1.2", "a2", "b1"), ids(inserted));
+        assertEquals(List.of("a1", "a1.1", "a1.2", "a2", "b1", "new"), ids(appended));
+        assertThrows(IndexOutOfBoundsException.class, () -> symphony.insertAt(VoicePath.of(1, 2), voice));
+    }
+
+    @Test
+    void removeAt_shouldRemoveVoiceWithItsSubVoices() {
+        // Act
+        Symphony result = symphony.removeAt(VoicePath.of(0, 0));
+
+        // Assert
+        assertEquals(List.of("a2", "b1"), ids(result));
+        assertTrue(result.index().findVoice("a1.1").isEmpty());
+    }
+
+    @Test
+    void move_shouldMoveVoiceWithinItsListAndToAnotherChoir() {
+        // Act
+        Symphony down = symphony.move(VoicePath.of(0, 0), VoicePath.of(0, 2));
+        Symphony toOtherChoir = symphony.move(VoicePath.of(0, 0, 1), VoicePath.of(1, 0));
+        Symphony intoSibling = symphony.move(VoicePath.of(0, 1), VoicePath.of(0, 0, 2));
+
+        // Assert
+        assertEquals(List.of("a2", "a1", "a1.1", "a1.2", "b1"), ids(down));
+        assertEquals(List.of("a1", "a1.1", "a2", "a1.2", "b1"), ids(toOtherChoir));
+        assertEquals(VoicePath.of(1, 0), toOtherChoir.index().pathOf("a1.2").orElseThrow());
+        assertEquals(VoicePath.of(0, 0, 2), intoSibling.index().pathOf("a2").orElseThrow());
+    }
+
+    @Test
+    void move_shouldReturnSameSymphonyWhenVoiceIsAlreadyAtPosition() {
+        // Act & Assert
+        assertSame(symphony, symphony.move(VoicePath.of(0, 0), VoicePath.of(0, 0)));
+        assertSame(symphony, symphony.move(VoicePath.of(0, 0), VoicePath.of(0, 1)));
+    }
+
+    @Test
+    void move_shouldThrowExceptionWhenTargetLiesBelowVoice() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> symphony.move(VoicePath.of(0, 0), VoicePath.of(0, 0, 1)));
+    }
+
+    @Test
+    void index_shouldDeriveIndexOfChangedSymphonyFromItsOwn() {
+        // Arrange
+        SymphonyIndex index = symphony.index();
+
+        // Act
+        Symphony result = symphony.removeAt(VoicePath.of(0, 0, 0));
+
+        // Assert
+        assertSame(index.getVoiceEntry("b1").orElseThrow(), result.index().getVoiceEntry("b1").orElseThrow());
+        assertEquals(new SymphonyIndex.VoiceEntry(result.voiceAt(VoicePath.of(0, 0, 0)), "a", "a1", 0, 1),
+                result.index().getVoiceEntry("a1.2").orElseThrow());
+        assertTrue(result.index().getVoiceEntry("a1.1").isEmpty());
+        assertSame(result.index(), result.withVersion(4).withDescription("Changed").index());
+    }
+
+    @Test
+    void index_shouldMatchRebuiltIndexAfterRandomChanges() {
+        // Arrange
+        Random random = new Random(5);
+        Symphony current = symphony;
+        int created = 0;
+
+        for (int step = 0; step < 500; step++) {
+            current.index();
+            List<VoicePath> paths = paths(current);
+            VoicePath path = paths.get(random.nextInt(paths.size()));
+            String id = "n" + created++;
+
+            // Act
+            switch (random.nextInt(5)) {
+                case 0 -> current = current.insertAt(path, new Voice(id, "N", null,
+                        List.of(new Voice(id + ".1", "N", null, List.of(), false)), false));
+                case 1 -> current = paths.size() > 3 ? current.removeAt(path) : current;
+                case 2 -> current = current.updateAt(path, voice -> voice.withCompleted(!voice.isCompleted()));
+                case 3 -> current = current.updateAt(path, voice -> new Voice(id, "N", null,
+                        voice.getSubVoices(), false));
+                default -> {
+                    VoicePath target = paths.get(random.nextInt(paths.size()));
+                    current = target.startsWith(path) ? current : current.move(path, target);
+                }
+            }
+
+            // Assert
+            SymphonyIndex rebuilt = SymphonyIndex.of(current);
+            assertEquals(rebuilt.voiceCount(), current.index().voiceCount());
+            for (String voiceId : ids(current)) {
+                assertEquals(rebuilt.getVoiceEntry(voiceId), current.index().getVoiceEntry(voiceId), voiceId);
+            }
+            for (Choir choir : current.getChoirs()) {
+                assertEquals(rebuilt.getChoirEntry(choir.getId()), current.index().getChoirEntry(choir.getId()));
+            }
+        }
+    }
+
+    @Test
+    void index_shouldThrowExceptionWhenChangeDuplicatesAnId() {
+        // Arrange
+        symphony.index();
+
+        // Act
+        Symphony result = symphony.insertAt(VoicePath.of(1, 1), new Voice("a2", "Copy", null, List.of(), false));
+
+        // Assert
+        assertThrows(IllegalStateException.class, result::index);
+    }
+
+    /**
+     * Returns the ids of all Voices in depth-first order.
+     */
+    private static List<String> ids(Symphony symphony) {
+        List<String> ids = new ArrayList<>();
+        for (Choir choir : symphony.getChoirs()) {
+            collect(choir.getVoices(), ids);
+        }
+        return ids;
+    }
+
+    private static void collect(List<Voice> voices, List<String> ids) {
+        for (Voice voice : voices) {
+            ids.add(voice.getId());
+            collect(voice.getSubVoices(), ids);
+        }
+    }
+
+    private static List<VoicePath> paths(Symphony symphony) {
+        List<VoicePath> paths = new ArrayList<>();
+        for (int c = 0; c < symphony.getChoirs().size(); c++) {
+            List<Voice> voices = symphony.getChoirs().get(c).getVoices();
+            for (int v = 0; v < voices.size(); v++) {
+                collect(VoicePath.of(c, v), voices.get(v), paths);
+            }
+        }
+        return paths;
+    }
+
+    private static void collect(VoicePath path, Voice voice, List<VoicePath> paths) {
+        paths.add(path);
+        for (int i = 0; i < voice.getSubVoices().size(); i++) {
+            collect(path.child(i), voice.getSubVoices().get(i), paths);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.bsommerfeld.orchestra.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoicePathTest {
+
+    @Test
+    void of_shouldRejectPathsWithoutVoiceIndexOrWithNegativeIndex() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> VoicePath.of(0));
+        assertThrows(IllegalArgumentException.class, () -> VoicePath.of(0, 1, -1));
+        assertThrows(IllegalArgumentException.class, () -> VoicePath.of(List.of(1)));
+    }
+
+    @Test
+    void accessors_shouldReturnIndicesOfEveryLevel() {
+        // Arrange
+        VoicePath path = VoicePath.of(1, 0, 2);
+
+        // Act & Assert
+        assertEquals(1, path.choirIndex());
+        assertEquals(2, path.depth());
+        assertEquals(0, path.indexAt(1));
+        assertEquals(2, path.lastIndex());
+        assertEquals(List.of(1, 0, 2), path.toList());
+        assertEquals(path, VoicePath.of(path.toList()));
+    }
+
+    @Test
+    void childParentAndSibling_shouldNavigateBetweenPaths() {
+        // Arrange
+        VoicePath path = VoicePath.of(1, 0);
+
+        // Act
+        VoicePath child = path.child(3);
+
+        // Assert
+        assertEquals(VoicePath.of(1, 0, 3), child);
+        assertEquals(Optional.of(path), child.parent());
+        assertEquals(Optional.empty(), path.parent());
+        assertEquals(VoicePath.of(1, 0, 5), child.sibling(5));
+    }
+
+    @Test
+    void startsWith_shouldReturnTrueOnlyForPathItselfAndItsAncestors() {
+        // Arrange
+        VoicePath path = VoicePath.of(0, 1, 2);
+
+        // Act & Assert
+        assertTrue(path.startsWith(path));
+        assertTrue(path.startsWith(VoicePath.of(0, 1)));
+        assertFalse(path.startsWith(VoicePath.of(0, 2)));
+        assertFalse(VoicePath.of(0, 1).startsWith(path));
+    }
+
+    @Test
+    void afterRemovalOf_shouldShiftPathsThroughLaterSiblings() {
+        // Arrange
+        VoicePath removed = VoicePath.of(0, 1);
+
+        // Act & Assert
+        assertEquals(VoicePath.of(0, 1, 4), VoicePath.of(0, 2, 4).afterRemovalOf(removed));
+        assertEquals(VoicePath.of(0, 0, 4), VoicePath.of(0, 0, 4).afterRemovalOf(removed));
+        assertEquals(VoicePath.of(1, 2), VoicePath.of(1, 2).afterRemovalOf(removed));
+        assertEquals(VoicePath.of(0, 1), VoicePath.of(0, 1).afterRemovalOf(VoicePath.of(0, 1, 0)));
+        assertThrows(IllegalArgumentException.class, () -> VoicePath.of(0, 1, 0).afterRemovalOf(removed));
+    }
+}
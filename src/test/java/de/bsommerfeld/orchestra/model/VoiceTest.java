@@ -0,0 +1,73 @@
+package de.bsommerfeld.orchestra.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoiceTest {
+
+    @Test
+    void intern_shouldShareContentOfIndependentlyBuiltEqualSubtrees() {
+        // Arrange
+        Voice first = template();
+        Voice second = template();
+
+        // Act
+        Voice internedFirst = internTree(first);
+        Voice internedSecond = internTree(second);
+
+        // Assert
+        assertNotEquals(internedFirst, internedSecond);
+        assertSharedContent(internedFirst, internedSecond);
+        assertFalse(first.sharesContentWith(second));
+    }
+
+    @Test
+    void intern_shouldReturnSameInstanceForEqualVoiceLoadedAgain() {
+        // Arrange
+        Voice loaded = new Voice("v1", "Step", "Details", List.of(new Voice("v2", "Sub", null, List.of(), true)), false);
+        Voice reloaded = new Voice("v1", "Step", "Details", List.of(new Voice("v2", "Sub", null, List.of(), true)), false);
+
+        // Act & Assert
+        assertSame(internTree(loaded), internTree(reloaded));
+    }
+
+    @Test
+    void intern_shouldNotShareContentOfVoicesWithDifferentCompletion() {
+        // Arrange
+        Voice open = new Voice("Step", null, List.of(), false).intern();
+        Voice done = new Voice("Step", null, List.of(), true).intern();
+
+        // Act & Assert
+        assertFalse(open.sharesContentWith(done));
+        assertSame(open.getTitle(), done.getTitle());
+    }
+
+    /**
+     * Builds a small checklist with new ids, like a project created from a template.
+     */
+    private static Voice template() {
+        return new Voice("Release", "Ship the build", List.of(
+                new Voice("Test", null, List.of(new Voice("Unit tests", null, List.of(), true)), false),
+                new Voice("Publish", "Upload the artifacts", List.of(), false)), false);
+    }
+
+    /**
+     * Interns a tree bottom-up, like storage does when it loads a Symphony.
+     */
+    private static Voice internTree(Voice voice) {
+        List<Voice> subVoices = voice.getSubVoices().stream().map(VoiceTest::internTree).toList();
+        return new Voice(voice.getId(), voice.getTitle(), voice.getDescription().orElse(null), subVoices,
+                voice.isCompleted()).intern();
+    }
+
+    private static void assertSharedContent(Voice first, Voice second) {
+        assertTrue(first.sharesContentWith(second), () -> first + " and " + second);
+        assertEquals(first.getSubVoices().size(), second.getSubVoices().size());
+        for (int i = 0; i < first.getSubVoices().size(); i++) {
+            assertSharedContent(first.getSubVoices().get(i), second.getSubVoices().get(i));
+        }
+    }
+}
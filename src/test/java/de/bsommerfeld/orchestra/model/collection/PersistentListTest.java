@@ -0,0 +1,124 @@
+package de.bsommerfeld.orchestra.model.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentListTest {
+
+    private static final int OPERATIONS = 5_000;
+
+    @Test
+    void operations_shouldMatchArrayListAfterRandomSequence() {
+        // Arrange
+        Random random = new Random(42);
+        PersistentList<Integer> list = PersistentList.empty();
+        List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            // Act
+            int operation = random.nextInt(10);
+            if (expected.isEmpty() || operation < 3) {
+                int element = random.nextInt(100);
+                list = list.plus(element);
+                expected.add(element);
+            } else if (operation < 5) {
+                int index = random.nextInt(expected.size() + 1);
+                int element = random.nextInt(100);
+                list = list.plus(index, element);
+                expected.add(index, element);
+            } else if (operation < 8) {
+                int index = random.nextInt(expected.size());
+                list = list.minus(index);
+                expected.remove(index);
+            } else {
+                int index = random.nextInt(expected.size());
+                int element = random.nextInt(100);
+                list = list.with(index, element);
+                expected.set(index, element);
+            }
+
+            // Assert
+            assertEquals(expected.size(), list.size());
+            assertEquals(expected.hashCode(), list.hashCode());
+            if (i % 100 == 0) {
+                assertListEquals(expected, list);
+            }
+        }
+        assertListEquals(expected, list);
+    }
+
+    @Test
+    void operations_shouldLeaveOriginalListUnchanged() {
+        // Arrange
+        PersistentList<String> original = PersistentList.copyOf(List.of("a", "b", "c"));
+
+        // Act
+        PersistentList<String> added = original.plus(1, "x");
+        PersistentList<String> removed = original.minus(0);
+        PersistentList<String> replaced = original.with(2, "z");
+
+        // Assert
+        assertEquals(List.of("a", "b", "c"), original);
+        assertEquals(List.of("a", "x", "b", "c"), added);
+        assertEquals(List.of("b", "c"), removed);
+        assertEquals(List.of("a", "b", "z"), replaced);
+    }
+
+    @Test
+    void equals_shouldCompareListsBuiltDifferentlyByContent() {
+        // Arrange
+        PersistentList<Integer> appended = PersistentList.empty();
+        PersistentList<Integer> prepended = PersistentList.empty();
+        for (int i = 0; i < 100; i++) {
+            appended = appended.plus(i);
+            prepended = prepended.plus(0, 99 - i);
+        }
+
+        // Act & Assert
+        assertEquals(appended, prepended);
+        assertEquals(appended.hashCode(), prepended.hashCode());
+        assertNotEquals(appended, prepended.with(50, -1));
+        assertNotEquals(appended, prepended.minus(99));
+    }
+
+    @Test
+    void with_shouldReturnSameListWhenElementIsAlreadyThere() {
+        // Arrange
+        String element = "b";
+        PersistentList<String> list = PersistentList.copyOf(List.of("a", element));
+
+        // Act
+        PersistentList<String> result = list.with(1, element);
+
+        // Assert
+        assertSame(list, result);
+    }
+
+    @Test
+    void operations_shouldRejectInvalidIndicesAndNullElements() {
+        // Arrange
+        PersistentList<String> list = PersistentList.copyOf(List.of("a", "b"));
+
+        // Act & Assert
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.plus(3, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.minus(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.with(2, "c"));
+        assertThrows(NullPointerException.class, () -> list.plus(null));
+        assertThrows(UnsupportedOperationException.class, () -> list.add("c"));
+    }
+
+    private static void assertListEquals(List<Integer> expected, PersistentList<Integer> actual) {
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+        assertEquals(expected, new ArrayList<>(actual));
+    }
+}
@@ -0,0 +1,83 @@
+package de.bsommerfeld.orchestra.model.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentMapTest {
+
+    @Test
+    void operations_shouldMatchHashMapAfterRandomSequence() {
+        // Arrange
+        Random random = new Random(42);
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            // Act
+            // Few distinct hashes, so keys collide on every level of the trie
+            Key key = new Key(random.nextInt(2_000), random.nextInt(8) << random.nextInt(30));
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                int value = random.nextInt(10);
+                map = map.plus(key, value);
+                expected.put(key, value);
+            }
+
+            // Assert
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        }
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void operations_shouldLeaveOriginalMapUnchanged() {
+        // Arrange
+        PersistentMap<String, Integer> original = PersistentMap.<String, Integer>empty().plus("a", 1).plus("b", 2);
+
+        // Act
+        PersistentMap<String, Integer> added = original.plus("c", 3);
+        PersistentMap<String, Integer> replaced = original.plus("a", 10);
+        PersistentMap<String, Integer> removed = original.minus("b");
+
+        // Assert
+        assertEquals(2, original.size());
+        assertEquals(1, original.get("a"));
+        assertNull(original.get("c"));
+        assertEquals(3, added.get("c"));
+        assertEquals(10, replaced.get("a"));
+        assertEquals(2, replaced.size());
+        assertFalse(removed.containsKey("b"));
+        assertEquals(1, removed.size());
+    }
+
+    @Test
+    void operations_shouldReturnSameMapWhenNothingChanges() {
+        // Arrange
+        Integer value = 1;
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus("a", value);
+
+        // Act & Assert
+        assertSame(map, map.plus("a", value));
+        assertSame(map, map.minus("b"));
+        assertSame(PersistentMap.empty(), map.minus("a"));
+        assertThrows(NullPointerException.class, () -> map.plus(null, 1));
+        assertThrows(NullPointerException.class, () -> map.plus("b", null));
+    }
+
+    private record Key(int id, int hash) {
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package de.bsommerfeld.orchestra.model.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeakInternerTest {
+
+    @Test
+    void intern_shouldReturnFirstInstanceForEqualValues() {
+        // Arrange
+        WeakInterner<String> interner = new WeakInterner<>();
+        String first = new String("value");
+        String second = new String("value");
+
+        // Act
+        String internedFirst = interner.intern(first);
+        String internedSecond = interner.intern(second);
+
+        // Assert
+        assertSame(first, internedFirst);
+        assertSame(first, internedSecond);
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    void intern_shouldUseFactoryResultOnlyForNewValues() {
+        // Arrange
+        WeakInterner<String> interner = new WeakInterner<>();
+        String created = new String("value");
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String first = interner.intern("value", value -> {
+            calls.incrementAndGet();
+            return created;
+        });
+        String second = interner.intern(new String("value"), value -> {
+            calls.incrementAndGet();
+            return value;
+        });
+
+        // Assert
+        assertSame(created, first);
+        assertSame(created, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void intern_shouldAllowFactoryToInternIntoSameInterner() {
+        // Arrange
+        WeakInterner<String> interner = new WeakInterner<>();
+
+        // Act
+        String outer = interner.intern("outer", value -> {
+            interner.intern("inner");
+            return value;
+        });
+
+        // Assert
+        assertEquals("outer", outer);
+        assertEquals(2, interner.size());
+    }
+
+    @Test
+    void intern_shouldReturnSingleCanonicalInstanceAcrossThreads() throws Exception {
+        // Arrange
+        int threads = 8;
+        WeakInterner<String> interner = new WeakInterner<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<String> interned = new ArrayList<>();
+                    for (int i = 0; i < 1_000; i++) {
+                        interned.add(interner.intern(new String("value " + i)));
+                    }
+                    return interned;
+                }));
+            }
+
+            // Act
+            start.countDown();
+            List<List<String>> interned = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                interned.add(result.get());
+            }
+
+            // Assert
+            for (int i = 0; i < 1_000; i++) {
+                for (List<String> values : interned) {
+                    assertSame(interned.get(0).get(i), values.get(i));
+                }
+            }
+            assertEquals(1_000, interner.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package de.bsommerfeld.orchestra.model.diff;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.VoicePath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeDiffTest {
+
+    private Symphony before;
+
+    @BeforeEach
+    void setUp() {
+        // Choir a: a1 (a1.1, a1.2), a2, a3; Choir b: b1 (b1.1)
+        before = symphony(
+                choir("a", voice("a1", voice("a1.1"), voice("a1.2")), voice("a2"), voice("a3")),
+                choir("b", voice("b1", voice("b1.1"))));
+    }
+
+    @Test
+    void between_shouldReturnNoEditsForIdenticalSnapshots() {
+        // Arrange
+        Symphony rebuilt = symphony(
+                choir("a", voice("a1", voice("a1.1"), voice("a1.2")), voice("a2"), voice("a3")),
+                choir("b", voice("b1", voice("b1.1"))));
+
+        // Act & Assert
+        assertEquals(List.of(), TreeDiff.between(before, before));
+        assertEquals(List.of(), TreeDiff.between(before, before.withVersion(before.getVersion() + 1)));
+        assertEquals(List.of(), TreeDiff.between(before, rebuilt));
+    }
+
+    @Test
+    void between_shouldReorderVoicesAndChoirs() {
+        // Arrange
+        Symphony after = symphony(
+                choir("b", voice("b1", voice("b1.1"))),
+                choir("a", voice("a3"), voice("a1", voice("a1.2"), voice("a1.1")), voice("a2")));
+
+        // Act & Assert
+        assertRoundTrip(before, after);
+    }
+
+    @Test
+    void between_shouldMoveVoiceToAnotherChoirWithOneEdit() {
+        // Arrange
+        Symphony after = before.move(VoicePath.of(0, 0, 1), VoicePath.of(1, 1));
+
+        // Act
+        List<TreeEdit> edits = assertRoundTrip(before, after);
+
+        // Assert
+        assertEquals(1, edits.size());
+        assertInstanceOf(TreeEdit.Move.class, edits.get(0));
+        assertEquals("a1.2", ((TreeEdit.Move) edits.get(0)).id());
+    }
+
+    @Test
+    void between_shouldMoveVoiceIntoAnotherVoice() {
+        // Arrange
+        Symphony after = before.move(VoicePath.of(0, 1), VoicePath.of(1, 0, 0));
+
+        // Act
+        List<TreeEdit> edits = assertRoundTrip(before, after);
+
+        // Assert
+        assertEquals(List.of(new TreeEdit.Move("a2", "b1", 0)), edits);
+    }
+
+    @Test
+    void between_shouldMoveVoiceOutOfRemovedParent() {
+        // Arrange
+        Symphony after = symphony(
+                choir("a", voice("a2"), voice("a3")),
+                choir("b", voice("b1", voice("b1.1")), voice("a1.1")));
+
+        // Act
+        List<TreeEdit> edits = assertRoundTrip(before, after);
+
+        // Assert
+        assertTrue(edits.contains(new TreeEdit.Remove("a1")));
+    }
+
+    @Test
+    void between_shouldUpdateChangedFieldsInPlace() {
+        // Arrange
+        Symphony after = symphony(
+                new Choir("a", "Renamed", "New description", before.getChoirs().get(0).getVoices()),
+                before.getChoirs().get(1))
+                .updateAt(VoicePath.of(0, 0, 0), voice -> voice.withCompleted(true))
+                .updateAt(VoicePath.of(1, 0), voice -> new Voice("b1", "Retitled", null, voice.getSubVoices(), false));
+
+        // Act
+        List<TreeEdit> edits = assertRoundTrip(before, after);
+
+        // Assert
+        assertTrue(edits.stream().noneMatch(edit -> edit instanceof TreeEdit.Remove
+                || edit instanceof TreeEdit.InsertChoir || edit instanceof TreeEdit.InsertVoice
+                || edit instanceof TreeEdit.Move));
+    }
+
+    @Test
+    void between_shouldInsertAndRemoveChoirsAndVoices() {
+        // Arrange
+        Symphony after = symphony(
+                choir("c", voice("c1", voice("c1.1"))),
+                choir("a", voice("a1", voice("a1.1"), voice("new")), voice("a3")));
+
+        // Act & Assert
+        assertRoundTrip(before, after);
+    }
+
+    @Test
+    void between_shouldRoundTripRandomChanges() {
+        // Arrange
+        Random random = new Random(11);
+        Symphony current = before;
+        int created = 0;
+
+        for (int step = 0; step < 300; step++) {
+            Symphony next = current;
+            for (int change = random.nextInt(4); change >= 0; change--) {
+                List<VoicePath> paths = paths(next);
+                VoicePath path = paths.get(random.nextInt(paths.size()));
+                switch (random.nextInt(4)) {
+                    case 0 -> next = next.insertAt(path, voice("n" + created++));
+                    case 1 -> {
+                        if (paths.size() > 3) {
+                            next = next.removeAt(path);
+                        }
+                    }
+                    case 2 -> next = next.updateAt(path, voice -> voice.withCompleted(!voice.isCompleted()));
+                    default -> {
+                        VoicePath target = paths.get(random.nextInt(paths.size()));
+                        if (!target.startsWith(path)) {
+                            next = next.move(path, target);
+                        }
+                    }
+                }
+            }
+
+            // Act & Assert
+            assertRoundTrip(current, next);
+            current = next;
+        }
+    }
+
+    /**
+     * Asserts that applying the diff of two snapshots to the first yields the second.
+     */
+    private static List<TreeEdit> assertRoundTrip(Symphony before, Symphony after) {
+        List<TreeEdit> edits = TreeDiff.between(before, after);
+        assertEquals(after.getChoirs(), TreeDiff.apply(before, edits).getChoirs(), () -> "Edits: " + edits);
+        return edits;
+    }
+
+    private static List<VoicePath> paths(Symphony symphony) {
+        List<VoicePath> paths = new ArrayList<>();
+        for (int c = 0; c < symphony.getChoirs().size(); c++) {
+            List<Voice> voices = symphony.getChoirs().get(c).getVoices();
+            for (int v = 0; v < voices.size(); v++) {
+                collect(VoicePath.of(c, v), voices.get(v), paths);
+            }
+        }
+        return paths;
+    }
+
+    private static void collect(VoicePath path, Voice voice, List<VoicePath> paths) {
+        paths.add(path);
+        for (int i = 0; i < voice.getSubVoices().size(); i++) {
+            collect(path.child(i), voice.getSubVoices().get(i), paths);
+        }
+    }
+
+    private static Symphony symphony(Choir... choirs) {
+        return new Symphony("Test Symphony", null, List.of(choirs));
+    }
+
+    private static Choir choir(String id, Voice... voices) {
+        return new Choir(id, id.toUpperCase(), null, List.of(voices));
+    }
+
+    private static Voice voice(String id, Voice... subVoices) {
+        return new Voice(id, id.toUpperCase(), null, List.of(subVoices), false);
+    }
+}
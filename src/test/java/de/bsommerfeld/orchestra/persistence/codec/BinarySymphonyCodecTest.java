@@ -0,0 +1,110 @@
+package de.bsommerfeld.orchestra.persistence.codec;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySymphonyCodecTest {
+
+    private BinarySymphonyCodec codec;
+    private Symphony testSymphony;
+
+    @BeforeEach
+    void setUp() {
+        codec = new BinarySymphonyCodec();
+
+        Voice subVoice = new Voice("Sub Voice", null, null, true);
+        Voice voice = new Voice("Voice", "Voice Description äöü", List.of(subVoice));
+        testSymphony = new Symphony("Test Symphony", "Test Description", List.of(
+                new Choir("Choir 1", "Choir Description", List.of(voice)),
+                new Choir("Choir 2", null, null)));
+    }
+
+    @Test
+    void read_shouldRestoreWrittenSymphony() throws IOException {
+        // Act
+        Symphony result = codec.read(new ByteArrayInputStream(write(codec, testSymphony)));
+
+        // Assert
+        assertEquals(testSymphony.getTitle(), result.getTitle());
+        assertEquals(testSymphony.getDescription(), result.getDescription());
+        assertEquals(testSymphony.getChoirs(), result.getChoirs());
+        assertTrue(result.getChoirs().get(0).getVoices().get(0).getSubVoices().get(0).isCompleted());
+    }
+
+    @Test
+    void read_shouldRestoreSymphonyVersion() throws IOException {
+        // Act
+        Symphony result = codec.read(new ByteArrayInputStream(write(codec, testSymphony.withVersion(300))));
+
+        // Assert
+        assertEquals(300, result.getVersion());
+    }
+
+    @Test
+    void write_shouldStoreRepeatedStringsOnceAndBeSmallerThanJson() throws IOException {
+        // Arrange
+        List<Voice> voices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            voices.add(new Voice("Review", "Same description for every voice", null));
+        }
+        Symphony symphony = new Symphony("Test Symphony", null, List.of(new Choir("Choir", null, voices)));
+
+        // Act
+        byte[] binary = write(codec, symphony);
+        byte[] json = write(new StreamingSymphonyCodec(), symphony);
+
+        // Assert: every voice still carries its own 16-byte id, the repeated strings are stored once
+        assertTrue(binary.length * 5 < json.length,
+                "Expected binary size " + binary.length + " to be far below JSON size " + json.length);
+        assertEquals(voices, codec.read(new ByteArrayInputStream(binary)).getChoirs().get(0).getVoices());
+    }
+
+    @Test
+    void read_shouldRejectFileWithoutMagic() {
+        // Arrange
+        byte[] json = "{\"title\":\"Test Symphony\"}".getBytes();
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(json)));
+        assertTrue(exception.getMessage().contains("Not a binary Symphony file"));
+    }
+
+    @Test
+    void read_shouldRejectUnsupportedVersion() throws IOException {
+        // Arrange
+        byte[] binary = write(codec, testSymphony);
+        binary[4] = (byte) (BinarySymphonyCodec.FORMAT_VERSION + 1);
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(binary)));
+        assertTrue(exception.getMessage().contains("Unsupported"));
+    }
+
+    @Test
+    void read_shouldRejectTruncatedFile() throws IOException {
+        // Arrange
+        byte[] binary = write(codec, testSymphony);
+        byte[] truncated = Arrays.copyOf(binary, binary.length - 3);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> codec.read(new ByteArrayInputStream(truncated)));
+    }
+
+    private static byte[] write(SymphonyCodec codec, Symphony symphony) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(symphony, out);
+        return out.toByteArray();
+    }
+}
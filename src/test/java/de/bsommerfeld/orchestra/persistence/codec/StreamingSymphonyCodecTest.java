@@ -0,0 +1,132 @@
+package de.bsommerfeld.orchestra.persistence.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingSymphonyCodecTest {
+
+    private StreamingSymphonyCodec streamingCodec;
+    private DtoSymphonyCodec dtoCodec;
+    private Symphony testSymphony;
+
+    @BeforeEach
+    void setUp() {
+        streamingCodec = new StreamingSymphonyCodec();
+        dtoCodec = new DtoSymphonyCodec(new SymphonyMapperImpl(new ChoirMapperImpl(new VoiceMapperImpl())));
+
+        Voice subVoice = new Voice("Sub Voice", null, null, true);
+        Voice voice = new Voice("Voice", "Voice Description", List.of(subVoice));
+        testSymphony = new Symphony("Test Symphony", "Test Description", List.of(
+                new Choir("Choir 1", "Choir Description", List.of(voice)),
+                new Choir("Choir 2", null, null)));
+    }
+
+    @Test
+    void write_shouldProduceSameDocumentAsDtoCodec() throws IOException {
+        // Act
+        byte[] streamed = write(streamingCodec, testSymphony);
+        byte[] mapped = write(dtoCodec, testSymphony);
+
+        // Assert
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(objectMapper.readTree(mapped), objectMapper.readTree(streamed));
+    }
+
+    @Test
+    void read_shouldReadDocumentWrittenByDtoCodec() throws IOException {
+        // Act
+        Symphony result = streamingCodec.read(new ByteArrayInputStream(write(dtoCodec, testSymphony)));
+
+        // Assert
+        assertEquals(testSymphony.getTitle(), result.getTitle());
+        assertEquals(testSymphony.getDescription(), result.getDescription());
+        assertEquals(testSymphony.getChoirs(), result.getChoirs());
+    }
+
+    @Test
+    void read_shouldReadDocumentWrittenByItself() throws IOException {
+        // Act
+        Symphony result = streamingCodec.read(new ByteArrayInputStream(write(streamingCodec, testSymphony)));
+
+        // Assert
+        assertEquals(testSymphony.getChoirs(), result.getChoirs());
+        assertTrue(result.getChoirs().get(0).getVoices().get(0).getSubVoices().get(0).isCompleted());
+    }
+
+    @Test
+    void read_shouldShareEqualNodesBetweenReads() throws IOException {
+        // Arrange
+        byte[] document = write(streamingCodec, testSymphony);
+
+        // Act
+        Symphony first = streamingCodec.read(new ByteArrayInputStream(document));
+        Symphony second = streamingCodec.read(new ByteArrayInputStream(document));
+
+        // Assert
+        assertNotSame(first, second);
+        assertSame(first.getChoirs().get(0), second.getChoirs().get(0));
+        assertSame(first.getChoirs().get(0).getVoices().get(0), second.getChoirs().get(0).getVoices().get(0));
+        assertEquals(first.getChoirs(), second.getChoirs());
+    }
+
+    @Test
+    void read_shouldIgnoreUnknownAndNullFields() throws IOException {
+        // Arrange
+        String json = "{\"title\":\"Test Symphony\",\"extra\":{\"nested\":[1,2]},\"choirs\":"
+                + "[{\"name\":\"Choir\",\"description\":null,\"voices\":null}]}";
+
+        // Act
+        Symphony result = streamingCodec.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals("Test Symphony", result.getTitle());
+        assertEquals(1, result.getChoirs().size());
+        assertTrue(result.getChoirs().get(0).getVoices().isEmpty());
+    }
+
+    @Test
+    void read_shouldAssignIdsToDocumentWithoutIds() throws IOException {
+        // Arrange
+        String json = "{\"title\":\"Test Symphony\",\"choirs\":[{\"name\":\"Choir\",\"voices\":"
+                + "[{\"title\":\"Same\"},{\"title\":\"Same\"}]}]}";
+
+        // Act
+        Symphony result = streamingCodec.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        List<Voice> voices = result.getChoirs().get(0).getVoices();
+        assertNotNull(result.getChoirs().get(0).getId());
+        assertNotEquals(voices.get(0).getId(), voices.get(1).getId());
+        assertEquals(2, result.index().voiceCount());
+    }
+
+    @Test
+    void read_shouldThrowExceptionForMalformedDocument() {
+        // Arrange
+        byte[] json = "[\"not a symphony\"]".getBytes(StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> streamingCodec.read(new ByteArrayInputStream(json)));
+    }
+
+    private static byte[] write(SymphonyCodec codec, Symphony symphony) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(symphony, out);
+        return out.toByteArray();
+    }
+}
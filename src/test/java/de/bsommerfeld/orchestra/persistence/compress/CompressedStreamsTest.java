@@ -0,0 +1,66 @@
+package de.bsommerfeld.orchestra.persistence.compress;
+
+import de.bsommerfeld.orchestra.persistence.config.Compression;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedStreamsTest {
+
+    private static final String CONTENT = "{\"title\": \"Test Symphony\", \"choirs\": []}".repeat(50);
+
+    @Test
+    void decompressing_shouldReadCompressedContent() throws IOException {
+        // Arrange
+        byte[] compressed = write(Compression.GZIP, 9);
+
+        // Act
+        String result = read(compressed);
+
+        // Assert
+        assertEquals(CONTENT, result);
+        assertTrue(compressed.length < CONTENT.length() / 10);
+    }
+
+    @Test
+    void decompressing_shouldReadUncompressedContentUnchanged() throws IOException {
+        // Arrange
+        byte[] plain = write(Compression.NONE, 6);
+
+        // Act
+        String result = read(plain);
+
+        // Assert
+        assertArrayEquals(CONTENT.getBytes(StandardCharsets.UTF_8), plain);
+        assertEquals(CONTENT, result);
+    }
+
+    @Test
+    void checkLevel_shouldRejectLevelsOutsideOneToNine() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CompressedStreams.checkLevel(0));
+        assertThrows(IllegalArgumentException.class, () -> CompressedStreams.checkLevel(10));
+        assertDoesNotThrow(() -> CompressedStreams.checkLevel(1));
+    }
+
+    private static byte[] write(Compression compression, int level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = CompressedStreams.compressing(bytes, compression, level)) {
+            out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String read(byte[] bytes) throws IOException {
+        try (InputStream in = CompressedStreams.decompressing(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.bsommerfeld.orchestra.persistence.compress;
+
+import de.bsommerfeld.orchestra.persistence.config.Compression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecompressorTest {
+
+    private static final String CONTENT = "{\"title\": \"Test Symphony\"}";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recompress_shouldCompressAndDecompressFilesInPlace() throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("Test_Symphony.json"), CONTENT);
+
+        // Act
+        int compressed = new Recompressor(Compression.GZIP, 6).recompress(List.of(file));
+        boolean compressedOnDisk = CompressedStreams.isCompressed(file);
+        int decompressed = new Recompressor(Compression.NONE, 6).recompress(List.of(file));
+
+        // Assert
+        assertEquals(1, compressed);
+        assertTrue(compressedOnDisk);
+        assertEquals(1, decompressed);
+        assertEquals(CONTENT, Files.readString(file));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(file), files.toList(), "No temporary file is left behind");
+        }
+    }
+
+    @Test
+    void recompress_shouldLeaveUncompressedFilesAloneWhenCompressionIsOff() throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("Test_Symphony.json"), CONTENT);
+
+        // Act
+        int result = new Recompressor(Compression.NONE, 6).recompress(List.of(file));
+
+        // Assert
+        assertEquals(0, result);
+        assertEquals(CONTENT, Files.readString(file));
+    }
+
+    @Test
+    void recompressInBackground_shouldSkipListingWhileSettingIsUnchanged() throws Exception {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("Test_Symphony.json"), CONTENT);
+        Recompressor recompressor = new Recompressor(Compression.GZIP, 9);
+        AtomicInteger listings = new AtomicInteger();
+
+        // Act
+        int first = recompressor.recompressInBackground(tempDir, ".json", () -> {
+            listings.incrementAndGet();
+            return List.of(file);
+        }).get(5, TimeUnit.SECONDS);
+        int second = recompressor.recompressInBackground(tempDir, ".json", () -> {
+            listings.incrementAndGet();
+            return List.of(file);
+        }).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(1, listings.get());
+        try (InputStream in = CompressedStreams.decompressing(Files.newInputStream(file))) {
+            assertEquals(CONTENT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidLevel() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new Recompressor(Compression.GZIP, 0));
+    }
+}
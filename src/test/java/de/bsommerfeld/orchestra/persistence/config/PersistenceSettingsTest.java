@@ -0,0 +1,54 @@
+package de.bsommerfeld.orchestra.persistence.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceSettingsTest {
+
+    private static final String LOAD_PARALLELISM = PersistenceSettings.PROPERTY_PREFIX + "loadParallelism";
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(LOAD_PARALLELISM);
+    }
+
+    @Test
+    void build_shouldAcceptDefaults() {
+        // Act
+        PersistenceSettings settings = PersistenceSettings.defaults();
+
+        // Assert
+        assertEquals(1000, settings.getJournalCompactAfterRecords());
+        assertEquals(6, settings.getCompressionLevel());
+    }
+
+    @Test
+    void build_shouldRejectOutOfRangeValuesNamingTheSetting() {
+        // Act & Assert
+        assertRejected("journalCompactAfterRecords", PersistenceSettings.builder().journalCompactAfterRecords(0));
+        assertRejected("journalCompactAfterBytes", PersistenceSettings.builder().journalCompactAfterBytes(-1));
+        assertRejected("cacheMaxEntries", PersistenceSettings.builder().cacheMaxEntries(0));
+        assertRejected("loadParallelism", PersistenceSettings.builder().loadParallelism(0));
+        assertRejected("compressionLevel", PersistenceSettings.builder().compressionLevel(10));
+        assertRejected("watchDebounceMillis", PersistenceSettings.builder().watchDebounceMillis(-1));
+        assertRejected("layout", PersistenceSettings.builder().layout(null));
+    }
+
+    @Test
+    void fromSystemProperties_shouldRejectValueOutOfRange() {
+        // Arrange
+        System.setProperty(LOAD_PARALLELISM, "4294967297");
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                PersistenceSettings::fromSystemProperties);
+        assertTrue(exception.getMessage().contains(LOAD_PARALLELISM), exception.getMessage());
+    }
+
+    private static void assertRejected(String name, PersistenceSettings.Builder builder) {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, builder::build);
+        assertTrue(exception.getMessage().startsWith(name + " "), exception.getMessage());
+    }
+}
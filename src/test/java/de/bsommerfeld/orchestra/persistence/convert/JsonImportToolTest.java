@@ -0,0 +1,73 @@
+package de.bsommerfeld.orchestra.persistence.convert;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.convert.JsonImportTool.ImportResult;
+import de.bsommerfeld.orchestra.persistence.repository.SqlSymphonyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonImportToolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final StreamingSymphonyCodec codec = new StreamingSymphonyCodec();
+
+    @Test
+    void importDirectory_shouldImportJsonFilesAndReportUnreadableOnes() throws IOException {
+        // Arrange
+        Path jsonDirectory = Files.createDirectory(tempDir.resolve("json"));
+        Symphony symphony = new Symphony("First", "Description",
+                List.of(new Choir("Choir", null, List.of(new Voice("Voice", null, null, true)))));
+        write(jsonDirectory.resolve("First.json"), symphony);
+        Path corrupt = Files.writeString(jsonDirectory.resolve("Corrupt.json"), "{\"title\": ");
+
+        try (SqlSymphonyRepository target = new SqlSymphonyRepository(tempDir.resolve("symphonies"))) {
+            // Act
+            ImportResult result = JsonImportTool.importDirectory(jsonDirectory, codec, target);
+
+            // Assert
+            assertEquals(1, result.imported());
+            assertEquals(0, result.skipped());
+            assertEquals(List.of(corrupt), List.copyOf(result.errors().keySet()));
+            assertEquals(symphony.getChoirs(), target.findById("First").orElseThrow().getChoirs());
+            assertTrue(Files.exists(jsonDirectory.resolve("First.json")), "JSON files are kept");
+        }
+    }
+
+    @Test
+    void importDirectory_shouldSkipSymphoniesThatAlreadyExist() throws IOException {
+        // Arrange
+        Path jsonDirectory = Files.createDirectory(tempDir.resolve("json"));
+        write(jsonDirectory.resolve("First.json"), new Symphony("First", "From JSON", null));
+
+        try (SqlSymphonyRepository target = new SqlSymphonyRepository(tempDir.resolve("symphonies"))) {
+            target.save(new Symphony("First", "From database", null));
+
+            // Act
+            ImportResult result = JsonImportTool.importDirectory(jsonDirectory, codec, target);
+
+            // Assert
+            assertEquals(0, result.imported());
+            assertEquals(1, result.skipped());
+            assertEquals("From database", target.findById("First").orElseThrow().getDescription().orElseThrow());
+        }
+    }
+
+    private void write(Path file, Symphony symphony) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            codec.write(symphony, out);
+        }
+    }
+}
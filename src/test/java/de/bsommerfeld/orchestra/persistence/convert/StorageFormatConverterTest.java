@@ -0,0 +1,60 @@
+package de.bsommerfeld.orchestra.persistence.convert;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageFormatConverterTest {
+
+    @Mock
+    private SymphonyRepository source;
+
+    @Mock
+    private SymphonyRepository target;
+
+    @Test
+    void convert_shouldCopyMissingSymphoniesAndDeleteSource() {
+        // Arrange
+        Symphony symphony1 = new Symphony("Symphony 1", null, null);
+        Symphony symphony2 = new Symphony("Symphony 2", null, null);
+        when(source.findAll()).thenReturn(List.of(symphony1, symphony2));
+        when(target.existsById("Symphony 1")).thenReturn(false);
+        when(target.existsById("Symphony 2")).thenReturn(true);
+
+        // Act
+        int result = StorageFormatConverter.convert(source, target, true);
+
+        // Assert
+        assertEquals(1, result);
+        verify(target).save(symphony1);
+        verify(target, never()).save(symphony2);
+        verify(source).deleteById("Symphony 1");
+        verify(source, never()).deleteById("Symphony 2");
+        verify(target).flush();
+    }
+
+    @Test
+    void convert_shouldKeepSourceWhenNotDeleting() {
+        // Arrange
+        Symphony symphony = new Symphony("Symphony 1", null, null);
+        when(source.findAll()).thenReturn(List.of(symphony));
+
+        // Act
+        int result = StorageFormatConverter.convert(source, target, false);
+
+        // Assert
+        assertEquals(1, result);
+        verify(target).save(symphony);
+        verify(source, never()).deleteById(any());
+    }
+}
@@ -0,0 +1,114 @@
+package de.bsommerfeld.orchestra.persistence.load;
+
+import de.bsommerfeld.orchestra.persistence.load.ParallelFileLoader.LoadResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFileLoaderTest {
+
+    @Test
+    void loadAll_shouldReturnContentsInFileOrder() {
+        // Arrange
+        List<Path> files = files(50);
+        ParallelFileLoader loader = new ParallelFileLoader(8);
+
+        // Act
+        List<String> result = loader.loadAll(files, file -> {
+            sleep(1);
+            return file.toString();
+        });
+
+        // Assert
+        assertEquals(files.stream().map(Path::toString).toList(), result);
+    }
+
+    @Test
+    void loadAll_shouldNotExceedConcurrencyLimit() {
+        // Arrange
+        List<Path> files = files(40);
+        ParallelFileLoader loader = new ParallelFileLoader(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // Act
+        loader.loadAll(files, file -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(2);
+            running.decrementAndGet();
+            return file;
+        });
+
+        // Assert
+        assertTrue(maxRunning.get() <= 3, "At most 3 files may be read at the same time");
+        assertTrue(maxRunning.get() > 1, "Files should be read concurrently");
+    }
+
+    @Test
+    void loadAll_shouldFailFastAndStopStartingReads() {
+        // Arrange
+        List<Path> files = files(1000);
+        Path corrupt = files.get(5);
+        ParallelFileLoader loader = new ParallelFileLoader(4);
+        AtomicInteger started = new AtomicInteger();
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> loader.loadAll(files, file -> {
+            started.incrementAndGet();
+            if (file.equals(corrupt)) {
+                throw new IOException("Corrupt file");
+            }
+            sleep(5);
+            return file;
+        }));
+
+        // Assert
+        assertInstanceOf(IOException.class, exception.getCause());
+        assertTrue(exception.getMessage().contains(corrupt.toString()));
+        assertTrue(started.get() < files.size(), "Reads after the failure should not be started");
+    }
+
+    @Test
+    void loadAvailable_shouldReturnPartialResultsWithErrors() {
+        // Arrange
+        List<Path> files = files(20);
+        ParallelFileLoader loader = new ParallelFileLoader(4);
+
+        // Act
+        LoadResult<Path> result = loader.loadAvailable(files, file -> {
+            if (files.indexOf(file) % 5 == 0) {
+                throw new IOException("Corrupt file");
+            }
+            return file;
+        });
+
+        // Assert
+        assertFalse(result.isComplete());
+        assertEquals(16, result.loaded().size());
+        assertEquals(List.of(files.get(0), files.get(5), files.get(10), files.get(15)),
+                new ArrayList<>(result.errors().keySet()));
+        assertInstanceOf(IOException.class, result.errors().get(files.get(0)));
+    }
+
+    private static List<Path> files(int count) {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(Path.of("symphony-" + i + ".json"));
+        }
+        return files;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package de.bsommerfeld.orchestra.persistence.manifest;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymphonyManifestTest {
+
+    private static final String EXTENSION = ".json";
+
+    @TempDir
+    Path tempDir;
+
+    private final StreamingSymphonyCodec codec = new StreamingSymphonyCodec();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<SymphonyManifest> manifests = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        manifests.forEach(SymphonyManifest::close);
+    }
+
+    @Test
+    void summaries_shouldIndexAllFilesAndPersistManifest() throws IOException {
+        // Arrange
+        write("First", createSymphony("First", true));
+        write("Second", createSymphony("Second", false));
+        SymphonyManifest manifest = createManifest();
+
+        // Act
+        List<SymphonySummary> result = manifest.summaries();
+        manifest.flush();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("First", result.get(0).getTitle());
+        assertEquals(1, result.get(0).getChoirCount());
+        assertEquals(2, result.get(0).getVoiceCount());
+        assertEquals(2, result.get(0).getCompletedCount());
+        assertEquals(0, result.get(1).getCompletedCount());
+        assertEquals(Files.size(tempDir.resolve("First" + EXTENSION)), result.get(0).getFileSize());
+        assertEquals(2, loads.get());
+        assertTrue(Files.exists(manifest.getManifestFile()));
+    }
+
+    @Test
+    void summaries_shouldNotParseUnchangedFilesAgain() throws IOException {
+        // Arrange
+        write("First", createSymphony("First", true));
+        SymphonyManifest manifest = createManifest();
+        manifest.summaries();
+
+        // Act
+        List<SymphonySummary> result = manifest.summaries();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void summaries_shouldReadPersistedManifestWithoutParsing() throws IOException {
+        // Arrange
+        write("First", createSymphony("First", true));
+        write("Second", createSymphony("Second", false));
+        SymphonyManifest first = createManifest();
+        first.summaries();
+        first.flush();
+        loads.set(0);
+
+        // Act
+        List<SymphonySummary> result = createManifest().summaries();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void summaries_shouldReparseChangedFilesAndDropDeletedOnes() throws IOException {
+        // Arrange
+        write("First", createSymphony("First", true));
+        write("Second", createSymphony("Second", false));
+        SymphonyManifest manifest = createManifest();
+        manifest.summaries();
+        loads.set(0);
+
+        Path first = write("First", createSymphony("First", false));
+        // Make sure the change is visible even on file systems with coarse timestamps
+        Files.setLastModifiedTime(first, FileTime.from(Instant.now().plusSeconds(10)));
+        Files.delete(tempDir.resolve("Second" + EXTENSION));
+
+        // Act
+        List<SymphonySummary> result = manifest.summaries();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(0, result.get(0).getCompletedCount());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void updated_shouldRecordSavedSymphonyWithoutParsing() throws IOException {
+        // Arrange
+        SymphonyManifest manifest = createManifest();
+        manifest.summaries();
+        Symphony symphony = createSymphony("First", true);
+        Path file = write("First", symphony);
+
+        // Act
+        manifest.updated(file, symphony);
+        List<SymphonySummary> afterUpdate = manifest.summaries();
+        manifest.removed(file);
+        Files.delete(file);
+        List<SymphonySummary> afterRemove = manifest.summaries();
+
+        // Assert
+        assertEquals(1, afterUpdate.size());
+        assertEquals("First", afterUpdate.get(0).getTitle());
+        assertTrue(afterRemove.isEmpty());
+        assertEquals(0, loads.get());
+    }
+
+    private SymphonyManifest createManifest() {
+        SymphonyManifest manifest = new SymphonyManifest(tempDir, EXTENSION, file -> {
+            loads.incrementAndGet();
+            try (InputStream in = Files.newInputStream(file)) {
+                return codec.read(in);
+            }
+        });
+        manifests.add(manifest);
+        return manifest;
+    }
+
+    private Path write(String title, Symphony symphony) throws IOException {
+        Path file = tempDir.resolve(title + EXTENSION);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            codec.write(symphony, out);
+        }
+        return file;
+    }
+
+    private static Symphony createSymphony(String title, boolean completed) {
+        Voice subVoice = new Voice("Sub Voice", null, null, completed);
+        Voice voice = new Voice("Voice", null, List.of(subVoice), completed);
+        Choir choir = new Choir("Choir", null, List.of(voice));
+        return new Symphony(title, "Description", List.of(choir));
+    }
+}
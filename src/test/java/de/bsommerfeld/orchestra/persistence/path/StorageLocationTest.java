@@ -0,0 +1,122 @@
+package de.bsommerfeld.orchestra.persistence.path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageLocationTest {
+
+    @Mock
+    private PlatformPathProvider pathProvider;
+
+    @TempDir
+    Path tempDir;
+
+    private Path legacyDir;
+    private Path platformDir;
+    private StorageLocation storageLocation;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        legacyDir = Files.createDirectories(tempDir.resolve("legacy"));
+        platformDir = tempDir.resolve("platform");
+        when(pathProvider.getSymphonyDirectory()).thenReturn(platformDir);
+        when(pathProvider.getLegacyStorageDirectory()).thenReturn(legacyDir);
+        storageLocation = new StorageLocation(pathProvider);
+    }
+
+    @Test
+    void getDirectory_shouldResolvePlatformDirectoryOnlyOnce() {
+        // Act
+        Path first = storageLocation.getDirectory();
+        Path second = storageLocation.getDirectory();
+
+        // Assert
+        assertEquals(platformDir, first);
+        assertSame(first, second);
+        assertTrue(Files.isDirectory(platformDir));
+        assertTrue(storageLocation.isMigrationComplete());
+        verify(pathProvider, times(1)).getSymphonyDirectory();
+        verify(pathProvider, times(1)).getLegacyStorageDirectory();
+    }
+
+    @Test
+    void getDirectory_shouldMigrateLegacyFilesInBackgroundAndReportProgress() throws IOException, InterruptedException {
+        // Arrange
+        writeFile(legacyDir.resolve("A.json"), "a");
+        writeFile(legacyDir.resolve("B.json"), "b");
+        writeFile(legacyDir.resolve("notes.txt"), "ignored");
+        List<StorageLocation.MigrationProgress> progress = new CopyOnWriteArrayList<>();
+        storageLocation.addMigrationListener(progress::add);
+
+        // Act
+        storageLocation.getDirectory();
+        storageLocation.awaitMigration();
+
+        // Assert
+        assertEquals("a", Files.readString(platformDir.resolve("A.json")));
+        assertEquals("b", Files.readString(platformDir.resolve("B.json")));
+        assertFalse(Files.exists(legacyDir.resolve("A.json")));
+        assertTrue(Files.exists(legacyDir.resolve("notes.txt")));
+        assertEquals(2, progress.size());
+        assertTrue(progress.get(1).isComplete());
+        assertTrue(storageLocation.isMigrationComplete());
+    }
+
+    @Test
+    void migrateIfPending_shouldMoveFileBeforeBackgroundMigrationReachesIt() throws IOException, InterruptedException {
+        // Arrange
+        writeFile(legacyDir.resolve("A.json"), "a");
+        writeFile(legacyDir.resolve("B.json"), "b");
+        CountDownLatch firstMigrated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> backgroundFiles = new CopyOnWriteArrayList<>();
+        storageLocation.addMigrationListener(progress -> {
+            if (Thread.currentThread().getName().equals("orchestra-storage-migration")) {
+                backgroundFiles.add(progress.fileName());
+                firstMigrated.countDown();
+                awaitQuietly(release);
+            }
+        });
+        storageLocation.getDirectory();
+        assertTrue(firstMigrated.await(5, TimeUnit.SECONDS));
+        String remaining = backgroundFiles.get(0).equals("A.json") ? "B.json" : "A.json";
+
+        // Act
+        storageLocation.migrateIfPending(remaining);
+        release.countDown();
+        storageLocation.awaitMigration();
+
+        // Assert
+        assertTrue(Files.exists(platformDir.resolve(remaining)));
+        assertEquals(1, backgroundFiles.size(), "The background thread should skip the file that was already moved");
+    }
+
+    private static void writeFile(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.persistence.config.EvictionPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingSymphonyRepositoryTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+
+    @Mock
+    private SymphonyRepository delegate;
+
+    @TempDir
+    Path storageDir;
+
+    private CachingSymphonyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = newRepository(10, EvictionPolicy.LRU);
+    }
+
+    @Test
+    void findById_shouldParseOnlyOnceWhileFileIsUnchanged() throws IOException {
+        // Arrange
+        Symphony symphony = new Symphony(TEST_TITLE, "Description", null);
+        writeFile(TEST_TITLE, "v1");
+        when(delegate.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+
+        // Act
+        Optional<Symphony> first = repository.findById(TEST_TITLE);
+        Optional<Symphony> second = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertSame(symphony, first.orElseThrow());
+        assertSame(symphony, second.orElseThrow());
+        verify(delegate, times(1)).findById(TEST_TITLE);
+    }
+
+    @Test
+    void findById_shouldReloadWhenFileChangedOnDisk() throws IOException {
+        // Arrange
+        Symphony original = new Symphony(TEST_TITLE, "Original", null);
+        Symphony changed = new Symphony(TEST_TITLE, "Changed", null);
+        writeFile(TEST_TITLE, "v1");
+        when(delegate.findById(TEST_TITLE)).thenReturn(Optional.of(original)).thenReturn(Optional.of(changed));
+        repository.findById(TEST_TITLE);
+
+        // Act
+        writeFile(TEST_TITLE, "version 2");
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertSame(changed, result.orElseThrow());
+        verify(delegate, times(2)).findById(TEST_TITLE);
+    }
+
+    @Test
+    void save_shouldServeSavedInstanceWithoutReading() {
+        // Arrange
+        Symphony symphony = new Symphony(TEST_TITLE, "Description", null);
+        when(delegate.save(symphony)).thenAnswer(invocation -> {
+            writeFile(TEST_TITLE, "saved");
+            return symphony;
+        });
+
+        // Act
+        repository.save(symphony);
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertSame(symphony, result.orElseThrow());
+        verify(delegate, never()).findById(TEST_TITLE);
+    }
+
+    @Test
+    void findById_shouldEvictLeastRecentlyUsedEntryWhenFull() throws IOException {
+        // Arrange
+        repository = newRepository(2, EvictionPolicy.LRU);
+        cacheSymphony("A");
+        cacheSymphony("B");
+        repository.findById("A");
+
+        // Act
+        cacheSymphony("C");
+        repository.findById("A");
+        repository.findById("B");
+
+        // Assert
+        assertEquals(2, repository.size());
+        verify(delegate, times(1)).findById("A");
+        verify(delegate, times(2)).findById("B");
+    }
+
+    @Test
+    void findById_shouldEvictOldestEntryWhenFullWithFifoPolicy() throws IOException {
+        // Arrange
+        repository = newRepository(2, EvictionPolicy.FIFO);
+        cacheSymphony("A");
+        cacheSymphony("B");
+        repository.findById("A");
+
+        // Act
+        cacheSymphony("C");
+        repository.findById("A");
+
+        // Assert
+        verify(delegate, times(2)).findById("A");
+    }
+
+    @Test
+    void deleteById_shouldInvalidateCachedSymphony() throws IOException {
+        // Arrange
+        cacheSymphony(TEST_TITLE);
+        when(delegate.deleteById(TEST_TITLE)).thenReturn(true);
+
+        // Act
+        boolean result = repository.deleteById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+        assertEquals(0, repository.size());
+    }
+
+    private CachingSymphonyRepository newRepository(int maxEntries, EvictionPolicy evictionPolicy) {
+        return new CachingSymphonyRepository(delegate, title -> storageDir.resolve(title + ".json"),
+                maxEntries, evictionPolicy);
+    }
+
+    private void cacheSymphony(String title) throws IOException {
+        writeFile(title, title);
+        when(delegate.findById(title)).thenReturn(Optional.of(new Symphony(title, null, null)));
+        repository.findById(title);
+    }
+
+    private void writeFile(String title, String content) throws IOException {
+        Files.write(storageDir.resolve(title + ".json"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,156 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.config.PersistenceSettings;
+import de.bsommerfeld.orchestra.persistence.config.StorageLayout;
+import de.bsommerfeld.orchestra.persistence.path.PlatformPathProvider;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileSymphonyRepositoryLayoutTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+
+    @Mock
+    private PlatformPathProvider pathProvider;
+
+    @TempDir
+    Path tempDir;
+
+    private Path storageDir;
+    private Symphony testSymphony;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storageDir = tempDir.resolve("symphonies");
+        when(pathProvider.getSymphonyDirectory()).thenReturn(storageDir);
+        when(pathProvider.getLegacyStorageDirectory()).thenReturn(Files.createDirectories(tempDir.resolve("legacy")));
+        Voice voice = new Voice("Voice", "Description", null, true);
+        testSymphony = new Symphony(TEST_TITLE, "Description", List.of(new Choir("Choir", null, List.of(voice))));
+    }
+
+    @Test
+    void resolvePath_shouldPlaceShardedFileOneLevelDeep() {
+        // Arrange
+        JsonSymphonyRepository repository = createRepository(StorageLayout.SHARDED);
+
+        // Act
+        Path first = repository.resolvePath(TEST_TITLE);
+        Path second = repository.resolvePath(TEST_TITLE);
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals(storageDir, first.getParent().getParent());
+        assertTrue(first.getParent().getFileName().toString().matches("[0-9a-f]{2}"));
+        assertEquals("Test_Symphony.json", first.getFileName().toString());
+    }
+
+    @Test
+    void save_shouldWriteShardedFileThatFindAllReads() {
+        // Arrange
+        JsonSymphonyRepository repository = createRepository(StorageLayout.SHARDED);
+
+        // Act
+        repository.save(testSymphony);
+
+        // Assert
+        assertTrue(Files.exists(repository.resolvePath(TEST_TITLE)));
+        assertFalse(Files.exists(storageDir.resolve("Test_Symphony.json")));
+        assertEquals(List.of(TEST_TITLE), repository.findAll().stream().map(Symphony::getTitle).toList());
+    }
+
+    @Test
+    void migrateLayout_shouldMoveFlatFilesAndJournalsIntoShards() throws IOException {
+        // Arrange
+        createRepository(StorageLayout.FLAT).save(testSymphony);
+        Path flatJournal = Files.writeString(storageDir.resolve("Test_Symphony.json.journal"), "journal");
+        JsonSymphonyRepository repository = createRepository(StorageLayout.SHARDED);
+
+        // Act
+        int result = repository.migrateLayout();
+
+        // Assert
+        Path sharded = repository.resolvePath(TEST_TITLE);
+        assertEquals(1, result);
+        assertTrue(Files.exists(sharded));
+        assertTrue(Files.exists(sharded.resolveSibling("Test_Symphony.json.journal")));
+        assertFalse(Files.exists(storageDir.resolve("Test_Symphony.json")));
+        assertFalse(Files.exists(flatJournal));
+    }
+
+    @Test
+    void findById_shouldMoveFlatFileOnDemandBeforeMigration() {
+        // Arrange
+        createRepository(StorageLayout.FLAT).save(testSymphony);
+        JsonSymphonyRepository repository = createRepository(StorageLayout.SHARDED);
+
+        // Act
+        Symphony result = repository.findById(TEST_TITLE).orElseThrow();
+
+        // Assert
+        assertEquals(testSymphony.getChoirs(), result.getChoirs());
+        assertTrue(Files.exists(repository.resolvePath(TEST_TITLE)));
+        assertFalse(Files.exists(storageDir.resolve("Test_Symphony.json")));
+    }
+
+    @Test
+    void migrateLayout_shouldMoveShardedFilesBackAndRemoveEmptyShards() throws IOException {
+        // Arrange
+        JsonSymphonyRepository sharded = createRepository(StorageLayout.SHARDED);
+        sharded.save(testSymphony);
+        Path shard = sharded.resolvePath(TEST_TITLE).getParent();
+        JsonSymphonyRepository repository = createRepository(StorageLayout.FLAT);
+
+        // Act
+        int result = repository.migrateLayout();
+
+        // Assert
+        assertEquals(1, result);
+        assertEquals(storageDir.resolve("Test_Symphony.json"), repository.resolvePath(TEST_TITLE));
+        assertTrue(Files.exists(storageDir.resolve("Test_Symphony.json")));
+        assertFalse(Files.exists(shard));
+    }
+
+    @Test
+    void migrateLayout_shouldMoveFilesOfTwoLevelShardsIntoTheirShard() throws IOException {
+        // Arrange
+        JsonSymphonyRepository repository = createRepository(StorageLayout.SHARDED);
+        Path sharded = repository.resolvePath(TEST_TITLE);
+        repository.save(testSymphony);
+        Path legacyShard = Files.createDirectories(sharded.resolveSibling("a2"));
+        Path legacy = Files.move(sharded, legacyShard.resolve("Test_Symphony.json"));
+        Files.writeString(legacyShard.resolve("Test_Symphony.json.journal"), "journal");
+
+        // Act
+        int result = repository.migrateLayout();
+
+        // Assert
+        assertEquals(1, result);
+        assertTrue(Files.exists(sharded));
+        assertTrue(Files.exists(sharded.resolveSibling("Test_Symphony.json.journal")));
+        assertFalse(Files.exists(legacy));
+        assertFalse(Files.exists(legacyShard));
+    }
+
+    private JsonSymphonyRepository createRepository(StorageLayout layout) {
+        PersistenceSettings settings = PersistenceSettings.builder().layout(layout).build();
+        return new JsonSymphonyRepository(new StreamingSymphonyCodec(), new StorageLocation(pathProvider), settings);
+    }
+}
@@ -0,0 +1,235 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.journal.JournalRecordMapper;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapper;
+import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapperImpl;
+import de.bsommerfeld.orchestra.persistence.path.PlatformPathProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledSymphonyRepositoryTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+    private static final String CHOIR_ID = "choir";
+
+    @TempDir
+    Path storageDir;
+
+    private ChoirMapperImpl choirMapper;
+    private VoiceMapperImpl voiceMapper;
+    private JsonSymphonyRepository snapshots;
+    private JournaledSymphonyRepository repository;
+
+    /**
+     * Test subclass of JsonSymphonyRepository that stores its files in the temporary directory.
+     */
+    private static class TestJsonSymphonyRepository extends JsonSymphonyRepository {
+        private static Path directory;
+
+        TestJsonSymphonyRepository(SymphonyMapper symphonyMapper) {
+            super(symphonyMapper, new PlatformPathProvider());
+        }
+
+        @Override
+        protected String getStorageDir() {
+            return directory.toString();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        TestJsonSymphonyRepository.directory = storageDir;
+        voiceMapper = new VoiceMapperImpl();
+        choirMapper = new ChoirMapperImpl(voiceMapper);
+        snapshots = new TestJsonSymphonyRepository(new SymphonyMapperImpl(choirMapper));
+        repository = newRepository(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void save_shouldAppendEditsInsteadOfRewritingSnapshot() throws IOException {
+        // Arrange
+        Voice voice1 = new Voice("Voice 1", null, null);
+        Symphony initial = symphony(List.of(voice1));
+        repository.save(initial);
+        Path snapshot = snapshots.resolvePath(TEST_TITLE);
+        byte[] snapshotBefore = Files.readAllBytes(snapshot);
+
+        // Act
+        repository.save(symphony(List.of(voice1, new Voice("Voice 2", null, null))));
+
+        // Assert
+        assertArrayEquals(snapshotBefore, Files.readAllBytes(snapshot));
+        List<String> journal = Files.readAllLines(repository.resolveJournalPath(TEST_TITLE));
+        assertEquals(2, journal.size(), "Expected a header and one insert record");
+        assertTrue(journal.get(1).contains("insertVoice"));
+    }
+
+    @Test
+    void findById_shouldReplayJournalOnTopOfSnapshot() {
+        // Arrange
+        Voice nested = new Voice("Sub Voice", null, null);
+        repository.save(symphony(List.of(new Voice("Voice 1", null, List.of(nested)))));
+        repository.save(symphony(List.of(new Voice("Voice 1", "Changed", List.of(nested.withCompleted(true))))));
+        Symphony expected = repository.save(symphony(List.of(
+                new Voice("Voice 1", "Changed", List.of(nested.withCompleted(true))),
+                new Voice("Voice 2", null, null, true))));
+        repository.close();
+
+        // Act
+        repository = newRepository(100);
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(expected.getChoirs(), result.get().getChoirs());
+        assertTrue(result.get().getChoirs().get(0).getVoices().get(0).getSubVoices().get(0).isCompleted());
+    }
+
+    @Test
+    void findById_shouldReplayVersionFromJournal() throws IOException {
+        // Arrange
+        Voice voice1 = new Voice("Voice 1", null, null);
+        repository.save(symphony(List.of(voice1)).withVersion(1));
+        repository.save(symphony(List.of(voice1)).withVersion(2));
+        repository.close();
+
+        // Act
+        repository = newRepository(100);
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(2, result.get().getVersion());
+        assertEquals(1, snapshots.findById(TEST_TITLE).orElseThrow().getVersion());
+        List<String> journal = Files.readAllLines(repository.resolveJournalPath(TEST_TITLE));
+        assertTrue(journal.get(1).contains("\"version\""));
+    }
+
+    @Test
+    void save_shouldCompactJournalIntoSnapshotAfterThreshold() {
+        // Arrange
+        repository.close();
+        repository = newRepository(2);
+        repository.save(symphony(Collections.emptyList()));
+
+        // Act
+        repository.save(symphony(List.of(new Voice("Voice 1", null, null))));
+        Symphony expected = repository.save(symphony(List.of(new Voice("Voice 1", null, null), new Voice("Voice 2", null, null))));
+        repository.flush();
+
+        // Assert
+        assertFalse(Files.exists(repository.resolveJournalPath(TEST_TITLE)));
+        Optional<Symphony> snapshot = snapshots.findById(TEST_TITLE);
+        assertTrue(snapshot.isPresent());
+        assertEquals(expected.getChoirs(), snapshot.get().getChoirs());
+    }
+
+    @Test
+    void findById_shouldIgnoreTornRecordAtEndOfJournal() throws IOException {
+        // Arrange
+        repository.save(symphony(Collections.emptyList()));
+        Symphony expected = repository.save(symphony(List.of(new Voice("Voice 1", null, null))));
+        repository.close();
+        Files.write(repository.resolveJournalPath(TEST_TITLE), "{\"op\":\"insertVo".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        // Act
+        repository = newRepository(100);
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(expected.getChoirs(), result.get().getChoirs());
+        assertFalse(Files.exists(repository.resolveJournalPath(TEST_TITLE)), "Torn journal should be folded into the snapshot");
+    }
+
+    @Test
+    void findById_shouldReplayJournalAfterSnapshotIsTouched() throws IOException {
+        // Arrange
+        repository.save(symphony(Collections.emptyList()));
+        Symphony expected = repository.save(symphony(List.of(new Voice("Voice 1", null, null))));
+        repository.close();
+        Path snapshot = snapshots.resolvePath(TEST_TITLE);
+        Files.setLastModifiedTime(snapshot, FileTime.fromMillis(Files.getLastModifiedTime(snapshot).toMillis() + 60_000));
+
+        // Act
+        repository = newRepository(100);
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(expected.getChoirs(), result.get().getChoirs());
+    }
+
+    @Test
+    void findById_shouldDiscardJournalOfSnapshotWithOtherContentOfSameSizeAndTime() throws IOException {
+        // Arrange
+        repository.save(symphony(Collections.emptyList()));
+        repository.save(symphony(List.of(new Voice("Voice 1", null, null))));
+        repository.close();
+        Path snapshot = snapshots.resolvePath(TEST_TITLE);
+        FileTime modified = Files.getLastModifiedTime(snapshot);
+        String content = Files.readString(snapshot).replace("\"Description\"", "\"Replaced!!\"");
+        Files.writeString(snapshot, content);
+        Files.setLastModifiedTime(snapshot, modified);
+
+        // Act
+        repository = newRepository(100);
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(Optional.of("Replaced!!"), result.get().getDescription());
+        assertTrue(result.get().getChoirs().get(0).getVoices().isEmpty());
+        assertFalse(Files.exists(repository.resolveJournalPath(TEST_TITLE)));
+    }
+
+    @Test
+    void deleteById_shouldDeleteSnapshotAndJournal() {
+        // Arrange
+        repository.save(symphony(Collections.emptyList()));
+        repository.save(symphony(List.of(new Voice("Voice 1", null, null))));
+
+        // Act
+        boolean result = repository.deleteById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(repository.existsById(TEST_TITLE));
+        assertFalse(Files.exists(repository.resolveJournalPath(TEST_TITLE)));
+        assertFalse(Files.exists(snapshots.resolvePath(TEST_TITLE)));
+    }
+
+    private JournaledSymphonyRepository newRepository(int compactAfterRecords) {
+        return new JournaledSymphonyRepository(snapshots, new JournalRecordMapper(choirMapper, voiceMapper),
+                compactAfterRecords, Long.MAX_VALUE);
+    }
+
+    private static Symphony symphony(List<Voice> voices) {
+        return new Symphony(TEST_TITLE, "Description", List.of(new Choir(CHOIR_ID, "Choir", null, voices)));
+    }
+}
@@ -3,9 +3,17 @@ package de.bsommerfeld.orchestra.persistence.repository;
 import de.bsommerfeld.orchestra.model.Choir;
 import de.bsommerfeld.orchestra.model.Symphony;
 import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.codec.DtoSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.codec.SymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.config.PersistenceSettings;
 import de.bsommerfeld.orchestra.persistence.dto.SymphonyDTO;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapperImpl;
 import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapper;
+import de.bsommerfeld.orchestra.persistence.mapper.SymphonyMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapperImpl;
 import de.bsommerfeld.orchestra.persistence.path.PlatformPathProvider;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,9 +26,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -99,6 +109,24 @@ class JsonSymphonyRepositoryTest {
         assertTrue(Files.exists(Paths.get(TEST_STORAGE_DIR, TEST_TITLE.replaceAll("[^a-zA-Z0-9.-]", "_") + ".json")));
     }
 
+    @Test
+    void save_shouldKeepPreviousFileWhenWriteFails() throws IOException {
+        // Arrange
+        repository.save(testSymphony);
+        Path file = repository.resolvePath(TEST_TITLE);
+        byte[] before = Files.readAllBytes(file);
+        when(symphonyMapper.toDto(any(Symphony.class))).thenThrow(new IllegalStateException("Disk full"));
+
+        // Act
+        assertThrows(RuntimeException.class, () -> repository.save(testSymphony));
+
+        // Assert
+        assertArrayEquals(before, Files.readAllBytes(file));
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")), "Temporary file should be deleted");
+        }
+    }
+
     @Test
     void save_shouldThrowExceptionWhenSymphonyIsNull() {
         // Act & Assert
@@ -238,4 +266,40 @@ class JsonSymphonyRepositoryTest {
         // Assert
         assertFalse(result);
     }
+
+    @Test
+    void findById_shouldDeriveSameIdsForFileWithoutIdsOnEveryRead() throws IOException {
+        // Arrange
+        String json = "{\"title\":\"" + TEST_TITLE + "\",\"choirs\":[{\"name\":\"Choir\",\"voices\":"
+                + "[{\"title\":\"Same\",\"subVoices\":[{\"title\":\"Sub\"}]},{\"title\":\"Same\"}]}]}";
+        Files.writeString(Paths.get(TEST_STORAGE_DIR, "Test_Symphony.json"), json);
+        SymphonyMapper realMapper = new SymphonyMapperImpl(new ChoirMapperImpl(new VoiceMapperImpl()));
+        List<SymphonyCodec> codecs = List.of(new StreamingSymphonyCodec(), new DtoSymphonyCodec(realMapper));
+
+        for (SymphonyCodec codec : codecs) {
+            // Uncached, so every read parses the file again
+            JsonSymphonyRepository uncached = new JsonSymphonyRepository(codec, new StorageLocation(pathProvider),
+                    PersistenceSettings.defaults());
+
+            // Act
+            Symphony first = uncached.findById(TEST_TITLE).orElseThrow();
+            Symphony second = uncached.findById(TEST_TITLE).orElseThrow();
+
+            // Assert
+            Choir choir = first.getChoirs().get(0);
+            assertEquals(choir.getId(), second.getChoirs().get(0).getId());
+            assertEquals(ids(choir.getVoices()), ids(second.getChoirs().get(0).getVoices()));
+            assertNotEquals(choir.getVoices().get(0).getId(), choir.getVoices().get(1).getId());
+            assertEquals(3, first.index().voiceCount());
+        }
+    }
+
+    private static List<String> ids(List<Voice> voices) {
+        List<String> ids = new ArrayList<>();
+        for (Voice voice : voices) {
+            ids.add(voice.getId());
+            ids.addAll(ids(voice.getSubVoices()));
+        }
+        return ids;
+    }
 }
\ No newline at end of file
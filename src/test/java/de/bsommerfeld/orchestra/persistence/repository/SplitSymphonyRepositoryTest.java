@@ -0,0 +1,218 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.persistence.mapper.ChoirMapperImpl;
+import de.bsommerfeld.orchestra.persistence.mapper.VoiceMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitSymphonyRepositoryTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+    private static final String TEST_DESCRIPTION = "Test Description";
+
+    @TempDir
+    Path tempDir;
+
+    private SplitSymphonyRepository repository;
+    private Symphony testSymphony;
+
+    @BeforeEach
+    void setUp() {
+        repository = new SplitSymphonyRepository(new ChoirMapperImpl(new VoiceMapperImpl()), tempDir);
+        Voice subVoice = new Voice("Sub Voice", null, null, false);
+        Voice voice1 = new Voice("Voice 1", "First voice", List.of(subVoice), false);
+        Voice voice2 = new Voice("Voice 2", null, null, true);
+        Choir choir1 = new Choir("Choir 1", "First choir", List.of(voice1, voice2));
+        Choir choir2 = new Choir("Choir 2", null, List.of(new Voice("Voice 3", null, null)));
+        testSymphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(choir1, choir2));
+    }
+
+    @Test
+    void save_shouldStoreHeaderAndOneFilePerChoir() throws IOException {
+        // Act
+        Symphony result = repository.save(testSymphony);
+
+        // Assert
+        assertEquals(testSymphony, result);
+        assertEquals(2, choirFiles().size());
+        assertTrue(Files.exists(repository.resolveDirectory(TEST_TITLE).resolve("symphony.header")));
+    }
+
+    @Test
+    void save_shouldThrowExceptionWhenSymphonyIsNull() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> repository.save(null));
+    }
+
+    @Test
+    void findById_shouldLoadChoirsLazily() {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        Symphony result = repository.findById(TEST_TITLE).orElseThrow();
+
+        // Assert
+        assertEquals(TEST_DESCRIPTION, result.getDescription().orElseThrow());
+        assertEquals(List.of("Choir 1", "Choir 2"), result.getChoirs().stream().map(Choir::getName).toList());
+        assertFalse(result.getChoirs().get(0).isLoaded());
+        assertEquals(testSymphony.getChoirs().get(0).getVoices(), result.getChoirs().get(0).getVoices());
+        assertTrue(result.getChoirs().get(0).isLoaded());
+        assertFalse(result.getChoirs().get(1).isLoaded());
+    }
+
+    @Test
+    void findById_shouldReturnEmptyOptionalWhenDoesNotExist() {
+        // Act
+        Optional<Symphony> result = repository.findById("NonExistentSymphony");
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void findById_shouldReturnEmptyOptionalWhenIdIsNull() {
+        // Act
+        Optional<Symphony> result = repository.findById(null);
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void save_shouldOnlyWriteChangedChoirs() throws IOException {
+        // Arrange
+        repository.save(testSymphony);
+        Set<Path> filesBefore = choirFiles();
+        Symphony loaded = repository.findById(TEST_TITLE).orElseThrow();
+        Choir unchanged = loaded.getChoirs().get(0);
+        Choir changed = new Choir("Choir 2", null, List.of(new Voice("Voice 3", null, null, true)));
+
+        // Act
+        repository.save(new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(unchanged, changed)));
+
+        // Assert
+        Set<Path> filesAfter = choirFiles();
+        assertEquals(2, filesAfter.size());
+        assertEquals(1, filesAfter.stream().filter(filesBefore::contains).count(), "The unchanged choir keeps its file");
+        assertFalse(unchanged.isLoaded(), "An unchanged choir is not even loaded to be saved");
+        Symphony result = repository.findById(TEST_TITLE).orElseThrow();
+        assertEquals(List.of(testSymphony.getChoirs().get(0), changed), result.getChoirs());
+    }
+
+    @Test
+    void save_shouldLoadHandedOutChoirsBeforeDeletingTheirFiles() {
+        // Arrange
+        repository.save(testSymphony);
+        Symphony stale = repository.findById(TEST_TITLE).orElseThrow();
+
+        // Act
+        repository.save(new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(new Choir("Other", null, null))));
+
+        // Assert
+        assertEquals(testSymphony.getChoirs(), stale.getChoirs());
+    }
+
+    @Test
+    void findAll_shouldReturnAllSymphonies() {
+        // Arrange
+        Symphony symphony1 = new Symphony("Symphony 1", "Description 1", null);
+        Symphony symphony2 = new Symphony("Symphony 2", "Description 2", testSymphony.getChoirs());
+        repository.save(symphony1);
+        repository.save(symphony2);
+
+        // Act
+        List<Symphony> result = repository.findAll();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Symphony 1", result.get(0).getTitle());
+        assertEquals(testSymphony.getChoirs(), result.get(1).getChoirs());
+    }
+
+    @Test
+    void deleteById_shouldDeleteSymphonyDirectory() {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        boolean result = repository.deleteById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(repository.existsById(TEST_TITLE));
+        assertFalse(Files.exists(repository.resolveDirectory(TEST_TITLE)));
+    }
+
+    @Test
+    void deleteById_shouldReturnFalseWhenDoesNotExist() {
+        // Act
+        boolean result = repository.deleteById("NonExistentSymphony");
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void existsById_shouldReturnTrueWhenExists() {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        boolean result = repository.existsById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    void existsById_shouldReturnFalseWhenIdIsNull() {
+        // Act
+        boolean result = repository.existsById(null);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void listSummaries_shouldCountVoicesFromHeader() throws IOException {
+        // Arrange
+        repository.save(testSymphony);
+        for (Path file : choirFiles()) {
+            // The counts must come from the header alone
+            Files.writeString(file, "not a choir");
+        }
+
+        // Act
+        List<SymphonySummary> result = repository.listSummaries();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(TEST_TITLE, result.get(0).getTitle());
+        assertEquals(2, result.get(0).getChoirCount());
+        assertEquals(4, result.get(0).getVoiceCount());
+        assertEquals(1, result.get(0).getCompletedCount());
+    }
+
+    private Set<Path> choirFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(repository.resolveDirectory(TEST_TITLE))) {
+            return paths.filter(path -> path.toString().endsWith(".choir")).collect(Collectors.toSet());
+        }
+    }
+}
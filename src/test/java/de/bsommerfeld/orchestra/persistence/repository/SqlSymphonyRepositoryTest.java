@@ -0,0 +1,260 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
+import de.bsommerfeld.orchestra.model.Voice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlSymphonyRepositoryTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+    private static final String TEST_DESCRIPTION = "Test Description";
+
+    @TempDir
+    Path tempDir;
+
+    private SqlSymphonyRepository repository;
+    private Symphony testSymphony;
+
+    @BeforeEach
+    void setUp() {
+        repository = new SqlSymphonyRepository(tempDir.resolve("symphonies"));
+        Voice subVoice = new Voice("Sub Voice", null, null, false);
+        Voice voice1 = new Voice("Voice 1", "First voice", List.of(subVoice), false);
+        Voice voice2 = new Voice("Voice 2", null, null, true);
+        Choir choir1 = new Choir("Choir 1", "First choir", List.of(voice1, voice2));
+        Choir choir2 = new Choir("Choir 2", null, List.of(new Voice("Voice 3", null, null)));
+        testSymphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(choir1, choir2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void save_shouldStoreSymphonyTree() {
+        // Act
+        Symphony result = repository.save(testSymphony);
+
+        // Assert
+        assertEquals(testSymphony, result);
+        assertSameTree(testSymphony, repository.findById(TEST_TITLE).orElseThrow());
+    }
+
+    @Test
+    void save_shouldThrowExceptionWhenSymphonyIsNull() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> repository.save(null));
+    }
+
+    @Test
+    void save_shouldOnlyTouchChangedRows() throws SQLException {
+        // Arrange
+        repository.save(testSymphony);
+        Map<String, Long> idsBefore = voiceIds();
+        Choir choir1 = testSymphony.getChoirs().get(0);
+        Voice voice1 = choir1.getVoices().get(0);
+        Voice voice2 = choir1.getVoices().get(1).withCompleted(false);
+        Choir choir2 = testSymphony.getChoirs().get(1);
+        Symphony updated = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(choir1.getId(), choir1.getName(), "Changed choir", List.of(voice1, voice2)), choir2));
+        Symphony inserted = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(choir1.getId(), choir1.getName(), "Changed choir",
+                        List.of(voice1, new Voice("Inserted", null, null), voice2)), choir2));
+        Symphony removed = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(inserted.getChoirs().get(0)));
+
+        // Act
+        repository.save(updated);
+        repository.save(inserted);
+        repository.save(removed);
+
+        // Assert
+        assertSameTree(removed, repository.findById(TEST_TITLE).orElseThrow());
+        Map<String, Long> idsAfter = voiceIds();
+        assertEquals(idsBefore.get("Voice 1"), idsAfter.get("Voice 1"));
+        assertEquals(idsBefore.get("Sub Voice"), idsAfter.get("Sub Voice"));
+        assertEquals(idsBefore.get("Voice 2"), idsAfter.get("Voice 2"), "Updated and shifted voices keep their row");
+        assertFalse(idsAfter.containsKey("Voice 3"), "Voices of a removed choir are deleted");
+        assertTrue(idsAfter.containsKey("Inserted"));
+    }
+
+    @Test
+    void findById_shouldReturnSymphonyWhenExists() {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertSameTree(testSymphony, result.get());
+    }
+
+    @Test
+    void findById_shouldReturnEmptyOptionalWhenDoesNotExist() {
+        // Act
+        Optional<Symphony> result = repository.findById("NonExistentSymphony");
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void findById_shouldReturnEmptyOptionalWhenIdIsNull() {
+        // Act
+        Optional<Symphony> result = repository.findById(null);
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void findAll_shouldReturnAllSymphonies() {
+        // Arrange
+        Symphony symphony1 = new Symphony("Symphony 1", "Description 1", null);
+        Symphony symphony2 = new Symphony("Symphony 2", "Description 2", testSymphony.getChoirs());
+        repository.save(symphony1);
+        repository.save(symphony2);
+
+        // Act
+        List<Symphony> result = repository.findAll();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertSameTree(symphony1, result.get(0));
+        assertSameTree(symphony2, result.get(1));
+    }
+
+    @Test
+    void deleteById_shouldDeleteSymphonyWhenExists() throws SQLException {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        boolean result = repository.deleteById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(repository.existsById(TEST_TITLE));
+        assertTrue(voiceIds().isEmpty(), "Choirs and voices are deleted with their Symphony");
+    }
+
+    @Test
+    void deleteById_shouldReturnFalseWhenDoesNotExist() {
+        // Act
+        boolean result = repository.deleteById("NonExistentSymphony");
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void deleteById_shouldReturnFalseWhenIdIsNull() {
+        // Act
+        boolean result = repository.deleteById(null);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void existsById_shouldReturnTrueWhenExists() {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        boolean result = repository.existsById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    void existsById_shouldReturnFalseWhenDoesNotExist() {
+        // Act
+        boolean result = repository.existsById("NonExistentSymphony");
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void existsById_shouldReturnFalseWhenIdIsNull() {
+        // Act
+        boolean result = repository.existsById(null);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    void listSummaries_shouldCountNodesInDatabase() {
+        // Arrange
+        repository.save(testSymphony);
+
+        // Act
+        List<SymphonySummary> result = repository.listSummaries();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(TEST_TITLE, result.get(0).getTitle());
+        assertEquals(2, result.get(0).getChoirCount());
+        assertEquals(4, result.get(0).getVoiceCount());
+        assertEquals(1, result.get(0).getCompletedCount());
+    }
+
+    @Test
+    void constructor_shouldReopenExistingDatabase() {
+        // Arrange
+        repository.save(testSymphony);
+        repository.close();
+
+        // Act
+        repository = new SqlSymphonyRepository(tempDir.resolve("symphonies"));
+        repository.save(new Symphony("Second", null, testSymphony.getChoirs()));
+
+        // Assert
+        assertSameTree(testSymphony, repository.findById(TEST_TITLE).orElseThrow());
+        assertEquals(2, repository.findAll().size());
+    }
+
+    private Map<String, Long> voiceIds() throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + tempDir.resolve("symphonies").toAbsolutePath());
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT title, id FROM voice")) {
+            while (result.next()) {
+                ids.put(result.getString(1), result.getLong(2));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Compares everything but the creation timestamp, which the Symphony sets itself when it is read.
+     */
+    private static void assertSameTree(Symphony expected, Symphony actual) {
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getChoirs(), actual.getChoirs());
+    }
+}
@@ -0,0 +1,209 @@
+package de.bsommerfeld.orchestra.persistence.repository;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindSymphonyRepositoryTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+
+    @Mock
+    private SymphonyRepository delegate;
+
+    private WriteBehindSymphonyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new WriteBehindSymphonyRepository(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void save_shouldWriteThroughToDelegateOnFlush() {
+        // Arrange
+        Symphony symphony = new Symphony(TEST_TITLE, "Description", null);
+
+        // Act
+        Symphony result = repository.save(symphony);
+        repository.flush();
+
+        // Assert
+        assertSame(symphony, result);
+        verify(delegate).save(symphony);
+    }
+
+    @Test
+    void findById_shouldReturnPendingStateBeforeItIsWritten() throws InterruptedException {
+        // Arrange
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        blockWrites(writeStarted, releaseWrite);
+        Symphony symphony = new Symphony(TEST_TITLE, "Description", null);
+
+        // Act
+        repository.save(symphony);
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        Optional<Symphony> result = repository.findById(TEST_TITLE);
+        boolean exists = repository.existsById(TEST_TITLE);
+        releaseWrite.countDown();
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertSame(symphony, result.get());
+        assertTrue(exists);
+        verify(delegate, never()).findById(TEST_TITLE);
+    }
+
+    @Test
+    void save_shouldCoalesceRepeatedSavesOfTheSameTitle() throws InterruptedException {
+        // Arrange
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        blockWrites(writeStarted, releaseWrite);
+        Symphony first = new Symphony(TEST_TITLE, "Version 1", null);
+
+        // Act
+        repository.save(first);
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        Symphony last = null;
+        for (int i = 2; i <= 5; i++) {
+            last = repository.save(new Symphony(TEST_TITLE, "Version " + i, null));
+        }
+        releaseWrite.countDown();
+        repository.flush();
+
+        // Assert
+        ArgumentCaptor<Symphony> captor = ArgumentCaptor.forClass(Symphony.class);
+        verify(delegate, times(2)).save(captor.capture());
+        assertSame(first, captor.getAllValues().get(0));
+        assertSame(last, captor.getAllValues().get(1));
+    }
+
+    @Test
+    void findAll_shouldOverlayPendingStateOnStoredSymphonies() throws InterruptedException {
+        // Arrange
+        Symphony stored = new Symphony(TEST_TITLE, "Stored", null);
+        Symphony other = new Symphony("Other Symphony", "Other", null);
+        when(delegate.findAll()).thenReturn(List.of(stored, other));
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        blockWrites(writeStarted, releaseWrite);
+        Symphony updated = new Symphony(TEST_TITLE, "Updated", null);
+
+        // Act
+        repository.save(updated);
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        List<Symphony> result = repository.findAll();
+        releaseWrite.countDown();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.contains(updated));
+        assertTrue(result.contains(other));
+        assertFalse(result.contains(stored));
+    }
+
+    @Test
+    void deleteById_shouldDropPendingStateAndDeleteFromDelegate() {
+        // Arrange
+        when(delegate.deleteById(TEST_TITLE)).thenReturn(true);
+        repository.save(new Symphony(TEST_TITLE, "Description", Collections.emptyList()));
+
+        // Act
+        boolean result = repository.deleteById(TEST_TITLE);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(repository.findById(TEST_TITLE).isPresent());
+        verify(delegate).deleteById(TEST_TITLE);
+    }
+
+    @Test
+    void flush_shouldThrowWhenWriteFailsAndKeepStatePending() {
+        // Arrange
+        when(delegate.save(any(Symphony.class))).thenThrow(new RuntimeException("Disk full"));
+        Symphony symphony = new Symphony(TEST_TITLE, "Description", null);
+
+        // Act
+        repository.save(symphony);
+
+        // Assert
+        assertThrows(RuntimeException.class, () -> repository.flush());
+        assertSame(symphony, repository.findById(TEST_TITLE).orElse(null));
+
+        // Let the final flush in tearDown succeed
+        reset(delegate);
+    }
+
+    @Test
+    void save_shouldThrowWhenWriteAfterFailedWriteFailsAgain() {
+        // Arrange
+        RuntimeException failure = new RuntimeException("Disk full");
+        when(delegate.save(any(Symphony.class))).thenThrow(failure);
+        repository.save(new Symphony(TEST_TITLE, "Description", null));
+        assertThrows(RuntimeException.class, () -> repository.flush());
+        Symphony next = new Symphony(TEST_TITLE, "Changed", null);
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> repository.save(next));
+
+        // Assert
+        assertSame(failure, exception.getCause());
+        assertSame(next, repository.findById(TEST_TITLE).orElse(null));
+
+        // Let the final flush in tearDown succeed
+        reset(delegate);
+    }
+
+    @Test
+    void save_shouldWriteThroughAndClearFailureWhenWriteSucceedsAgain() {
+        // Arrange
+        when(delegate.save(any(Symphony.class))).thenThrow(new RuntimeException("Disk full"));
+        repository.save(new Symphony(TEST_TITLE, "Description", null));
+        assertThrows(RuntimeException.class, () -> repository.flush());
+        reset(delegate);
+        Symphony next = new Symphony(TEST_TITLE, "Changed", null);
+
+        // Act
+        repository.save(next);
+
+        // Assert
+        verify(delegate).save(next);
+        assertDoesNotThrow(() -> repository.flush());
+    }
+
+    @Test
+    void save_shouldThrowExceptionWhenSymphonyIsNull() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> repository.save(null));
+    }
+
+    private void blockWrites(CountDownLatch writeStarted, CountDownLatch releaseWrite) {
+        when(delegate.save(any(Symphony.class))).thenAnswer(invocation -> {
+            writeStarted.countDown();
+            releaseWrite.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package de.bsommerfeld.orchestra.persistence.service;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncSymphonyServiceImplTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+    private static final String TEST_DESCRIPTION = "Test Description";
+
+    @Mock
+    private SymphonyService symphonyService;
+
+    private AsyncSymphonyServiceImpl asyncSymphonyService;
+    private Symphony testSymphony;
+
+    @BeforeEach
+    void setUp() {
+        asyncSymphonyService = new AsyncSymphonyServiceImpl(symphonyService);
+        testSymphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, Collections.emptyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncSymphonyService.close();
+    }
+
+    @Test
+    void getSymphony_shouldRunOnVirtualThread() throws Exception {
+        // Arrange
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        when(symphonyService.getSymphony(TEST_TITLE)).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread());
+            return Optional.of(testSymphony);
+        });
+
+        // Act
+        Optional<Symphony> result = asyncSymphonyService.getSymphony(TEST_TITLE).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(Optional.of(testSymphony), result);
+        assertTrue(thread.get().isVirtual());
+        assertNotSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    void addVoiceTo_shouldCompleteExceptionallyWhenServiceThrows() {
+        // Arrange
+        IllegalArgumentException failure = new IllegalArgumentException("Choir or Voice does not exist");
+        when(symphonyService.addVoiceTo(TEST_TITLE, "missing", null)).thenThrow(failure);
+
+        // Act
+        CompletableFuture<Symphony> result = asyncSymphonyService.addVoiceTo(TEST_TITLE, "missing", null);
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void close_shouldWaitForRunningOperations() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(symphonyService.createSymphony(TEST_TITLE, TEST_DESCRIPTION)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return testSymphony;
+        });
+        CompletableFuture<Symphony> result = asyncSymphonyService.createSymphony(TEST_TITLE, TEST_DESCRIPTION);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Thread closer = Thread.ofVirtual().start(asyncSymphonyService::close);
+        assertFalse(closer.join(Duration.ofMillis(100)));
+        release.countDown();
+
+        // Assert
+        assertTrue(closer.join(Duration.ofSeconds(5)));
+        assertTrue(result.isDone());
+        assertSame(testSymphony, result.get());
+    }
+}
@@ -1,8 +1,13 @@
 package de.bsommerfeld.orchestra.persistence.service;
 
 import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Rollup;
 import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.SymphonySummary;
 import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.VoicePath;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEvent;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEventBus;
 import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,8 +17,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,14 +45,17 @@ class SymphonyServiceImplTest {
     private SymphonyRepository symphonyRepository;
 
     private SymphonyServiceImpl symphonyService;
+    private final List<SymphonyEvent> events = new ArrayList<>();
     private Symphony testSymphony;
     private Choir testChoir;
     private Voice testVoice;
 
     @BeforeEach
     void setUp() {
-        // Initialize the service with the mock repository
-        symphonyService = new SymphonyServiceImpl(symphonyRepository);
+        // Initialize the service with the mock repository and record the published events
+        SymphonyEventBus eventBus = new SymphonyEventBus();
+        eventBus.addListener(events::add);
+        symphonyService = new SymphonyServiceImpl(symphonyRepository, eventBus);
 
         // Create test objects
         testVoice = new Voice(TEST_VOICE_TITLE, "Test Voice Description", Collections.emptyList());
@@ -117,29 +133,56 @@ class SymphonyServiceImplTest {
         verify(symphonyRepository).findAll();
     }
 
+    @Test
+    void listSummaries_shouldReturnRepositorySummaries() {
+        // Arrange
+        List<SymphonySummary> summaries = Collections.singletonList(SymphonySummary.of(testSymphony));
+        when(symphonyRepository.listSummaries()).thenReturn(summaries);
+
+        // Act
+        List<SymphonySummary> result = symphonyService.listSummaries();
+
+        // Assert
+        assertEquals(summaries, result);
+        verify(symphonyRepository).listSummaries();
+        verify(symphonyRepository, never()).findAll();
+    }
+
     @Test
     void updateSymphony_shouldUpdateSymphonyWhenExists() {
         // Arrange
-        when(symphonyRepository.existsById(TEST_TITLE)).thenReturn(true);
-        when(symphonyRepository.save(testSymphony)).thenReturn(testSymphony);
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         Symphony result = symphonyService.updateSymphony(testSymphony);
 
         // Assert
         assertEquals(testSymphony, result);
-        verify(symphonyRepository).existsById(TEST_TITLE);
-        verify(symphonyRepository).save(testSymphony);
+        assertEquals(testSymphony.getVersion() + 1, result.getVersion());
+        verify(symphonyRepository).findById(TEST_TITLE);
+        verify(symphonyRepository).save(result);
     }
 
     @Test
     void updateSymphony_shouldThrowExceptionWhenDoesNotExist() {
         // Arrange
-        when(symphonyRepository.existsById(TEST_TITLE)).thenReturn(false);
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> symphonyService.updateSymphony(testSymphony));
-        verify(symphonyRepository).existsById(TEST_TITLE);
+        verify(symphonyRepository).findById(TEST_TITLE);
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+    }
+
+    @Test
+    void updateSymphony_shouldThrowExceptionWhenBasedOnOutdatedVersion() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony.withVersion(3)));
+
+        // Act & Assert
+        assertThrows(ConcurrentModificationException.class, () ->
+            symphonyService.updateSymphony(testSymphony.withVersion(2)));
         verify(symphonyRepository, never()).save(any(Symphony.class));
     }
 
@@ -258,6 +301,26 @@ class SymphonyServiceImplTest {
         verify(symphonyRepository).save(any(Symphony.class));
     }
 
+    @Test
+    void addVoice_shouldShareUntouchedChoirsAndVoices() {
+        // Arrange
+        Choir otherChoir = new Choir("Other Choir", null, List.of(new Voice("Other Voice", null, null)));
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(testChoir, otherChoir));
+        Voice newVoice = new Voice("New Voice", null, Collections.emptyList());
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.addVoice(TEST_TITLE, TEST_CHOIR_NAME, newVoice);
+
+        // Assert
+        Choir updatedChoir = result.getChoirs().get(0);
+        assertEquals(testChoir.getId(), updatedChoir.getId());
+        assertEquals(List.of(testVoice, newVoice), updatedChoir.getVoices());
+        assertSame(testVoice, updatedChoir.getVoices().get(0));
+        assertSame(otherChoir, result.getChoirs().get(1));
+    }
+
     @Test
     void addVoice_shouldThrowExceptionWhenSymphonyDoesNotExist() {
         // Arrange
@@ -338,4 +401,490 @@ class SymphonyServiceImplTest {
         verify(symphonyRepository).findById(TEST_TITLE);
         verify(symphonyRepository, never()).save(any(Symphony.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void addVoiceTo_shouldAddVoiceToVoiceWithId() {
+        // Arrange
+        Voice newVoice = new Voice("New Voice", null, Collections.emptyList());
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.addVoiceTo(TEST_TITLE, testVoice.getId(), newVoice);
+
+        // Assert
+        Voice parent = result.getChoirs().get(0).getVoices().get(0);
+        assertEquals(testVoice.getId(), parent.getId());
+        assertEquals(List.of(newVoice), parent.getSubVoices());
+        assertEquals(Optional.of(VoicePath.of(0, 0, 0)), result.index().pathOf(newVoice.getId()));
+    }
+
+    @Test
+    void addVoiceTo_shouldThrowExceptionWhenIdAlreadyExists() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.addVoiceTo(TEST_TITLE, testChoir.getId(), testVoice));
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+    }
+
+    @Test
+    void setVoiceCompleted_shouldOnlyUpdateVoiceWithIdWhenTitlesAreEqual() {
+        // Arrange
+        Voice first = new Voice("Same", null, Collections.emptyList());
+        Voice second = new Voice("Same", null, Collections.emptyList());
+        Voice parent = new Voice("Parent", null, List.of(first, second), false);
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(TEST_CHOIR_NAME, null, List.of(parent))));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.setVoiceCompleted(TEST_TITLE, second.getId(), true);
+
+        // Assert
+        assertFalse(result.index().findVoice(first.getId()).orElseThrow().isCompleted());
+        assertTrue(result.index().findVoice(second.getId()).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void setVoiceCompleted_shouldUpdateRollupsAlongThePathOnly() {
+        // Arrange
+        Voice child = new Voice("Child", null, Collections.emptyList());
+        Voice parent = new Voice("Parent", null, List.of(child, testVoice), true);
+        Choir other = new Choir("Other", null, List.of(new Voice("Done", null, null, true)));
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(TEST_CHOIR_NAME, null, List.of(parent)), other));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.setVoiceCompleted(TEST_TITLE, child.getId(), true);
+
+        // Assert
+        assertEquals(new Rollup(4, 2, 2), symphony.getRollup());
+        assertEquals(new Rollup(4, 3, 2), result.getRollup());
+        assertEquals(new Rollup(3, 2, 2), result.getChoirs().get(0).getRollup());
+        assertEquals(2, result.getChoirs().get(0).getVoices().get(0).getDescendantCount());
+        assertSame(other.getRollup(), result.getChoirs().get(1).getRollup());
+    }
+
+    @Test
+    void removeVoiceById_shouldRemoveVoiceWithSubVoices() {
+        // Arrange
+        Voice child = new Voice("Child", null, Collections.emptyList());
+        Voice parent = new Voice("Parent", null, List.of(child), false);
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(TEST_CHOIR_NAME, null, List.of(parent, testVoice))));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.removeVoiceById(TEST_TITLE, parent.getId());
+
+        // Assert
+        assertEquals(List.of(testVoice), result.getChoirs().get(0).getVoices());
+        assertTrue(result.index().findVoice(child.getId()).isEmpty());
+    }
+
+    @Test
+    void moveVoice_shouldMoveVoiceBelowLaterSiblingAndKeepId() {
+        // Arrange
+        Voice moved = new Voice("Moved", null, Collections.emptyList());
+        Voice sibling = new Voice("Sibling", null, List.of(testVoice), false);
+        Choir choir = new Choir(TEST_CHOIR_NAME, null, List.of(moved, sibling));
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(choir));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.moveVoice(TEST_TITLE, moved.getId(), sibling.getId());
+
+        // Assert
+        assertEquals(Optional.of(VoicePath.of(0, 0, 1)), result.index().pathOf(moved.getId()));
+        assertEquals(List.of(testVoice, moved), result.getChoirs().get(0).getVoices().get(0).getSubVoices());
+        assertEquals(choir.getId(), result.getChoirs().get(0).getId());
+    }
+
+    @Test
+    void moveVoice_shouldMoveVoiceToEndOfItsChoir() {
+        // Arrange
+        Voice moved = new Voice("Moved", null, Collections.emptyList());
+        Voice other = new Voice("Other", null, Collections.emptyList());
+        Choir choir = new Choir(TEST_CHOIR_NAME, null, List.of(moved, other));
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(choir));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.moveVoice(TEST_TITLE, moved.getId(), choir.getId());
+
+        // Assert
+        assertEquals(List.of(other, moved), result.getChoirs().get(0).getVoices());
+    }
+
+    @Test
+    void moveVoice_shouldMoveNestedVoiceToAnotherChoirAndShareTheRest() {
+        // Arrange
+        Voice moved = new Voice("Moved", null, List.of(new Voice("Child", null, null)), false);
+        Voice parent = new Voice("Parent", null, List.of(testVoice, moved), false);
+        Choir source = new Choir("Source", null, List.of(parent));
+        Choir target = new Choir("Target", null, Collections.emptyList());
+        Choir untouched = new Choir("Untouched", null, List.of(new Voice("Other", null, null)));
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION, List.of(source, untouched, target));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.moveVoice(TEST_TITLE, moved.getId(), target.getId());
+
+        // Assert
+        assertEquals(List.of(testVoice), result.getChoirs().get(0).getVoices().get(0).getSubVoices());
+        assertSame(moved, result.voiceAt(VoicePath.of(2, 0)));
+        assertSame(untouched, result.getChoirs().get(1));
+        assertSame(testVoice, result.voiceAt(VoicePath.of(0, 0, 0)));
+    }
+
+    @Test
+    void moveVoice_shouldThrowExceptionWhenTargetIsWithinVoice() {
+        // Arrange
+        Voice child = new Voice("Child", null, Collections.emptyList());
+        Voice parent = new Voice("Parent", null, List.of(child), false);
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(TEST_CHOIR_NAME, null, List.of(parent))));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.moveVoice(TEST_TITLE, parent.getId(), child.getId()));
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.moveVoice(TEST_TITLE, parent.getId(), parent.getId()));
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+    }
+
+    @Test
+    void transaction_shouldApplyAllChangesWithOneLoadAndOneSave() {
+        // Arrange
+        Voice moved = new Voice("Moved", null, Collections.emptyList());
+        Choir target = new Choir("Target", null, Collections.emptyList());
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(TEST_CHOIR_NAME, null, List.of(moved, testVoice)), target));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.transaction(TEST_TITLE, tx -> tx
+                .moveVoice(moved.getId(), target.getId())
+                .setVoiceCompleted(moved.getId(), true)
+                .removeVoiceById(testVoice.getId())
+                .setDescription("Changed"));
+
+        // Assert
+        assertEquals("Changed", result.getDescription().orElse(null));
+        assertTrue(result.getChoirs().get(0).getVoices().isEmpty());
+        assertEquals(List.of(moved.withCompleted(true)), result.getChoirs().get(1).getVoices());
+        verify(symphonyRepository, times(1)).findById(TEST_TITLE);
+        verify(symphonyRepository, times(1)).save(result);
+    }
+
+    @Test
+    void transaction_shouldSaveNothingWhenAChangeFails() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> symphonyService.transaction(TEST_TITLE, tx -> tx
+                .setVoiceCompleted(testVoice.getId(), true)
+                .removeVoiceById("missing")));
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void transaction_shouldNotSaveWhenNothingChanged() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+
+        // Act
+        Symphony result = symphonyService.transaction(TEST_TITLE, tx -> tx.setVoiceCompleted(testVoice.getId(), false));
+
+        // Assert
+        assertSame(testSymphony, result);
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void transaction_shouldRejectDuplicateIdsAndUseAfterCompletion() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        Choir duplicate = new Choir(testChoir.getId(), "Other", null, Collections.emptyList());
+        SymphonyTransaction[] leaked = new SymphonyTransaction[1];
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.transaction(TEST_TITLE, tx -> tx.addChoir(duplicate)));
+        symphonyService.transaction(TEST_TITLE, tx -> leaked[0] = tx);
+        assertThrows(IllegalStateException.class, () -> leaked[0].current());
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+    }
+
+    @Test
+    void transaction_shouldRejectDuplicateIdsOfEveryInsertingChange() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        Voice sameId = new Voice(testVoice.getId(), "Other", null, Collections.emptyList(), false);
+        Choir withDuplicateVoice = new Choir("Other", null, List.of(sameId));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.transaction(TEST_TITLE, tx -> tx.addVoice(TEST_CHOIR_NAME, sameId)));
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.transaction(TEST_TITLE, tx -> tx.addChoir(withDuplicateVoice)));
+        assertThrows(IllegalArgumentException.class, () ->
+            symphonyService.transaction(TEST_TITLE, tx -> tx.update(current -> current.insertAt(VoicePath.of(0, 1), sameId))));
+        verify(symphonyRepository, never()).save(any(Symphony.class));
+    }
+
+    @Test
+    void concurrentChanges_shouldNotLoseUpdates() throws Exception {
+        // Arrange
+        InMemorySymphonyRepository repository = new InMemorySymphonyRepository();
+        SymphonyService service = new SymphonyServiceImpl(repository, new SymphonyEventBus());
+        List<String> titles = List.of("First", "Second", "Third");
+        List<String> choirIds = new ArrayList<>();
+        for (String title : titles) {
+            service.createSymphony(title, null);
+            Choir choir = new Choir(TEST_CHOIR_NAME, null, Collections.emptyList());
+            service.addChoir(title, choir);
+            choirIds.add(choir.getId());
+        }
+        int threads = 8;
+        int changesPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < changesPerThread; i++) {
+                    int symphony = (thread + i) % titles.size();
+                    service.addVoiceTo(titles.get(symphony), choirIds.get(symphony),
+                            new Voice("Voice " + thread + "-" + i, null, null));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        int total = 0;
+        for (String title : titles) {
+            Symphony symphony = repository.findById(title).orElseThrow();
+            int voices = symphony.getChoirs().get(0).getVoices().size();
+            // Created, choir added, then one save per voice
+            assertEquals(2 + voices, symphony.getVersion());
+            total += voices;
+        }
+        assertEquals(threads * changesPerThread, total);
+    }
+
+    @Test
+    void transaction_shouldNotBlockChangesOfOtherSymphonies() throws Exception {
+        // Arrange
+        InMemorySymphonyRepository repository = new InMemorySymphonyRepository();
+        SymphonyService service = new SymphonyServiceImpl(repository, new SymphonyEventBus());
+        service.createSymphony("A", null);
+        service.createSymphony("B", null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act
+        Symphony result = service.transaction("A", tx -> {
+            // Change another Symphony while this one is locked
+            Future<Symphony> other = executor.submit(() ->
+                    service.transaction("B", otherTx -> otherTx.setDescription("Changed")));
+            try {
+                other.get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            tx.setDescription("Also changed");
+        });
+        executor.shutdown();
+
+        // Assert
+        assertEquals("Also changed", result.getDescription().orElse(null));
+        assertEquals("Changed", repository.findById("B").orElseThrow().getDescription().orElse(null));
+    }
+
+    @Test
+    void transaction_shouldPublishOneEventPerChangeInOrder() {
+        // Arrange
+        Voice moved = new Voice("Moved", null, Collections.emptyList());
+        Voice added = new Voice("Added", null, Collections.emptyList());
+        Choir target = new Choir("Target", null, Collections.emptyList());
+        Choir newChoir = new Choir("New Choir", null, Collections.emptyList());
+        Symphony symphony = new Symphony(TEST_TITLE, TEST_DESCRIPTION,
+                List.of(new Choir(TEST_CHOIR_NAME, null, List.of(moved, testVoice)), target));
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(symphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.transaction(TEST_TITLE, tx -> tx
+                .moveVoice(moved.getId(), target.getId())
+                .setVoiceCompleted(moved.getId(), true)
+                .addVoiceTo(moved.getId(), added)
+                .removeVoiceById(testVoice.getId())
+                .addChoir(newChoir)
+                .setDescription("Changed"));
+
+        // Assert
+        assertEquals(List.of(
+                new SymphonyEvent.VoiceMoved(result, moved.getId(), target.getId(), 0),
+                new SymphonyEvent.VoiceCompletionChanged(result, moved.getId(), true),
+                new SymphonyEvent.VoiceAdded(result, moved.getId(), 0, added),
+                new SymphonyEvent.VoiceRemoved(result, testVoice.getId()),
+                new SymphonyEvent.ChoirAdded(result, 2, newChoir),
+                new SymphonyEvent.DescriptionChanged(result)), events);
+        events.forEach(event -> assertSame(result, ((SymphonyEvent.Change) event).symphony()));
+    }
+
+    @Test
+    void transaction_shouldPublishReplacementForArbitraryUpdate() {
+        // Arrange
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = symphonyService.transaction(TEST_TITLE, tx -> tx
+                .setVoiceCompleted(testVoice.getId(), true)
+                .update(current -> current.removeAt(VoicePath.of(0, 0))));
+
+        // Assert
+        assertEquals(List.of(new SymphonyEvent.SymphonyReplaced(result)), events);
+    }
+
+    @Test
+    void transaction_shouldDeliverEventsToOtherListenersWhenOneThrows() {
+        // Arrange
+        SymphonyEventBus eventBus = new SymphonyEventBus();
+        List<SymphonyEvent> delivered = new ArrayList<>();
+        eventBus.addListener(event -> {
+            throw new IllegalStateException("Listener failed");
+        });
+        eventBus.addListener(delivered::add);
+        SymphonyService service = new SymphonyServiceImpl(symphonyRepository, eventBus);
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        List<Throwable> reported = new ArrayList<>();
+        Thread current = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = current.getUncaughtExceptionHandler();
+        current.setUncaughtExceptionHandler((thread, e) -> reported.add(e));
+
+        // Act
+        Symphony result;
+        try {
+            result = service.transaction(TEST_TITLE, tx -> tx
+                    .setVoiceCompleted(testVoice.getId(), true)
+                    .setDescription("Changed"));
+        } finally {
+            current.setUncaughtExceptionHandler(handler);
+        }
+
+        // Assert
+        assertEquals(List.of(
+                new SymphonyEvent.VoiceCompletionChanged(result, testVoice.getId(), true),
+                new SymphonyEvent.DescriptionChanged(result)), delivered);
+        assertEquals(2, reported.size());
+        verify(symphonyRepository).save(result);
+    }
+
+    @Test
+    void transaction_shouldDeliverAllEventsOfSaveToSaveListenerAtOnce() {
+        // Arrange
+        SymphonyEventBus eventBus = new SymphonyEventBus();
+        List<List<SymphonyEvent>> saves = new ArrayList<>();
+        eventBus.addSaveListener(saves::add);
+        SymphonyService service = new SymphonyServiceImpl(symphonyRepository, eventBus);
+        when(symphonyRepository.findById(TEST_TITLE)).thenReturn(Optional.of(testSymphony));
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Symphony result = service.transaction(TEST_TITLE, tx -> tx
+                .setVoiceCompleted(testVoice.getId(), true)
+                .setDescription("Changed"));
+        service.setVoiceCompleted(TEST_TITLE, testVoice.getId(), true);
+
+        // Assert
+        assertEquals(2, saves.size());
+        assertEquals(List.of(
+                new SymphonyEvent.VoiceCompletionChanged(result, testVoice.getId(), true),
+                new SymphonyEvent.DescriptionChanged(result)), saves.get(0));
+        assertEquals(1, saves.get(1).size());
+    }
+
+    @Test
+    void createAndDeleteSymphony_shouldPublishEvents() {
+        // Arrange
+        when(symphonyRepository.existsById(TEST_TITLE)).thenReturn(false);
+        when(symphonyRepository.save(any(Symphony.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(symphonyRepository.deleteById(TEST_TITLE)).thenReturn(true);
+        when(symphonyRepository.deleteById("missing")).thenReturn(false);
+
+        // Act
+        Symphony created = symphonyService.createSymphony(TEST_TITLE, TEST_DESCRIPTION);
+        symphonyService.deleteSymphony(TEST_TITLE);
+        symphonyService.deleteSymphony("missing");
+
+        // Assert
+        assertEquals(List.of(
+                new SymphonyEvent.SymphonyCreated(created),
+                new SymphonyEvent.SymphonyDeleted(TEST_TITLE)), events);
+    }
+
+    /**
+     * A thread-safe repository that yields between reading and writing, so lost updates would show up.
+     */
+    private static class InMemorySymphonyRepository implements SymphonyRepository {
+
+        private final Map<String, Symphony> symphonies = new ConcurrentHashMap<>();
+
+        @Override
+        public Symphony save(Symphony entity) {
+            Thread.yield();
+            symphonies.put(entity.getTitle(), entity);
+            return entity;
+        }
+
+        @Override
+        public Optional<Symphony> findById(String id) {
+            Optional<Symphony> symphony = Optional.ofNullable(symphonies.get(id));
+            Thread.yield();
+            return symphony;
+        }
+
+        @Override
+        public List<Symphony> findAll() {
+            return new ArrayList<>(symphonies.values());
+        }
+
+        @Override
+        public boolean deleteById(String id) {
+            return symphonies.remove(id) != null;
+        }
+
+        @Override
+        public boolean existsById(String id) {
+            return symphonies.containsKey(id);
+        }
+    }
+}
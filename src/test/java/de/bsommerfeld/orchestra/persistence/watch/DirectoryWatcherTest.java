@@ -0,0 +1,137 @@
+package de.bsommerfeld.orchestra.persistence.watch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryWatcherTest {
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @TempDir
+    Path tempDir;
+
+    private DirectoryWatcher watcher;
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void start_shouldReportChangesInOneDebouncedBatch() throws Exception {
+        // Arrange
+        BlockingQueue<DirectoryWatcher.DirectoryChanges> batches = startWatcher(Duration.ofMillis(500));
+        Path file = tempDir.resolve("Test_Symphony.json");
+
+        // Act
+        Files.writeString(file, "first");
+        Files.writeString(file, "second");
+        Files.writeString(tempDir.resolve("Other.json"), "other");
+
+        // Assert
+        DirectoryWatcher.DirectoryChanges changes = batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(changes);
+        assertEquals(Set.of(file, tempDir.resolve("Other.json")), changes.paths());
+    }
+
+    @Test
+    void start_shouldReportFilesInNewSubdirectories() throws Exception {
+        // Arrange
+        BlockingQueue<DirectoryWatcher.DirectoryChanges> batches = startWatcher(Duration.ofMillis(100));
+        Path file = tempDir.resolve("ab").resolve("cd").resolve("Test_Symphony.json");
+
+        // Act
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "content");
+
+        // Assert
+        assertTrue(collect(batches, Set.of(file)).contains(file));
+    }
+
+    @Test
+    void start_shouldReportBatchAfterMaxLatencyWhileWritesContinue() throws Exception {
+        // Arrange
+        BlockingQueue<DirectoryWatcher.DirectoryChanges> batches = new LinkedBlockingQueue<>();
+        watcher = new DirectoryWatcher(tempDir, Duration.ofMillis(500), Duration.ofSeconds(1));
+        watcher.addListener(batches::add);
+        watcher.start();
+        Path file = tempDir.resolve("Test_Symphony.json");
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // Act
+        // Write more often than the debounce delay, so the directory is never quiet
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                for (int i = 0; writing.get(); i++) {
+                    Files.writeString(file, "content " + i);
+                    Thread.sleep(50);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        DirectoryWatcher.DirectoryChanges changes;
+        try {
+            changes = batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            writing.set(false);
+            writer.join();
+        }
+
+        // Assert
+        assertNotNull(changes);
+        assertTrue(changes.paths().contains(file));
+    }
+
+    @Test
+    void constructor_shouldThrowExceptionWhenMaxLatencyIsShorterThanDebounce() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new DirectoryWatcher(tempDir, Duration.ofSeconds(1), Duration.ofMillis(500)));
+    }
+
+    @Test
+    void constructor_shouldThrowExceptionWhenDebounceIsNegative() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new DirectoryWatcher(tempDir, Duration.ofMillis(-1)));
+    }
+
+    private BlockingQueue<DirectoryWatcher.DirectoryChanges> startWatcher(Duration debounce) {
+        BlockingQueue<DirectoryWatcher.DirectoryChanges> batches = new LinkedBlockingQueue<>();
+        watcher = new DirectoryWatcher(tempDir, debounce);
+        watcher.addListener(batches::add);
+        watcher.start();
+        return batches;
+    }
+
+    /**
+     * Collects the reported paths until all expected paths were reported. Some file systems report a file in
+     * two batches when the debounce delay passes between its events, so several batches may be needed.
+     */
+    private static Set<Path> collect(BlockingQueue<DirectoryWatcher.DirectoryChanges> batches, Set<Path> expected)
+            throws InterruptedException {
+        Set<Path> paths = new HashSet<>();
+        while (!paths.containsAll(expected)) {
+            DirectoryWatcher.DirectoryChanges changes = batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(changes, "Expected changes were not reported: " + expected);
+            assertFalse(changes.overflow());
+            paths.addAll(changes.paths());
+        }
+        return paths;
+    }
+}
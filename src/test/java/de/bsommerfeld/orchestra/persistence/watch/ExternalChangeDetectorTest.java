@@ -0,0 +1,125 @@
+package de.bsommerfeld.orchestra.persistence.watch;
+
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.persistence.codec.StreamingSymphonyCodec;
+import de.bsommerfeld.orchestra.persistence.config.PersistenceSettings;
+import de.bsommerfeld.orchestra.persistence.path.PlatformPathProvider;
+import de.bsommerfeld.orchestra.persistence.path.StorageLocation;
+import de.bsommerfeld.orchestra.persistence.repository.JsonSymphonyRepository;
+import de.bsommerfeld.orchestra.persistence.repository.SymphonyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExternalChangeDetectorTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Mock
+    private PlatformPathProvider pathProvider;
+
+    @Mock
+    private SymphonyRepository repository;
+
+    @TempDir
+    Path tempDir;
+
+    private JsonSymphonyRepository fileRepository;
+    private BlockingQueue<SymphonyChangedEvent> events;
+    private ExternalChangeDetector detector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(pathProvider.getSymphonyDirectory()).thenReturn(tempDir.resolve("symphonies"));
+        when(pathProvider.getLegacyStorageDirectory()).thenReturn(Files.createDirectories(tempDir.resolve("legacy")));
+        fileRepository = new JsonSymphonyRepository(new StreamingSymphonyCodec(), new StorageLocation(pathProvider),
+                PersistenceSettings.builder().build());
+
+        events = new LinkedBlockingQueue<>();
+        SymphonyChangeEvents changeEvents = new SymphonyChangeEvents();
+        changeEvents.addListener(events::add);
+        detector = new ExternalChangeDetector(fileRepository, repository, changeEvents, Duration.ofMillis(100));
+        detector.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.close();
+    }
+
+    @Test
+    void acknowledgeChange_shouldNotReportOwnWritesButReportExternalOnesOnce() throws IOException {
+        // Arrange
+        fileRepository.save(new Symphony(TEST_TITLE, "Description", null));
+        Path file = fileRepository.resolvePath(TEST_TITLE);
+
+        // Act
+        boolean ownWrite = fileRepository.acknowledgeChange(file);
+        Files.writeString(file, Files.readString(file) + "\n");
+        boolean externalWrite = fileRepository.acknowledgeChange(file);
+        boolean repeated = fileRepository.acknowledgeChange(file);
+
+        // Assert
+        assertFalse(ownWrite);
+        assertTrue(externalWrite);
+        assertFalse(repeated);
+    }
+
+    @Test
+    void start_shouldInvalidateAndPublishExternalModification() throws Exception {
+        // Arrange
+        fileRepository.save(new Symphony(TEST_TITLE, "Description", null));
+        Path file = fileRepository.resolvePath(TEST_TITLE);
+
+        // Act
+        Files.writeString(file, Files.readString(file).replace("Description", "Changed elsewhere"));
+
+        // Assert
+        SymphonyChangedEvent event = events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(new SymphonyChangedEvent(TEST_TITLE, SymphonyChangedEvent.Kind.MODIFIED), event);
+        verify(repository).invalidate(TEST_TITLE);
+    }
+
+    @Test
+    void start_shouldPublishExternalDeletion() throws Exception {
+        // Arrange
+        fileRepository.save(new Symphony(TEST_TITLE, "Description", null));
+        Path file = fileRepository.resolvePath(TEST_TITLE);
+
+        // Act
+        Files.delete(file);
+
+        // Assert
+        SymphonyChangedEvent event = events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(new SymphonyChangedEvent(TEST_TITLE, SymphonyChangedEvent.Kind.DELETED), event);
+    }
+
+    @Test
+    void start_shouldNotPublishOwnChanges() throws Exception {
+        // Act
+        fileRepository.save(new Symphony(TEST_TITLE, "Description", null));
+        fileRepository.deleteById(TEST_TITLE);
+        fileRepository.save(new Symphony("Other", "Description", null));
+
+        // Assert
+        assertNull(events.poll(1, TimeUnit.SECONDS));
+        verify(repository, never()).invalidate(anyString());
+    }
+}
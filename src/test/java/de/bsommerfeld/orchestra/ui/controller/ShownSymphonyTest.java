@@ -0,0 +1,169 @@
+package de.bsommerfeld.orchestra.ui.controller;
+
+import de.bsommerfeld.orchestra.model.Choir;
+import de.bsommerfeld.orchestra.model.Symphony;
+import de.bsommerfeld.orchestra.model.Voice;
+import de.bsommerfeld.orchestra.model.VoicePath;
+import de.bsommerfeld.orchestra.model.diff.TreeDiff;
+import de.bsommerfeld.orchestra.model.diff.TreeEdit;
+import de.bsommerfeld.orchestra.persistence.event.SymphonyEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShownSymphonyTest {
+
+    private static final String TEST_TITLE = "Test Symphony";
+
+    private ShownSymphony shown;
+    private Symphony current;
+
+    @BeforeEach
+    void setUp() {
+        shown = new ShownSymphony();
+        current = new Symphony(TEST_TITLE, null,
+                List.of(new Choir("choir", "Choir", null, List.of(new Voice("v1", "Voice", null, List.of(), false)))), 5);
+    }
+
+    @Test
+    void offer_shouldShowFirstSymphonyWithoutEdits() {
+        // Act
+        Optional<List<TreeEdit>> edits = shown.offer(current);
+
+        // Assert
+        assertEquals(Optional.of(List.of()), edits);
+        assertSame(current, shown.get());
+    }
+
+    @Test
+    void offer_shouldDropOlderSymphonyOfThisProcess() {
+        // Arrange
+        shown.offer(current);
+        Symphony older = new Symphony(TEST_TITLE, null, List.of(), 4);
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.offer(older);
+
+        // Assert
+        assertTrue(edits.isEmpty());
+        assertSame(current, shown.get());
+    }
+
+    @Test
+    void offer_shouldShowNewerSymphonyWithItsEdits() {
+        // Arrange
+        shown.offer(current);
+        Symphony newer = current.removeAt(VoicePath.of(0, 0)).withVersion(6);
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.offer(newer);
+
+        // Assert
+        assertEquals(Optional.of(List.of(new TreeEdit.Remove("v1"))), edits);
+        assertSame(newer, shown.get());
+    }
+
+    @Test
+    void replace_shouldShowReloadedSymphonyWithLowerVersion() {
+        // Arrange
+        shown.offer(current);
+        Symphony reloaded = new Symphony(TEST_TITLE, "Edited elsewhere",
+                List.of(new Choir("other", "Other", null, List.of())), 1);
+
+        // Act
+        List<TreeEdit> edits = shown.replace(reloaded);
+
+        // Assert
+        assertSame(reloaded, shown.get());
+        assertEquals(reloaded.getChoirs(), TreeDiff.apply(current, edits).getChoirs());
+    }
+
+    @Test
+    void offer_shouldCompareWithReloadedVersionAfterReplace() {
+        // Arrange
+        shown.offer(current);
+        shown.replace(new Symphony(TEST_TITLE, null, List.of(), 1));
+        Symphony saved = new Symphony(TEST_TITLE, null, List.of(), 2);
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.offer(saved);
+
+        // Assert
+        assertTrue(edits.isPresent());
+        assertSame(saved, shown.get());
+    }
+
+    @Test
+    void saved_shouldTurnEventsOfNextVersionIntoEdits() {
+        // Arrange
+        shown.offer(current);
+        Voice added = new Voice("v2", "Added", null, List.of(), false);
+        // Added at the end, then moved to the front
+        Symphony saved = current.insertAt(VoicePath.of(0, 0), added)
+                .updateAt(VoicePath.of(0, 1), voice -> voice.withCompleted(true))
+                .withVersion(6);
+        List<SymphonyEvent.Change> changes = List.of(
+                new SymphonyEvent.VoiceAdded(saved, "choir", 1, added),
+                new SymphonyEvent.VoiceCompletionChanged(saved, "v1", true),
+                new SymphonyEvent.VoiceMoved(saved, "v2", "choir", 0));
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.saved(changes);
+
+        // Assert
+        assertEquals(Optional.of(List.of(
+                new TreeEdit.InsertVoice("choir", 1, added),
+                new TreeEdit.UpdateVoice(saved.index().findVoice("v1").orElseThrow()),
+                new TreeEdit.Move("v2", "choir", 0))), edits);
+        assertEquals(saved.getChoirs(), TreeDiff.apply(current, edits.get()).getChoirs());
+        assertSame(saved, shown.get());
+    }
+
+    @Test
+    void saved_shouldCompareWithShownSymphonyWhenSaveDoesNotDirectlyFollowIt() {
+        // Arrange
+        shown.offer(current);
+        Symphony saved = current.removeAt(VoicePath.of(0, 0)).withVersion(7);
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.saved(List.of(new SymphonyEvent.VoiceRemoved(saved, "v1")));
+
+        // Assert
+        assertEquals(Optional.of(List.of(new TreeEdit.Remove("v1"))), edits);
+        assertSame(saved, shown.get());
+    }
+
+    @Test
+    void saved_shouldDropOlderSave() {
+        // Arrange
+        shown.offer(current);
+        Symphony older = current.removeAt(VoicePath.of(0, 0)).withVersion(4);
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.saved(List.of(new SymphonyEvent.VoiceRemoved(older, "v1")));
+
+        // Assert
+        assertTrue(edits.isEmpty());
+        assertSame(current, shown.get());
+    }
+
+    @Test
+    void saved_shouldReplaceTreeWhenSymphonyWasReplaced() {
+        // Arrange
+        shown.offer(current);
+        Symphony saved = new Symphony(TEST_TITLE, null,
+                List.of(new Choir("other", "Other", null, List.of())), 6);
+
+        // Act
+        Optional<List<TreeEdit>> edits = shown.saved(List.of(new SymphonyEvent.SymphonyReplaced(saved)));
+
+        // Assert
+        assertTrue(edits.isPresent());
+        assertEquals(saved.getChoirs(), TreeDiff.apply(current, edits.get()).getChoirs());
+        assertSame(saved, shown.get());
+    }
+}